@@ -150,6 +150,52 @@ public class ASTCacheTests extends BaseTestCase {
 		checkAccessWithConcurrentReconciler();
 	}
 
+	public void testRetainedASTs() throws Exception {
+		final ASTCache cache = new ASTCache(1, Long.MAX_VALUE);
+		assertFalse(cache.setActiveElement(fTU1, 1));
+		final IASTTranslationUnit ast1 = getAST(cache, fTU1, true);
+		assertNotNull(ast1);
+
+		// The AST of the previously active element is retained.
+		assertFalse(cache.setActiveElement(fTU2, 1));
+		assertTrue(cache.isRetained(fTU1, 1));
+		assertFalse(cache.isRetained(fTU1, 2));
+		assertNull(getAST(cache, fTU2, false));
+		assertNotNull(getAST(cache, fTU2, true));
+		assertTrue(cache.setActiveElement(fTU1, 1));
+		assertSame(ast1, getAST(cache, fTU1, false));
+
+		// The retained AST is not used for modified contents.
+		assertTrue(cache.isRetained(fTU2, 1));
+		assertFalse(cache.setActiveElement(fTU2, 2));
+		assertNull(getAST(cache, fTU2, false));
+
+		// The least recently used AST is evicted.
+		assertTrue(cache.isRetained(fTU1, 1));
+		IASTTranslationUnit ast2 = cache.createAST(fTU2, fIndex, null);
+		cache.setActiveElement(null);
+		cache.retainAST(fTU2, ast2, 3);
+		assertTrue(cache.isRetained(fTU2, 3));
+		assertFalse(cache.isRetained(fTU1, 1));
+		assertTrue(cache.setActiveElement(fTU2, 3));
+		assertSame(ast2, getAST(cache, fTU2, false));
+
+		cache.disposeRetainedASTs();
+		assertFalse(cache.isRetained(fTU1, 1));
+	}
+
+	private IASTTranslationUnit getAST(ASTCache cache, ITranslationUnit tUnit, boolean wait) {
+		final IASTTranslationUnit[] result = { null };
+		cache.runOnAST(tUnit, wait, null, new ASTRunnable() {
+			@Override
+			public IStatus runOnAST(ILanguage lang, IASTTranslationUnit ast) {
+				result[0] = ast;
+				return Status.OK_STATUS;
+			}
+		});
+		return result[0];
+	}
+
 	private void checkActiveElement() throws Exception {
 		ASTCache cache = new ASTCache();
 		assertFalse(cache.isActiveElement(fTU1));
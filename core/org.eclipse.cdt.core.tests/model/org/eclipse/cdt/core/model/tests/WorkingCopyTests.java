@@ -13,18 +13,23 @@
  *******************************************************************************/
 package org.eclipse.cdt.core.model.tests;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 
 import org.eclipse.cdt.core.dom.IPDOMManager;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.IBuffer;
 import org.eclipse.cdt.core.model.ICProject;
+import org.eclipse.cdt.core.model.ISourceRange;
+import org.eclipse.cdt.core.model.ISourceReference;
 import org.eclipse.cdt.core.model.ITranslationUnit;
 import org.eclipse.cdt.core.model.IWorkingCopy;
 import org.eclipse.cdt.core.testplugin.CProjectHelper;
 import org.eclipse.cdt.core.testplugin.CTestPlugin;
 import org.eclipse.cdt.core.testplugin.TestPluginLauncher;
+import org.eclipse.cdt.internal.core.model.CModelBuilder2;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -50,6 +55,7 @@ public class WorkingCopyTests extends TestCase {
 	public static Test suite() {
 		TestSuite suite = new TestSuite(WorkingCopyTests.class.getName());
 		suite.addTest(new WorkingCopyTests("testWorkingCopy"));
+		suite.addTest(new WorkingCopyTests("testReconcileEditWithinFunctionBody"));
 		//suite.addTest(new WorkingCopyTests("testHashing"));
 		return suite;
 	}
@@ -113,4 +119,50 @@ public class WorkingCopyTests extends TestCase {
 
 		Thread.sleep(1000);
 	}
+
+	private void reconcileWithAST(IWorkingCopy wc) throws Exception {
+		IASTTranslationUnit ast = wc.reconcile(true, true, monitor);
+		if (ast != null && ast.getIndex() != null) {
+			ast.getIndex().releaseReadLock();
+		}
+	}
+
+	public void testReconcileEditWithinFunctionBody() throws Exception {
+		String code = "int f() {\n\treturn 0;\n}\n\nint g() {\n\treturn 1;\n}\n";
+		IFile file = fCProject.getProject().getFile("ReconcileTest.cpp");
+		file.create(new ByteArrayInputStream(code.getBytes()), false, monitor);
+		ITranslationUnit tu = (ITranslationUnit) CoreModel.getDefault().create(file);
+		IWorkingCopy wc = tu.getWorkingCopy();
+		try {
+			reconcileWithAST(wc);
+			ISourceRange f = ((ISourceReference) wc.getElement("f")).getSourceRange();
+			ISourceRange g = ((ISourceReference) wc.getElement("g")).getSourceRange();
+
+			// Edit within the body of f.
+			long updates = CModelBuilder2.getIncrementalUpdateCount();
+			wc.getBuffer().replace(code.indexOf('0'), 1, "x + 42");
+			reconcileWithAST(wc);
+			assertEquals(updates + 1, CModelBuilder2.getIncrementalUpdateCount());
+			ISourceReference f2 = (ISourceReference) wc.getElement("f");
+			ISourceReference g2 = (ISourceReference) wc.getElement("g");
+			assertEquals(f.getStartPos(), f2.getSourceRange().getStartPos());
+			assertEquals(f.getLength() + 5, f2.getSourceRange().getLength());
+			assertEquals("int f() {\n\treturn x + 42;\n}", f2.getSource());
+			assertEquals(g.getStartPos() + 5, g2.getSourceRange().getStartPos());
+			assertEquals(g.getIdStartPos() + 5, g2.getSourceRange().getIdStartPos());
+			assertEquals(g.getStartLine(), g2.getSourceRange().getStartLine());
+			assertEquals("int g() {\n\treturn 1;\n}", g2.getSource());
+
+			// Edit changing the structure.
+			String contents = wc.getBuffer().getContents();
+			wc.getBuffer().replace(contents.indexOf("int g"), 0, "void h() {}\n");
+			updates = CModelBuilder2.getIncrementalUpdateCount();
+			reconcileWithAST(wc);
+			assertEquals(updates, CModelBuilder2.getIncrementalUpdateCount());
+			assertNotNull(wc.getElement("h"));
+			assertEquals("int g() {\n\treturn 1;\n}", ((ISourceReference) wc.getElement("g")).getSource());
+		} finally {
+			wc.destroy();
+		}
+	}
 }
@@ -7798,4 +7798,20 @@ public class AST2Tests extends AST2TestBase {
 		IASTAttributeSpecifier[] attributes = declSpec.getAttributeSpecifiers();
 		assertEquals(1, attributes.length);
 	}
+
+	//	int x;
+	//	void f(int y) {
+	//		x = y + x;
+	//	}
+	public void testNamesShareIdentifiers() throws Exception {
+		for (ParserLanguage lang : ParserLanguage.values()) {
+			IASTTranslationUnit tu = parse(getAboveComment(), lang);
+			NameCollector col = new NameCollector();
+			tu.accept(col);
+			assertEquals(6, col.size());
+			assertSame(col.getName(0).getSimpleID(), col.getName(3).getSimpleID());
+			assertSame(col.getName(0).getSimpleID(), col.getName(5).getSimpleID());
+			assertSame(col.getName(2).getSimpleID(), col.getName(4).getSimpleID());
+		}
+	}
 }
@@ -67,6 +67,8 @@ public class DOMParserTestSuite extends TestCase {
 		suite.addTest(AccessControlTests.suite());
 		suite.addTest(VariableReadWriteFlagsTest.suite());
 		suite.addTest(AST2CPPAttributeTests.suite());
+		suite.addTest(DeferredFunctionBodyTests.suite());
+		suite.addTest(TemplateInstanceCacheTests.suite());
 		// C++14 tests
 		suite.addTest(VariableTemplateTests.suite());
 		suite.addTestSuite(ReturnTypeDeductionTests.class);
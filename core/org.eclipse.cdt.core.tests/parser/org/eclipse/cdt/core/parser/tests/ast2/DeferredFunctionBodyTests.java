@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.parser.tests.ast2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTDeclarationStatement;
+import org.eclipse.cdt.core.dom.ast.IASTEqualsInitializer;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTInitializerList;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTProblem;
+import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.dom.ast.IFunction;
+import org.eclipse.cdt.core.dom.ast.IProblemBinding;
+import org.eclipse.cdt.core.dom.ast.IVariable;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTCompositeTypeSpecifier;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTSimpleDeclaration;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPField;
+import org.eclipse.cdt.core.dom.parser.cpp.GPPParserExtensionConfiguration;
+import org.eclipse.cdt.core.parser.FileContent;
+import org.eclipse.cdt.core.parser.IScanner;
+import org.eclipse.cdt.core.parser.ParserLanguage;
+import org.eclipse.cdt.core.parser.ParserMode;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTDeferredCompoundStatement;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.GNUCPPSourceParser;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPVisitor;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.ParallelNameResolution;
+
+import junit.framework.TestSuite;
+
+/**
+ * Tests for function bodies that are parsed when they are accessed.
+ */
+public class DeferredFunctionBodyTests extends AST2TestBase {
+
+	public static TestSuite suite() {
+		return suite(DeferredFunctionBodyTests.class);
+	}
+
+	private IASTTranslationUnit parseDeferred(String code) throws Exception {
+		return parseDeferred(code, Integer.MAX_VALUE);
+	}
+
+	private IASTTranslationUnit parseDeferred(String code, int limitTrivialInitializers) throws Exception {
+		IScanner scanner = createScanner(FileContent.create(TEST_CODE, code.toCharArray()), ParserLanguage.CPP,
+				ParserMode.COMPLETE_PARSE, createScannerInfo(true));
+		GNUCPPSourceParser parser = new GNUCPPSourceParser(scanner, ParserMode.COMPLETE_PARSE, NULL_LOG,
+				new GPPParserExtensionConfiguration(), null);
+		parser.setMaximumTrivialExpressionsInAggregateInitializers(limitTrivialInitializers);
+		parser.setDeferFunctionBodies(true);
+		IASTTranslationUnit tu = parser.parse();
+		assertTrue(tu.isFrozen());
+		assertFalse(parser.encounteredError());
+		return tu;
+	}
+
+	private static IASTCompoundStatement getBody(IASTTranslationUnit tu, int i) {
+		IASTDeclaration decl = tu.getDeclarations()[i];
+		return (IASTCompoundStatement) ((IASTFunctionDefinition) decl).getBody();
+	}
+
+	//	int g;
+	//	struct S { int m; };
+	//	int f(int p) {
+	//		S s;
+	//		for (int i = 0; i < p; i++)
+	//			g += s.m * i;
+	//		return g;
+	//	}
+	public void testBodyIsParsedOnAccess() throws Exception {
+		String code = getAboveComment();
+		IASTTranslationUnit tu = parseDeferred(code);
+		IASTCompoundStatement body = getBody(tu, 2);
+		assertTrue(body instanceof CPPASTDeferredCompoundStatement);
+		assertTrue(((CPPASTDeferredCompoundStatement) body).isDeferred());
+		assertEquals(code.indexOf("{\n\tS s;"), body.getFileLocation().getNodeOffset());
+
+		IASTStatement[] statements = body.getStatements();
+		assertFalse(((CPPASTDeferredCompoundStatement) body).isDeferred());
+		assertEquals(3, statements.length);
+		assertTrue(statements[0].isFrozen());
+		assertSame(body, statements[0].getParent());
+		assertEquals(code.indexOf("S s;"), statements[0].getFileLocation().getNodeOffset());
+		assertEquals(0, CPPVisitor.getProblems(tu).length);
+
+		BindingAssertionHelper bh = new BindingAssertionHelper(code, tu);
+		IVariable g = bh.assertNonProblem("g;", 1);
+		assertSame(g, bh.assertNonProblem("g +=", 1));
+		bh.assertNonProblem("m *", 1);
+		bh.assertNonProblem("p;", 1);
+		// The references in the body are found from the declaration.
+		IASTName[] refs = tu.getReferences(g);
+		assertEquals(2, refs.length);
+	}
+
+	//	void f() {
+	//		int x = 1;
+	//	}
+	//	void g() {
+	//		f();
+	//	}
+	public void testSameNodesAsCompleteParse() throws Exception {
+		String code = getAboveComment();
+		IASTTranslationUnit expected = parseAndCheckBindings(code, ParserLanguage.CPP, true);
+		IASTTranslationUnit tu = parseDeferred(code);
+		for (int i = 0; i < 2; i++) {
+			IASTStatement[] expectedStatements = getBody(expected, i).getStatements();
+			IASTStatement[] statements = getBody(tu, i).getStatements();
+			assertEquals(expectedStatements.length, statements.length);
+			for (int j = 0; j < statements.length; j++) {
+				assertEquals(expectedStatements[j].getClass(), statements[j].getClass());
+				assertEquals(expectedStatements[j].getRawSignature(), statements[j].getRawSignature());
+				assertEquals(expectedStatements[j].getFileLocation().getNodeOffset(),
+						statements[j].getFileLocation().getNodeOffset());
+			}
+		}
+		IFunction f = new BindingAssertionHelper(code, tu).assertNonProblem("f();", 1);
+		assertEquals(1, tu.getReferences(f).length);
+	}
+
+	//	struct A {
+	//		int get() { return 0; }
+	//	};
+	//	int h() {
+	//		struct L { int get() { return 1; } };
+	//		return 2;
+	//	}
+	public void testNestedBodiesAreNotDeferred() throws Exception {
+		IASTTranslationUnit tu = parseDeferred(getAboveComment());
+		ICPPASTSimpleDeclaration decl = (ICPPASTSimpleDeclaration) tu.getDeclarations()[0];
+		IASTFunctionDefinition member = (IASTFunctionDefinition) ((ICPPASTCompositeTypeSpecifier) decl
+				.getDeclSpecifier()).getMembers()[0];
+		assertFalse(member.getBody() instanceof CPPASTDeferredCompoundStatement);
+
+		IASTCompoundStatement body = getBody(tu, 1);
+		assertTrue(body instanceof CPPASTDeferredCompoundStatement);
+		assertEquals(2, body.getStatements().length);
+	}
+
+	//	constexpr int square(int x) { return x * x; }
+	//	auto half(int x) { return x / 2; }
+	//	int f() { return 0; }
+	//	int a[square(3)];
+	public void testBodiesNeededForDeclarationsAreNotDeferred() throws Exception {
+		IASTTranslationUnit tu = parseDeferred(getAboveComment());
+		assertFalse(getBody(tu, 0) instanceof CPPASTDeferredCompoundStatement);
+		assertFalse(getBody(tu, 1) instanceof CPPASTDeferredCompoundStatement);
+		assertTrue(getBody(tu, 2) instanceof CPPASTDeferredCompoundStatement);
+		assertEquals(0, CPPVisitor.getProblems(tu).length);
+	}
+
+	//	void f() {
+	//		int a[] = { 1, 2, 3, 4 };
+	//	}
+	public void testSettingsOfParserApplyToBody() throws Exception {
+		String code = getAboveComment();
+		IASTTranslationUnit expected = parse(code, ParserLanguage.CPP, true, true, 1);
+		IASTTranslationUnit tu = parseDeferred(code, 1);
+		IASTInitializerList expectedList = getInitializerList(getBody(expected, 0));
+		IASTInitializerList list = getInitializerList(getBody(tu, 0));
+		assertEquals(4, list.getSize());
+		assertEquals(expectedList.getClauses().length, list.getClauses().length);
+		assertTrue(list.getClauses().length < 4);
+	}
+
+	private static IASTInitializerList getInitializerList(IASTCompoundStatement body) {
+		IASTDeclarationStatement statement = (IASTDeclarationStatement) body.getStatements()[0];
+		IASTSimpleDeclaration declaration = (IASTSimpleDeclaration) statement.getDeclaration();
+		IASTEqualsInitializer initializer = (IASTEqualsInitializer) declaration.getDeclarators()[0].getInitializer();
+		return (IASTInitializerList) initializer.getInitializerClause();
+	}
+
+	//	template<typename T> struct A { static const int x = 1; };
+	//	int y;
+	//	int f() {
+	//		return A<int>::x < y;
+	//	}
+	public void testPendingAmbiguitiesOfBodyAreResolved() throws Exception {
+		String code = getAboveComment();
+		IASTTranslationUnit tu = parseDeferred(code);
+		getBody(tu, 2).getStatements();
+		assertEquals(0, CPPVisitor.getProblems(tu).length);
+		BindingAssertionHelper bh = new BindingAssertionHelper(code, tu);
+		bh.assertNonProblem("x <", 1);
+		bh.assertNonProblem("y;\n}", 1);
+	}
+
+	//	void f() {
+	//		int x = 1;
+	//		x = ;
+	//	}
+	//	void g() {
+	//	}
+	public void testSyntaxErrorInBodyIsReported() throws Exception {
+		String code = getAboveComment();
+		IASTTranslationUnit tu = parseDeferred(code);
+		IASTCompoundStatement body = getBody(tu, 0);
+		assertEquals(2, body.getStatements().length);
+		IASTProblem[] problems = CPPVisitor.getProblems(tu);
+		assertEquals(1, problems.length);
+		int offset = problems[0].getFileLocation().getNodeOffset();
+		assertTrue(offset >= code.indexOf("x = ;"));
+		assertTrue(offset < code.indexOf("}"));
+	}
+
+	//	int g;
+	//	int f() {
+	//		return g;
+	//	}
+	public void testBodySharesIdentifiersWithTranslationUnit() throws Exception {
+		IASTTranslationUnit tu = parseDeferred(getAboveComment());
+		getBody(tu, 1).getStatements();
+		NameCollector col = new NameCollector();
+		tu.accept(col);
+		assertEquals(3, col.size());
+		assertSame(col.getName(0).getSimpleID(), col.getName(2).getSimpleID());
+	}
+
+	public void testBodiesAreResolvedConcurrently() throws Exception {
+		StringBuilder code = new StringBuilder();
+		code.append("struct S { int m; int get() const { return m; } };\n"); //$NON-NLS-1$
+		code.append("int g;\n"); //$NON-NLS-1$
+		int count = 2 * ParallelNameResolution.MIN_FUNCTION_BODIES;
+		for (int i = 0; i < count; i++) {
+			code.append("int f" + i + "(S s) { S t = s; g += t.get(); return t.m * g; }\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		IASTTranslationUnit tu = parseDeferred(code.toString());
+		List<IASTStatement> bodies = ParallelNameResolution.getIndependentFunctionBodies(tu);
+		assertEquals(count + 1, bodies.size());
+
+		final List<IBinding> problems = Collections.synchronizedList(new ArrayList<>());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			assertTrue(ParallelNameResolution.parseFunctionBodies(pool, tu, bodies));
+			for (IASTStatement body : bodies) {
+				assertFalse(body instanceof CPPASTDeferredCompoundStatement
+						&& ((CPPASTDeferredCompoundStatement) body).isDeferred());
+			}
+			ParallelNameResolution.forEach(pool, tu, bodies, body -> body.accept(new ASTVisitor() {
+				{
+					shouldVisitNames = true;
+				}
+
+				@Override
+				public int visit(IASTName name) {
+					IBinding binding = name.resolveBinding();
+					if (binding == null || binding instanceof IProblemBinding) {
+						problems.add(binding);
+					}
+					return PROCESS_CONTINUE;
+				}
+			}));
+		} finally {
+			pool.shutdown();
+		}
+
+		assertEquals(0, problems.size());
+		BindingAssertionHelper bh = new BindingAssertionHelper(code.toString(), tu);
+		IVariable g = bh.assertNonProblem("g;", 1);
+		assertEquals(2 * count, tu.getReferences(g).length);
+		ICPPField m = bh.assertNonProblem("m;", 1);
+		assertEquals(count + 1, tu.getReferences(m).length);
+	}
+}
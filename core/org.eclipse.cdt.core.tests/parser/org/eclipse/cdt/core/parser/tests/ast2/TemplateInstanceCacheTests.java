@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.parser.tests.ast2;
+
+import static org.eclipse.cdt.core.dom.ast.IASTExpression.ValueCategory.PRVALUE;
+
+import org.eclipse.cdt.core.dom.ast.IValue;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPClassTemplate;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
+import org.eclipse.cdt.internal.core.dom.parser.CompositeValue;
+import org.eclipse.cdt.internal.core.dom.parser.IntegralValue;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPBasicType;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPTemplateNonTypeArgument;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPEvaluation;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPInstanceCache;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.TemplateInstanceCache;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.EvalFixed;
+
+import junit.framework.TestSuite;
+
+public class TemplateInstanceCacheTests extends AST2CPPTestBase {
+
+	public static TestSuite suite() {
+		return suite(TemplateInstanceCacheTests.class);
+	}
+
+	//	template<typename T> struct A {};
+	//	template<> struct A<char> {};
+	//	typedef int I;
+	//	typedef const I* CIP;
+	//	A<int> a1;
+	//	A<I> a2;
+	//	A<const int*> a3;
+	//	A<CIP> a4;
+	//	A<char> a5;
+	//	A<long> a6;
+	public void testArgumentsAreComparedAsTypes() throws Exception {
+		BindingAssertionHelper bh = getAssertionHelper();
+		ICPPTemplateInstance a1 = bh.assertNonProblem("A<int>", ICPPTemplateInstance.class);
+		ICPPTemplateInstance a2 = bh.assertNonProblem("A<I>", ICPPTemplateInstance.class);
+		ICPPTemplateInstance a3 = bh.assertNonProblem("A<const int*>", ICPPTemplateInstance.class);
+		ICPPTemplateInstance a4 = bh.assertNonProblem("A<CIP>", ICPPTemplateInstance.class);
+		assertSame(a1, a2);
+		assertSame(a3, a4);
+		assertNotSame(a1, a3);
+
+		ICPPClassTemplate template = bh.assertNonProblem("A {", 1, ICPPClassTemplate.class);
+		ICPPInstanceCache cache = (ICPPInstanceCache) template;
+		assertSame(a1, cache.getInstance(a2.getTemplateArguments()));
+		assertSame(a3, cache.getInstance(a4.getTemplateArguments()));
+	}
+
+	//	template<typename T> struct A {};
+	//	template<> struct A<char> {};
+	//	A<char> a1;
+	//	A<int> a2;
+	//	A<long> a3;
+	//	A<short> a4;
+	public void testBoundedSize() throws Exception {
+		BindingAssertionHelper bh = getAssertionHelper();
+		ICPPTemplateInstance explicit = bh.assertNonProblem("A<char>", ICPPTemplateInstance.class);
+		ICPPTemplateInstance a2 = bh.assertNonProblem("A<int>", ICPPTemplateInstance.class);
+		ICPPTemplateInstance a3 = bh.assertNonProblem("A<long>", ICPPTemplateInstance.class);
+		ICPPTemplateInstance a4 = bh.assertNonProblem("A<short>", ICPPTemplateInstance.class);
+		assertTrue(explicit.isExplicitSpecialization());
+
+		TemplateInstanceCache cache = new TemplateInstanceCache(2);
+		long evictions = TemplateInstanceCache.getEvictions();
+		cache.addInstance(explicit.getTemplateArguments(), explicit);
+		cache.addInstance(a2.getTemplateArguments(), a2);
+		cache.addInstance(a3.getTemplateArguments(), a3);
+		cache.addInstance(a4.getTemplateArguments(), a4);
+		assertEquals(3, cache.size());
+		assertEquals(evictions + 1, TemplateInstanceCache.getEvictions());
+
+		// The oldest implicit instance is evicted, explicit specializations are kept.
+		assertSame(explicit, cache.getInstance(explicit.getTemplateArguments()));
+		assertNull(cache.getInstance(a2.getTemplateArguments()));
+		assertSame(a3, cache.getInstance(a3.getTemplateArguments()));
+		assertSame(a4, cache.getInstance(a4.getTemplateArguments()));
+		assertEquals(3, cache.getAllInstances().length);
+	}
+
+	private static IValue createCompositeValue(long... elements) {
+		ICPPEvaluation[] values = new ICPPEvaluation[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			values[i] = new EvalFixed(CPPBasicType.INT, PRVALUE, IntegralValue.create(elements[i]));
+		}
+		return new CompositeValue(null, values);
+	}
+
+	//	template<typename T> struct A {};
+	//	A<int> a;
+	public void testCompositeArgumentsAreComparedByValue() throws Exception {
+		BindingAssertionHelper bh = getAssertionHelper();
+		ICPPTemplateInstance instance = bh.assertNonProblem("A<int>", ICPPTemplateInstance.class);
+		IValue v1 = createCompositeValue(1, 2);
+		IValue v2 = createCompositeValue(1, 2);
+		IValue v3 = createCompositeValue(1, 3);
+		assertEquals(v1, v2);
+		assertEquals(v1.hashCode(), v2.hashCode());
+		assertFalse(v1.equals(v3));
+
+		TemplateInstanceCache cache = new TemplateInstanceCache();
+		cache.addInstance(new ICPPTemplateArgument[] { new CPPTemplateNonTypeArgument(v1, CPPBasicType.INT) },
+				instance);
+		assertSame(instance,
+				cache.getInstance(new ICPPTemplateArgument[] { new CPPTemplateNonTypeArgument(v2, CPPBasicType.INT) }));
+		assertNull(
+				cache.getInstance(new ICPPTemplateArgument[] { new CPPTemplateNonTypeArgument(v3, CPPBasicType.INT) }));
+	}
+}
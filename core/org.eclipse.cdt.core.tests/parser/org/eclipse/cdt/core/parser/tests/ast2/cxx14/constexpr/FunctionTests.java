@@ -17,6 +17,7 @@ import org.eclipse.cdt.core.dom.ast.IASTInitializerClause;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPFunction;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPFunction;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPExecution;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.ConstexprEvaluationCache;
 
 import junit.framework.TestSuite;
 
@@ -290,4 +291,57 @@ public class FunctionTests extends TestBase {
 	public void testLambdaExpression2_560483() throws Exception {
 		assertEvaluationEquals(58);
 	}
-}
\ No newline at end of file
+
+	// constexpr int fib(int n) {
+	//   return n < 2 ? n : fib(n - 1) + fib(n - 2);
+	// }
+
+	// constexpr int x = fib(30);
+	public void testRepeatedCallsAreMemoized() throws Exception {
+		assertEvaluationEquals(832040);
+	}
+
+	// constexpr int square(int n) {
+	//   return n * n;
+	// }
+
+	// constexpr int x = square(7);
+	public void testRepeatedEvaluationIsLookedUp() throws Exception {
+		assertEvaluationEquals(49);
+		long hits = ConstexprEvaluationCache.getHits();
+		assertEvaluationEquals(49);
+		assertTrue(ConstexprEvaluationCache.getHits() > hits);
+	}
+
+	// constexpr void increment(int& n) {
+	//   n++;
+	// }
+	// constexpr int f() {
+	//   int n = 0;
+	//   increment(n);
+	//   increment(n);
+	//   return n;
+	// }
+
+	// constexpr int x = f();
+	public void testCallsModifyingArgumentsAreNotMemoized() throws Exception {
+		assertEvaluationEquals(2);
+	}
+
+	// constexpr int id(int x) {
+	//   return x;
+	// }
+	// constexpr int f() {
+	//   constexpr int n = 1;
+	//   return id(n);
+	// }
+	// constexpr int g() {
+	//   constexpr int n = 2;
+	//   return id(n);
+	// }
+
+	// constexpr int x = f() * 10 + g();
+	public void testCallsWithVariablesOfSameNameAreDistinguished() throws Exception {
+		assertEvaluationEquals(12);
+	}
+}
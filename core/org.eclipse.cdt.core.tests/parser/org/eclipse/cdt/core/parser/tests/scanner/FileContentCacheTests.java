@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.parser.tests.scanner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.CharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.FileCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.FileContentCache;
+
+import junit.framework.TestSuite;
+
+public class FileContentCacheTests extends BaseTestCase {
+	private static final long OLD_TIMESTAMP = 1000000000000L;
+
+	public static TestSuite suite() {
+		return suite(FileContentCacheTests.class);
+	}
+
+	private File fFile;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fFile != null) {
+			fFile.delete();
+		}
+		super.tearDown();
+	}
+
+	public void testContentKeyedByTimestampAndSize() throws Exception {
+		FileContentCache cache = new FileContentCache(1024 * 1024);
+		CharArray content = new CharArray("int x;");
+		cache.putContent("/a.h", "UTF-8", OLD_TIMESTAMP, 6, content);
+		assertSame(content, cache.getContent("/a.h", "UTF-8", OLD_TIMESTAMP, 6));
+		assertNull(cache.getContent("/a.h", "UTF-8", OLD_TIMESTAMP + 1, 6));
+		assertNull(cache.getContent("/a.h", "UTF-8", OLD_TIMESTAMP, 7));
+		assertNull(cache.getContent("/a.h", "ISO-8859-1", OLD_TIMESTAMP, 6));
+		assertNull(cache.getContent("/b.h", "UTF-8", OLD_TIMESTAMP, 6));
+		assertEquals(1, cache.getContentHits());
+		assertEquals(4, cache.getContentMisses());
+	}
+
+	public void testRecentlyModifiedFilesAreNotCached() throws Exception {
+		FileContentCache cache = new FileContentCache(1024 * 1024);
+		long now = System.currentTimeMillis();
+		cache.putContent("/a.h", "UTF-8", now, 6, new CharArray("int x;"));
+		assertNull(cache.getContent("/a.h", "UTF-8", now, 6));
+		cache.putDirectoryNames("/usr/include", "names", 0, new String[] { "stdio.h" });
+		assertNull(cache.getDirectoryNames("/usr/include", "names", 0));
+	}
+
+	public void testBoundedSize() throws Exception {
+		final int maxSize = 64 * 1024;
+		FileContentCache cache = new FileContentCache(maxSize);
+		char[] chars = new char[1000];
+		for (int i = 0; i < 100; i++) {
+			cache.putContent("/file" + i + ".h", "UTF-8", OLD_TIMESTAMP, chars.length, new CharArray(chars));
+			assertTrue(cache.getSize() <= maxSize);
+		}
+		assertTrue(cache.getEvictions() > 0);
+		// The least recently used entries are evicted.
+		assertNull(cache.getContent("/file0.h", "UTF-8", OLD_TIMESTAMP, chars.length));
+		assertNotNull(cache.getContent("/file99.h", "UTF-8", OLD_TIMESTAMP, chars.length));
+
+		// Entries that would use a large part of the cache are not stored.
+		assertFalse(cache.isCacheable(maxSize));
+		cache.putContent("/large.h", "UTF-8", OLD_TIMESTAMP, maxSize, new CharArray(new char[maxSize]));
+		assertNull(cache.getContent("/large.h", "UTF-8", OLD_TIMESTAMP, maxSize));
+	}
+
+	public void testDirectoryNames() throws Exception {
+		FileContentCache cache = new FileContentCache(1024 * 1024);
+		String[] names = { "STDIO.H", "STDLIB.H" };
+		cache.putDirectoryNames("/usr/include", "upperCaseNames", OLD_TIMESTAMP, names);
+		assertSame(names, cache.getDirectoryNames("/usr/include", "upperCaseNames", OLD_TIMESTAMP));
+		assertNull(cache.getDirectoryNames("/usr/include", "names", OLD_TIMESTAMP));
+		assertNull(cache.getDirectoryNames("/usr/include", "upperCaseNames", OLD_TIMESTAMP + 1));
+		assertEquals(1, cache.getDirectoryHits());
+		assertEquals(2, cache.getDirectoryMisses());
+	}
+
+	public void testFileCharArrayUsesSharedCache() throws Exception {
+		fFile = File.createTempFile("test", ".h");
+		try (FileOutputStream out = new FileOutputStream(fFile)) {
+			out.write("int x;".getBytes("UTF-8"));
+		}
+		assertTrue(fFile.setLastModified(OLD_TIMESTAMP));
+		AbstractCharArray first = create(fFile.lastModified());
+		AbstractCharArray second = create(fFile.lastModified());
+		assertSame(first, second);
+		assertEquals("int x;", second.toString());
+
+		// Without a modification stamp the content is not cached.
+		assertNotSame(first, create(0));
+	}
+
+	private AbstractCharArray create(long timestamp) throws IOException {
+		try (FileInputStream in = new FileInputStream(fFile)) {
+			return FileCharArray.create(fFile.getPath(), "UTF-8", in, timestamp);
+		}
+	}
+}
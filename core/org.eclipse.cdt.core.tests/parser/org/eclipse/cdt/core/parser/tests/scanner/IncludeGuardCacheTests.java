@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.parser.tests.scanner;
+
+import java.io.File;
+
+import org.eclipse.cdt.core.parser.Keywords;
+import org.eclipse.cdt.core.parser.util.CharArrayIntMap;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.parser.scanner.CharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.IncludeGuardCache;
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer.LexerOptions;
+
+import junit.framework.TestSuite;
+
+public class IncludeGuardCacheTests extends BaseTestCase {
+	private static final String GUARDED = "#ifndef GUARD_H\n#define GUARD_H\nint x;\n#endif\n";
+	private static final String UNGUARDED = "#ifndef GUARD_H\n#define GUARD_H\n#endif\nint x;\n";
+
+	public static TestSuite suite() {
+		return suite(IncludeGuardCacheTests.class);
+	}
+
+	private File fFile;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fFile != null) {
+			fFile.delete();
+		}
+		super.tearDown();
+	}
+
+	private static CharArrayIntMap getPPKeywords() {
+		CharArrayIntMap ppKeywords = new CharArrayIntMap(40, -1);
+		Keywords.addKeywordsPreprocessor(ppKeywords);
+		return ppKeywords;
+	}
+
+	private static String detect(IncludeGuardCache cache, String content, LexerOptions options) {
+		char[] guard = cache.detectIncludeGuard(new CharArray(content), options, getPPKeywords());
+		return guard == null ? null : new String(guard);
+	}
+
+	public void testDetectedOncePerContent() throws Exception {
+		IncludeGuardCache cache = new IncludeGuardCache(100);
+		LexerOptions options = new LexerOptions();
+		assertEquals("GUARD_H", detect(cache, GUARDED, options));
+		assertEquals("GUARD_H", detect(cache, GUARDED, options));
+		assertNull(detect(cache, UNGUARDED, options));
+		assertNull(detect(cache, UNGUARDED, options));
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getMisses());
+
+		// Different options of the lexer are cached separately.
+		LexerOptions other = (LexerOptions) options.clone();
+		other.fSupportRawStringLiterals = !options.fSupportRawStringLiterals;
+		assertEquals("GUARD_H", detect(cache, GUARDED, other));
+		assertEquals(3, cache.getMisses());
+	}
+
+	public void testBoundedSize() throws Exception {
+		IncludeGuardCache cache = new IncludeGuardCache(10);
+		LexerOptions options = new LexerOptions();
+		for (int i = 0; i < 100; i++) {
+			detect(cache, "#ifndef G" + i + "\n#define G" + i + "\n#endif\n", options);
+			assertTrue(cache.size() <= 10);
+		}
+	}
+
+	public void testSaveAndLoad() throws Exception {
+		fFile = File.createTempFile("guards", ".cache");
+		IncludeGuardCache cache = new IncludeGuardCache(100);
+		LexerOptions options = new LexerOptions();
+		detect(cache, GUARDED, options);
+		detect(cache, UNGUARDED, options);
+		cache.save(fFile);
+
+		IncludeGuardCache loaded = new IncludeGuardCache(100);
+		loaded.load(fFile);
+		assertEquals(2, loaded.size());
+		assertEquals("GUARD_H", detect(loaded, GUARDED, options));
+		assertNull(detect(loaded, UNGUARDED, options));
+		assertEquals(2, loaded.getHits());
+		assertEquals(0, loaded.getMisses());
+
+		// A missing file is ignored.
+		loaded = new IncludeGuardCache(100);
+		loaded.load(new File(fFile.getPath() + ".missing"));
+		assertEquals(0, loaded.size());
+	}
+}
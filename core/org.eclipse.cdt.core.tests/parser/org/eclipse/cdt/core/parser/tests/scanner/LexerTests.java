@@ -19,6 +19,8 @@ import org.eclipse.cdt.core.parser.IProblem;
 import org.eclipse.cdt.core.parser.IToken;
 import org.eclipse.cdt.core.parser.tests.ast2.TestLexerLog;
 import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.parser.scanner.CharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.ILexerLog;
 import org.eclipse.cdt.internal.core.parser.scanner.Lexer;
 import org.eclipse.cdt.internal.core.parser.scanner.Lexer.LexerOptions;
 import org.eclipse.cdt.internal.core.parser.scanner.Token;
@@ -861,4 +863,24 @@ public class LexerTests extends BaseTestCase {
 		token(IToken.tPOUND);
 		eof();
 	}
+
+	public void testDirectArrayAccess() throws Exception {
+		// The lexer reads the characters directly from the array when the end of the input is known,
+		// the result must not differ from reading them through the input.
+		String input = "int a_1 = 0x1fULL + 1.5e+3f + .5p-2;\r\n#define M(x) x ## \\\n y\n"
+				+ "char* s = \"a??/\"b\"; ??=pragma once\n$id @id \\u00e4b \u00e4\u00f6 12'34 ?";
+		LexerOptions options = new LexerOptions();
+		options.fSupportDigitSeparators = true;
+		Lexer direct = new Lexer(new CharArray(input), 0, input.length(), options, ILexerLog.NULL, null);
+		Lexer indirect = new Lexer(new CharArray(input), 0, -1, options, ILexerLog.NULL, null);
+		Token t;
+		do {
+			t = direct.nextToken();
+			Token expected = indirect.nextToken();
+			assertEquals(expected.getType(), t.getType());
+			assertEquals(expected.getOffset(), t.getOffset());
+			assertEquals(expected.getEndOffset(), t.getEndOffset());
+			assertEquals(expected.getImage(), t.getImage());
+		} while (t.getType() != IToken.tEND_OF_INPUT);
+	}
 }
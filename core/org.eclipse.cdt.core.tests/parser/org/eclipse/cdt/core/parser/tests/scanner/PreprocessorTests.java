@@ -18,6 +18,8 @@ package org.eclipse.cdt.core.parser.tests.scanner;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorMacroExpansion;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.parser.IProblem;
 import org.eclipse.cdt.core.parser.IToken;
 import org.eclipse.cdt.core.parser.ParserLanguage;
@@ -1363,4 +1365,93 @@ public class PreprocessorTests extends PreprocessorTestsBase {
 		validateProblem(0, IProblem.SCANNER_CONSTANT_WITH_BAD_SUFFIX, "ASDF");
 		validateProblem(1, IProblem.SCANNER_CONSTANT_WITH_BAD_SUFFIX, "xU");
 	}
+
+	// #define ONE 1
+	// #define ADD(x, y) (x + y)
+	// ADD(ONE, 2) ADD(ONE, 2) ADD(ONE, 3)
+	public void testRepeatedMacroExpansions() throws Exception {
+		initializeScanner();
+		for (String second : new String[] { "2", "2", "3" }) {
+			validateToken(IToken.tLPAREN);
+			validateInteger("1");
+			validateToken(IToken.tPLUS);
+			validateInteger(second);
+			validateToken(IToken.tRPAREN);
+		}
+		validateEOF();
+		validateProblemCount(0);
+	}
+
+	// #define VALUE 1
+	// #define GET VALUE
+	// GET
+	// #undef VALUE
+	// GET
+	// #define VALUE 2
+	// GET
+	public void testRepeatedMacroExpansionsAfterRedefinition() throws Exception {
+		initializeScanner();
+		validateInteger("1");
+		validateIdentifier("VALUE");
+		validateInteger("2");
+		validateEOF();
+		validateProblemCount(0);
+	}
+
+	// #define STR(x) #x
+	// STR(a+b) STR(a + b) STR(a+b)
+	public void testRepeatedStringification() throws Exception {
+		initializeScanner();
+		validateString("a+b");
+		validateString("a + b");
+		validateString("a+b");
+		validateEOF();
+		validateProblemCount(0);
+	}
+
+	// #define LINE __LINE__
+	// #define NEXT __COUNTER__
+	// LINE NEXT
+	// LINE NEXT
+	public void testRepeatedDynamicMacroExpansions() throws Exception {
+		initializeScanner();
+		validateInteger("3");
+		validateInteger("0");
+		validateInteger("4");
+		validateInteger("1");
+		validateEOF();
+		validateProblemCount(0);
+	}
+
+	// #define f(x) x g
+	// #define g(x) -x
+	// f(1) f(1)(2) f(1)
+	public void testRepeatedExpansionsConsumingSubsequentTokens() throws Exception {
+		initializeScanner();
+		validateInteger("1");
+		validateIdentifier("g");
+		validateInteger("1");
+		validateToken(IToken.tMINUS);
+		validateInteger("2");
+		validateInteger("1");
+		validateIdentifier("g");
+		validateEOF();
+		validateProblemCount(0);
+	}
+
+	// #define INNER 1
+	// #define OUTER INNER
+	// int a = OUTER;
+	// int b = OUTER;
+	public void testNestedExpansionsOfRepeatedMacros() throws Exception {
+		initializeScanner();
+		IASTTranslationUnit tu = parse();
+		IASTPreprocessorMacroExpansion[] expansions = tu.getMacroExpansions();
+		assertEquals(2, expansions.length);
+		for (IASTPreprocessorMacroExpansion expansion : expansions) {
+			assertEquals("OUTER", expansion.getMacroReference().toString());
+			assertEquals(1, expansion.getNestedMacroReferences().length);
+			assertEquals("INNER", expansion.getNestedMacroReferences()[0].toString());
+		}
+	}
 }
@@ -32,6 +32,7 @@ import org.eclipse.cdt.internal.core.index.IIndexFragmentFileSet;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentInclude;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentName;
 import org.eclipse.cdt.internal.core.index.IIndexScope;
+import org.eclipse.cdt.internal.core.pdom.dom.IPDOMIterator;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -100,6 +101,11 @@ public class EmptyIndexFragment implements IIndexFragment {
 		return IIndexFragmentName.EMPTY_NAME_ARRAY;
 	}
 
+	@Override
+	public IPDOMIterator<IIndexFragmentName> iterateNames(IBinding binding, int flags) {
+		return IPDOMIterator.empty();
+	}
+
 	@Override
 	public IIndexFragmentBinding[] findMacroContainers(Pattern pattern, IndexFilter filter, IProgressMonitor monitor) {
 		return IIndexFragmentBinding.EMPTY_INDEX_BINDING_ARRAY;
@@ -142,6 +148,11 @@ public class EmptyIndexFragment implements IIndexFragment {
 		return 0;
 	}
 
+	@Override
+	public long getModificationCount() {
+		return 0;
+	}
+
 	@Override
 	public IIndexLinkage[] getLinkages() {
 		return IIndexLinkage.EMPTY_INDEX_LINKAGE_ARRAY;
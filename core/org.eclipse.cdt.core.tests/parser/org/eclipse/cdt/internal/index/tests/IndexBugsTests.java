@@ -20,12 +20,19 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.browser.AllTypesCache;
+import org.eclipse.cdt.core.browser.ITypeInfo;
+import org.eclipse.cdt.core.browser.TypeSearchScope;
 import org.eclipse.cdt.core.dom.ILinkage;
 import org.eclipse.cdt.core.dom.IName;
 import org.eclipse.cdt.core.dom.IPDOMManager;
@@ -88,6 +95,7 @@ import org.eclipse.cdt.core.testplugin.TestScannerProvider;
 import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
 import org.eclipse.cdt.core.testplugin.util.TestSourceReader;
 import org.eclipse.cdt.internal.core.dom.parser.ASTNode;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.ParallelNameResolution;
 import org.eclipse.cdt.internal.core.pdom.CModelListener;
 import org.eclipse.cdt.internal.core.pdom.indexer.IndexerPreferences;
 import org.eclipse.core.resources.IContainer;
@@ -1422,6 +1430,157 @@ public class IndexBugsTests extends BaseTestCase {
 		}
 	}
 
+	// inline int inlineInHeader() { return 0; }
+	// struct StructInHeader { int field; };
+
+	// #include "header.h"
+	// int f1() {
+	//    StructInHeader s;
+	//    return s.field + inlineInHeader();
+	// }
+	public void testParallelIndexing() throws Exception {
+		String[] contents = getContentsForTest(2);
+		final int sourceCount = 20;
+		IndexerPreferences.set(fCProject.getProject(), IndexerPreferences.KEY_INDEXER_THREADS, "4");
+		final IIndexManager indexManager = CCorePlugin.getIndexManager();
+		IFile header = TestSourceReader.createFile(fCProject.getProject(), "header.h", contents[0]);
+		for (int i = 0; i < sourceCount; i++) {
+			TestSourceReader.createFile(fCProject.getProject(), "source" + i + ".cpp", contents[1]);
+		}
+		indexManager.reindex(fCProject);
+		waitForIndexer();
+		fIndex.acquireReadLock();
+		try {
+			// The header is parsed by several workers, the index has to contain a single version of it.
+			getIndexFile(header);
+			IIndexBinding[] bindings = fIndex.findBindings("inlineInHeader".toCharArray(), IndexFilter.ALL, npm());
+			assertEquals(1, bindings.length);
+			assertEquals(sourceCount, fIndex.findReferences(bindings[0]).length);
+			bindings = fIndex.findBindings("StructInHeader".toCharArray(), IndexFilter.ALL, npm());
+			assertEquals(1, bindings.length);
+			assertEquals(sourceCount, fIndex.findReferences(bindings[0]).length);
+			assertEquals(1, fIndex.findDefinitions(bindings[0]).length);
+		} finally {
+			fIndex.releaseReadLock();
+		}
+	}
+
+	//	namespace ns {
+	//		template<typename T> struct Box {
+	//			T value;
+	//			T get() const { return value; }
+	//		};
+	//		struct Base {
+	//			virtual int f(int x) const;
+	//			int m;
+	//		};
+	//		struct Derived : Base {
+	//			int f(int x) const override;
+	//		};
+	//		int helper(const Base& b);
+	//		int helper(int i);
+	//		constexpr int twice(int x) { return 2 * x; }
+	//	}
+	//	using namespace ns;
+	//	int Derived::f(int x) const { return x + m; }
+	public void testConcurrentNameResolution() throws Exception {
+		StringBuilder code = new StringBuilder(getContentsForTest(1)[0]);
+		for (int i = 0; i < 2 * ParallelNameResolution.MIN_FUNCTION_BODIES; i++) {
+			code.append("int f" + i + "(Box<int> b, const Derived& d) {\n");
+			code.append("  struct Local { Box<Derived> bd; } l;\n");
+			code.append("  int v = b.get() + d.f(twice(" + i + ")) + helper(d) + helper(b.value);\n");
+			code.append("  return v + l.bd.get().m;\n");
+			code.append("}\n");
+		}
+		IFile file = TestSourceReader.createFile(fCProject.getProject(), "source.cpp", code.toString());
+		final IIndexManager indexManager = CCorePlugin.getIndexManager();
+		indexManager.reindex(fCProject);
+		waitForIndexer();
+		String sequential = getNamesInIndex(file);
+
+		IndexerPreferences.set(fCProject.getProject(), IndexerPreferences.KEY_INDEXER_THREADS, "4");
+		IndexerPreferences.set(fCProject.getProject(), IndexerPreferences.KEY_RESOLVE_NAMES_CONCURRENTLY, "true");
+		indexManager.reindex(fCProject);
+		waitForIndexer();
+		// The index must not depend on the threads resolving the names.
+		assertEquals(sequential, getNamesInIndex(file));
+	}
+
+	/**
+	 * Returns a sorted description of the names of the given file in the index with their
+	 * bindings.
+	 */
+	private String getNamesInIndex(IFile file) throws Exception {
+		fIndex.acquireReadLock();
+		try {
+			List<String> lines = new ArrayList<>();
+			for (IIndexName name : getIndexFile(file).findNames(0, Integer.MAX_VALUE)) {
+				IIndexBinding binding = fIndex.findBinding(name);
+				StringBuilder line = new StringBuilder();
+				line.append(name.getNodeOffset()).append(',').append(name.getNodeLength());
+				line.append(name.isDefinition() ? " def " : name.isDeclaration() ? " decl " : " ref ");
+				if (binding != null) {
+					line.append(String.join("::", binding.getQualifiedName()));
+					if (binding instanceof IFunction) {
+						line.append(' ').append(ASTTypeUtil.getType(((IFunction) binding).getType()));
+					} else if (binding instanceof IVariable) {
+						line.append(' ').append(ASTTypeUtil.getType(((IVariable) binding).getType()));
+					}
+				}
+				lines.add(line.toString());
+			}
+			assertFalse(lines.isEmpty());
+			Collections.sort(lines);
+			return String.join("\n", lines);
+		} finally {
+			fIndex.releaseReadLock();
+		}
+	}
+
+	// int functionInFirstProject() { return 1; }
+
+	// int functionInSecondProject() { return 2; }
+	public void testConcurrentProjectIndexing() throws Exception {
+		String[] contents = getContentsForTest(2);
+		ICProject p2 = CProjectHelper.createCCProject("__bugsTest_2_", "bin", IPDOMManager.ID_FAST_INDEXER);
+		try {
+			// The second project is preferred when all indexer jobs are busy.
+			IndexerPreferences.set(p2.getProject(), IndexerPreferences.KEY_INDEXER_PRIORITY, "1");
+			for (int i = 0; i < 10; i++) {
+				TestSourceReader.createFile(fCProject.getProject(), "source" + i + ".cpp",
+						contents[0].replace("Project", "Project" + i));
+			}
+			TestSourceReader.createFile(p2.getProject(), "source.cpp", contents[1]);
+			final IIndexManager indexManager = CCorePlugin.getIndexManager();
+			indexManager.reindex(fCProject);
+			indexManager.reindex(p2);
+			waitForIndexer();
+			waitForIndexer(p2);
+
+			fIndex.acquireReadLock();
+			try {
+				for (int i = 0; i < 10; i++) {
+					IIndexBinding[] bindings = fIndex.findBindings(("functionInFirstProject" + i).toCharArray(),
+							IndexFilter.ALL, npm());
+					assertEquals(1, bindings.length);
+				}
+			} finally {
+				fIndex.releaseReadLock();
+			}
+			IIndex index = indexManager.getIndex(p2);
+			index.acquireReadLock();
+			try {
+				IIndexBinding[] bindings = index.findBindings("functionInSecondProject".toCharArray(),
+						IndexFilter.ALL, npm());
+				assertEquals(1, bindings.length);
+			} finally {
+				index.releaseReadLock();
+			}
+		} finally {
+			CProjectHelper.delete(p2);
+		}
+	}
+
 	// static const int staticConstInHeader= 12;
 
 	// #include "header.h"
@@ -2637,4 +2796,33 @@ public class IndexBugsTests extends BaseTestCase {
 		}
 	}
 
+	//	class AbstractBase {};
+	//	struct ABC {};
+
+	//	class AnotherBuffer {};
+	public void testTypeCacheIsUpdated() throws Exception {
+		String[] contents = getContentsForTest(2);
+		final int[] kinds = { ICElement.C_CLASS, ICElement.C_STRUCT };
+		TypeSearchScope scope = new TypeSearchScope(fCProject);
+		TestSourceReader.createFile(fCProject.getProject(), "types.cpp", contents[0]);
+		CCorePlugin.getIndexManager().reindex(fCProject);
+		waitForIndexer();
+
+		assertTypeNames(AllTypesCache.getTypes(scope, kinds, "AB", false), "ABC", "AbstractBase");
+		assertTypeNames(AllTypesCache.getTypes(scope, kinds, "ABa", false), "AbstractBase");
+		assertTypeNames(AllTypesCache.getTypes(scope, kinds, "abs", true), "AbstractBase");
+
+		TestSourceReader.createFile(fCProject.getProject(), "other.cpp", contents[1]);
+		waitForIndexer();
+		assertTypeNames(AllTypesCache.getTypes(scope, kinds, "AB", false), "ABC", "AbstractBase", "AnotherBuffer");
+		assertTypeNames(AllTypesCache.getTypes(scope, new int[] { ICElement.C_STRUCT }, "AB", false), "ABC");
+	}
+
+	private void assertTypeNames(ITypeInfo[] types, String... expected) {
+		Set<String> names = new HashSet<>();
+		for (ITypeInfo type : types) {
+			names.add(type.getName());
+		}
+		assertEquals(new HashSet<>(Arrays.asList(expected)), names);
+	}
 }
@@ -14,6 +14,9 @@
 package org.eclipse.cdt.internal.index.tests;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.CCorePlugin;
@@ -23,6 +26,7 @@ import org.eclipse.cdt.core.index.IIndex;
 import org.eclipse.cdt.core.index.IIndexBinding;
 import org.eclipse.cdt.core.index.IIndexFile;
 import org.eclipse.cdt.core.index.IIndexName;
+import org.eclipse.cdt.core.index.IIndexNameCursor;
 import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.core.index.IndexLocationFactory;
 import org.eclipse.cdt.core.model.ICProject;
@@ -31,6 +35,8 @@ import org.eclipse.cdt.core.testplugin.CTestPlugin;
 import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
 import org.eclipse.cdt.core.testplugin.util.TestSourceReader;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPVisitor;
+import org.eclipse.cdt.internal.core.index.IWritableIndex;
+import org.eclipse.cdt.internal.core.index.IWritableIndexManager;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -484,4 +490,78 @@ public class IndexNamesTests extends BaseTestCase {
 
 		checkReadWriteFlags(file, ILinkage.CPP_LINKAGE_ID, 2);
 	}
+
+	//	int var;
+	//	void f1() { var = 1; }
+	//	void f2() { var = 2; }
+	//	void f3() { var = 3; }
+	//	void f4() { var = 4; }
+	public void testNameCursor() throws Exception {
+		waitForIndexer();
+		String content = getComment();
+		IFile file = createFile(getProject().getProject(), "testNameCursor.cpp", content);
+		waitUntilFileIsIndexed(file, 4000);
+
+		fIndex.acquireReadLock();
+		try {
+			IIndexBinding[] varBS = fIndex.findBindings(getPattern("var"), true, IndexFilter.ALL, npm());
+			assertLength(1, varBS);
+			IIndexName[] expected = fIndex.findNames(varBS[0], IIndex.FIND_ALL_OCCURRENCES);
+			assertLength(5, expected);
+
+			IIndexNameCursor cursor = fIndex.findNameCursor(varBS[0], IIndex.FIND_ALL_OCCURRENCES);
+			List<IIndexName> names = new ArrayList<>();
+			while (cursor.hasNext()) {
+				IIndexName[] batch = cursor.next(2);
+				assertTrue(batch.length > 0 && batch.length <= 2);
+				names.addAll(Arrays.asList(batch));
+			}
+			assertLength(0, cursor.next(2));
+			assertTrue(cursor.isValid());
+			assertEquals(expected.length, names.size());
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i].getNodeOffset(), names.get(i).getNodeOffset());
+			}
+		} finally {
+			fIndex.releaseReadLock();
+		}
+	}
+
+	//	int var;
+	//	void f() { var = 1; }
+	public void testNameCursorDetectsModification() throws Exception {
+		waitForIndexer();
+		String content = getComment();
+		IFile file = createFile(getProject().getProject(), "testNameCursorDetectsModification.cpp", content);
+		waitUntilFileIsIndexed(file, 4000);
+
+		IIndexNameCursor cursor;
+		fIndex.acquireReadLock();
+		try {
+			IIndexBinding[] varBS = fIndex.findBindings(getPattern("var"), true, IndexFilter.ALL, npm());
+			assertLength(1, varBS);
+			cursor = fIndex.findNameCursor(varBS[0], IIndex.FIND_ALL_OCCURRENCES);
+			assertTrue(cursor.hasNext());
+		} finally {
+			fIndex.releaseReadLock();
+		}
+
+		// A write lock without changes does not update the last write access, it still invalidates
+		// the cursor.
+		IWritableIndex index = ((IWritableIndexManager) CCorePlugin.getIndexManager()).getWritableIndex(fCProject);
+		index.acquireWriteLock(npm());
+		index.releaseWriteLock();
+
+		fIndex.acquireReadLock();
+		try {
+			assertFalse(cursor.isValid());
+			try {
+				cursor.hasNext();
+				fail();
+			} catch (CoreException e) {
+			}
+		} finally {
+			fIndex.releaseReadLock();
+		}
+	}
 }
@@ -119,6 +119,104 @@ public class BTreeTests extends BaseTestCase {
 		}
 	}
 
+	/**
+	 * Bulk insertion of records with duplicates into empty and populated B-trees.
+	 */
+	public void testBulkInsert() throws Exception {
+		Random random = new Random(4711);
+		for (int degree = 2; degree <= 12; degree += 5) {
+			init(degree);
+			try {
+				SortedSet<Integer> expected = new TreeSet<>();
+				for (int round = 0; round < 3; round++) {
+					long[] records = new long[random.nextInt(20000)];
+					for (int i = 0; i < records.length; i++) {
+						int value = random.nextInt(30000);
+						expected.add(value);
+						records[i] = new BTMockRecord(db, value).getRecord();
+					}
+					btree.bulkInsert(records);
+					assertBTreeMatchesSortedSet("[round " + round + "] ", btree, expected);
+					assertBTreeInvariantsHold("[round " + round + "] ");
+				}
+
+				// The packed B-tree can be modified as usual.
+				for (int i = 0; i < 1000; i++) {
+					int value = 30000 + random.nextInt(1000);
+					expected.add(value);
+					btree.insert(new BTMockRecord(db, value).getRecord());
+				}
+				assertBTreeMatchesSortedSet("[insert] ", btree, expected);
+				assertBTreeInvariantsHold("[insert] ");
+			} finally {
+				finish();
+			}
+		}
+	}
+
+	public void testPack() throws Exception {
+		init(8);
+		try {
+			Random random = new Random(90210);
+			SortedSet<Integer> expected = new TreeSet<>();
+			for (int i = 0; i < 10000; i++) {
+				int value = random.nextInt(Integer.MAX_VALUE);
+				if (expected.add(value)) {
+					btree.insert(new BTMockRecord(db, value).getRecord());
+				}
+			}
+			final int nodesBefore = countNodes();
+			btree.pack();
+			assertBTreeMatchesSortedSet("[pack] ", btree, expected);
+			assertBTreeInvariantsHold("[pack] ");
+			assertTrue(countNodes() < nodesBefore);
+
+			btree.clear();
+			assertBTreeMatchesSortedSet("[clear] ", btree, new TreeSet<>());
+		} finally {
+			finish();
+		}
+	}
+
+	public void testPackSmallTrees() throws Exception {
+		for (int size = 1; size <= 60; size++) {
+			init(2);
+			try {
+				SortedSet<Integer> expected = new TreeSet<>();
+				for (int i = 0; i < size; i++) {
+					expected.add(i);
+					btree.insert(new BTMockRecord(db, i).getRecord());
+				}
+				btree.pack();
+				assertBTreeMatchesSortedSet("[pack " + size + "] ", btree, expected);
+				assertBTreeInvariantsHold("[pack " + size + "] ");
+			} finally {
+				finish();
+			}
+		}
+	}
+
+	private int countNodes() throws CoreException {
+		final int[] count = new int[1];
+		btree.accept(new IBTreeVisitor() {
+			@Override
+			public void preVisit(long node) throws CoreException {
+				count[0]++;
+			}
+
+			@Override
+			public int compare(long record) throws CoreException {
+				return 0;
+			}
+
+			@Override
+			public boolean visit(long record) throws CoreException {
+				return true;
+			}
+		});
+		return count[0];
+	}
+
 	/**
 	 * Insert/Delete a random number of records into/from the B-tree
 	 * @param seed the seed for obtaining the deterministic random testing
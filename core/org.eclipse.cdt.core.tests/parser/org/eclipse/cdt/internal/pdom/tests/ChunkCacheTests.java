@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.cdt.core.testplugin.CTestPlugin;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import junit.framework.Test;
+
+/**
+ * Tests for the {@link ChunkCache} class.
+ */
+public class ChunkCacheTests extends BaseTestCase {
+	private static final int CACHE_CHUNKS = 64;
+
+	private ChunkCache cache;
+	private final List<Database> databases = new ArrayList<>();
+
+	public static Test suite() {
+		return suite(ChunkCacheTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		cache = new ChunkCache(CACHE_CHUNKS * Database.CHUNK_SIZE);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (Database db : databases) {
+			db.setExclusiveLock();
+			db.close();
+			if (!db.getLocation().delete()) {
+				db.getLocation().deleteOnExit();
+			}
+		}
+		databases.clear();
+		super.tearDown();
+	}
+
+	private IPath getTestDir() {
+		IPath path = CTestPlugin.getDefault().getStateLocation().append("tests/");
+		File file = path.toFile();
+		if (!file.exists())
+			file.mkdir();
+		return path;
+	}
+
+	/**
+	 * Creates a database with one record per chunk and leaves it open for reading.
+	 */
+	private Database createDatabase(long[] records) throws CoreException {
+		File file = getTestDir().append(getName() + databases.size() + System.currentTimeMillis() + ".dat")
+				.toFile();
+		Database db = new Database(file, cache, 0, false);
+		databases.add(db);
+		db.setExclusiveLock();
+		for (int i = 0; i < records.length; i++) {
+			records[i] = db.malloc(Database.MAX_MALLOC_SIZE);
+			db.putInt(records[i], i);
+		}
+		db.flush();
+		db.giveUpExclusiveLock(true);
+		return db;
+	}
+
+	private void readAll(Database db, long[] records, int rounds) throws CoreException {
+		for (int r = 0; r < rounds; r++) {
+			for (int i = 0; i < records.length; i++) {
+				assertEquals(i, db.getInt(records[i]));
+			}
+		}
+	}
+
+	public void testCacheSizeIsLimited() throws Exception {
+		long[] records = new long[CACHE_CHUNKS * 4];
+		Database db = createDatabase(records);
+		readAll(db, records, 2);
+		assertTrue(cache.getCachedChunkCount() <= CACHE_CHUNKS);
+		assertTrue(cache.getEvictions() > 0);
+	}
+
+	public void testCounters() throws Exception {
+		long[] records = new long[8];
+		Database db = createDatabase(records);
+		readAll(db, records, 1);
+		db.resetCacheCounters();
+		readAll(db, records, 3);
+		assertEquals(24, db.getCacheHits());
+		assertEquals(0, db.getCacheMisses());
+		assertEquals(0, db.getCacheEvictions());
+	}
+
+	public void testScanDoesNotEvictHotChunks() throws Exception {
+		long[] hot = new long[8];
+		long[] scanned = new long[CACHE_CHUNKS * 10];
+		Database hotDB = createDatabase(hot);
+		Database scannedDB = createDatabase(scanned);
+		readAll(hotDB, hot, 3);
+
+		hotDB.resetCacheCounters();
+		readAll(scannedDB, scanned, 2);
+		readAll(hotDB, hot, 1);
+		assertEquals(0, hotDB.getCacheMisses());
+		assertTrue(scannedDB.getCacheEvictions() > 0);
+	}
+
+	public void testShrinkingCache() throws Exception {
+		long[] records = new long[CACHE_CHUNKS];
+		Database db = createDatabase(records);
+		readAll(db, records, 1);
+		cache.setMaxSize(CACHE_CHUNKS / 2 * Database.CHUNK_SIZE);
+		assertTrue(cache.getCachedChunkCount() <= CACHE_CHUNKS / 2);
+		readAll(db, records, 1);
+		assertTrue(cache.getCachedChunkCount() <= CACHE_CHUNKS / 2);
+	}
+}
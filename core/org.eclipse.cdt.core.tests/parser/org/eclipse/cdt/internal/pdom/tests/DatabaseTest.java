@@ -44,8 +44,7 @@ public class DatabaseTest extends BaseTestCase {
 	@Override
 	protected void setUp() throws Exception {
 		super.setUp();
-		db = new Database(getTestDir().append(getName() + System.currentTimeMillis() + ".dat").toFile(),
-				new ChunkCache(), 0, false);
+		db = createDatabase(getTestDir().append(getName() + System.currentTimeMillis() + ".dat").toFile());
 		db.setExclusiveLock();
 
 		// Allocate all database chunks up to TEST_OFFSET.
@@ -64,6 +63,10 @@ public class DatabaseTest extends BaseTestCase {
 		return suite(DatabaseTest.class);
 	}
 
+	protected Database createDatabase(File file) throws CoreException {
+		return new Database(file, new ChunkCache(), 0, false);
+	}
+
 	protected IPath getTestDir() {
 		IPath path = CTestPlugin.getDefault().getStateLocation().append("tests/");
 		File file = path.toFile();
@@ -147,6 +150,48 @@ public class DatabaseTest extends BaseTestCase {
 		assertEquals(mem2, mem1);
 	}
 
+	public void testCoalesceFreeBlocks() throws Exception {
+		long mem1 = db.malloc(42);
+		long mem2 = db.malloc(42);
+		long mem3 = db.malloc(42);
+		long mem4 = db.malloc(42);
+		final int chunks = db.getChunkCount();
+		db.free(mem1);
+		db.free(mem2);
+		db.free(mem3);
+		assertEquals(2, db.coalesceFreeBlocks(0, chunks));
+		assertEquals(0, db.coalesceFreeBlocks(0, chunks));
+
+		// The merged space is reused for a larger record.
+		long mem5 = db.malloc(120);
+		assertEquals(mem1, mem5);
+		assertEquals(chunks, db.getChunkCount());
+		db.free(mem4);
+		db.free(mem5);
+	}
+
+	public void testRemoveTrailingFreeChunks() throws Exception {
+		long mem1 = db.malloc(42);
+		final int chunks = db.getChunkCount();
+		long mem2 = db.malloc(Database.MAX_MALLOC_SIZE);
+		assertEquals(chunks + 1, db.getChunkCount());
+		assertEquals(0, db.getReclaimableBytes());
+		db.free(mem2);
+		assertEquals(Database.CHUNK_SIZE, db.getReclaimableBytes());
+		assertEquals(0, db.coalesceFreeBlocks(0, db.getChunkCount()));
+		assertEquals(Database.CHUNK_SIZE, db.removeTrailingFreeChunks());
+		assertEquals(0, db.getReclaimableBytes());
+		assertEquals(chunks, db.getChunkCount());
+		assertEquals((long) chunks * Database.CHUNK_SIZE, db.getSizeBytes());
+
+		// The chunk holding the used record is kept.
+		assertEquals(0, db.removeTrailingFreeChunks());
+		long mem3 = db.malloc(Database.MAX_MALLOC_SIZE);
+		assertEquals(chunks + 1, db.getChunkCount());
+		db.free(mem3);
+		db.free(mem1);
+	}
+
 	private static class FindVisitor implements IBTreeVisitor {
 		private Database db;
 		private String key;
@@ -190,6 +190,25 @@ public class GeneratePDOMApplicationTest extends PDOMTestBase {
 		assertTrue("state is " + stateCount[0], stateCount[0] == 2 || stateCount[0] == 4);
 	}
 
+	public void testExternalExportProjectProvider_IndexerThreads() throws Exception {
+		WritablePDOM wpdom = generatePDOM(LOC_TSTPRJ1, ExternalExportProjectProvider.class, null,
+				GeneratePDOMApplication.OPT_INDEXER_THREADS, "4");
+		verifyProject1Content(wpdom);
+	}
+
+	public void testExternalExportProjectProvider_BadIndexerThreads() throws Exception {
+		TestProjectProvider4 tpp4 = new TestProjectProvider4();
+		ICProject cproject = tpp4.createProject();
+
+		setExpectedNumberOfLoggedNonOKStatusObjects(1); // Expected failure: -threads takes a number
+		doGenerate(new String[] { GeneratePDOMApplication.OPT_TARGET, target.getAbsolutePath(),
+				GeneratePDOMApplication.OPT_PROJECTPROVIDER, ExternalExportProjectProvider.class.getName(),
+				ExternalExportProjectProvider.OPT_SOURCE,
+				cproject.getProject().getLocation().toFile().getAbsolutePath(),
+				GeneratePDOMApplication.OPT_INDEXER_THREADS, "many" });
+		assertFalse(target.exists());
+	}
+
 	public void testExternalExportProjectProvider_SysIncludes() throws Exception {
 		WritablePDOM wpdom = generatePDOM(LOC_TSTPRJ2, ExternalExportProjectProvider.class, null);
 		verifyProject2Content(wpdom);
@@ -260,7 +279,8 @@ public class GeneratePDOMApplicationTest extends PDOMTestBase {
 		}
 	}
 
-	private WritablePDOM generatePDOM(String testProject, Class<?> provider, final int[] stateCount) throws Exception {
+	private WritablePDOM generatePDOM(String testProject, Class<?> provider, final int[] stateCount,
+			String... moreArgs) throws Exception {
 		IIndexerStateListener listener = null;
 		if (stateCount != null) {
 			listener = new IIndexerStateListener() {
@@ -276,10 +296,14 @@ public class GeneratePDOMApplicationTest extends PDOMTestBase {
 		URL url = FileLocator.find(CTestPlugin.getDefault().getBundle(), new Path(testProject), null);
 		String baseDir = FileLocator.toFileURL(url).getFile();
 
-		doGenerate(new String[] { GeneratePDOMApplication.OPT_TARGET, target.getAbsolutePath(),
+		String[] args = { GeneratePDOMApplication.OPT_TARGET, target.getAbsolutePath(),
 				GeneratePDOMApplication.OPT_PROJECTPROVIDER, provider.getName(),
 				ExternalExportProjectProvider.OPT_SOURCE, baseDir, ExternalExportProjectProvider.OPT_FRAGMENT_ID,
-				"generate.pdom.tests.id." + getName() });
+				"generate.pdom.tests.id." + getName() };
+		String[] allArgs = new String[args.length + moreArgs.length];
+		System.arraycopy(args, 0, allArgs, 0, args.length);
+		System.arraycopy(moreArgs, 0, allArgs, args.length, moreArgs.length);
+		doGenerate(allArgs);
 		assertTrue(target.exists());
 		if (listener != null) {
 			CCorePlugin.getIndexManager().removeIndexerStateListener(listener);
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+
+import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+import org.eclipse.core.runtime.CoreException;
+
+import junit.framework.Test;
+
+/**
+ * Runs the {@link DatabaseTest} against a memory-mapped database.
+ */
+public class MemoryMappedDatabaseTest extends DatabaseTest {
+
+	public static Test suite() {
+		return suite(MemoryMappedDatabaseTest.class);
+	}
+
+	@Override
+	protected Database createDatabase(File file) throws CoreException {
+		return new Database(file, new ChunkCache(), 0, false, true);
+	}
+
+	public void testIsMemoryMapped() throws Exception {
+		assertTrue(db.isMemoryMapped());
+	}
+
+	public void testContentSurvivesReopen() throws Exception {
+		final int count = 5000;
+		long[] records = new long[count];
+		for (int i = 0; i < count; i++) {
+			records[i] = db.malloc(Database.MAX_MALLOC_SIZE / 4);
+			db.putInt(records[i], i);
+			db.putLong(records[i] + Database.INT_SIZE, -i);
+		}
+		db.setVersion(42);
+		db.flush();
+		final long size = db.getSizeBytes();
+		final File file = db.getLocation();
+		db.close();
+		assertEquals(size, file.length());
+
+		db = createDatabase(file);
+		db.setLocked(true);
+		assertEquals(42, db.getVersion());
+		assertEquals(size, db.getSizeBytes());
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, db.getInt(records[i]));
+			assertEquals(-i, db.getLong(records[i] + Database.INT_SIZE));
+		}
+		db.setExclusiveLock();
+	}
+
+	public void testUnusedChunksIgnoredAfterUnclosedSession() throws Exception {
+		long record = db.malloc(42);
+		db.putInt(record, 4711);
+		db.flush();
+		final long size = db.getSizeBytes();
+
+		// Open a second instance while the file still has the size of the mapped segment.
+		Database other = createDatabase(db.getLocation());
+		other.setLocked(true);
+		try {
+			assertEquals(size, other.getSizeBytes());
+			assertEquals(4711, other.getInt(record));
+		} finally {
+			other.setExclusiveLock();
+			other.close();
+		}
+	}
+
+	public void testChunkCountReadFromHeaderAfterUnclosedSession() throws Exception {
+		long record = db.malloc(Database.MAX_MALLOC_SIZE);
+		db.putInt(record + Database.INT_SIZE, 4711);
+		// The last chunk in use must not be mistaken for a chunk that was never allocated.
+		db.putShort(record - Database.BLOCK_HEADER_SIZE, (short) 0);
+		db.flush();
+		final long size = db.getSizeBytes();
+
+		Database other = createDatabase(db.getLocation());
+		other.setLocked(true);
+		try {
+			assertEquals(size, other.getSizeBytes());
+			assertEquals(4711, other.getInt(record + Database.INT_SIZE));
+		} finally {
+			other.setExclusiveLock();
+			other.close();
+		}
+	}
+}
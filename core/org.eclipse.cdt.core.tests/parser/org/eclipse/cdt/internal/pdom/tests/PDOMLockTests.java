@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.core.index.IIndexFileLocation;
+import org.eclipse.cdt.core.index.IIndexLocationConverter;
+import org.eclipse.cdt.core.model.LanguageManager;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.PDOM;
+import org.eclipse.cdt.internal.core.pdom.WritablePDOM;
+
+import junit.framework.Test;
+
+/**
+ * Tests for the read-write lock of the PDOM.
+ */
+public class PDOMLockTests extends BaseTestCase {
+	private File pdomFile;
+	private WritablePDOM pdom;
+
+	public static Test suite() {
+		return suite(PDOMLockTests.class);
+	}
+
+	private static class MockIndexLocationConverter implements IIndexLocationConverter {
+		@Override
+		public IIndexFileLocation fromInternalFormat(String raw) {
+			return null;
+		}
+
+		@Override
+		public String toInternalFormat(IIndexFileLocation location) {
+			return null;
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		pdomFile = File.createTempFile("pdomlock", null);
+		pdom = new WritablePDOM(pdomFile, new MockIndexLocationConverter(),
+				LanguageManager.getInstance().getPDOMLinkageFactoryMappings());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		pdom.acquireWriteLock(null);
+		try {
+			pdom.close();
+		} finally {
+			pdom.releaseWriteLock();
+		}
+		pdomFile.delete();
+		super.tearDown();
+	}
+
+	private Thread startWriter(List<String> events) {
+		Thread writer = new Thread(() -> {
+			try {
+				pdom.acquireWriteLock(null);
+				events.add("writer");
+				pdom.releaseWriteLock();
+			} catch (InterruptedException e) {
+				events.add("interrupted");
+			}
+		});
+		writer.start();
+		return writer;
+	}
+
+	public void testNestedReadLockWhileWriterWaits() throws Exception {
+		List<String> events = new CopyOnWriteArrayList<>();
+		pdom.acquireReadLock();
+		Thread writer = startWriter(events);
+		Thread.sleep(50);
+		// The thread already holds a read lock, waiting for the writer would deadlock.
+		pdom.acquireReadLock();
+		events.add("reader");
+		pdom.releaseReadLock();
+		pdom.releaseReadLock();
+		writer.join(10000);
+		assertFalse(writer.isAlive());
+		assertEquals(List.of("reader", "writer"), events);
+	}
+
+	public void testReadLockReenteredThroughOtherIndexWhileWriterWaits() throws Exception {
+		List<String> events = new CopyOnWriteArrayList<>();
+		File otherFile = File.createTempFile("pdomlock", null);
+		WritablePDOM other = new WritablePDOM(otherFile, new MockIndexLocationConverter(),
+				LanguageManager.getInstance().getPDOMLinkageFactoryMappings());
+		CountDownLatch readerHoldsLock = new CountDownLatch(1);
+		CountDownLatch releaseReader = new CountDownLatch(1);
+		Thread reader = new Thread(() -> {
+			try {
+				pdom.acquireReadLock();
+				try {
+					readerHoldsLock.countDown();
+					releaseReader.await();
+				} finally {
+					pdom.releaseReadLock();
+				}
+			} catch (InterruptedException e) {
+				events.add("interrupted");
+			}
+		});
+		reader.start();
+		assertTrue(readerHoldsLock.await(10, TimeUnit.SECONDS));
+		Thread writer = startWriter(events);
+		try {
+			while (writer.getState() != Thread.State.TIMED_WAITING) {
+				Thread.sleep(1);
+			}
+			// A UI reader holds a read lock of another index and re-enters this one, e.g. through
+			// a composite index. It must not be held back by the waiting writer.
+			other.acquireReadLock();
+			try {
+				final long start = System.nanoTime();
+				pdom.acquireReadLock();
+				final long waitTime = System.nanoTime() - start;
+				events.add("reader");
+				pdom.releaseReadLock();
+				assertTrue(waitTime < 200 * 1000000L);
+			} finally {
+				other.releaseReadLock();
+			}
+		} finally {
+			releaseReader.countDown();
+			reader.join(10000);
+			writer.join(10000);
+			other.acquireWriteLock(null);
+			try {
+				other.close();
+			} finally {
+				other.releaseWriteLock();
+			}
+			otherFile.delete();
+		}
+		assertFalse(writer.isAlive());
+		assertEquals(List.of("reader", "writer"), events);
+	}
+
+	public void testWaitingWriterGoesBeforeNewReaders() throws Exception {
+		List<String> events = new CopyOnWriteArrayList<>();
+		pdom.acquireReadLock();
+		Thread writer = startWriter(events);
+		Thread.sleep(50);
+		Thread reader = new Thread(() -> {
+			try {
+				pdom.acquireReadLock();
+				events.add("reader");
+				pdom.releaseReadLock();
+			} catch (InterruptedException e) {
+				events.add("interrupted");
+			}
+		});
+		reader.start();
+		while (!pdom.hasWaitingReaders()) {
+			Thread.sleep(1);
+		}
+		pdom.releaseReadLock();
+		writer.join(10000);
+		reader.join(10000);
+		assertFalse(writer.isAlive());
+		assertFalse(reader.isAlive());
+		assertEquals(List.of("writer", "reader"), events);
+	}
+
+	public void testReadersWaitingForWriterGoFirst() throws Exception {
+		List<String> events = new CopyOnWriteArrayList<>();
+		pdom.acquireWriteLock(null);
+		Thread reader = new Thread(() -> {
+			try {
+				pdom.acquireReadLock();
+				events.add("reader");
+				pdom.releaseReadLock();
+			} catch (InterruptedException e) {
+				events.add("interrupted");
+			}
+		});
+		reader.start();
+		while (!pdom.hasWaitingReaders()) {
+			Thread.sleep(1);
+		}
+		// The writer yields the lock to the waiting reader and takes it back.
+		pdom.releaseWriteLock(0, false);
+		pdom.acquireWriteLock(null);
+		events.add("writer");
+		pdom.releaseWriteLock();
+		reader.join(10000);
+		assertFalse(reader.isAlive());
+		assertEquals(List.of("reader", "writer"), events);
+	}
+
+	public void testLockStatistics() throws Exception {
+		PDOM.LockStatistics before = pdom.getLockStatistics();
+		pdom.acquireReadLock();
+		pdom.releaseReadLock();
+		pdom.acquireWriteLock(null);
+		Thread.sleep(10);
+		pdom.releaseWriteLock();
+		PDOM.LockStatistics after = pdom.getLockStatistics();
+		assertEquals(before.fReadLocks + 1, after.fReadLocks);
+		assertEquals(before.fWriteLocks + 1, after.fWriteLocks);
+		assertTrue(after.fWriteLockHoldTime - before.fWriteLockHoldTime >= 10 * 1000000L);
+		assertTrue(after.fMaxWriteLockHoldTime >= 10 * 1000000L);
+	}
+}
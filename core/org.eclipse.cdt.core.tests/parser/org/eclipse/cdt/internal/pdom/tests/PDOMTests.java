@@ -28,6 +28,8 @@ public class PDOMTests extends TestSuite {
 		TestSuite suite = new PDOMTests();
 
 		suite.addTest(DatabaseTest.suite());
+		suite.addTest(MemoryMappedDatabaseTest.suite());
+		suite.addTest(WriteAheadLogDatabaseTest.suite());
 		suite.addTest(DBPropertiesTests.suite());
 		suite.addTest(PDOMCBugsTest.suite());
 		suite.addTest(PDOMCPPBugsTest.suite());
@@ -42,8 +44,12 @@ public class PDOMTests extends TestSuite {
 		suite.addTest(OverloadsWithinSingleTUTests.suite());
 		suite.addTest(OverloadsWithinCommonHeaderTests.suite());
 		suite.addTest(BTreeTests.suite());
+		suite.addTest(ChunkCacheTests.suite());
+		suite.addTest(PDOMLockTests.suite());
+		suite.addTest(ResultCacheTests.suite());
 		suite.addTest(PDOMStringSetTests.suite());
 		suite.addTest(PDOMTagIndexTests.suite());
+		suite.addTest(TrigramIndexTests.suite());
 		suite.addTest(FilesOnReindexTests.suite());
 		suite.addTest(GeneratePDOMApplicationTest.suite());
 
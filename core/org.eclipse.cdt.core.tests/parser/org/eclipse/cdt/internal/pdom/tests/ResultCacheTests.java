@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.dom.ast.IProblemBinding;
+import org.eclipse.cdt.core.index.IIndexFileLocation;
+import org.eclipse.cdt.core.index.IIndexLocationConverter;
+import org.eclipse.cdt.core.model.LanguageManager;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.dom.parser.ProblemBinding;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTTranslationUnit;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPSemantics;
+import org.eclipse.cdt.internal.core.pdom.ResultCache;
+import org.eclipse.cdt.internal.core.pdom.WritablePDOM;
+
+import junit.framework.Test;
+
+/**
+ * Tests for the result cache of the PDOM.
+ */
+public class ResultCacheTests extends BaseTestCase {
+	private File pdomFile;
+	private WritablePDOM pdom;
+
+	public static Test suite() {
+		return suite(ResultCacheTests.class);
+	}
+
+	private static class MockIndexLocationConverter implements IIndexLocationConverter {
+		@Override
+		public IIndexFileLocation fromInternalFormat(String raw) {
+			return null;
+		}
+
+		@Override
+		public String toInternalFormat(IIndexFileLocation location) {
+			return null;
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		pdomFile = File.createTempFile("resultcache", null);
+		pdom = new WritablePDOM(pdomFile, new MockIndexLocationConverter(),
+				LanguageManager.getInstance().getPDOMLinkageFactoryMappings());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		pdom.acquireWriteLock(null);
+		try {
+			pdom.close();
+		} finally {
+			pdom.releaseWriteLock();
+		}
+		pdomFile.delete();
+		super.tearDown();
+	}
+
+	public void testPutWithoutReplace() throws Exception {
+		ResultCache cache = new ResultCache(10);
+		assertEquals("a", cache.put("key", "a", false));
+		assertEquals("a", cache.put("key", "b", false));
+		assertEquals("c", cache.put("key", "c", true));
+		assertEquals("c", cache.get("key"));
+		assertNull(cache.put("key", null, true));
+		assertNull(cache.get("key"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	public void testBoundedSize() throws Exception {
+		ResultCache cache = new ResultCache(100);
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, "value" + i, true);
+			assertTrue(cache.size() <= 100);
+		}
+		assertTrue(cache.getEvictions() >= 900);
+	}
+
+	public void testResultsSurviveNestedReadLocks() throws Exception {
+		pdom.acquireReadLock();
+		try {
+			pdom.putCachedResult("key", "value");
+			pdom.acquireReadLock();
+			pdom.releaseReadLock();
+			assertEquals("value", pdom.getCachedResult("key"));
+		} finally {
+			pdom.releaseReadLock();
+		}
+		// The lock session has ended.
+		assertNull(pdom.getCachedResult("key"));
+	}
+
+	public void testResultsClearedByWriteLock() throws Exception {
+		pdom.acquireReadLock();
+		try {
+			pdom.putCachedResult("key", "value");
+		} finally {
+			pdom.releaseReadLock();
+		}
+		pdom.putCachedResult("key", "value");
+		pdom.acquireWriteLock(null);
+		pdom.releaseWriteLock();
+		assertNull(pdom.getCachedResult("key"));
+	}
+
+	public void testResultsOfUnknownASTClearedByEveryReadLock() throws Exception {
+		IBinding astBinding = new ProblemBinding(null, IProblemBinding.SEMANTIC_NAME_NOT_FOUND, "x".toCharArray());
+		pdom.acquireReadLock();
+		try {
+			pdom.putCachedResult("key", "value");
+			pdom.putCachedResult(astBinding, "value");
+			assertEquals("value", pdom.getCachedResult(astBinding));
+			pdom.acquireReadLock();
+			pdom.releaseReadLock();
+			// The AST of the binding is not known, its results must not be kept for other readers.
+			assertNull(pdom.getCachedResult(astBinding));
+			assertEquals("value", pdom.getCachedResult("key"));
+		} finally {
+			pdom.releaseReadLock();
+		}
+	}
+
+	public void testResultsOfASTKeptUntilReaderReleasesLock() throws Exception {
+		IBinding astBinding = new ProblemBinding(null, IProblemBinding.SEMANTIC_NAME_NOT_FOUND, "x".toCharArray());
+		CPPASTTranslationUnit ast = new CPPASTTranslationUnit();
+		CountDownLatch otherReaderHoldsLock = new CountDownLatch(1);
+		CountDownLatch releaseOtherReader = new CountDownLatch(1);
+		Thread otherReader = new Thread(() -> {
+			try {
+				pdom.acquireReadLock();
+				try {
+					otherReaderHoldsLock.countDown();
+					releaseOtherReader.await();
+				} finally {
+					pdom.releaseReadLock();
+				}
+			} catch (InterruptedException e) {
+			}
+		});
+		otherReader.start();
+		assertTrue(otherReaderHoldsLock.await(10, TimeUnit.SECONDS));
+
+		CPPSemantics.pushLookupPoint(ast);
+		try {
+			pdom.acquireReadLock();
+			try {
+				pdom.putCachedResult(astBinding, "value");
+				pdom.acquireReadLock();
+				pdom.releaseReadLock();
+				// A nested read lock of the reader does not drop the results of its AST.
+				assertEquals("value", pdom.getCachedResult(astBinding));
+			} finally {
+				pdom.releaseReadLock();
+			}
+			// The other reader still holds a lock, but the reader of the AST is gone.
+			assertNull(pdom.getCachedResult(astBinding));
+		} finally {
+			CPPSemantics.popLookupPoint();
+			releaseOtherReader.countDown();
+			otherReader.join();
+		}
+	}
+}
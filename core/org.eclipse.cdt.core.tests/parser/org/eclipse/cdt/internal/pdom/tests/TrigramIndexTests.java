@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+import org.eclipse.cdt.internal.core.pdom.dom.TrigramIndex;
+
+import junit.framework.Test;
+
+/**
+ * Tests for the trigram index of the names in the PDOM.
+ */
+public class TrigramIndexTests extends BaseTestCase {
+	private static final int LINKAGE = 1;
+
+	private File dbFile;
+	private Database db;
+	private TrigramIndex index;
+
+	public static Test suite() {
+		return suite(TrigramIndexTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		dbFile = File.createTempFile("trigramindextest", "db");
+		db = new Database(dbFile, new ChunkCache(), 0, false);
+		db.setExclusiveLock();
+		index = new TrigramIndex(db, Database.DATA_AREA);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		db.close();
+		dbFile.deleteOnExit();
+		super.tearDown();
+	}
+
+	private long[] find(String... strings) throws Exception {
+		char[][] chars = new char[strings.length][];
+		for (int i = 0; i < strings.length; i++) {
+			chars[i] = strings[i].toCharArray();
+		}
+		return index.find(TrigramIndex.BINDINGS, LINKAGE, chars);
+	}
+
+	private static String[] getRequiredStrings(String regex, int flags) {
+		char[][] strings = TrigramIndex.getRequiredStrings(Pattern.compile(regex, flags));
+		if (strings == null)
+			return null;
+		String[] result = new String[strings.length];
+		for (int i = 0; i < strings.length; i++) {
+			result[i] = new String(strings[i]);
+		}
+		return result;
+	}
+
+	private long add(int kind, int linkageID, String name) throws Exception {
+		long record = db.malloc(8);
+		index.add(kind, linkageID, name.toCharArray(), record);
+		return record;
+	}
+
+	private static long[] sorted(long... records) {
+		Arrays.sort(records);
+		return records;
+	}
+
+	public void testFind() throws Exception {
+		long hashMap = add(TrigramIndex.BINDINGS, LINKAGE, "HashMap");
+		long hashTable = add(TrigramIndex.BINDINGS, LINKAGE, "hash_table");
+		long treeMap = add(TrigramIndex.BINDINGS, LINKAGE, "TreeMap");
+		add(TrigramIndex.BINDINGS, 2, "HashSet");
+		long hashSize = add(TrigramIndex.MACRO_CONTAINERS, LINKAGE, "HASH_SIZE");
+
+		assertTrue(Arrays.equals(sorted(hashMap, hashTable), find("hash")));
+		assertTrue(Arrays.equals(sorted(hashMap, treeMap), find("Map")));
+		assertTrue(Arrays.equals(new long[] { hashMap }, find("HASH", "map")));
+		assertEquals(0, find("Set").length);
+		assertEquals(0, find("xyz").length);
+		assertNull(find("ab", "c"));
+		assertTrue(Arrays.equals(new long[] { hashSize },
+				index.find(TrigramIndex.MACRO_CONTAINERS, LINKAGE, new char[][] { "hash".toCharArray() })));
+	}
+
+	public void testManyRecords() throws Exception {
+		long[] records = new long[1001];
+		for (int i = 1; i <= 1000; i++) {
+			records[i] = add(TrigramIndex.BINDINGS, LINKAGE, "name" + i + "_suffix");
+		}
+		// Intersection of a short and a long posting list.
+		assertTrue(Arrays.equals(new long[] { records[777] }, find("777", "name", "suffix")));
+		assertEquals(1000, find("name").length);
+		assertEquals(100, find("e1", "1_suf").length);
+	}
+
+	public void testRemove() throws Exception {
+		long maxPath = add(TrigramIndex.MACRO_CONTAINERS, LINKAGE, "MAX_PATH");
+		long maxSize = add(TrigramIndex.MACRO_CONTAINERS, LINKAGE, "MAX_SIZE");
+		index.remove(TrigramIndex.MACRO_CONTAINERS, LINKAGE, "MAX_PATH".toCharArray(), maxPath);
+
+		char[][] max = { "MAX".toCharArray() };
+		assertTrue(Arrays.equals(new long[] { maxSize }, index.find(TrigramIndex.MACRO_CONTAINERS, LINKAGE, max)));
+		char[][] path = { "PATH".toCharArray() };
+		assertEquals(0, index.find(TrigramIndex.MACRO_CONTAINERS, LINKAGE, path).length);
+	}
+
+	public void testRequiredStrings() throws Exception {
+		assertTrue(Arrays.equals(new String[] { "Hash" }, getRequiredStrings(".*Hash.*", 0)));
+		assertTrue(Arrays.equals(new String[] { "get", "Name" }, getRequiredStrings("get.*Name", 0)));
+		assertTrue(Arrays.equals(new String[] { "Has", "Map" },
+				getRequiredStrings("Hash?[a-z]*Map", Pattern.CASE_INSENSITIVE)));
+		assertTrue(Arrays.equals(new String[] { "abc" }, getRequiredStrings("abc[de]{1,2}fg\\.hi", 0)));
+		assertTrue(Arrays.equals(new String[] { "Node" }, getRequiredStrings("Node+", 0)));
+		assertTrue(Arrays.equals(new String[] { "ab_cd" }, getRequiredStrings("\\Qab_cd\\E", 0)));
+		assertEquals(0, getRequiredStrings("a.b.c", 0).length);
+		assertNull(getRequiredStrings("(foo|bar)", 0));
+		assertNull(getRequiredStrings("\\wfoo", 0));
+		assertNull(getRequiredStrings("foo", Pattern.LITERAL));
+	}
+}
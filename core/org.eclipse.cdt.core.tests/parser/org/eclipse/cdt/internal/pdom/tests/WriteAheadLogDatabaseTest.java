@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+import org.eclipse.core.runtime.CoreException;
+
+import junit.framework.Test;
+
+/**
+ * Runs the {@link DatabaseTest} against a database with a write-ahead log.
+ */
+public class WriteAheadLogDatabaseTest extends DatabaseTest {
+
+	public static Test suite() {
+		return suite(WriteAheadLogDatabaseTest.class);
+	}
+
+	@Override
+	protected Database createDatabase(File file) throws CoreException {
+		Database database = new Database(file, new ChunkCache(), 0, false);
+		database.setWriteAheadLog(true);
+		return database;
+	}
+
+	private File getLogFile() {
+		return new File(db.getLocation().getPath() + ".wal");
+	}
+
+	public void testIsWriteAheadLog() throws Exception {
+		assertTrue(db.isWriteAheadLog());
+		assertTrue(getLogFile().exists());
+	}
+
+	public void testCommitDoesNotChangeFile() throws Exception {
+		final long length = db.getLocation().length();
+		long record = db.malloc(42);
+		db.putInt(record, 4711);
+		db.giveUpExclusiveLock(true);
+		db.setExclusiveLock();
+		assertEquals(length, db.getLocation().length());
+		assertTrue(getLogFile().length() > 0);
+		assertEquals(1, db.getLogCommits());
+	}
+
+	public void testCheckpointOnFlush() throws Exception {
+		long record = db.malloc(42);
+		db.putInt(record, 4711);
+		db.setVersion(42);
+		db.flush();
+		assertEquals(1, db.getLogCheckpoints());
+		assertEquals(0, getLogFile().length());
+
+		// The file can be read without the log.
+		Database other = new Database(db.getLocation(), new ChunkCache(), 0, true);
+		other.setLocked(true);
+		assertEquals(42, other.getVersion());
+		assertEquals(4711, other.getInt(record));
+	}
+
+	public void testCommittedTransactionsAreRecovered() throws Exception {
+		long record = db.malloc(42);
+		db.putInt(record, 4711);
+		db.setVersion(42);
+		db.giveUpExclusiveLock(true);
+		db.setExclusiveLock();
+
+		// Open the database again without closing it, as after a crash.
+		Database recovered = createDatabase(db.getLocation());
+		try {
+			recovered.setLocked(true);
+			assertEquals(1, recovered.getRecoveredTransactions());
+			assertEquals(42, recovered.getVersion());
+			assertEquals(4711, recovered.getInt(record));
+		} finally {
+			recovered.setExclusiveLock();
+			recovered.close();
+		}
+	}
+
+	public void testIncompleteTransactionsAreIgnored() throws Exception {
+		long record = db.malloc(42);
+		db.putInt(record, 4711);
+		db.setVersion(42);
+		db.giveUpExclusiveLock(true);
+		db.setExclusiveLock();
+		// Changes that have not been committed are not logged.
+		db.putInt(record, 4712);
+		db.giveUpExclusiveLock(false);
+		db.setExclusiveLock();
+		// A transaction that has been partially written.
+		try (RandomAccessFile log = new RandomAccessFile(getLogFile(), "rw")) {
+			log.seek(log.length());
+			log.writeInt(1);
+			log.write(new byte[100]);
+		}
+
+		Database recovered = createDatabase(db.getLocation());
+		try {
+			recovered.setLocked(true);
+			assertEquals(1, recovered.getRecoveredTransactions());
+			assertEquals(42, recovered.getVersion());
+			assertEquals(4711, recovered.getInt(record));
+		} finally {
+			recovered.setExclusiveLock();
+			recovered.close();
+		}
+	}
+}
@@ -15,6 +15,8 @@
  *******************************************************************************/
 package org.eclipse.cdt.core.browser;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.CCorePlugin;
@@ -26,7 +28,9 @@ import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.ICElement;
 import org.eclipse.cdt.core.model.ICProject;
+import org.eclipse.cdt.core.parser.util.SegmentMatcher;
 import org.eclipse.cdt.internal.core.browser.IndexModelUtil;
+import org.eclipse.cdt.internal.core.browser.TypeNameCache;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -36,13 +40,9 @@ import org.eclipse.core.runtime.NullProgressMonitor;
  * objects of type <code>ICElement</code> the methods of this class returns a
  * list of the lightweight objects <code>ITypeInfo</code>.
  * <P>
- * AllTypesCache runs asynchronously using a background job to rebuild the cache
- * as needed. If the cache becomes dirty again while the background job is
- * running, the job is restarted.
- * <P>
- * If <code>getTypes</code> is called in response to a user action, a progress
- * dialog is shown. If called before the background job has finished, getTypes
- * waits for the completion of the background job.
+ * The types of a project are read from the index when they are requested for
+ * the first time. Afterwards the cache is updated with the changes of the index,
+ * only the types declared in files that have been indexed again are read.
  *
  * @noextend This class is not intended to be subclassed by clients.
  * @noinstantiate This class is not intended to be instantiated by clients.
@@ -52,6 +52,29 @@ public class AllTypesCache {
 
 	private static ITypeInfo[] getTypes(ICProject[] projects, final int[] kinds, IProgressMonitor monitor)
 			throws CoreException {
+		if (isCached(kinds)) {
+			return TypeNameCache.getDefault().getTypes(projects, kinds, null, false, monitor);
+		}
+		return findTypes(projects, kinds, monitor);
+	}
+
+	private static boolean isCached(int[] kinds) {
+		for (int kind : kinds) {
+			boolean cached = false;
+			for (int cachedKind : TypeNameCache.CACHED_KINDS) {
+				if (kind == cachedKind) {
+					cached = true;
+					break;
+				}
+			}
+			if (!cached)
+				return false;
+		}
+		return true;
+	}
+
+	private static ITypeInfo[] findTypes(ICProject[] projects, final int[] kinds, IProgressMonitor monitor)
+			throws CoreException {
 		IIndex index = CCorePlugin.getIndexManager().getIndex(projects,
 				IIndexManager.ADD_EXTENSION_FRAGMENTS_NAVIGATION);
 
@@ -130,6 +153,43 @@ public class AllTypesCache {
 		}
 	}
 
+	/**
+	 * Returns the types in the given scope whose simple names match the given pattern. A name
+	 * matches if the pattern is a prefix of it ignoring case or a camel case or underscore
+	 * abbreviation of it, e.g. <code>NPE</code> or <code>n_p_e</code>. A fuzzy pattern matches
+	 * the names that start with the first character of the pattern and contain the remaining
+	 * characters in order, ignoring case.
+	 *
+	 * @param scope The search scope
+	 * @param kinds Array containing CElement types: C_NAMESPACE, C_CLASS,
+	 *              C_UNION, C_ENUMERATION, C_TYPEDEF
+	 * @param pattern The pattern for the simple names
+	 * @param fuzzy Whether to match the pattern fuzzily
+	 * @since 7.2
+	 */
+	public static ITypeInfo[] getTypes(ITypeSearchScope scope, int[] kinds, String pattern, boolean fuzzy) {
+		try {
+			ICProject[] projects = scope.getEnclosingProjects();
+			if (isCached(kinds)) {
+				return TypeNameCache.getDefault().getTypes(projects, kinds, pattern.toCharArray(), fuzzy,
+						new NullProgressMonitor());
+			}
+			ITypeInfo[] types = findTypes(projects, kinds, new NullProgressMonitor());
+			List<ITypeInfo> result = new ArrayList<>();
+			for (ITypeInfo type : types) {
+				char[] name = type.getName().toCharArray();
+				if (fuzzy ? TypeNameCache.matchFuzzy(pattern.toCharArray(), name)
+						: SegmentMatcher.match(pattern.toCharArray(), name)) {
+					result.add(type);
+				}
+			}
+			return result.toArray(new ITypeInfo[result.size()]);
+		} catch (CoreException e) {
+			CCorePlugin.log(e);
+			return new ITypeInfo[0];
+		}
+	}
+
 	/**
 	 * Returns all namespaces in the given scope.
 	 *
@@ -0,0 +1,448 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.browser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.browser.ITypeInfo;
+import org.eclipse.cdt.core.browser.IndexTypeInfo;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.index.IIndex;
+import org.eclipse.cdt.core.index.IIndexBinding;
+import org.eclipse.cdt.core.index.IIndexChangeEvent;
+import org.eclipse.cdt.core.index.IIndexChangeListener;
+import org.eclipse.cdt.core.index.IIndexFile;
+import org.eclipse.cdt.core.index.IIndexFileLocation;
+import org.eclipse.cdt.core.index.IIndexManager;
+import org.eclipse.cdt.core.index.IIndexName;
+import org.eclipse.cdt.core.index.IndexFilter;
+import org.eclipse.cdt.core.model.CoreModel;
+import org.eclipse.cdt.core.model.ICProject;
+import org.eclipse.cdt.core.parser.util.CharArrayUtils;
+import org.eclipse.cdt.core.parser.util.SegmentMatcher;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Cache of the types declared in the indexes of the projects, for finding types by name without
+ * querying the index.
+ * <p>
+ * The types of a project are read from its index when they are requested for the first time.
+ * Afterwards the cache is kept up to date with the changes reported by {@link IIndexChangeEvent}s:
+ * the types declared in the files written to or cleared from the index are replaced, the types of
+ * a project are only read again when its index is reloaded or cleared. Changes are applied when
+ * the types are requested the next time.
+ * <p>
+ * The types of a project are kept sorted by their simple names ignoring case. A lookup by prefix,
+ * camel case abbreviation or fuzzy pattern only has to check the names that start with the same
+ * characters as the pattern.
+ */
+public final class TypeNameCache implements IIndexChangeListener {
+	/** The kinds of types kept in the cache. */
+	public static final int[] CACHED_KINDS = ITypeInfo.KNOWN_TYPES;
+
+	private static final IndexFilter TYPE_FILTER = new IndexFilter() {
+		@Override
+		public boolean acceptBinding(IBinding binding) throws CoreException {
+			return IndexFilter.ALL_DECLARED_OR_IMPLICIT.acceptBinding(binding)
+					&& IndexModelUtil.bindingHasCElementType(binding, CACHED_KINDS);
+		}
+	};
+
+	/** Marks a project whose types have to be read again. */
+	private static final Set<IIndexFileLocation> RELOAD = Collections.emptySet();
+
+	private static final Entry[] EMPTY_ENTRIES = {};
+
+	private static final Comparator<Entry> KEY_COMPARATOR = (e1, e2) -> CharArrayUtils.compare(e1.fKey, e2.fKey);
+
+	private static TypeNameCache sInstance;
+
+	/**
+	 * A type together with the number of files declaring it.
+	 */
+	private static final class Entry {
+		final IndexTypeInfo fType;
+		final char[] fName;
+		// The simple name in lower case, the sort key.
+		final char[] fKey;
+		int fFileCount;
+		boolean fSorted;
+
+		Entry(IndexTypeInfo type) {
+			fType = type;
+			fName = type.getName().toCharArray();
+			fKey = toLowerCase(fName);
+		}
+	}
+
+	/**
+	 * The types of one project.
+	 */
+	private static final class ProjectTypes {
+		final IIndex fIndex;
+		final Map<IndexTypeInfo, Entry> fEntries = new HashMap<>();
+		// Types without declarations are stored for the location null.
+		final Map<IIndexFileLocation, Entry[]> fEntriesOfFile = new HashMap<>();
+		Entry[] fSorted = EMPTY_ENTRIES;
+
+		ProjectTypes(IIndex index) {
+			fIndex = index;
+		}
+
+		Entry getEntry(IIndexBinding binding) {
+			IndexTypeInfo type = IndexTypeInfo.create(fIndex, binding);
+			Entry entry = fEntries.get(type);
+			if (entry == null) {
+				entry = new Entry(type);
+				fEntries.put(type, entry);
+			}
+			return entry;
+		}
+
+		void setEntriesOfFile(IIndexFileLocation location, Set<Entry> entries) {
+			if (!entries.isEmpty()) {
+				fEntriesOfFile.put(location, entries.toArray(new Entry[entries.size()]));
+				for (Entry entry : entries) {
+					entry.fFileCount++;
+				}
+			}
+		}
+
+		void removeEntriesOfFile(IIndexFileLocation location) {
+			Entry[] entries = fEntriesOfFile.remove(location);
+			if (entries != null) {
+				for (Entry entry : entries) {
+					entry.fFileCount--;
+				}
+			}
+		}
+
+		/**
+		 * Removes the types that are no longer declared in any file and merges the new types into
+		 * the sorted array.
+		 */
+		void updateSortedEntries() {
+			List<Entry> added = new ArrayList<>();
+			for (Iterator<Entry> it = fEntries.values().iterator(); it.hasNext();) {
+				Entry entry = it.next();
+				if (entry.fFileCount <= 0) {
+					it.remove();
+				} else if (!entry.fSorted) {
+					entry.fSorted = true;
+					added.add(entry);
+				}
+			}
+			added.sort(KEY_COMPARATOR);
+
+			Entry[] sorted = new Entry[fEntries.size()];
+			int i = 0;
+			int j = 0;
+			int k = 0;
+			while (i < fSorted.length || j < added.size()) {
+				if (i < fSorted.length && fSorted[i].fFileCount <= 0) {
+					i++;
+				} else if (j == added.size()
+						|| i < fSorted.length && KEY_COMPARATOR.compare(fSorted[i], added.get(j)) <= 0) {
+					sorted[k++] = fSorted[i++];
+				} else {
+					sorted[k++] = added.get(j++);
+				}
+			}
+			fSorted = sorted;
+		}
+	}
+
+	// Guarded by this.
+	private final Map<String, ProjectTypes> fProjects = new HashMap<>();
+	// Files changed since the types of a project were last updated, by project name.
+	private final Map<String, Set<IIndexFileLocation>> fChanges = new HashMap<>();
+
+	private TypeNameCache() {
+	}
+
+	/**
+	 * Returns the cache, the cache registers for index change events when it is created.
+	 */
+	public static synchronized TypeNameCache getDefault() {
+		if (sInstance == null) {
+			sInstance = new TypeNameCache();
+			CCorePlugin.getIndexManager().addIndexChangeListener(sInstance);
+		}
+		return sInstance;
+	}
+
+	@Override
+	public void indexChanged(IIndexChangeEvent event) {
+		ICProject project = event.getAffectedProject();
+		if (project == null)
+			return;
+
+		final String name = project.getElementName();
+		synchronized (fChanges) {
+			Set<IIndexFileLocation> files = fChanges.get(name);
+			if (event.isCleared() || event.isReloaded()) {
+				fChanges.put(name, RELOAD);
+			} else if (files != RELOAD) {
+				if (files == null) {
+					files = new HashSet<>();
+					fChanges.put(name, files);
+				}
+				files.addAll(event.getFilesCleared());
+				files.addAll(event.getFilesWritten());
+			}
+		}
+	}
+
+	/**
+	 * Returns the types of the given projects whose simple names match the given pattern. A name
+	 * matches if the pattern is a prefix of it ignoring case or a camel case or underscore
+	 * abbreviation of it, see {@link SegmentMatcher}. A fuzzy pattern matches the names that start
+	 * with the first character of the pattern and contain the remaining characters in order,
+	 * ignoring case.
+	 *
+	 * @param projects the projects to search
+	 * @param kinds the kinds of types to return, a subset of {@link #CACHED_KINDS}
+	 * @param pattern the pattern for the simple names, or {@code null} to return all types
+	 * @param fuzzy whether the pattern is fuzzy
+	 * @param monitor a monitor for cancelling the request, when the types of a project have to be
+	 *     read from the index
+	 * @return the types found, the result is incomplete if the request was cancelled
+	 */
+	public synchronized ITypeInfo[] getTypes(ICProject[] projects, int[] kinds, char[] pattern, boolean fuzzy,
+			IProgressMonitor monitor) throws CoreException {
+		Set<ITypeInfo> result = new HashSet<>();
+		for (ICProject project : projects) {
+			if (monitor.isCanceled())
+				break;
+			ProjectTypes types = getProjectTypes(project, monitor);
+			if (types != null) {
+				findTypes(types.fSorted, kinds, pattern, fuzzy, result);
+			}
+		}
+		removeClosedProjects();
+		return result.toArray(new ITypeInfo[result.size()]);
+	}
+
+	private ProjectTypes getProjectTypes(ICProject project, IProgressMonitor monitor) throws CoreException {
+		final String name = project.getElementName();
+		Set<IIndexFileLocation> changes;
+		synchronized (fChanges) {
+			changes = fChanges.remove(name);
+		}
+		ProjectTypes types = fProjects.get(name);
+		if (types == null || changes == RELOAD) {
+			fProjects.remove(name);
+			types = readTypes(project, monitor);
+			if (types != null) {
+				fProjects.put(name, types);
+			}
+		} else if (changes != null && !updateTypes(types, changes)) {
+			// The changes need to be applied by the next request.
+			synchronized (fChanges) {
+				Set<IIndexFileLocation> files = fChanges.get(name);
+				if (files == null) {
+					fChanges.put(name, changes);
+				} else if (files != RELOAD) {
+					files.addAll(changes);
+				}
+			}
+		}
+		return types;
+	}
+
+	private ProjectTypes readTypes(ICProject project, IProgressMonitor monitor) throws CoreException {
+		IIndex index = CCorePlugin.getIndexManager().getIndex(project,
+				IIndexManager.ADD_EXTENSION_FRAGMENTS_NAVIGATION);
+		try {
+			index.acquireReadLock();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		try {
+			ProjectTypes types = new ProjectTypes(index);
+			IIndexBinding[] bindings = index.findBindings(Pattern.compile(".*"), false, TYPE_FILTER, monitor); //$NON-NLS-1$
+			Map<IIndexFileLocation, Set<Entry>> entriesOfFile = new HashMap<>();
+			for (int i = 0; i < bindings.length; i++) {
+				if (i % 0x1000 == 0 && monitor.isCanceled()) {
+					return null;
+				}
+				Entry entry = types.getEntry(bindings[i]);
+				IIndexName[] names = index.findNames(bindings[i], IIndex.FIND_DECLARATIONS_DEFINITIONS);
+				if (names.length == 0) {
+					entriesOfFile.computeIfAbsent(null, l -> new LinkedHashSet<>()).add(entry);
+				}
+				for (IIndexName name : names) {
+					IIndexFileLocation location = name.getFile().getLocation();
+					entriesOfFile.computeIfAbsent(location, l -> new LinkedHashSet<>()).add(entry);
+				}
+			}
+			for (Map.Entry<IIndexFileLocation, Set<Entry>> e : entriesOfFile.entrySet()) {
+				types.setEntriesOfFile(e.getKey(), e.getValue());
+			}
+			types.updateSortedEntries();
+			return types;
+		} finally {
+			index.releaseReadLock();
+		}
+	}
+
+	/**
+	 * Replaces the types declared in the given files, returns {@code false} if the index could
+	 * not be read.
+	 */
+	private boolean updateTypes(ProjectTypes types, Set<IIndexFileLocation> files) throws CoreException {
+		final IIndex index = types.fIndex;
+		try {
+			index.acquireReadLock();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		try {
+			for (IIndexFileLocation location : files) {
+				types.removeEntriesOfFile(location);
+				Set<Entry> entries = new LinkedHashSet<>();
+				for (IIndexFile file : index.getFiles(location)) {
+					for (IIndexName name : file.findNames(0, Integer.MAX_VALUE)) {
+						if (name.isDeclaration()) {
+							IIndexBinding binding = index.findBinding(name);
+							if (binding != null && TYPE_FILTER.acceptBinding(binding)) {
+								entries.add(types.getEntry(binding));
+							}
+						}
+					}
+				}
+				types.setEntriesOfFile(location, entries);
+			}
+			types.updateSortedEntries();
+			return true;
+		} finally {
+			index.releaseReadLock();
+		}
+	}
+
+	private void removeClosedProjects() {
+		for (Iterator<String> it = fProjects.keySet().iterator(); it.hasNext();) {
+			ICProject project = CoreModel.getDefault().getCModel().getCProject(it.next());
+			if (!project.getProject().isOpen()) {
+				it.remove();
+			}
+		}
+	}
+
+	private static void findTypes(Entry[] sorted, int[] kinds, char[] pattern, boolean fuzzy,
+			Set<ITypeInfo> result) {
+		if (pattern == null || pattern.length == 0) {
+			for (Entry entry : sorted) {
+				addType(entry, kinds, result);
+			}
+			return;
+		}
+
+		final SegmentMatcher matcher = fuzzy ? null : new SegmentMatcher(pattern);
+		final char[] lowerCasePattern = toLowerCase(pattern);
+		final char[] prefix = fuzzy ? Arrays.copyOf(lowerCasePattern, 1)
+				: toLowerCase(matcher.getPrefixForBinarySearch());
+		final boolean matchRequired = fuzzy ? pattern.length > 1 : matcher.matchRequiredAfterBinarySearch();
+		for (int i = findFirst(sorted, prefix); i < sorted.length; i++) {
+			Entry entry = sorted[i];
+			if (!startsWith(entry.fKey, prefix))
+				break;
+			if (matchRequired) {
+				boolean match = fuzzy ? containsInOrder(entry.fKey, lowerCasePattern) : matcher.match(entry.fName);
+				if (!match)
+					continue;
+			}
+			addType(entry, kinds, result);
+		}
+	}
+
+	/**
+	 * Returns whether the name matches a fuzzy pattern, as described for
+	 * {@link #getTypes(ICProject[], int[], char[], boolean, IProgressMonitor)}.
+	 */
+	public static boolean matchFuzzy(char[] pattern, char[] name) {
+		if (pattern.length == 0)
+			return true;
+		char[] key = toLowerCase(name);
+		char[] lowerCasePattern = toLowerCase(pattern);
+		return key.length > 0 && key[0] == lowerCasePattern[0] && containsInOrder(key, lowerCasePattern);
+	}
+
+	private static void addType(Entry entry, int[] kinds, Set<ITypeInfo> result) {
+		final int elementType = entry.fType.getCElementType();
+		for (int kind : kinds) {
+			if (kind == elementType) {
+				result.add(entry.fType);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of the first entry whose key is not smaller than the given prefix.
+	 */
+	private static int findFirst(Entry[] sorted, char[] prefix) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (CharArrayUtils.compare(sorted[mid].fKey, prefix) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static boolean startsWith(char[] key, char[] prefix) {
+		if (key.length < prefix.length)
+			return false;
+		for (int i = 0; i < prefix.length; i++) {
+			if (key[i] != prefix[i])
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean containsInOrder(char[] key, char[] pattern) {
+		int j = 0;
+		for (int i = 0; i < key.length && j < pattern.length; i++) {
+			if (key[i] == pattern[j]) {
+				j++;
+			}
+		}
+		return j == pattern.length;
+	}
+
+	private static char[] toLowerCase(char[] chars) {
+		char[] result = new char[chars.length];
+		for (int i = 0; i < chars.length; i++) {
+			result[i] = Character.toLowerCase(chars[i]);
+		}
+		return result;
+	}
+}
@@ -84,6 +84,15 @@ public interface ILanguage extends IAdaptable {
 	 */
 	public final static int OPTION_PARSE_INACTIVE_CODE = 0x20;
 
+	/**
+	 * Option for {@link #getASTTranslationUnit(FileContent, IScannerInfo, IncludeFileContentProvider, IIndex, int, IParserLogService)}
+	 * Allows the parser to defer parsing function bodies until their statements are accessed for
+	 * the first time. Languages that do not support this parse the bodies right away.
+	 *
+	 * @since 7.2
+	 */
+	public final static int OPTION_DEFER_FUNCTION_BODIES = 0x40;
+
 	/**
 	 * Return the language id for this language.
 	 * This is to differentiate languages from each other.
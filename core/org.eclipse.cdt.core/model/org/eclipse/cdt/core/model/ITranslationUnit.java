@@ -117,6 +117,15 @@ public interface ITranslationUnit extends ICElement, IParent, IOpenable, ISource
 	 */
 	public final static int AST_PARSE_INACTIVE_CODE = 0x80;
 
+	/**
+	 * Style constant for {@link #getAST(IIndex, int)}.
+	 * Allows the parser to defer parsing function bodies until their statements are accessed
+	 * for the first time, e.g. by a visitor or by the resolution of a binding.
+	 *
+	 * @since 7.2
+	 */
+	public final static int AST_DEFER_FUNCTION_BODIES = 0x100;
+
 	/**
 	 * Creates and returns an include declaration in this translation unit
 	 * with the given name.
@@ -15,15 +15,21 @@
  ******************************************************************************/
 package org.eclipse.cdt.internal.core.model;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.index.IIndex;
 import org.eclipse.cdt.core.index.IIndexManager;
 import org.eclipse.cdt.core.model.ILanguage;
 import org.eclipse.cdt.core.model.ITranslationUnit;
+import org.eclipse.cdt.internal.core.dom.parser.ASTNode;
 import org.eclipse.cdt.internal.core.dom.parser.ASTTranslationUnit;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPSemantics;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
@@ -34,6 +40,12 @@ import org.eclipse.core.runtime.Status;
 
 /**
  * Provides a shared AST of a single translation unit at a time.
+ * <p>
+ * In addition, the ASTs of recently active translation units and of translation units parsed in
+ * advance are retained, such that an AST does not need to be recomputed when its translation unit
+ * becomes active again. A retained AST is identified by the modification stamp of the contents it
+ * was created from and is valid until the next write access to the index. The retained ASTs are
+ * limited in number and estimated size, the least recently used ones are evicted first.
  *
  * @since 4.0
  */
@@ -67,6 +79,35 @@ public class ASTCache {
 		IStatus runOnAST(ILanguage lang, IASTTranslationUnit ast) throws CoreException;
 	}
 
+	/** Modification stamp for contents that cannot be identified */
+	public static final long UNKNOWN_MODIFICATION_STAMP = -1;
+	/** Default maximum number of retained ASTs */
+	public static final int MAX_RETAINED_ASTS = 8;
+	/** Rough estimate of the memory used by an AST per character of the parsed code */
+	private static final int ESTIMATED_BYTES_PER_CHAR = 100;
+
+	/**
+	 * An AST of an inactive translation unit.
+	 */
+	private static final class RetainedAST {
+		final IASTTranslationUnit fAST;
+		final long fLastWriteOnIndex;
+		final long fModificationStamp;
+		final long fSize;
+
+		RetainedAST(IASTTranslationUnit ast, long lastWriteOnIndex, long modificationStamp) {
+			fAST = ast;
+			fLastWriteOnIndex = lastWriteOnIndex;
+			fModificationStamp = modificationStamp;
+			fSize = ast instanceof ASTNode ? (long) ((ASTNode) ast).getLength() * ESTIMATED_BYTES_PER_CHAR : 0;
+		}
+
+		boolean isValid(long modificationStamp) {
+			return modificationStamp != UNKNOWN_MODIFICATION_STAMP && modificationStamp == fModificationStamp
+					&& fLastWriteOnIndex >= fAST.getIndex().getLastWriteAccess();
+		}
+	}
+
 	private final int fParseMode;
 	private final Object fCacheMutex = new Object();
 
@@ -82,12 +123,32 @@ public class ASTCache {
 	private long fLastWriteOnIndex;
 	/** Indicates whether the AST is currently being computed */
 	private boolean fIsReconciling;
+	/** The modification stamp of the contents of the active translation unit */
+	private long fActiveModificationStamp = UNKNOWN_MODIFICATION_STAMP;
+
+	/** The retained ASTs by the path of their translation unit, in the order of access */
+	private final LinkedHashMap<IPath, RetainedAST> fRetainedASTs = new LinkedHashMap<>(16, 0.75f, true);
+	private final int fMaxRetainedASTs;
+	private final long fMaxRetainedSize;
+	private long fRetainedSize;
 
 	/**
 	 * Create a new AST cache.
 	 */
 	public ASTCache() {
+		this(MAX_RETAINED_ASTS, Runtime.getRuntime().maxMemory() / 16);
+	}
+
+	/**
+	 * Create a new AST cache retaining the given number of ASTs of inactive translation units.
+	 *
+	 * @param maxRetainedASTs  the maximum number of retained ASTs
+	 * @param maxRetainedSize  the maximum estimated size of the retained ASTs in bytes
+	 */
+	public ASTCache(int maxRetainedASTs, long maxRetainedSize) {
 		fParseMode = PARSE_MODE;
+		fMaxRetainedASTs = maxRetainedASTs;
+		fMaxRetainedSize = maxRetainedSize;
 	}
 
 	/**
@@ -382,16 +443,127 @@ public class ASTCache {
 	 * @param tUnit  the translation unit
 	 */
 	public void setActiveElement(ITranslationUnit tUnit) {
+		setActiveElement(tUnit, UNKNOWN_MODIFICATION_STAMP);
+	}
+
+	/**
+	 * Set the given translation unit as active element to cache an AST for. The AST of the
+	 * previously active element is retained. If a valid AST is retained for the given translation
+	 * unit, it becomes the cached AST.
+	 *
+	 * @param tUnit  the translation unit
+	 * @param modificationStamp  the modification stamp of the contents of the translation unit,
+	 *     or {@link #UNKNOWN_MODIFICATION_STAMP}
+	 * @return <code>true</code> if a retained AST is used for the translation unit
+	 */
+	public boolean setActiveElement(ITranslationUnit tUnit, long modificationStamp) {
 		if (tUnit == fActiveTU) {
-			return;
+			return false;
 		}
+		boolean restored = false;
 		synchronized (fCacheMutex) {
+			RetainedAST retained = tUnit == null ? null : removeRetained(tUnit.getPath());
+			if (fActiveTU != null && fAST != null && !fIsReconciling) {
+				retain(fActiveTU, fAST, fLastWriteOnIndex, fActiveModificationStamp);
+			}
 			fIsReconciling = false;
 			fActiveTU = tUnit;
+			fActiveModificationStamp = modificationStamp;
 			cache(null, tUnit);
+
+			if (retained != null && retained.isValid(modificationStamp)) {
+				cache(retained.fAST, tUnit);
+				fLastWriteOnIndex = retained.fLastWriteOnIndex;
+				restored = true;
+			}
 		}
 		if (DEBUG)
-			System.out.println(DEBUG_PREFIX + getThreadName() + "active element is: " + toString(tUnit)); //$NON-NLS-1$
+			System.out.println(DEBUG_PREFIX + getThreadName() + "active element is: " + toString(tUnit) //$NON-NLS-1$
+					+ (restored ? ", using retained AST" : "")); //$NON-NLS-1$ //$NON-NLS-2$
+		return restored;
+	}
+
+	/**
+	 * Updates the modification stamp of the contents of the active translation unit. Called
+	 * when the contents of the active translation unit have changed.
+	 *
+	 * @param modificationStamp  the new modification stamp
+	 */
+	public void setActiveModificationStamp(long modificationStamp) {
+		synchronized (fCacheMutex) {
+			fActiveModificationStamp = modificationStamp;
+		}
+	}
+
+	/**
+	 * Retains the AST of an inactive translation unit, e.g. one that was parsed in advance.
+	 * The caller must hold a read lock on the index of the AST.
+	 *
+	 * @param tUnit  the translation unit
+	 * @param ast  the AST of the translation unit
+	 * @param modificationStamp  the modification stamp of the contents the AST was created from
+	 */
+	public void retainAST(ITranslationUnit tUnit, IASTTranslationUnit ast, long modificationStamp) {
+		synchronized (fCacheMutex) {
+			if (tUnit.equals(fActiveTU))
+				return;
+			retain(tUnit, ast, ast.getIndex().getLastWriteAccess(), modificationStamp);
+		}
+	}
+
+	/**
+	 * Checks whether a valid AST is retained for the given translation unit.
+	 *
+	 * @param tUnit  the translation unit
+	 * @param modificationStamp  the modification stamp of the current contents of the translation unit
+	 * @return <code>true</code> if an AST for the given contents is retained
+	 */
+	public boolean isRetained(ITranslationUnit tUnit, long modificationStamp) {
+		synchronized (fCacheMutex) {
+			RetainedAST retained = fRetainedASTs.get(tUnit.getPath());
+			return retained != null && retained.isValid(modificationStamp);
+		}
+	}
+
+	/**
+	 * Disposes the retained ASTs of inactive translation units.
+	 */
+	public void disposeRetainedASTs() {
+		synchronized (fCacheMutex) {
+			fRetainedASTs.clear();
+			fRetainedSize = 0;
+		}
+	}
+
+	private void retain(ITranslationUnit tUnit, IASTTranslationUnit ast, long lastWriteOnIndex,
+			long modificationStamp) {
+		assert Thread.holdsLock(fCacheMutex);
+		if (modificationStamp == UNKNOWN_MODIFICATION_STAMP || fMaxRetainedASTs <= 0)
+			return;
+
+		RetainedAST retained = new RetainedAST(ast, lastWriteOnIndex, modificationStamp);
+		removeRetained(tUnit.getPath());
+		fRetainedASTs.put(tUnit.getPath(), retained);
+		fRetainedSize += retained.fSize;
+		if (DEBUG)
+			System.out.println(DEBUG_PREFIX + getThreadName() + "retaining AST: " + toString(ast)); //$NON-NLS-1$
+
+		Iterator<Map.Entry<IPath, RetainedAST>> iterator = fRetainedASTs.entrySet().iterator();
+		while (iterator.hasNext() && (fRetainedASTs.size() > fMaxRetainedASTs || fRetainedSize > fMaxRetainedSize)) {
+			RetainedAST eldest = iterator.next().getValue();
+			iterator.remove();
+			fRetainedSize -= eldest.fSize;
+			if (DEBUG)
+				System.out.println(DEBUG_PREFIX + getThreadName() + "evicting AST: " + toString(eldest.fAST)); //$NON-NLS-1$
+		}
+	}
+
+	private RetainedAST removeRetained(IPath path) {
+		RetainedAST retained = fRetainedASTs.remove(path);
+		if (retained != null) {
+			fRetainedSize -= retained.fSize;
+		}
+		return retained;
 	}
 
 	/**
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ast.DOMException;
@@ -99,6 +100,7 @@ import org.eclipse.core.runtime.OperationCanceledException;
  */
 public class CModelBuilder2 implements IContributedModelBuilder {
 	private final static boolean DEBUG = Util.isActive(DebugLogConstants.MODEL);
+	private static final AtomicLong sIncrementalUpdates = new AtomicLong();
 
 	private final TranslationUnit fTranslationUnit;
 	private final Map<ICElement, CElementInfo> fNewElements;
@@ -147,9 +149,18 @@ public class CModelBuilder2 implements IContributedModelBuilder {
 			}
 			parseFlags |= ITranslationUnit.AST_SKIP_TRIVIAL_EXPRESSIONS_IN_AGGREGATE_INITIALIZERS;
 			parseFlags |= ITranslationUnit.AST_PARSE_INACTIVE_CODE;
+			char[] contents = null;
+			IncrementalModelUpdate update = null;
+			if (elementInfo instanceof ASTHolderTUInfo) {
+				// Edits within a function body do not change the structure of the translation unit.
+				// The AST is parsed from the same contents the snapshot is created from.
+				contents = fTranslationUnit.getContents();
+				update = IncrementalModelUpdate.create(fTranslationUnit.getModelSnapshot(),
+						(CElementInfo) CModelManager.getDefault().peekAtCachedInfo(fTranslationUnit), contents);
+			}
 			final IASTTranslationUnit ast;
 			try {
-				ast = fTranslationUnit.getAST(index, parseFlags, fProgressMonitor);
+				ast = fTranslationUnit.getAST(index, parseFlags, fProgressMonitor, contents);
 				if (DEBUG) {
 					Util.debugLog("CModelBuilder2: parsing " //$NON-NLS-1$
 							+ fTranslationUnit.getElementName() + " mode=" //$NON-NLS-1$
@@ -167,10 +178,20 @@ public class CModelBuilder2 implements IContributedModelBuilder {
 
 			checkCanceled();
 			startTime = System.currentTimeMillis();
-			buildModel(ast);
+			final boolean incremental = update != null && update.isConsistentWith(ast, contents)
+					&& update.apply(elementInfo, fNewElements);
+			if (incremental) {
+				sIncrementalUpdates.incrementAndGet();
+				reportProblems(ast);
+			} else {
+				buildModel(ast);
+			}
 			elementInfo.setIsStructureKnown(true);
+			if (contents != null) {
+				fTranslationUnit.setModelSnapshot(IncrementalModelUpdate.createSnapshot(elementInfo, contents, ast));
+			}
 			if (DEBUG) {
-				Util.debugLog("CModelBuilder2: building " //$NON-NLS-1$
+				Util.debugLog("CModelBuilder2: " + (incremental ? "updating " : "building ") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 						+ "children=" + elementInfo.internalGetChildren().size() //$NON-NLS-1$
 						+ " time=" + (System.currentTimeMillis() - startTime) + "ms", //$NON-NLS-1$ //$NON-NLS-2$
 						DebugLogConstants.MODEL, false);
@@ -252,7 +273,22 @@ public class CModelBuilder2 implements IContributedModelBuilder {
 			return;
 		}
 
-		// Report problems
+		reportProblems(ast);
+	}
+
+	/**
+	 * Returns the number of times the model of a translation unit has been updated for an edit
+	 * within a function body, rather than built from the AST.
+	 */
+	public static long getIncrementalUpdateCount() {
+		return sIncrementalUpdates.get();
+	}
+
+	/**
+	 * Reports the problems of the given AST to the problem requestor of the translation unit.
+	 * @param ast
+	 */
+	private void reportProblems(IASTTranslationUnit ast) {
 		IProblemRequestor problemRequestor = fTranslationUnit.getProblemRequestor();
 		if (problemRequestor != null && problemRequestor.isActive()) {
 			problemRequestor.beginReporting();
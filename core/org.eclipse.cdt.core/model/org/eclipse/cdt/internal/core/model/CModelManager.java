@@ -1284,6 +1284,14 @@ public class CModelManager implements IResourceChangeListener, IContentTypeChang
 		return this.cache.peekAtInfo(element);
 	}
 
+	/**
+	 *  Returns the info for this element from the cache, ignoring the infos
+	 *  of elements that are being opened by the current thread.
+	 */
+	protected synchronized Object peekAtCachedInfo(ICElement element) {
+		return this.cache.peekAtInfo(element);
+	}
+
 	/*
 	 * Puts the infos in the given map (keys are ICElements and values are CElementInfos)
 	 * in the C model cache in an atomic way.
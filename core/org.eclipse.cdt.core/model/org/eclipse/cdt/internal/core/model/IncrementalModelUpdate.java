@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.model.ICElement;
+
+/**
+ * Updates the structure of a translation unit for an edit that is confined to the body of a
+ * function definition.
+ * <p>
+ * Such an edit does not change the elements of the translation unit, it merely moves the elements
+ * following the edit and changes the length of the elements enclosing it. Instead of building the
+ * model from the new AST, the element infos of the previous model are copied and their positions
+ * are adjusted. An edit qualifies if it does not insert or remove characters that could change the
+ * extent of a block, comment, literal or preprocessor directive, and if the top-level declarations
+ * of the new AST are located as predicted.
+ */
+final class IncrementalModelUpdate {
+	/** Characters that must not be inserted or removed by the edit. */
+	private static final String STRUCTURAL_CHARS = "{}#\"'/*\\\r\n"; //$NON-NLS-1$
+	/** Characters that must not precede or follow the edit. */
+	private static final String STRUCTURAL_NEIGHBORS = "#\"'/*\\"; //$NON-NLS-1$
+
+	/**
+	 * The model of a translation unit together with the contents it was built from.
+	 */
+	static final class Snapshot {
+		final CElementInfo fInfo;
+		final char[] fContents;
+		// Start and end offsets of the function bodies, ordered by offset.
+		final int[] fBodies;
+		// Start and end offsets of the top-level declarations, ordered by offset.
+		final int[] fDeclarations;
+
+		private Snapshot(CElementInfo info, char[] contents, int[] bodies, int[] declarations) {
+			fInfo = info;
+			fContents = contents;
+			fBodies = bodies;
+			fDeclarations = declarations;
+		}
+	}
+
+	private final Snapshot fSnapshot;
+	private final int fOffset;
+	private final int fRemovedEnd;
+	private final int fDelta;
+
+	private IncrementalModelUpdate(Snapshot snapshot, int offset, int removedEnd, int delta) {
+		fSnapshot = snapshot;
+		fOffset = offset;
+		fRemovedEnd = removedEnd;
+		fDelta = delta;
+	}
+
+	/**
+	 * Creates the snapshot of a model that was built from the given contents and AST.
+	 */
+	static Snapshot createSnapshot(CElementInfo info, char[] contents, IASTTranslationUnit ast) {
+		final List<int[]> bodies = new ArrayList<>();
+		ast.accept(new ASTVisitor() {
+			{
+				shouldVisitDeclarations = true;
+				includeInactiveNodes = true;
+			}
+
+			@Override
+			public int visit(IASTDeclaration declaration) {
+				if (!declaration.isPartOfTranslationUnitFile())
+					return PROCESS_SKIP;
+				if (declaration instanceof IASTFunctionDefinition) {
+					IASTStatement body = ((IASTFunctionDefinition) declaration).getBody();
+					int[] range = body != null ? getRange(body.getFileLocation(), contents) : null;
+					// Bodies resulting from macro expansions do not match the braces in the source.
+					if (range != null && contents[range[0]] == '{' && contents[range[1] - 1] == '}') {
+						bodies.add(range);
+					}
+					return PROCESS_SKIP;
+				}
+				return PROCESS_CONTINUE;
+			}
+		});
+		bodies.sort((a, b) -> a[0] - b[0]);
+		int[] declarations = getDeclarationRanges(ast, contents);
+		if (declarations == null)
+			return null;
+		return new Snapshot(info, contents, flatten(bodies), declarations);
+	}
+
+	/**
+	 * Returns an update for the difference between the contents of the snapshot and the given
+	 * contents, or {@code null} if the difference is not an edit within a single function body.
+	 * The update is only valid as long as the snapshot describes the current model, i.e. the info
+	 * of the translation unit has not been replaced.
+	 */
+	static IncrementalModelUpdate create(Snapshot snapshot, CElementInfo currentInfo, char[] contents) {
+		if (snapshot == null || snapshot.fInfo != currentInfo || contents == null)
+			return null;
+
+		final char[] old = snapshot.fContents;
+		final int minLength = Math.min(old.length, contents.length);
+		int prefix = 0;
+		while (prefix < minLength && old[prefix] == contents[prefix]) {
+			prefix++;
+		}
+		if (prefix == old.length && prefix == contents.length) {
+			// The contents did not change, but the resolution of includes may have.
+			return null;
+		}
+		int suffix = 0;
+		while (suffix < minLength - prefix
+				&& old[old.length - 1 - suffix] == contents[contents.length - 1 - suffix]) {
+			suffix++;
+		}
+		final int offset = prefix;
+		final int removedEnd = old.length - suffix;
+		final int insertedEnd = contents.length - suffix;
+
+		if (!isEnclosedByBody(snapshot.fBodies, offset, removedEnd))
+			return null;
+		if (containsAny(old, offset, removedEnd, STRUCTURAL_CHARS)
+				|| containsAny(contents, offset, insertedEnd, STRUCTURAL_CHARS))
+			return null;
+		if (containsAny(old, offset - 1, offset, STRUCTURAL_NEIGHBORS)
+				|| containsAny(old, removedEnd, removedEnd + 1, STRUCTURAL_NEIGHBORS))
+			return null;
+		return new IncrementalModelUpdate(snapshot, offset, removedEnd, insertedEnd - removedEnd);
+	}
+
+	/**
+	 * Checks whether the top-level declarations of the new AST are located where the edit
+	 * moved them. This detects edits that change the structure through macro expansions.
+	 */
+	boolean isConsistentWith(IASTTranslationUnit ast, char[] contents) {
+		final int[] expected = fSnapshot.fDeclarations;
+		final int[] actual = getDeclarationRanges(ast, contents);
+		if (actual == null || actual.length != expected.length)
+			return false;
+		for (int i = 0; i < expected.length; i += 2) {
+			if (actual[i] != adjustStart(expected[i]) || actual[i + 1] != adjustEnd(expected[i + 1]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Copies the children of the previous model into the given info of the translation unit and
+	 * adds their infos with adjusted positions to the map of new elements. Returns {@code false}
+	 * without modifying the info or the map if the infos of the previous model are no longer
+	 * available.
+	 */
+	boolean apply(CElementInfo newInfo, Map<ICElement, CElementInfo> newElements) {
+		final Map<ICElement, CElementInfo> copies = new HashMap<>();
+		final ICElement[] children = fSnapshot.fInfo.getChildren();
+		for (ICElement child : children) {
+			if (!copyInfos(child, copies))
+				return false;
+		}
+		for (ICElement child : children) {
+			newInfo.addChild(child);
+		}
+		newElements.putAll(copies);
+		return true;
+	}
+
+	private boolean copyInfos(ICElement element, Map<ICElement, CElementInfo> copies) {
+		// The temporary cache already holds the new info of the translation unit, the infos of the
+		// previous model are taken from the model cache.
+		Object info = CModelManager.getDefault().peekAtCachedInfo(element);
+		if (!(info instanceof CElementInfo))
+			return false;
+		// The copy shares the list of children with the original, which is never modified.
+		CElementInfo copy = (CElementInfo) ((CElementInfo) info).clone();
+		if (copy instanceof SourceManipulationInfo) {
+			SourceManipulationInfo smInfo = (SourceManipulationInfo) copy;
+			int start = smInfo.getStartPos();
+			int end = start + smInfo.getLength();
+			int newStart = adjustStart(start);
+			smInfo.setPos(newStart, adjustEnd(end) - newStart);
+			smInfo.setIdPos(adjustStart(smInfo.getIdStartPos()), smInfo.getIdLength());
+		}
+		copies.put(element, copy);
+		for (ICElement child : copy.getChildren()) {
+			if (!copyInfos(child, copies))
+				return false;
+		}
+		return true;
+	}
+
+	private int adjustStart(int offset) {
+		return offset >= fRemovedEnd ? offset + fDelta : offset;
+	}
+
+	private int adjustEnd(int offset) {
+		return offset > fOffset ? offset + fDelta : offset;
+	}
+
+	private static boolean isEnclosedByBody(int[] bodies, int offset, int end) {
+		// Find the last body starting before the offset.
+		int low = 0;
+		int high = bodies.length / 2 - 1;
+		int candidate = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (bodies[2 * mid] < offset) {
+				candidate = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		// The closing brace must not be touched.
+		return candidate >= 0 && end < bodies[2 * candidate + 1];
+	}
+
+	private static boolean containsAny(char[] chars, int start, int end, String set) {
+		start = Math.max(start, 0);
+		end = Math.min(end, chars.length);
+		for (int i = start; i < end; i++) {
+			if (set.indexOf(chars[i]) >= 0)
+				return true;
+		}
+		return false;
+	}
+
+	private static int[] getDeclarationRanges(IASTTranslationUnit ast, char[] contents) {
+		List<int[]> ranges = new ArrayList<>();
+		for (IASTDeclaration declaration : ast.getDeclarations(true)) {
+			if (declaration.isPartOfTranslationUnitFile()) {
+				int[] range = getRange(declaration.getFileLocation(), contents);
+				if (range == null)
+					return null;
+				ranges.add(range);
+			}
+		}
+		return flatten(ranges);
+	}
+
+	private static int[] getRange(IASTFileLocation location, char[] contents) {
+		if (location == null)
+			return null;
+		int start = location.getNodeOffset();
+		int end = start + location.getNodeLength();
+		if (start < 0 || end <= start || end > contents.length)
+			return null;
+		return new int[] { start, end };
+	}
+
+	private static int[] flatten(List<int[]> ranges) {
+		int[] result = new int[2 * ranges.size()];
+		for (int i = 0; i < ranges.size(); i++) {
+			result[2 * i] = ranges.get(i)[0];
+			result[2 * i + 1] = ranges.get(i)[1];
+		}
+		return result;
+	}
+}
@@ -76,6 +76,7 @@ import org.eclipse.cdt.internal.core.dom.parser.CompositeValue;
 import org.eclipse.cdt.internal.core.index.IndexBasedFileContentProvider;
 import org.eclipse.cdt.internal.core.parser.InternalParserUtil;
 import org.eclipse.cdt.internal.core.parser.ParserLogService;
+import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider;
 import org.eclipse.cdt.internal.core.pdom.indexer.ProjectIndexerIncludeResolutionHeuristics;
 import org.eclipse.cdt.internal.core.pdom.indexer.ProjectIndexerInputAdapter;
@@ -119,6 +120,12 @@ public class TranslationUnit extends Openable implements ITranslationUnit {
 	SourceManipulationInfo sourceManipulationInfo;
 	private ILanguage fLanguageOfContext;
 
+	/**
+	 * The model built for the last reconcile that computed an AST, used to update the model
+	 * incrementally for edits within function bodies.
+	 */
+	private volatile IncrementalModelUpdate.Snapshot fModelSnapshot;
+
 	public TranslationUnit(ICElement parent, IFile file, String idType) {
 		super(parent, file, ICElement.C_UNIT);
 		setContentTypeID(idType);
@@ -815,9 +822,18 @@ public class TranslationUnit extends Openable implements ITranslationUnit {
 		if (cType != null) {
 			setContentTypeID(cType.getId());
 		}
+		fModelSnapshot = null;
 		super.closing(info);
 	}
 
+	IncrementalModelUpdate.Snapshot getModelSnapshot() {
+		return fModelSnapshot;
+	}
+
+	void setModelSnapshot(IncrementalModelUpdate.Snapshot snapshot) {
+		fModelSnapshot = snapshot;
+	}
+
 	/**
 	 * Contributed languages' model builders need to be able to indicate whether or
 	 * not the parse of a translation unit was successful without having access to
@@ -844,6 +860,15 @@ public class TranslationUnit extends Openable implements ITranslationUnit {
 	}
 
 	public IASTTranslationUnit getAST(IIndex index, int style, IProgressMonitor monitor) throws CoreException {
+		return getAST(index, style, monitor, null);
+	}
+
+	/**
+	 * Creates the AST for the given contents, or for the current contents of the translation unit
+	 * if {@code contents} is {@code null}.
+	 */
+	IASTTranslationUnit getAST(IIndex index, int style, IProgressMonitor monitor, char[] contents)
+			throws CoreException {
 		boolean incompleteIndex = index != null && !index.isFullyInitialized();
 		IIndexFile[] contextToHeader = getContextToHeader(index, style);
 		ITranslationUnit configureWith = getConfigureWith(contextToHeader);
@@ -855,7 +880,7 @@ public class TranslationUnit extends Openable implements ITranslationUnit {
 			return null;
 		}
 
-		FileContent fileContent = FileContent.create(this);
+		FileContent fileContent = contents != null ? createFileContent(contents) : FileContent.create(this);
 		if (fileContent == null) {
 			return null;
 		}
@@ -877,6 +902,9 @@ public class TranslationUnit extends Openable implements ITranslationUnit {
 		if ((style & AST_PARSE_INACTIVE_CODE) != 0) {
 			options |= ILanguage.OPTION_PARSE_INACTIVE_CODE;
 		}
+		if ((style & AST_DEFER_FUNCTION_BODIES) != 0) {
+			options |= ILanguage.OPTION_DEFER_FUNCTION_BODIES;
+		}
 		final IParserLogService log;
 		if (monitor instanceof ICanceler) {
 			log = new ParserLogService(DebugLogConstants.PARSER, (ICanceler) monitor);
@@ -892,6 +920,15 @@ public class TranslationUnit extends Openable implements ITranslationUnit {
 		return ast;
 	}
 
+	private FileContent createFileContent(char[] contents) {
+		IPath location = getLocation();
+		String path = location == null ? getElementName() : location.toOSString();
+		InternalFileContent fileContent = (InternalFileContent) FileContent.create(path, contents);
+		fileContent.setTranslationUnit(this);
+		fileContent.setIsSource(isSourceUnit());
+		return fileContent;
+	}
+
 	private IncludeFileContentProvider getIncludeFileContentProvider(int style, IIndex index, int linkageID,
 			IIndexFile[] contextToHeader) {
 		final ICProject cprj = getCProject();
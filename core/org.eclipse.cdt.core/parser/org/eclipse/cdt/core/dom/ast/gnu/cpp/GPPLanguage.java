@@ -129,6 +129,9 @@ public class GPPLanguage extends AbstractCLikeLanguage {
 				parser.setMaximumTrivialExpressionsInAggregateInitializers(maximumTrivialExpressions);
 			}
 		}
+		if ((options & OPTION_DEFER_FUNCTION_BODIES) != 0) {
+			parser.setDeferFunctionBodies(true);
+		}
 		return parser;
 	}
 
@@ -402,6 +402,20 @@ public interface IIndex {
 	 */
 	public IIndexName[] findNames(IBinding binding, int flags) throws CoreException;
 
+	/**
+	 * Searches for all names that resolve to the given binding, like
+	 * {@link #findNames(IBinding, int)}, but returns the names in batches. This allows for
+	 * processing the names of frequently referenced bindings incrementally. The read lock may be
+	 * released between batches, the cursor detects modifications of the index in the meantime.
+	 *
+	 * @param binding a binding for which names are searched for
+	 * @param flags the same flags as for {@link #findNames(IBinding, int)}
+	 * @return a cursor over the names
+	 * @throws CoreException
+	 * @since 7.2
+	 */
+	public IIndexNameCursor findNameCursor(IBinding binding, int flags) throws CoreException;
+
 	/**
 	 * Searches for all references that resolve to the given binding.
 	 * This is fully equivalent to
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.index;
+
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Provides the names found by {@link IIndex#findNameCursor(org.eclipse.cdt.core.dom.ast.IBinding, int)}
+ * in batches, such that clients can process a large number of names without holding all of them
+ * in memory.
+ * <p>
+ * The methods of a cursor must be called while holding a read lock on the index. The lock may be
+ * released between two batches, however the names of a batch are only valid as long as the lock
+ * is held. When the index is modified while the lock is released, the cursor becomes invalid and
+ * the search has to be restarted, see {@link #isValid()}.
+ *
+ * @since 7.2
+ * @noextend This interface is not intended to be extended by clients.
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface IIndexNameCursor {
+	/**
+	 * Returns whether there are more names to be returned by {@link #next(int)}.
+	 * @throws CoreException if the cursor is no longer valid or the index cannot be read
+	 */
+	boolean hasNext() throws CoreException;
+
+	/**
+	 * Returns the next batch of names. The result contains at most the given number of names,
+	 * it is empty when all names have been returned.
+	 * @param maxCount the maximum number of names to return, must be positive
+	 * @throws CoreException if the cursor is no longer valid or the index cannot be read
+	 */
+	IIndexName[] next(int maxCount) throws CoreException;
+
+	/**
+	 * Returns {@code false} if the index has been modified since the cursor was created. An
+	 * invalid cursor throws an exception on any further attempt to retrieve names.
+	 */
+	boolean isValid();
+}
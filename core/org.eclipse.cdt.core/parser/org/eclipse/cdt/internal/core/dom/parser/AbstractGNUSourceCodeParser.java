@@ -22,6 +22,7 @@ package org.eclipse.cdt.internal.core.dom.parser;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.eclipse.cdt.core.dom.ast.ASTCompletionNode;
 import org.eclipse.cdt.core.dom.ast.ASTGenericVisitor;
@@ -99,6 +100,7 @@ import org.eclipse.cdt.core.parser.IToken;
 import org.eclipse.cdt.core.parser.OffsetLimitReachedException;
 import org.eclipse.cdt.core.parser.ParseError;
 import org.eclipse.cdt.core.parser.ParserMode;
+import org.eclipse.cdt.core.parser.util.CharArraySet;
 import org.eclipse.cdt.core.parser.util.CharArrayUtils;
 import org.eclipse.cdt.internal.core.parser.scanner.ILocationResolver;
 
@@ -208,6 +210,9 @@ public abstract class AbstractGNUSourceCodeParser implements ISourceCodeParser {
 
 	protected boolean functionCallCanBeLValue;
 	protected int maximumTrivialExpressionsInAggregateInitializers = Integer.MAX_VALUE;
+	protected boolean deferFunctionBodies;
+	private List<DeferredFunctionBody> deferredFunctionBodies;
+	private CharArraySet identifiers;
 
 	/**
 	 *  Marks the beginning of the current declaration. It is important to clear the mark whenever we
@@ -253,6 +258,55 @@ public abstract class AbstractGNUSourceCodeParser implements ISourceCodeParser {
 		maximumTrivialExpressionsInAggregateInitializers = limit;
 	}
 
+	/**
+	 * Instructs the parser to record the tokens of function bodies rather than parsing them.
+	 * The bodies are parsed when they are accessed for the first time.
+	 */
+	public void setDeferFunctionBodies(boolean defer) {
+		deferFunctionBodies = defer;
+	}
+
+	/**
+	 * Returns an action that applies the settings of this parser to a parser created for a deferred
+	 * function body, such that the body is parsed as it would have been in place. The action does
+	 * not reference this parser. The parsers share the table of identifiers.
+	 */
+	protected Consumer<AbstractGNUSourceCodeParser> captureSettings() {
+		final int maxTrivialExpressions = maximumTrivialExpressionsInAggregateInitializers;
+		final boolean parameterInfoBlock = supportParameterInfoBlock;
+		final boolean functionStyleAsm = supportFunctionStyleAsm;
+		final boolean extendedSizeofOperator = supportExtendedSizeofOperator;
+		final boolean callCanBeLValue = functionCallCanBeLValue;
+		final CharArraySet identifierTable = getIdentifiers();
+		return parser -> {
+			parser.maximumTrivialExpressionsInAggregateInitializers = maxTrivialExpressions;
+			parser.supportParameterInfoBlock = parameterInfoBlock;
+			parser.supportFunctionStyleAsm = functionStyleAsm;
+			parser.supportExtendedSizeofOperator = extendedSizeofOperator;
+			parser.functionCallCanBeLValue = callCanBeLValue;
+			parser.identifiers = identifierTable;
+		};
+	}
+
+	/**
+	 * Returns the canonical instance of the given identifier. Names for the same identifier share
+	 * the character array rather than each of them holding a copy of the image of its token.
+	 */
+	protected final char[] internIdentifier(char[] image) {
+		final CharArraySet table = getIdentifiers();
+		// The table is shared with the parsers of deferred function bodies, which may run concurrently.
+		synchronized (table) {
+			return table.keyAt(table.addIndex(image, 0, image.length));
+		}
+	}
+
+	private CharArraySet getIdentifiers() {
+		if (identifiers == null) {
+			identifiers = new CharArraySet(64);
+		}
+		return identifiers;
+	}
+
 	private AbstractParserLogService wrapLogService(IParserLogService logService) {
 		if (logService instanceof AbstractParserLogService) {
 			return (AbstractParserLogService) logService;
@@ -698,6 +752,12 @@ public abstract class AbstractGNUSourceCodeParser implements ISourceCodeParser {
 		}
 		nullifyTranslationUnit();
 		ast.freeze(); // Make the AST immutable.
+		if (deferredFunctionBodies != null) {
+			for (DeferredFunctionBody body : deferredFunctionBodies) {
+				body.enable();
+			}
+			deferredFunctionBodies = null;
+		}
 		return ast;
 	}
 
@@ -931,7 +991,7 @@ public abstract class AbstractGNUSourceCodeParser implements ISourceCodeParser {
 		return pd;
 	}
 
-	private IASTProblemStatement buildProblemStatement(IASTProblem problem) {
+	protected IASTProblemStatement buildProblemStatement(IASTProblem problem) {
 		IASTProblemStatement pstmt = nodeFactory.newProblemStatement(problem);
 		((ASTNode) pstmt).setOffsetAndLength(((ASTNode) problem));
 		return pstmt;
@@ -1517,9 +1577,78 @@ public abstract class AbstractGNUSourceCodeParser implements ISourceCodeParser {
 		}
 
 		// full parse
+		if (deferFunctionBodies && canDeferFunctionBody()) {
+			IASTCompoundStatement body = deferFunctionBody();
+			if (body != null)
+				return body;
+		}
 		return functionBody();
 	}
 
+	/**
+	 * Checks whether the function body at the current position can be parsed later on.
+	 */
+	protected boolean canDeferFunctionBody() {
+		return false;
+	}
+
+	/**
+	 * Creates the node for a function body that is parsed when it is accessed for the first time,
+	 * or returns {@code null} if this is not supported.
+	 */
+	protected IASTCompoundStatement createDeferredFunctionBody(DeferredFunctionBody body) {
+		return null;
+	}
+
+	/**
+	 * Records the tokens of the function body at the current position, or returns {@code null}
+	 * without consuming tokens if the body needs to be parsed now.
+	 */
+	private IASTCompoundStatement deferFunctionBody() throws EndOfFileException, BacktrackException {
+		final IToken first = mark();
+		if (first.getType() != IToken.tLBRACE)
+			return null;
+
+		IToken last;
+		try {
+			last = skipOverCompoundStatement(false);
+		} catch (EndOfFileException e) {
+			// The body is incomplete, parse it to report the problem.
+			backup(first);
+			return null;
+		}
+
+		List<IToken> tokens = new ArrayList<>();
+		for (IToken t = first;; t = t.getNext()) {
+			switch (t.getType()) {
+			case IToken.tINACTIVE_CODE_START:
+			case IToken.tINACTIVE_CODE_SEPARATOR:
+			case IToken.tINACTIVE_CODE_END:
+			case IToken.tCOMPLETION:
+			case IToken.tEOC:
+				backup(first);
+				return null;
+			}
+			tokens.add(t);
+			if (t == last)
+				break;
+		}
+
+		DeferredFunctionBody deferred = new DeferredFunctionBody(tokens.toArray(new IToken[tokens.size()]),
+				scanner.getAdditionalNumericLiteralSuffixes());
+		IASTCompoundStatement body = createDeferredFunctionBody(deferred);
+		if (body == null) {
+			backup(first);
+			return null;
+		}
+		if (deferredFunctionBodies == null) {
+			deferredFunctionBodies = new ArrayList<>();
+		}
+		deferredFunctionBodies.add(deferred);
+		setRange(body, first.getOffset(), last.getEndOffset());
+		return body;
+	}
+
 	/**
 	 * Parses a function body.
 	 *
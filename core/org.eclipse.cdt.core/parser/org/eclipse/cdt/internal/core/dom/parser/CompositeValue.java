@@ -254,6 +254,50 @@ public final class CompositeValue implements IValue {
 		}
 	}
 
+	/**
+	 * Composite values are equal when their sub-values are equivalent, regardless of the
+	 * evaluation they were computed from. This makes non-type template arguments with the same
+	 * composite value denote the same instance.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof CompositeValue))
+			return false;
+		final ICPPEvaluation[] otherValues = ((CompositeValue) obj).values;
+		if (values.length != otherValues.length)
+			return false;
+		for (int i = 0; i < values.length; i++) {
+			if (!values[i].isEquivalentTo(otherValues[i]))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = values.length;
+		for (ICPPEvaluation value : values) {
+			hash = 31 * hash + hashSubValue(value);
+		}
+		return hash;
+	}
+
+	/**
+	 * Computes a hash code that is equal for equivalent sub-values. Only fixed values
+	 * contribute to it.
+	 */
+	private static int hashSubValue(ICPPEvaluation eval) {
+		if (!(eval instanceof EvalFixed))
+			return 0;
+		final IValue value = eval.getValue();
+		if (value instanceof CompositeValue)
+			return value.hashCode();
+		final Number number = value.numberValue();
+		return number == null ? 0 : number.hashCode();
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.dom.parser;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.eclipse.cdt.core.dom.ast.ASTGenericVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IMacroBinding;
+import org.eclipse.cdt.core.parser.EndOfFileException;
+import org.eclipse.cdt.core.parser.IScanner;
+import org.eclipse.cdt.core.parser.IToken;
+import org.eclipse.cdt.core.parser.IncludeExportPatterns;
+import org.eclipse.cdt.core.parser.ParseError;
+import org.eclipse.cdt.internal.core.parser.scanner.ILocationResolver;
+
+/**
+ * The tokens of a function body that has not been parsed together with the rest of the translation
+ * unit. The body is parsed from the tokens when it is accessed for the first time, the tokens carry
+ * the offsets assigned by the preprocessor, such that the locations of the nodes are the same as
+ * with a complete parse.
+ */
+public final class DeferredFunctionBody {
+	private final IToken[] fTokens;
+	private final char[] fAdditionalNumericLiteralSuffixes;
+	private volatile boolean fEnabled;
+
+	DeferredFunctionBody(IToken[] tokens, char[] additionalNumericLiteralSuffixes) {
+		fTokens = tokens;
+		fAdditionalNumericLiteralSuffixes = additionalNumericLiteralSuffixes;
+	}
+
+	/**
+	 * Called when the translation unit is complete, the body must not be parsed before.
+	 */
+	void enable() {
+		// Don't hold on to the tokens following the body.
+		fTokens[fTokens.length - 1].setNext(null);
+		fEnabled = true;
+	}
+
+	/**
+	 * Returns whether the translation unit containing the body is complete.
+	 */
+	public boolean isEnabled() {
+		return fEnabled;
+	}
+
+	/**
+	 * Creates a scanner that returns the tokens of the body.
+	 */
+	public IScanner createScanner() {
+		return new ReplayScanner(fTokens, fAdditionalNumericLiteralSuffixes);
+	}
+
+	/**
+	 * Makes the nodes parsed for a function body immutable, like the rest of the translation unit.
+	 */
+	public static void freeze(IASTNode node) {
+		node.accept(new ASTGenericVisitor(true) {
+			@Override
+			protected int genericVisit(IASTNode n) {
+				((ASTNode) n).setIsFrozen();
+				return PROCESS_CONTINUE;
+			}
+		});
+	}
+
+	private static final class ReplayScanner implements IScanner {
+		private final IToken[] fTokens;
+		private final char[] fAdditionalNumericLiteralSuffixes;
+		private int fNext;
+		private volatile boolean fCancelled;
+
+		ReplayScanner(IToken[] tokens, char[] additionalNumericLiteralSuffixes) {
+			fTokens = tokens;
+			fAdditionalNumericLiteralSuffixes = additionalNumericLiteralSuffixes;
+		}
+
+		@Override
+		public IToken nextToken() throws EndOfFileException {
+			if (fCancelled) {
+				throw new ParseError(ParseError.ParseErrorKind.TIMEOUT_OR_CANCELLED);
+			}
+			if (fNext == fTokens.length) {
+				IToken last = fTokens[fTokens.length - 1];
+				throw new EndOfFileException(last.getEndOffset());
+			}
+			return fTokens[fNext++];
+		}
+
+		@Override
+		public Map<String, IMacroBinding> getMacroDefinitions() {
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public boolean isOnTopContext() {
+			return true;
+		}
+
+		@Override
+		public void cancel() {
+			fCancelled = true;
+		}
+
+		@Override
+		public ILocationResolver getLocationResolver() {
+			return null;
+		}
+
+		@Override
+		public void setContentAssistMode(int offset) {
+		}
+
+		@Override
+		public void setSplitShiftROperator(boolean val) {
+			// The tokens have been split by the original scanner.
+		}
+
+		@Override
+		public void setComputeImageLocations(boolean val) {
+		}
+
+		@Override
+		public void setTrackIncludeExport(IncludeExportPatterns patterns) {
+		}
+
+		@Override
+		public void setProcessInactiveCode(boolean val) {
+		}
+
+		@Override
+		public void skipInactiveCode() {
+		}
+
+		@Override
+		public int getCodeBranchNesting() {
+			return 0;
+		}
+
+		@Override
+		public char[] getAdditionalNumericLiteralSuffixes() {
+			return fAdditionalNumericLiteralSuffixes;
+		}
+	}
+}
@@ -1740,14 +1740,14 @@ public class GNUCSourceParser extends AbstractGNUSourceCodeParser {
 		switch (t.getType()) {
 		case IToken.tIDENTIFIER:
 			consume();
-			n = getNodeFactory().newName(t.getCharImage());
+			n = getNodeFactory().newName(internIdentifier(t.getCharImage()));
 			setRange(n, t.getOffset(), t.getEndOffset());
 			break;
 
 		case IToken.tCOMPLETION:
 		case IToken.tEOC:
 			consume();
-			n = getNodeFactory().newName(t.getCharImage());
+			n = getNodeFactory().newName(internIdentifier(t.getCharImage()));
 			setRange(n, t.getOffset(), t.getEndOffset());
 			ASTCompletionNode node = createCompletionNode(t);
 			if (node != null)
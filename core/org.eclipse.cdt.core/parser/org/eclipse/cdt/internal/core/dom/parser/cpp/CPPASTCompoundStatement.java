@@ -59,6 +59,10 @@ public class CPPASTCompoundStatement extends CPPASTAttributeOwner
 	@Override
 	public void addStatement(IASTStatement statement) {
 		assertNotFrozen();
+		doAddStatement(statement);
+	}
+
+	void doAddStatement(IASTStatement statement) {
 		statements = ArrayUtil.append(statements, statement);
 		if (statement != null) {
 			statement.setParent(this);
@@ -97,7 +101,7 @@ public class CPPASTCompoundStatement extends CPPASTAttributeOwner
 
 		if (!acceptByAttributeSpecifiers(action))
 			return false;
-		for (IASTStatement statement : statements) {
+		for (IASTStatement statement : getStatements()) {
 			if (statement == null)
 				break;
 			if (!statement.accept(action))
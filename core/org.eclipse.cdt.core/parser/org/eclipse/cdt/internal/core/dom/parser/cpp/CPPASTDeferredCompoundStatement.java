@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.dom.parser.cpp;
+
+import java.util.function.Function;
+
+import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
+import org.eclipse.cdt.core.dom.ast.IASTImplicitDestructorName;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTTranslationUnit;
+import org.eclipse.cdt.core.parser.IScanner;
+import org.eclipse.cdt.internal.core.dom.parser.DeferredFunctionBody;
+
+/**
+ * Body of a function definition that is parsed when its statements are accessed for the first time.
+ */
+public class CPPASTDeferredCompoundStatement extends CPPASTCompoundStatement {
+	private volatile DeferredFunctionBody fDeferredBody;
+	private Function<IScanner, GNUCPPSourceParser> fParserFactory;
+	private boolean fParsing;
+
+	CPPASTDeferredCompoundStatement(DeferredFunctionBody body, Function<IScanner, GNUCPPSourceParser> parserFactory) {
+		fDeferredBody = body;
+		fParserFactory = parserFactory;
+	}
+
+	/**
+	 * Returns whether the statements of the body have not been parsed, yet.
+	 */
+	public boolean isDeferred() {
+		return fDeferredBody != null;
+	}
+
+	private void parseDeferredBody() {
+		if (fDeferredBody == null)
+			return;
+
+		synchronized (this) {
+			final DeferredFunctionBody deferred = fDeferredBody;
+			// While parsing, the ambiguity resolution accesses the statements parsed so far.
+			if (deferred == null || !deferred.isEnabled() || fParsing)
+				return;
+
+			fParsing = true;
+			try {
+				final IASTTranslationUnit tu = getTranslationUnit();
+				final GNUCPPSourceParser parser = fParserFactory.apply(deferred.createScanner());
+				final IASTCompoundStatement body = parser.parseDeferredFunctionBody((ICPPASTTranslationUnit) tu,
+						getOffset(), getOffset() + getLength());
+				for (IASTStatement statement : body.getStatements()) {
+					doAddStatement(statement);
+				}
+				if (tu instanceof CPPASTTranslationUnit) {
+					((CPPASTTranslationUnit) tu).resolveAmbiguities(this);
+				}
+				for (IASTStatement statement : getStatements()) {
+					DeferredFunctionBody.freeze(statement);
+				}
+			} finally {
+				fParsing = false;
+				fParserFactory = null;
+				fDeferredBody = null;
+			}
+		}
+	}
+
+	@Override
+	public IASTStatement[] getStatements() {
+		parseDeferredBody();
+		return super.getStatements();
+	}
+
+	@Override
+	public IASTImplicitDestructorName[] getImplicitDestructorNames() {
+		parseDeferredBody();
+		if (fDeferredBody != null) {
+			// Not known before the body is parsed, must not be cached.
+			return IASTImplicitDestructorName.EMPTY_NAME_ARRAY;
+		}
+		return super.getImplicitDestructorNames();
+	}
+
+	@Override
+	public ICPPExecution getExecution() {
+		parseDeferredBody();
+		return super.getExecution();
+	}
+}
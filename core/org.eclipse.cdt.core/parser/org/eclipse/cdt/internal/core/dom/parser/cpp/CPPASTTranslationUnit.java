@@ -15,11 +15,13 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.dom.parser.cpp;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.cdt.core.dom.ILinkage;
 import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
 import org.eclipse.cdt.core.dom.ast.IASTName;
 import org.eclipse.cdt.core.dom.ast.IASTNode;
 import org.eclipse.cdt.core.dom.ast.IASTTypeId;
@@ -44,6 +46,7 @@ import org.eclipse.cdt.internal.core.dom.parser.ASTTranslationUnit;
 import org.eclipse.cdt.internal.core.dom.parser.IASTAmbiguityParent;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPInheritance.FinalOverriderMap;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPVisitor;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.ConstexprEvaluationCache;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.TypeInstantiationRequest;
 import org.eclipse.cdt.internal.core.index.IIndexScope;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
@@ -56,15 +59,21 @@ public class CPPASTTranslationUnit extends ASTTranslationUnit implements ICPPAST
 	private ICPPNamespace fBinding;
 	private final CPPScopeMapper fScopeMapper;
 	private CPPASTAmbiguityResolver fAmbiguityResolver;
+	// Deferred function bodies may be resolved concurrently, each thread uses its own resolver.
+	private final ThreadLocal<CPPASTAmbiguityResolver> fBodyAmbiguityResolver = new ThreadLocal<>();
 
-	// Caches.
-	private final Map<ICPPClassType, FinalOverriderMap> fFinalOverriderMapCache = new HashMap<>();
+	// Caches, synchronized because function bodies may be resolved concurrently.
+	private final Map<ICPPClassType, FinalOverriderMap> fFinalOverriderMapCache = Collections
+			.synchronizedMap(new HashMap<>());
 	// Cache for type instantiations. This is currently only used for instantiations of
 	// alias template instances, but its use could potentially be expanded to cover other
 	// instantiations. Note that class template instances are already cached by the
 	// template definition, so we wouldn't want to double-cache those. (But we could e.g.
 	// cache instantiations of function types if we found it worthwhile.)
-	private final Map<TypeInstantiationRequest, IType> fInstantiationCache = new HashMap<>();
+	private final Map<TypeInstantiationRequest, IType> fInstantiationCache = Collections
+			.synchronizedMap(new HashMap<>());
+	// Results of constexpr function calls.
+	private final ConstexprEvaluationCache fConstexprEvaluationCache = new ConstexprEvaluationCache();
 
 	public CPPASTTranslationUnit() {
 		fScopeMapper = new CPPScopeMapper(this);
@@ -250,6 +259,25 @@ public class CPPASTTranslationUnit extends ASTTranslationUnit implements ICPPAST
 		fAmbiguityResolver = null;
 	}
 
+	/**
+	 * Resolves the ambiguities of a function body that is parsed after the translation unit.
+	 */
+	void resolveAmbiguities(IASTCompoundStatement body) {
+		final CPPASTAmbiguityResolver outer = fBodyAmbiguityResolver.get();
+		final CPPASTAmbiguityResolver resolver = new CPPASTAmbiguityResolver();
+		fBodyAmbiguityResolver.set(resolver);
+		try {
+			body.accept(resolver);
+		} finally {
+			if (outer != null) {
+				fBodyAmbiguityResolver.set(outer);
+			} else {
+				fBodyAmbiguityResolver.remove();
+			}
+		}
+		body.accept(new ProblemBindingClearer());
+	}
+
 	@Override
 	protected IType createType(IASTTypeId typeid) {
 		return CPPVisitor.createType(typeid);
@@ -257,8 +285,11 @@ public class CPPASTTranslationUnit extends ASTTranslationUnit implements ICPPAST
 
 	@Override
 	public void resolvePendingAmbiguities(IASTNode node) {
-		if (fAmbiguityResolver != null) {
-			fAmbiguityResolver.resolvePendingAmbiguities(node);
+		CPPASTAmbiguityResolver resolver = fBodyAmbiguityResolver.get();
+		if (resolver == null)
+			resolver = fAmbiguityResolver;
+		if (resolver != null) {
+			resolver.resolvePendingAmbiguities(node);
 		}
 	}
 
@@ -270,6 +301,10 @@ public class CPPASTTranslationUnit extends ASTTranslationUnit implements ICPPAST
 		return fInstantiationCache;
 	}
 
+	public ConstexprEvaluationCache getConstexprEvaluationCache() {
+		return fConstexprEvaluationCache;
+	}
+
 	public void recordPartialSpecialization(ICPPClassTemplatePartialSpecialization indexSpec,
 			ICPPClassTemplatePartialSpecialization astSpec) {
 		fScopeMapper.recordPartialSpecialization(indexSpec, astSpec);
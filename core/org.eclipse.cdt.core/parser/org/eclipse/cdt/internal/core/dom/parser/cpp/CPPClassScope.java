@@ -260,7 +260,7 @@ public class CPPClassScope extends CPPScope implements ICPPClassScope {
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private void addConstructor(Object constructor) {
+	private synchronized void addConstructor(Object constructor) {
 		if (bindings == null)
 			bindings = new CharArrayObjectMap(1);
 
@@ -342,19 +342,21 @@ public class CPPClassScope extends CPPScope implements ICPPClassScope {
 	private ICPPConstructor[] getConstructors(IASTName forName, boolean forceResolve) {
 		populateCache();
 
-		final CharArrayObjectMap<Object> nameMap = bindings;
-		if (nameMap == null)
-			return ICPPConstructor.EMPTY_CONSTRUCTOR_ARRAY;
-
-		Object o = nameMap.get(CONSTRUCTOR_KEY);
+		Object o;
+		synchronized (this) {
+			if (bindings == null)
+				return ICPPConstructor.EMPTY_CONSTRUCTOR_ARRAY;
+			o = bindings.get(CONSTRUCTOR_KEY);
+			// Resolving the constructors may add names to the scope.
+			if (o instanceof ObjectSet<?>)
+				o = ((ObjectSet<?>) o).keyArray();
+		}
 		if (o != null) {
 			IBinding binding = null;
-			if (o instanceof ObjectSet<?>) {
-				ObjectSet<?> set = (ObjectSet<?>) o;
+			if (o instanceof Object[]) {
 				ICPPConstructor[] bs = ICPPConstructor.EMPTY_CONSTRUCTOR_ARRAY;
 				int n = 0;
-				for (int i = 0; i < set.size(); i++) {
-					Object obj = set.keyAt(i);
+				for (Object obj : (Object[]) o) {
 					if (obj instanceof IASTName) {
 						IASTName name = (IASTName) obj;
 						binding = shouldResolve(forceResolve, name, forName) ? name.resolveBinding()
@@ -369,8 +371,6 @@ public class CPPClassScope extends CPPScope implements ICPPClassScope {
 				return trim(bs, n);
 			} else if (o instanceof IASTName) {
 				if (shouldResolve(forceResolve, (IASTName) o, forName) || ((IASTName) o).getBinding() != null) {
-					// Always store the name, rather than the binding, so that we can properly flush the scope.
-					nameMap.put(CONSTRUCTOR_KEY, o);
 					binding = ((IASTName) o).resolveBinding();
 				}
 			} else if (o instanceof IBinding) {
@@ -26,7 +26,6 @@ import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateDefinition;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameter;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameterMap;
-import org.eclipse.cdt.core.parser.util.ObjectMap;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPTemplates;
 
 /**
@@ -34,7 +33,7 @@ import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPTemplates;
  */
 public class CPPClassTemplatePartialSpecializationSpecialization extends CPPClassSpecialization
 		implements ICPPClassTemplatePartialSpecializationSpecialization, ICPPInternalClassTemplate {
-	private ObjectMap instances;
+	private volatile TemplateInstanceCache instances;
 	private ICPPDeferredClassInstance fDeferredInstance;
 	private final ICPPClassTemplate fClassTemplate;
 	private final ICPPTemplateArgument[] fArguments;
@@ -56,28 +55,22 @@ public class CPPClassTemplatePartialSpecializationSpecialization extends CPPClas
 	@Override
 	public synchronized final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
 		if (instances == null)
-			instances = new ObjectMap(2);
-		String key = ASTTypeUtil.getArgumentListString(arguments, true);
-		instances.put(key, instance);
+			instances = new TemplateInstanceCache();
+		instances.addInstance(arguments, instance);
 	}
 
 	@Override
-	public synchronized final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
+	public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
 		if (instances != null) {
-			String key = ASTTypeUtil.getArgumentListString(arguments, true);
-			return (ICPPTemplateInstance) instances.get(key);
+			return instances.getInstance(arguments);
 		}
 		return null;
 	}
 
 	@Override
-	public synchronized ICPPTemplateInstance[] getAllInstances() {
+	public ICPPTemplateInstance[] getAllInstances() {
 		if (instances != null) {
-			ICPPTemplateInstance[] result = new ICPPTemplateInstance[instances.size()];
-			for (int i = 0; i < instances.size(); i++) {
-				result[i] = (ICPPTemplateInstance) instances.getAt(i);
-			}
-			return result;
+			return instances.getAllInstances();
 		}
 		return ICPPTemplateInstance.EMPTY_TEMPLATE_INSTANCE_ARRAY;
 	}
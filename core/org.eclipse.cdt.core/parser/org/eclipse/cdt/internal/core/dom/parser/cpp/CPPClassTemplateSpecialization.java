@@ -16,7 +16,6 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.dom.parser.cpp;
 
-import org.eclipse.cdt.core.dom.ast.ASTTypeUtil;
 import org.eclipse.cdt.core.dom.ast.DOMException;
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPClassSpecialization;
@@ -26,7 +25,6 @@ import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameter;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameterMap;
-import org.eclipse.cdt.core.parser.util.ObjectMap;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPTemplates;
 
 /**
@@ -34,7 +32,7 @@ import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPTemplates;
  */
 public class CPPClassTemplateSpecialization extends CPPClassSpecialization
 		implements ICPPClassTemplate, ICPPInternalClassTemplate {
-	private ObjectMap instances;
+	private volatile TemplateInstanceCache instances;
 	private ICPPDeferredClassInstance fDeferredInstance;
 	private ICPPClassTemplatePartialSpecialization[] fPartialSpecs;
 	private ICPPTemplateParameter[] fTemplateParameters;
@@ -71,28 +69,22 @@ public class CPPClassTemplateSpecialization extends CPPClassSpecialization
 	@Override
 	public synchronized final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
 		if (instances == null)
-			instances = new ObjectMap(2);
-		String key = ASTTypeUtil.getArgumentListString(arguments, true);
-		instances.put(key, instance);
+			instances = new TemplateInstanceCache();
+		instances.addInstance(arguments, instance);
 	}
 
 	@Override
-	public synchronized final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
+	public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
 		if (instances != null) {
-			String key = ASTTypeUtil.getArgumentListString(arguments, true);
-			return (ICPPTemplateInstance) instances.get(key);
+			return instances.getInstance(arguments);
 		}
 		return null;
 	}
 
 	@Override
-	public synchronized ICPPTemplateInstance[] getAllInstances() {
+	public ICPPTemplateInstance[] getAllInstances() {
 		if (instances != null) {
-			ICPPTemplateInstance[] result = new ICPPTemplateInstance[instances.size()];
-			for (int i = 0; i < instances.size(); i++) {
-				result[i] = (ICPPTemplateInstance) instances.getAt(i);
-			}
-			return result;
+			return instances.getAllInstances();
 		}
 		return ICPPTemplateInstance.EMPTY_TEMPLATE_INSTANCE_ARRAY;
 	}
@@ -14,7 +14,6 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.dom.parser.cpp;
 
-import org.eclipse.cdt.core.dom.ast.ASTTypeUtil;
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.cdt.core.dom.ast.IType;
 import org.eclipse.cdt.core.dom.ast.IValue;
@@ -25,7 +24,6 @@ import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameter;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameterMap;
-import org.eclipse.cdt.core.parser.util.ObjectMap;
 
 /**
  * A field template of a specialized class template.
@@ -33,7 +31,7 @@ import org.eclipse.cdt.core.parser.util.ObjectMap;
 public class CPPFieldTemplateSpecialization extends CPPFieldSpecialization
 		implements ICPPFieldTemplate, ICPPInternalTemplate {
 	private ICPPTemplateParameter[] templateParameters;
-	private ObjectMap instances;
+	private volatile TemplateInstanceCache instances;
 
 	public CPPFieldTemplateSpecialization(IBinding orig, ICPPClassType owner, ICPPTemplateParameterMap tpmap,
 			IType type, IValue value) {
@@ -65,16 +63,14 @@ public class CPPFieldTemplateSpecialization extends CPPFieldSpecialization
 	@Override
 	public synchronized final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
 		if (instances == null)
-			instances = new ObjectMap(2);
-		String key = ASTTypeUtil.getArgumentListString(arguments, true);
-		instances.put(key, instance);
+			instances = new TemplateInstanceCache();
+		instances.addInstance(arguments, instance);
 	}
 
 	@Override
-	public synchronized final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
+	public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
 		if (instances != null) {
-			String key = ASTTypeUtil.getArgumentListString(arguments, true);
-			return (ICPPTemplateInstance) instances.get(key);
+			return instances.getInstance(arguments);
 		}
 		return null;
 	}
@@ -82,11 +78,7 @@ public class CPPFieldTemplateSpecialization extends CPPFieldSpecialization
 	@Override
 	public ICPPTemplateInstance[] getAllInstances() {
 		if (instances != null) {
-			ICPPTemplateInstance[] result = new ICPPTemplateInstance[instances.size()];
-			for (int i = 0; i < instances.size(); i++) {
-				result[i] = (ICPPTemplateInstance) instances.getAt(i);
-			}
-			return result;
+			return instances.getAllInstances();
 		}
 		return ICPPTemplateInstance.EMPTY_TEMPLATE_INSTANCE_ARRAY;
 	}
@@ -169,7 +169,7 @@ public class CPPFunction extends PlatformObject implements ICPPFunction, ICPPInt
 	}
 
 	@Override
-	public IASTDeclarator[] getDeclarations() {
+	public synchronized IASTDeclarator[] getDeclarations() {
 		return declarations;
 	}
 
@@ -179,7 +179,7 @@ public class CPPFunction extends PlatformObject implements ICPPFunction, ICPPInt
 	}
 
 	@Override
-	public final void addDefinition(IASTNode node) {
+	public synchronized final void addDefinition(IASTNode node) {
 		IASTDeclarator dtor = extractRelevantDtor(node);
 		if (dtor instanceof ICPPASTFunctionDeclarator) {
 			ICPPASTFunctionDeclarator fdtor = (ICPPASTFunctionDeclarator) dtor;
@@ -189,7 +189,7 @@ public class CPPFunction extends PlatformObject implements ICPPFunction, ICPPInt
 	}
 
 	@Override
-	public final void addDeclaration(IASTNode node) {
+	public synchronized final void addDeclaration(IASTNode node) {
 		IASTDeclarator dtor = extractRelevantDtor(node);
 		if (dtor == null) {
 			return;
@@ -165,10 +165,12 @@ public class CPPNamespaceScope extends CPPScope implements ICPPInternalNamespace
 		if (name instanceof ICPPASTQualifiedName && !canDenoteNamespaceMember((ICPPASTQualifiedName) name))
 			return;
 		super.addName(name, adlOnly);
-		if (adlOnly) {
-			fVisibleToAdlOnly.put(name.getLookupKey());
-		} else {
-			fVisibleToAdlOnly.remove(name.getLookupKey());
+		synchronized (this) {
+			if (adlOnly) {
+				fVisibleToAdlOnly.put(name.getLookupKey());
+			} else {
+				fVisibleToAdlOnly.remove(name.getLookupKey());
+			}
 		}
 	}
 
@@ -177,7 +179,9 @@ public class CPPNamespaceScope extends CPPScope implements ICPPInternalNamespace
 		if (lookup.isArgumentDependent()) {
 			return true;
 		}
-		return !fVisibleToAdlOnly.containsKey(lookup.getLookupKey());
+		synchronized (this) {
+			return !fVisibleToAdlOnly.containsKey(lookup.getLookupKey());
+		}
 	}
 
 	public boolean canDenoteNamespaceMember(ICPPASTQualifiedName name) {
@@ -18,6 +18,11 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.dom.parser.cpp;
 
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.IName;
 import org.eclipse.cdt.core.dom.ast.DOMException;
@@ -53,6 +58,7 @@ import org.eclipse.cdt.internal.core.parser.util.ContentAssistMatcherFactory;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 /**
  * Base class for c++-scopes of the AST.
@@ -61,9 +67,20 @@ abstract public class CPPScope implements ICPPASTInternalScope {
 	protected static final char[] CONSTRUCTOR_KEY = "!!!CTOR!!!".toCharArray(); //$NON-NLS-1$
 	private static final IProgressMonitor NPM = new NullProgressMonitor();
 	private static final ICPPNamespace UNINITIALIZED = new CPPNamespace.CPPNamespaceProblem(null, 0, null);
+	private static final Object[] NO_CANDIDATES = {};
 
 	private final IASTNode physicalNode;
-	private boolean isCached = false;
+	/**
+	 * The scopes threads are waiting for to be populated, used to detect cycles of waiting threads.
+	 */
+	private static final Map<Thread, CPPScope> sAwaitedScopes = new ConcurrentHashMap<>();
+
+	private volatile boolean isCached = false;
+	private volatile Thread populatingThread;
+	/**
+	 * Maps lookup keys to names and bindings, access must be synchronized on the scope, because
+	 * names of independent function bodies may be resolved concurrently.
+	 */
 	protected CharArrayObjectMap<Object> bindings;
 	private ICPPNamespace fIndexNamespace = UNINITIALIZED;
 
@@ -92,7 +109,6 @@ abstract public class CPPScope implements ICPPASTInternalScope {
 	}
 
 	@Override
-	@SuppressWarnings({ "unchecked" })
 	public void addName(IASTName name, boolean adlOnly) {
 		// Don't add inactive names to the scope.
 		if (!name.isActive())
@@ -103,24 +119,29 @@ abstract public class CPPScope implements ICPPASTInternalScope {
 			return;
 		}
 
-		if (bindings == null)
-			bindings = new CharArrayObjectMap<>(1);
-
 		final char[] c = name.getLookupKey();
 		if (c.length == 0)
 			return;
+		addToMap(c, name);
+	}
+
+	@SuppressWarnings({ "unchecked" })
+	private synchronized void addToMap(char[] c, Object nameOrBinding) {
+		if (bindings == null)
+			bindings = new CharArrayObjectMap<>(1);
+
 		Object o = bindings.get(c);
 		if (o != null) {
 			if (o instanceof ObjectSet) {
-				((ObjectSet<Object>) o).put(name);
+				((ObjectSet<Object>) o).put(nameOrBinding);
 			} else {
 				ObjectSet<Object> temp = new ObjectSet<>(2);
 				temp.put(o);
-				temp.put(name);
+				temp.put(nameOrBinding);
 				bindings.put(c, temp);
 			}
 		} else {
-			bindings.put(c, name);
+			bindings.put(c, nameOrBinding);
 		}
 	}
 
@@ -244,36 +265,41 @@ abstract public class CPPScope implements ICPPASTInternalScope {
 			return result;
 		}
 
-		Object obj = null;
-		if (lookup.isPrefixLookup()) {
-			char[][] keys = bindings != null ? bindings.keys() : CharArrayUtils.EMPTY_ARRAY_OF_CHAR_ARRAYS;
-			ObjectSet<Object> all = new ObjectSet<>(16);
-			IContentAssistMatcher matcher = ContentAssistMatcherFactory.getInstance().createMatcher(c);
-			for (char[] key : keys) {
-				if (key != CONSTRUCTOR_KEY && matcher.match(key)) {
-					obj = bindings.get(key);
-					if (obj instanceof ObjectSet<?>) {
-						all.addAll((ObjectSet<?>) obj);
-					} else if (obj != null) {
-						all.put(obj);
+		// The candidates are copied, resolving them may add names to this scope.
+		Object[] candidates;
+		synchronized (this) {
+			Object obj = null;
+			if (lookup.isPrefixLookup()) {
+				char[][] keys = bindings != null ? bindings.keys() : CharArrayUtils.EMPTY_ARRAY_OF_CHAR_ARRAYS;
+				ObjectSet<Object> all = new ObjectSet<>(16);
+				IContentAssistMatcher matcher = ContentAssistMatcherFactory.getInstance().createMatcher(c);
+				for (char[] key : keys) {
+					if (key != CONSTRUCTOR_KEY && matcher.match(key)) {
+						obj = bindings.get(key);
+						if (obj instanceof ObjectSet<?>) {
+							all.addAll((ObjectSet<?>) obj);
+						} else if (obj != null) {
+							all.put(obj);
+						}
 					}
 				}
+				obj = all;
+			} else {
+				obj = bindings != null ? bindings.get(c) : null;
 			}
-			obj = all;
-		} else {
-			obj = bindings != null ? bindings.get(c) : null;
-		}
 
-		if (obj != null) {
 			if (obj instanceof ObjectSet<?>) {
-				ObjectSet<?> os = (ObjectSet<?>) obj;
-				for (int j = 0; j < os.size(); j++) {
-					result = addCandidate(os.keyAt(j), lookup, result);
-				}
+				candidates = ((ObjectSet<?>) obj).keyArray();
+			} else if (obj != null) {
+				candidates = new Object[] { obj };
 			} else {
-				result = addCandidate(obj, lookup, result);
+				candidates = NO_CANDIDATES;
 			}
 		}
+
+		for (Object candidate : candidates) {
+			result = addCandidate(candidate, lookup, result);
+		}
 		return ArrayUtil.trim(result);
 	}
 
@@ -320,14 +346,72 @@ abstract public class CPPScope implements ICPPASTInternalScope {
 
 	@Override
 	public final void populateCache() {
-		if (!isCached) {
-			isCached = true; // set to true before doing the work, to avoid recursion
+		if (isCached)
+			return;
+
+		final Thread current = Thread.currentThread();
+		// The monitor is not held while the scope is populated, because populating it may enter
+		// other scopes.
+		synchronized (this) {
+			while (!isCached && populatingThread != null) {
+				// A recursive call uses the cache as it is.
+				if (populatingThread == current)
+					return;
+				awaitPopulation(current);
+			}
+			if (isCached)
+				return;
+			populatingThread = current;
+		}
+		boolean populated = false;
+		try {
 			CPPSemantics.populateCache(this);
+			populated = true;
+		} finally {
+			synchronized (this) {
+				populatingThread = null;
+				// After a failure the scope is populated again by the next lookup, adding
+				// the same names twice has no effect.
+				isCached = populated;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits for another thread populating this scope. Using the cache before it is populated
+	 * would make the result of lookups depend on the timing of the threads. Therefore an
+	 * exception is thrown, if the populating thread is waiting for a scope the current thread
+	 * is populating.
+	 */
+	private void awaitPopulation(Thread current) {
+		sAwaitedScopes.put(current, this);
+		try {
+			if (isWaitingFor(populatingThread, current)) {
+				throw new IllegalStateException("Cyclic population of scopes by concurrent threads"); //$NON-NLS-1$
+			}
+			wait();
+		} catch (InterruptedException e) {
+			current.interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			sAwaitedScopes.remove(current);
+		}
+	}
+
+	private static boolean isWaitingFor(Thread thread, Thread current) {
+		Set<Thread> visited = new HashSet<>();
+		while (thread != null && visited.add(thread)) {
+			if (thread == current)
+				return true;
+			CPPScope awaited = sAwaitedScopes.get(thread);
+			thread = awaited != null ? awaited.populatingThread : null;
 		}
+		return false;
 	}
 
 	@Override
-	public void removeNestedFromCache(IASTNode container) {
+	public synchronized void removeNestedFromCache(IASTNode container) {
 		if (bindings != null) {
 			removeFromMap(bindings, container);
 		}
@@ -373,27 +457,12 @@ abstract public class CPPScope implements ICPPASTInternalScope {
 	}
 
 	@Override
-	@SuppressWarnings({ "unchecked" })
 	public void addBinding(IBinding binding) {
-		if (bindings == null)
-			bindings = new CharArrayObjectMap<>(1);
 		char[] c = binding.getNameCharArray();
 		if (c.length == 0) {
 			return;
 		}
-		Object o = bindings.get(c);
-		if (o != null) {
-			if (o instanceof ObjectSet) {
-				((ObjectSet<Object>) o).put(binding);
-			} else {
-				ObjectSet<Object> set = new ObjectSet<>(2);
-				set.put(o);
-				set.put(binding);
-				bindings.put(c, set);
-			}
-		} else {
-			bindings.put(c, binding);
-		}
+		addToMap(c, binding);
 	}
 
 	@Override
@@ -15,6 +15,7 @@
 package org.eclipse.cdt.internal.core.dom.parser.cpp;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -279,13 +280,16 @@ public class CPPScopeMapper {
 		}
 	}
 
-	private final HashMap<IIndexScope, IScope> fMappedScopes = new HashMap<>();
-	private final HashMap<String, NamespaceScopeWrapper> fNamespaceWrappers = new HashMap<>();
-	private final Map<String, List<UsingDirectiveWrapper>> fPerName = new HashMap<>();
+	// The maps are synchronized, because function bodies may be resolved concurrently.
+	private final Map<IIndexScope, IScope> fMappedScopes = Collections.synchronizedMap(new HashMap<>());
+	private final Map<String, NamespaceScopeWrapper> fNamespaceWrappers = Collections
+			.synchronizedMap(new HashMap<>());
+	private final Map<String, List<UsingDirectiveWrapper>> fPerName = Collections.synchronizedMap(new HashMap<>());
 	private final CPPASTTranslationUnit fTu;
 	protected CharArrayMap<IASTName[]> fClasses;
 
-	private final Map<ICPPClassTemplatePartialSpecialization, ICPPClassTemplatePartialSpecialization> fPartialSpecs = new HashMap<>();
+	private final Map<ICPPClassTemplatePartialSpecialization, ICPPClassTemplatePartialSpecialization> fPartialSpecs = Collections
+			.synchronizedMap(new HashMap<>());
 
 	public CPPScopeMapper(CPPASTTranslationUnit tu) {
 		fTu = tu;
@@ -417,11 +421,7 @@ public class CPPScopeMapper {
 			return type;
 		}
 
-		if (fClasses == null) {
-			fClasses = new CharArrayMap<>();
-			fTu.accept(new Visitor());
-		}
-		IASTName[] names = fClasses.get(type.getNameCharArray());
+		IASTName[] names = getClasses().get(type.getNameCharArray());
 		if (names != null) {
 			for (IASTName name : names) {
 				if (name == null)
@@ -438,6 +438,14 @@ public class CPPScopeMapper {
 		return type;
 	}
 
+	private synchronized CharArrayMap<IASTName[]> getClasses() {
+		if (fClasses == null) {
+			fClasses = new CharArrayMap<>();
+			fTu.accept(new Visitor());
+		}
+		return fClasses;
+	}
+
 	public void recordPartialSpecialization(ICPPClassTemplatePartialSpecialization indexSpec,
 			ICPPClassTemplatePartialSpecialization astSpec) {
 		fPartialSpecs.put(indexSpec, astSpec);
@@ -16,7 +16,6 @@ package org.eclipse.cdt.internal.core.dom.parser.cpp;
 
 import org.eclipse.cdt.core.dom.ILinkage;
 import org.eclipse.cdt.core.dom.ast.ASTNodeProperty;
-import org.eclipse.cdt.core.dom.ast.ASTTypeUtil;
 import org.eclipse.cdt.core.dom.ast.IASTCompositeTypeSpecifier;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTElaboratedTypeSpecifier;
@@ -39,7 +38,6 @@ import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameter;
 import org.eclipse.cdt.core.index.IIndex;
 import org.eclipse.cdt.core.index.IIndexBinding;
 import org.eclipse.cdt.core.parser.util.ArrayUtil;
-import org.eclipse.cdt.core.parser.util.ObjectMap;
 import org.eclipse.cdt.internal.core.dom.Linkage;
 import org.eclipse.cdt.internal.core.dom.parser.ASTInternal;
 import org.eclipse.cdt.internal.core.dom.parser.ASTNode;
@@ -65,7 +63,7 @@ public abstract class CPPTemplateDefinition extends PlatformObject
 	protected IASTName definition;
 
 	private ICPPTemplateParameter[] templateParameters;
-	private ObjectMap instances;
+	private volatile TemplateInstanceCache instances;
 
 	private ICPPClassTemplate indexBinding;
 	private boolean checkedIndex;
@@ -94,18 +92,16 @@ public abstract class CPPTemplateDefinition extends PlatformObject
 	}
 
 	@Override
-	public final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
+	public synchronized final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
 		if (instances == null)
-			instances = new ObjectMap(2);
-		String key = ASTTypeUtil.getArgumentListString(arguments, true);
-		instances.put(key, instance);
+			instances = new TemplateInstanceCache();
+		instances.addInstance(arguments, instance);
 	}
 
 	@Override
 	public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
 		if (instances != null) {
-			String key = ASTTypeUtil.getArgumentListString(arguments, true);
-			ICPPTemplateInstance cand = (ICPPTemplateInstance) instances.get(key);
+			ICPPTemplateInstance cand = instances.getInstance(arguments);
 			if (cand != null)
 				return cand;
 		}
@@ -147,11 +143,7 @@ public abstract class CPPTemplateDefinition extends PlatformObject
 	@Override
 	public ICPPTemplateInstance[] getAllInstances() {
 		if (instances != null) {
-			ICPPTemplateInstance[] result = new ICPPTemplateInstance[instances.size()];
-			for (int i = 0; i < instances.size(); i++) {
-				result[i] = (ICPPTemplateInstance) instances.getAt(i);
-			}
-			return result;
+			return instances.getAllInstances();
 		}
 		return ICPPTemplateInstance.EMPTY_TEMPLATE_INSTANCE_ARRAY;
 	}
@@ -97,7 +97,7 @@ public class CPPVariable extends PlatformObject implements ICPPInternalDeclaredV
 	}
 
 	@Override
-	public void addDeclaration(IASTNode node) {
+	public synchronized void addDeclaration(IASTNode node) {
 		if (!(node instanceof IASTName))
 			return;
 		IASTName name = (IASTName) node;
@@ -122,7 +122,7 @@ public class CPPVariable extends PlatformObject implements ICPPInternalDeclaredV
 	}
 
 	@Override
-	public IASTName[] getDeclarations() {
+	public synchronized IASTName[] getDeclarations() {
 		return fDeclarations == null ? null : ArrayUtil.trim(fDeclarations);
 	}
 
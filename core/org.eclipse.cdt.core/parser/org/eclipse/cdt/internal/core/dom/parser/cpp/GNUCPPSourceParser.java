@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.eclipse.cdt.core.dom.ast.ASTCompletionNode;
 import org.eclipse.cdt.core.dom.ast.ASTVisitor;
@@ -177,6 +178,7 @@ import org.eclipse.cdt.internal.core.dom.parser.ASTTranslationUnit;
 import org.eclipse.cdt.internal.core.dom.parser.AbstractGNUSourceCodeParser;
 import org.eclipse.cdt.internal.core.dom.parser.BacktrackException;
 import org.eclipse.cdt.internal.core.dom.parser.DeclarationOptions;
+import org.eclipse.cdt.internal.core.dom.parser.DeferredFunctionBody;
 import org.eclipse.cdt.internal.core.dom.parser.IASTAmbiguityParent;
 import org.eclipse.cdt.internal.core.dom.parser.IASTAmbiguousDeclarator;
 import org.eclipse.cdt.internal.core.dom.parser.IASTAmbiguousExpression;
@@ -207,10 +209,12 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 	private final boolean supportUserDefinedLiterals;
 	private final boolean supportGCCStyleDesignators;
 
+	private final ICPPParserExtensionConfiguration config;
 	private final IIndex index;
 	protected ICPPASTTranslationUnit translationUnit;
 
 	private int functionBodyCount;
+	private boolean functionBodyNeededForDeclaration;
 	private int templateArgumentNestingDepth = 0;
 	private char[] currentClassName;
 	private char[] additionalNumericalSuffixes;
@@ -239,6 +243,7 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 		functionCallCanBeLValue = true;
 		supportAutoTypeSpecifier = true;
 		supportUserDefinedLiterals = config.supportUserDefinedLiterals();
+		this.config = config;
 		this.index = index;
 		scanner.setSplitShiftROperator(true);
 		fContextSensitiveTokens = createContextSensitiveTokenMap(config);
@@ -445,9 +450,9 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 		IASTName name;
 		if (destructorOffset < 0) {
 			if (keywordTemplate) {
-				name = getNodeFactory().newTemplateName(nt.getCharImage());
+				name = getNodeFactory().newTemplateName(internIdentifier(nt.getCharImage()));
 			} else {
-				name = getNodeFactory().newName(nt.getCharImage());
+				name = getNodeFactory().newName(internIdentifier(nt.getCharImage()));
 			}
 			setRange(name, nt.getOffset(), nt.getEndOffset());
 		} else {
@@ -456,7 +461,7 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 			char[] image = new char[len + 1];
 			image[0] = '~';
 			System.arraycopy(nchars, 0, image, 1, len);
-			name = getNodeFactory().newName(image);
+			name = getNodeFactory().newName(internIdentifier(image));
 			setRange(name, destructorOffset, nt.getEndOffset());
 		}
 		switch (nt.getType()) {
@@ -3119,6 +3124,7 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 		}
 
 		try {
+			functionBodyNeededForDeclaration = CPPVisitor.isBodyNeededForDeclaration(declSpec);
 			IASTStatement body = handleFunctionBody();
 			fdef.setBody(body);
 			setRange(fdef, firstOffset, calculateEndOffset(body));
@@ -5568,6 +5574,59 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 		}
 	}
 
+	@Override
+	protected boolean canDeferFunctionBody() {
+		// Bodies of member functions defined within a class and of local functions depend on the
+		// state of the parser. Bodies of constexpr functions and of functions with deduced return
+		// types are needed for the ambiguity resolution of the translation unit.
+		return functionBodyCount == 0 && currentClassName == null && templateArgumentNestingDepth == 0
+				&& !functionBodyNeededForDeclaration;
+	}
+
+	@Override
+	protected IASTCompoundStatement createDeferredFunctionBody(DeferredFunctionBody body) {
+		final ParserMode parserMode = mode;
+		final IParserLogService logService = log;
+		final ICPPParserExtensionConfiguration configuration = config;
+		final IIndex idx = index;
+		final Consumer<AbstractGNUSourceCodeParser> settings = captureSettings();
+		return new CPPASTDeferredCompoundStatement(body, replayScanner -> {
+			GNUCPPSourceParser parser = new GNUCPPSourceParser(replayScanner, parserMode, logService, configuration,
+					idx);
+			settings.accept(parser);
+			return parser;
+		});
+	}
+
+	/**
+	 * Parses a function body whose parsing has been deferred while parsing the given
+	 * translation unit. Like for a function body that is parsed right away, a syntax error
+	 * is represented by a problem statement. If the body cannot be parsed at all, the
+	 * problem covers the given range of the body.
+	 */
+	IASTCompoundStatement parseDeferredFunctionBody(ICPPASTTranslationUnit tu, int offset, int endOffset) {
+		translationUnit = tu;
+		try {
+			return functionBody();
+		} catch (BacktrackException bt) {
+			final IASTNode beforeProblem = bt.getNodeBeforeProblem();
+			final IASTProblem problem = bt.getProblem();
+			if (problem != null && beforeProblem instanceof IASTCompoundStatement) {
+				IASTCompoundStatement body = (IASTCompoundStatement) beforeProblem;
+				body.addStatement(buildProblemStatement(problem));
+				return body;
+			}
+		} catch (EndOfFileException e) {
+			// The problem is created below.
+		} finally {
+			translationUnit = null;
+		}
+		failParse();
+		IASTCompoundStatement body = getNodeFactory().newCompoundStatement();
+		body.addStatement(buildProblemStatement(createProblem(IProblem.SYNTAX_ERROR, offset, endOffset - offset)));
+		return body;
+	}
+
 	protected IASTStatement parseSwitchStatement() throws EndOfFileException, BacktrackException {
 		int startOffset;
 		startOffset = consume().getOffset();
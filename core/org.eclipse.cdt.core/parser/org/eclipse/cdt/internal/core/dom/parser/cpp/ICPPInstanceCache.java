@@ -15,6 +15,8 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.dom.parser.cpp;
 
+import java.util.function.Predicate;
+
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
 
@@ -36,4 +38,20 @@ public interface ICPPInstanceCache {
 	 * Returns an array of all cached instances
 	 */
 	public ICPPTemplateInstance[] getAllInstances();
+
+	/**
+	 * Caches an instance unless an instance accepted by the filter is already cached for the
+	 * arguments, and returns the instance in the cache. Threads instantiating a template with
+	 * the same arguments concurrently thus obtain the same instance.
+	 */
+	public default ICPPTemplateInstance addInstanceIfAbsent(ICPPTemplateArgument[] arguments,
+			ICPPTemplateInstance instance, Predicate<ICPPTemplateInstance> filter) {
+		synchronized (this) {
+			ICPPTemplateInstance cached = getInstance(arguments);
+			if (cached != null && filter.test(cached))
+				return cached;
+			addInstance(arguments, instance);
+			return instance;
+		}
+	}
 }
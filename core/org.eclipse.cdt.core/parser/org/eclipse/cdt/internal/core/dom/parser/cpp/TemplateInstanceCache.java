@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.dom.parser.cpp;
+
+import static org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.SemanticUtil.TDEF;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.cdt.core.dom.ast.IArrayType;
+import org.eclipse.cdt.core.dom.ast.IBasicType;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.dom.ast.IFunctionType;
+import org.eclipse.cdt.core.dom.ast.IPointerType;
+import org.eclipse.cdt.core.dom.ast.IQualifierType;
+import org.eclipse.cdt.core.dom.ast.IType;
+import org.eclipse.cdt.core.dom.ast.IValue;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPParameterPackType;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPPointerToMemberType;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPReferenceType;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateParameter;
+import org.eclipse.cdt.core.parser.util.CharArrayUtils;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.SemanticUtil;
+
+/**
+ * Thread-safe map from template arguments to the instances of a template, used by the
+ * implementations of {@link ICPPInstanceCache}.
+ * <p>
+ * Arguments are compared with {@link ICPPTemplateArgument#isSameValue(ICPPTemplateArgument)},
+ * the hash code is computed from the structure of the arguments. Unlike a signature it does not
+ * have to distinguish all arguments, it only has to be equal for arguments that are the same.
+ * <p>
+ * The number of implicit instances per template is bounded, when the limit is exceeded the
+ * instances that were added first are evicted. A template that is instantiated again after the
+ * eviction of the instance yields an equivalent instance. Explicit specializations are never
+ * evicted.
+ */
+public final class TemplateInstanceCache {
+	/** Maximum number of implicit instances kept for a single template. */
+	public static final int MAX_INSTANCES = 5000;
+
+	private static final int MAX_HASH_DEPTH = 8;
+
+	private static final LongAdder sHits = new LongAdder();
+	private static final LongAdder sMisses = new LongAdder();
+	private static final LongAdder sEvictions = new LongAdder();
+
+	private static final class Key {
+		final ICPPTemplateArgument[] fArguments;
+		final int fHash;
+
+		Key(ICPPTemplateArgument[] arguments) {
+			fArguments = arguments;
+			fHash = hashArguments(arguments);
+		}
+
+		@Override
+		public int hashCode() {
+			return fHash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			if (fHash != other.fHash || fArguments.length != other.fArguments.length)
+				return false;
+			for (int i = 0; i < fArguments.length; i++) {
+				ICPPTemplateArgument a1 = fArguments[i];
+				ICPPTemplateArgument a2 = other.fArguments[i];
+				if (a1 != a2 && (a1 == null || a2 == null || !a1.isSameValue(a2)))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	private final ConcurrentHashMap<Key, ICPPTemplateInstance> fMap = new ConcurrentHashMap<>(4);
+	private final Queue<Key> fEvictable = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger fEvictableCount = new AtomicInteger();
+	private final int fMaxInstances;
+
+	public TemplateInstanceCache() {
+		this(MAX_INSTANCES);
+	}
+
+	public TemplateInstanceCache(int maxInstances) {
+		fMaxInstances = maxInstances;
+	}
+
+	public ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
+		ICPPTemplateInstance instance = fMap.get(new Key(arguments));
+		if (instance != null) {
+			sHits.increment();
+		} else {
+			sMisses.increment();
+		}
+		return instance;
+	}
+
+	public void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
+		// The caller may modify the array later on.
+		final Key key = new Key(arguments.clone());
+		final ICPPTemplateInstance previous = fMap.put(key, instance);
+		if (previous != null || instance.isExplicitSpecialization())
+			return;
+
+		fEvictable.add(key);
+		if (fEvictableCount.incrementAndGet() > fMaxInstances) {
+			Key oldest = fEvictable.poll();
+			if (oldest != null) {
+				fEvictableCount.decrementAndGet();
+				// An explicit specialization may have replaced the instance in the meantime.
+				if (fMap.computeIfPresent(oldest, (k, v) -> v.isExplicitSpecialization() ? v : null) == null) {
+					sEvictions.increment();
+				}
+			}
+		}
+	}
+
+	public ICPPTemplateInstance[] getAllInstances() {
+		return fMap.values().toArray(ICPPTemplateInstance.EMPTY_TEMPLATE_INSTANCE_ARRAY);
+	}
+
+	public int size() {
+		return fMap.size();
+	}
+
+	public static long getHits() {
+		return sHits.sum();
+	}
+
+	public static long getMisses() {
+		return sMisses.sum();
+	}
+
+	public static long getEvictions() {
+		return sEvictions.sum();
+	}
+
+	/**
+	 * Returns the counters of all caches, for tracing.
+	 */
+	@SuppressWarnings("nls")
+	public static String getStatistics() {
+		return getHits() + " hits, " + getMisses() + " misses, " + getEvictions() + " evictions";
+	}
+
+	private static int hashArguments(ICPPTemplateArgument[] arguments) {
+		int hash = arguments.length;
+		for (ICPPTemplateArgument arg : arguments) {
+			hash = 31 * hash + hashArgument(arg);
+		}
+		return hash;
+	}
+
+	private static int hashArgument(ICPPTemplateArgument arg) {
+		if (arg == null)
+			return 0;
+		IType type = arg.getTypeValue();
+		if (type != null)
+			return hashType(type, 0);
+		IValue value = arg.getNonTypeValue();
+		return value == null ? 0 : value.hashCode();
+	}
+
+	/**
+	 * Computes a hash code that is equal for types that are the same according to
+	 * {@link IType#isSameType(IType)}. Typedefs and cv-qualifiers are ignored, types that
+	 * are not handled explicitly share a hash code.
+	 */
+	private static int hashType(IType type, int depth) {
+		if (depth > MAX_HASH_DEPTH)
+			return 0;
+		type = SemanticUtil.getNestedType(type, TDEF);
+		if (type instanceof IQualifierType)
+			return hashType(((IQualifierType) type).getType(), depth + 1);
+		if (type instanceof ICPPPointerToMemberType)
+			return 31 * hashType(((IPointerType) type).getType(), depth + 1) + 2;
+		if (type instanceof IPointerType)
+			return 31 * hashType(((IPointerType) type).getType(), depth + 1) + 1;
+		if (type instanceof ICPPReferenceType) {
+			ICPPReferenceType ref = (ICPPReferenceType) type;
+			return 31 * hashType(ref.getType(), depth + 1) + (ref.isRValueReference() ? 4 : 3);
+		}
+		if (type instanceof IArrayType)
+			return 31 * hashType(((IArrayType) type).getType(), depth + 1) + 5;
+		if (type instanceof ICPPParameterPackType)
+			return 31 * hashType(((ICPPParameterPackType) type).getType(), depth + 1) + 6;
+		if (type instanceof IFunctionType)
+			return 7;
+		if (type instanceof IBasicType)
+			return 31 * ((IBasicType) type).getKind().ordinal() + 8;
+		if (type instanceof ICPPTemplateParameter)
+			return ((ICPPTemplateParameter) type).getParameterID();
+		if (type instanceof IBinding) {
+			// Anonymous types are named differently in the AST and in the index.
+			char[] name = ((IBinding) type).getNameCharArray();
+			if (name.length > 0 && name[0] != '{')
+				return CharArrayUtils.hash(name);
+		}
+		return 0;
+	}
+}
@@ -411,7 +411,7 @@ public class CPPTemplates {
 		IBinding owner = template.getOwner();
 		instance = createInstance(owner, template, tpMap, arguments);
 		if (instance instanceof ICPPFunction && SemanticUtil.isValidType(((ICPPFunction) instance).getType())) {
-			addInstance(template, arguments, instance);
+			instance = addInstance(template, arguments, instance, false);
 		}
 		return instance;
 	}
@@ -434,8 +434,7 @@ public class CPPTemplates {
 		}
 
 		instance = createInstance(partialSpec.getOwner(), partialSpec, tpMap, args);
-		addInstance(partialSpec, args, instance);
-		return instance;
+		return addInstance(partialSpec, args, instance, isDef);
 	}
 
 	/**
@@ -452,8 +451,7 @@ public class CPPTemplates {
 
 		IBinding owner = template.getOwner();
 		instance = createInstance(owner, template, context.getParameterMap(), arguments);
-		addInstance(template, arguments, instance);
-		return instance;
+		return addInstance(template, arguments, instance, isDef);
 	}
 
 	/**
@@ -463,32 +461,41 @@ public class CPPTemplates {
 			boolean forDefinition) {
 		if (template instanceof ICPPInstanceCache) {
 			ICPPTemplateInstance result = ((ICPPInstanceCache) template).getInstance(args);
-			if (forDefinition && result instanceof IIndexBinding)
-				return null;
-			if (result != null && !result.isExplicitSpecialization()) {
-				// Don't use the cached instance if its argument is an index type and the requested
-				// argument is an AST type. Despite identical signatures the types may be different.
-				ICPPTemplateArgument[] instanceArgs = result.getTemplateArguments();
-				for (int i = 0; i < args.length; i++) {
-					if (!(args[i].getTypeValue() instanceof IIndexType)
-							&& (instanceArgs[i].getTypeValue() instanceof IIndexType)) {
-						return null;
-					}
+			if (result != null && isUsableInstance(result, args, forDefinition))
+				return result;
+		}
+		return null;
+	}
+
+	private static boolean isUsableInstance(ICPPTemplateInstance result, ICPPTemplateArgument[] args,
+			boolean forDefinition) {
+		if (forDefinition && result instanceof IIndexBinding)
+			return false;
+		if (!result.isExplicitSpecialization()) {
+			// Don't use the cached instance if its argument is an index type and the requested
+			// argument is an AST type. Despite identical signatures the types may be different.
+			ICPPTemplateArgument[] instanceArgs = result.getTemplateArguments();
+			for (int i = 0; i < args.length; i++) {
+				if (!(args[i].getTypeValue() instanceof IIndexType)
+						&& (instanceArgs[i].getTypeValue() instanceof IIndexType)) {
+					return false;
 				}
 			}
-			return result;
 		}
-		return null;
+		return true;
 	}
 
 	/**
-	 * Caches an instance with the template.
+	 * Caches an instance with the template. If another thread has cached a usable instance for
+	 * the same arguments in the meantime, that instance is returned instead of the given one.
 	 */
-	private static void addInstance(ICPPTemplateDefinition template, ICPPTemplateArgument[] args,
-			ICPPTemplateInstance instance) {
+	private static ICPPTemplateInstance addInstance(ICPPTemplateDefinition template, ICPPTemplateArgument[] args,
+			ICPPTemplateInstance instance, boolean forDefinition) {
 		if (template instanceof ICPPInstanceCache) {
-			((ICPPInstanceCache) template).addInstance(args, instance);
+			return ((ICPPInstanceCache) template).addInstanceIfAbsent(args, instance,
+					cached -> isUsableInstance(cached, args, forDefinition));
 		}
+		return instance;
 	}
 
 	private static IBinding deferredInstance(ICPPPartiallySpecializable template, ICPPTemplateArgument[] arguments)
@@ -499,11 +506,11 @@ public class CPPTemplates {
 
 		if (template instanceof ICPPClassTemplate) {
 			instance = new CPPDeferredClassInstance((ICPPClassTemplate) template, arguments);
-			addInstance(template, arguments, instance);
+			instance = addInstance(template, arguments, instance, false);
 		}
 		if (template instanceof ICPPVariableTemplate) {
 			instance = new CPPDeferredVariableInstance((ICPPVariableTemplate) template, arguments);
-			addInstance(template, arguments, instance);
+			instance = addInstance(template, arguments, instance, false);
 		}
 		return instance;
 	}
@@ -1013,6 +1013,21 @@ public class CPPVisitor extends ASTQueries {
 		return declSpec instanceof ICPPASTDeclSpecifier && ((ICPPASTDeclSpecifier) declSpec).isFriend();
 	}
 
+	/**
+	 * Checks whether the body of a function with the given declaration specifier is needed to
+	 * determine its return type or to evaluate calls in constant expressions. Other function bodies
+	 * do not affect the semantics of the rest of the translation unit.
+	 */
+	public static boolean isBodyNeededForDeclaration(IASTDeclSpecifier declSpec) {
+		if (declSpec instanceof ICPPASTDeclSpecifier && ((ICPPASTDeclSpecifier) declSpec).isConstexpr())
+			return true;
+		if (declSpec instanceof IASTSimpleDeclSpecifier) {
+			final int type = ((IASTSimpleDeclSpecifier) declSpec).getType();
+			return type == IASTSimpleDeclSpecifier.t_auto || type == IASTSimpleDeclSpecifier.t_decltype_auto;
+		}
+		return false;
+	}
+
 	public static boolean isConstructor(IScope containingScope, IASTDeclarator declarator) {
 		if (containingScope instanceof ICPPClassScope && isConstructorDtor(declarator)) {
 			ICPPClassType classType = ((ICPPClassScope) containingScope).getClassType();
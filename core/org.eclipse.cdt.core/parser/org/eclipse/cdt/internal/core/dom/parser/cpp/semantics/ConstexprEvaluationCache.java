@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.dom.parser.cpp.semantics;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPFunction;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTTranslationUnit;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPEvaluation;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPEvaluation.ConstexprEvaluationContext;
+
+/**
+ * Memo table for the results of constexpr function calls, owned by a translation unit.
+ * <p>
+ * A call is identified by the function and the signatures of its arguments. Only calls whose
+ * arguments have all been evaluated to fixed values are cached, the signatures of these include
+ * the values. Only results of evaluations that completed within the step budget of
+ * {@link ConstexprEvaluationContext#MAX_CONSTEXPR_EVALUATION_STEPS} are stored, such that a call
+ * that ran out of steps in one context can succeed in another one. When the table exceeds its
+ * maximum size it is cleared.
+ */
+public final class ConstexprEvaluationCache {
+	/** Maximum number of results kept for a translation unit. */
+	public static final int MAX_ENTRIES = 10000;
+
+	private static final LongAdder sHits = new LongAdder();
+	private static final LongAdder sMisses = new LongAdder();
+
+	private static final class Key {
+		final ICPPFunction fFunction;
+		final char[] fArguments;
+		final int fHash;
+
+		Key(ICPPFunction function, char[] arguments) {
+			fFunction = function;
+			fArguments = arguments;
+			fHash = 31 * System.identityHashCode(function) + Arrays.hashCode(arguments);
+		}
+
+		@Override
+		public int hashCode() {
+			return fHash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return fHash == other.fHash && fFunction == other.fFunction && Arrays.equals(fArguments, other.fArguments);
+		}
+	}
+
+	private final ConcurrentHashMap<Key, EvalFixed> fMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the cache of the translation unit of the current lookup point, or {@code null}.
+	 */
+	static ConstexprEvaluationCache getCurrent() {
+		IASTNode lookupPoint = CPPSemantics.getCurrentLookupPoint();
+		if (lookupPoint != null) {
+			IASTTranslationUnit tu = lookupPoint.getTranslationUnit();
+			if (tu instanceof CPPASTTranslationUnit) {
+				return ((CPPASTTranslationUnit) tu).getConstexprEvaluationCache();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Computes the part of the key that identifies the arguments of a call, or returns
+	 * {@code null} if the result of the call must not be cached. Only arguments with fixed values
+	 * are supported. The signature of any other evaluation does not reflect its value, e.g. that of
+	 * a variable is its name, and references to variables of an activation record may be modified
+	 * by the call.
+	 */
+	static char[] getArgumentsKey(ICPPEvaluation[] arguments, ICPPEvaluation implicitThis) {
+		if (implicitThis != null)
+			return null;
+		StringBuilder buf = new StringBuilder();
+		for (int i = 1; i < arguments.length; i++) {
+			ICPPEvaluation arg = arguments[i];
+			if (!(arg instanceof EvalFixed) || arg == EvalFixed.INCOMPLETE)
+				return null;
+			buf.append(arg.getSignature()).append(',');
+		}
+		char[] key = new char[buf.length()];
+		buf.getChars(0, key.length, key, 0);
+		return key;
+	}
+
+	/**
+	 * Returns the result of an earlier call of the function with the same arguments,
+	 * or {@code null}.
+	 */
+	public ICPPEvaluation get(ICPPFunction function, char[] arguments) {
+		EvalFixed result = fMap.get(new Key(function, arguments));
+		if (result == null) {
+			sMisses.increment();
+			return null;
+		}
+		sHits.increment();
+		return copy(result);
+	}
+
+	/**
+	 * Stores the result of a call, provided it is a fixed value and the evaluation did not exceed
+	 * the step budget. Failed evaluations are not stored, they may succeed in another context.
+	 */
+	public void put(ICPPFunction function, char[] arguments, ICPPEvaluation result,
+			ConstexprEvaluationContext context) {
+		if (!(result instanceof EvalFixed) || result == EvalFixed.INCOMPLETE
+				|| context.getStepsPerformed() >= ConstexprEvaluationContext.MAX_CONSTEXPR_EVALUATION_STEPS)
+			return;
+		if (fMap.size() >= MAX_ENTRIES) {
+			fMap.clear();
+		}
+		fMap.put(new Key(function, arguments), copy((EvalFixed) result));
+	}
+
+	public int size() {
+		return fMap.size();
+	}
+
+	// Values of composite types are mutable, the cache must not share them with the evaluations.
+	private static EvalFixed copy(EvalFixed eval) {
+		return new EvalFixed(eval.getType(), eval.getValueCategory(), eval.getValue().clone());
+	}
+
+	public static long getHits() {
+		return sHits.sum();
+	}
+
+	public static long getMisses() {
+		return sMisses.sum();
+	}
+
+	/**
+	 * Returns the counters of all caches, for tracing.
+	 */
+	@SuppressWarnings("nls")
+	public static String getStatistics() {
+		return getHits() + " hits, " + getMisses() + " misses";
+	}
+}
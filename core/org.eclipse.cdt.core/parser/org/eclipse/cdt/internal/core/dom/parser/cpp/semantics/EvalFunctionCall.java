@@ -333,6 +333,24 @@ public final class EvalFunctionCall extends CPPDependentEvaluation {
 		if (!function.isConstexpr())
 			return EvalFixed.INCOMPLETE;
 
+		ConstexprEvaluationCache cache = ConstexprEvaluationCache.getCurrent();
+		char[] argumentsKey = null;
+		if (cache != null) {
+			argumentsKey = ConstexprEvaluationCache.getArgumentsKey(fArguments, getImplicitThis());
+			if (argumentsKey != null) {
+				ICPPEvaluation result = cache.get(function, argumentsKey);
+				if (result != null)
+					return result;
+			}
+		}
+		ICPPEvaluation result = executeFunctionBody(function, context);
+		if (argumentsKey != null) {
+			cache.put(function, argumentsKey, result, context);
+		}
+		return result;
+	}
+
+	private ICPPEvaluation executeFunctionBody(ICPPFunction function, ConstexprEvaluationContext context) {
 		ActivationRecord record = createActivationRecord(function.getParameters(), fArguments, getImplicitThis());
 		ICPPExecution bodyExec = CPPFunction.getFunctionBodyExecution(function);
 		if (bodyExec == null) {
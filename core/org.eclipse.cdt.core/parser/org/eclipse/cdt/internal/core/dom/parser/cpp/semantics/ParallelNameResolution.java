@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.dom.parser.cpp.semantics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.IScope;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTTranslationUnit;
+import org.eclipse.cdt.internal.core.dom.parser.IASTInternalScope;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTDeferredCompoundStatement;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Resolves the names of independent function bodies of a translation unit concurrently.
+ * <p>
+ * The body of a function that is neither constexpr nor has a deduced return type does not affect
+ * the semantics of the rest of the translation unit. Once the names outside of such bodies are
+ * resolved, the bodies can be parsed and their names resolved on the threads of an executor
+ * provided by the caller. The scopes and caches shared between the bodies are synchronized.
+ */
+public final class ParallelNameResolution {
+	/** Minimum number of independent function bodies for distributing the work to multiple threads. */
+	public static final int MIN_FUNCTION_BODIES = 32;
+
+	private ParallelNameResolution() {
+	}
+
+	/**
+	 * Returns the body of the outermost function definition containing the given node, provided
+	 * the names within the body can be resolved independently of other function bodies. Returns
+	 * {@code null} if there is no such function body.
+	 */
+	public static IASTStatement getIndependentFunctionBody(IASTNode node) {
+		IASTStatement body = null;
+		for (; node != null; node = node.getParent()) {
+			if (node.getPropertyInParent() == IASTFunctionDefinition.FUNCTION_BODY) {
+				IASTFunctionDefinition fdef = (IASTFunctionDefinition) node.getParent();
+				body = CPPVisitor.isBodyNeededForDeclaration(fdef.getDeclSpecifier()) ? null : (IASTStatement) node;
+			}
+		}
+		return body;
+	}
+
+	/**
+	 * Collects the bodies of the outermost function definitions of the translation unit that can
+	 * be resolved independently of each other. Returns an empty list for translation units that are
+	 * not C++.
+	 */
+	public static List<IASTStatement> getIndependentFunctionBodies(IASTTranslationUnit ast) {
+		final List<IASTStatement> bodies = new ArrayList<>();
+		if (!(ast instanceof ICPPASTTranslationUnit))
+			return bodies;
+		ast.accept(new ASTVisitor() {
+			{
+				shouldVisitDeclarations = true;
+			}
+
+			@Override
+			public int visit(IASTDeclaration declaration) {
+				if (declaration instanceof IASTFunctionDefinition) {
+					IASTFunctionDefinition fdef = (IASTFunctionDefinition) declaration;
+					if (!CPPVisitor.isBodyNeededForDeclaration(fdef.getDeclSpecifier()) && fdef.getBody() != null) {
+						bodies.add(fdef.getBody());
+					}
+					return PROCESS_SKIP;
+				}
+				return PROCESS_CONTINUE;
+			}
+		});
+		return bodies;
+	}
+
+	/**
+	 * Resolves all names outside of the given function bodies on the calling thread, then parses
+	 * the bodies that have been deferred by the parser on the threads of the given executor. The
+	 * ambiguities of a body are resolved when it is parsed.
+	 * <p>
+	 * The scopes containing names outside of the bodies are populated before the bodies are
+	 * parsed. The scopes the threads populate concurrently are therefore local to a single body,
+	 * a thread never has to wait for a scope populated by another one.
+	 * <p>
+	 * Returns {@code false} without parsing the bodies if a name outside of them cannot be
+	 * resolved or a scope cannot be populated. The failure is logged and the names of the bodies
+	 * have to be resolved on the calling thread, since the failing name may be needed for
+	 * resolving them.
+	 */
+	public static boolean parseFunctionBodies(ExecutorService executor, IASTTranslationUnit ast,
+			Collection<IASTStatement> bodies) {
+		final Set<IASTNode> skip = Collections.newSetFromMap(new IdentityHashMap<>());
+		skip.addAll(bodies);
+		final Set<IScope> scopes = Collections.newSetFromMap(new IdentityHashMap<>());
+		final Throwable[] failure = new Throwable[1];
+		CPPSemantics.pushLookupPoint(ast);
+		try {
+			ast.accept(new ASTVisitor() {
+				{
+					shouldVisitNames = true;
+					shouldVisitStatements = true;
+				}
+
+				@Override
+				public int visit(IASTStatement statement) {
+					return skip.contains(statement) ? PROCESS_SKIP : PROCESS_CONTINUE;
+				}
+
+				@Override
+				public int visit(IASTName name) {
+					try {
+						name.resolveBinding();
+						scopes.add(CPPVisitor.getContainingScope(name));
+					} catch (RuntimeException | StackOverflowError e) {
+						failure[0] = e;
+						return PROCESS_ABORT;
+					}
+					return PROCESS_CONTINUE;
+				}
+			});
+			if (failure[0] == null) {
+				for (IScope scope : scopes) {
+					if (scope instanceof IASTInternalScope) {
+						((IASTInternalScope) scope).populateCache();
+					}
+				}
+			}
+		} catch (RuntimeException | StackOverflowError e) {
+			failure[0] = e;
+		} finally {
+			CPPSemantics.popLookupPoint();
+		}
+		if (failure[0] != null) {
+			CCorePlugin.log("Cannot resolve the names of " + ast.getFilePath() //$NON-NLS-1$
+					+ " concurrently, they are resolved sequentially.", failure[0]); //$NON-NLS-1$
+			return false;
+		}
+
+		List<CPPASTDeferredCompoundStatement> deferred = new ArrayList<>();
+		for (IASTStatement body : bodies) {
+			if (body instanceof CPPASTDeferredCompoundStatement
+					&& ((CPPASTDeferredCompoundStatement) body).isDeferred()) {
+				deferred.add((CPPASTDeferredCompoundStatement) body);
+			}
+		}
+		forEach(executor, ast, deferred, CPPASTDeferredCompoundStatement::getStatements);
+		return true;
+	}
+
+	/**
+	 * Performs the given action for all elements on the threads of the given executor and waits
+	 * for the actions to complete. The translation unit is used as the lookup point for the action,
+	 * exceptions thrown by the action are propagated to the caller.
+	 */
+	public static <T> void forEach(ExecutorService executor, IASTTranslationUnit ast, Collection<T> elements,
+			Consumer<? super T> action) {
+		List<Callable<Void>> tasks = new ArrayList<>(elements.size());
+		for (T element : elements) {
+			tasks.add(() -> {
+				CPPSemantics.pushLookupPoint(ast);
+				try {
+					action.accept(element);
+				} finally {
+					CPPSemantics.popLookupPoint();
+				}
+				return null;
+			});
+		}
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+}
@@ -20,7 +20,6 @@ package org.eclipse.cdt.internal.core.index;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -44,6 +43,7 @@ import org.eclipse.cdt.core.index.IIndexFileSet;
 import org.eclipse.cdt.core.index.IIndexInclude;
 import org.eclipse.cdt.core.index.IIndexMacro;
 import org.eclipse.cdt.core.index.IIndexName;
+import org.eclipse.cdt.core.index.IIndexNameCursor;
 import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.core.parser.ISignificantMacros;
 import org.eclipse.cdt.internal.core.dom.Linkage;
@@ -51,6 +51,7 @@ import org.eclipse.cdt.internal.core.index.composite.CompositingNotImplementedEr
 import org.eclipse.cdt.internal.core.index.composite.ICompositesFactory;
 import org.eclipse.cdt.internal.core.index.composite.c.CCompositesFactory;
 import org.eclipse.cdt.internal.core.index.composite.cpp.CPPCompositesFactory;
+import org.eclipse.cdt.internal.core.pdom.dom.IPDOMIterator;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -164,50 +165,12 @@ public class CIndex implements IIndex {
 
 	@Override
 	public IIndexName[] findNames(IBinding binding, int flags) throws CoreException {
-		ArrayList<IIndexFragmentName> result = new ArrayList<>();
-		if (binding instanceof ICPPUsingDeclaration) {
-			IBinding[] bindings = ((ICPPUsingDeclaration) binding).getDelegates();
-			if (bindings == null || bindings.length == 0) {
-				return IIndexName.EMPTY_ARRAY;
-			}
-			if (bindings.length > 1) {
-				ArrayList<IIndexName> multi = new ArrayList<>();
-				for (IBinding b : bindings) {
-					multi.addAll(Arrays.asList(findNames(b, flags)));
-				}
-				return multi.toArray(new IIndexName[multi.size()]);
-			}
-			binding = bindings[0];
-		}
+		return new NameCursor(binding, flags).next(Integer.MAX_VALUE);
+	}
 
-		// Collect the names from all fragments. Since the same file may be represented by multiple
-		// variants in one or more index fragments, we need to filter out duplicate names.
-		// See bug 192352.
-		// Read only fragments can be superseded by what the indexer writes into
-		// a writable fragment. Therefore names from a read-only fragment are
-		// ignored if there is a match in a writable fragment.
-		HashSet<NameKey> encounteredNames = new HashSet<>();
-		for (IIndexFragment fragment : fFragments) {
-			if (fragment instanceof IWritableIndexFragment) {
-				final IIndexFragmentName[] names = fragment.findNames(binding, flags);
-				for (IIndexFragmentName name : names) {
-					if (encounteredNames.add(new NameKey(name, true))) {
-						result.add(name);
-					}
-				}
-			}
-		}
-		for (IIndexFragment fragment : fFragments) {
-			if (!(fragment instanceof IWritableIndexFragment)) {
-				final IIndexFragmentName[] names = fragment.findNames(binding, flags);
-				for (IIndexFragmentName name : names) {
-					if (encounteredNames.add(new NameKey(name, false))) {
-						result.add(name);
-					}
-				}
-			}
-		}
-		return result.toArray(new IIndexName[result.size()]);
+	@Override
+	public IIndexNameCursor findNameCursor(IBinding binding, int flags) throws CoreException {
+		return new NameCursor(binding, flags);
 	}
 
 	@Override
@@ -443,6 +406,18 @@ public class CIndex implements IIndex {
 		return result;
 	}
 
+	/**
+	 * Returns the sum of the modification counters of the fragments, it changes whenever one of
+	 * the fragments is modified.
+	 */
+	private long getModificationCount() {
+		long result = 0;
+		for (IIndexFragment fragment : fFragments) {
+			result += fragment.getModificationCount();
+		}
+		return result;
+	}
+
 	@Override
 	public IIndexBinding[] findBindings(char[][] names, IndexFilter filter, IProgressMonitor monitor)
 			throws CoreException {
@@ -825,6 +800,101 @@ public class CIndex implements IIndex {
 	 * A key used to uniquely identify an IIndexFragmentName object. Uniqueness is guaranteed only
 	 * for names corresponding to the same binding.
 	 */
+	/**
+	 * Iterates the names of a binding in all fragments.
+	 */
+	private final class NameCursor implements IIndexNameCursor {
+		private final IBinding[] fBindings;
+		private final int fFlags;
+		private final long fModificationCount;
+		// Writable fragments precede the read-only ones.
+		private final IIndexFragment[] fOrderedFragments;
+		private final int fWritableCount;
+		private int fBindingIndex;
+		private int fFragmentIndex;
+		private IPDOMIterator<IIndexFragmentName> fNames;
+		private final HashSet<NameKey> fEncounteredNames = new HashSet<>();
+		private IIndexFragmentName fNext;
+
+		NameCursor(IBinding binding, int flags) {
+			if (binding instanceof ICPPUsingDeclaration) {
+				IBinding[] delegates = ((ICPPUsingDeclaration) binding).getDelegates();
+				fBindings = delegates != null ? delegates : IBinding.EMPTY_BINDING_ARRAY;
+			} else {
+				fBindings = new IBinding[] { binding };
+			}
+			fFlags = flags;
+			fModificationCount = getModificationCount();
+			fOrderedFragments = new IIndexFragment[fFragments.length];
+			int i = 0;
+			for (IIndexFragment fragment : fFragments) {
+				if (fragment instanceof IWritableIndexFragment) {
+					fOrderedFragments[i++] = fragment;
+				}
+			}
+			fWritableCount = i;
+			for (IIndexFragment fragment : fFragments) {
+				if (!(fragment instanceof IWritableIndexFragment)) {
+					fOrderedFragments[i++] = fragment;
+				}
+			}
+		}
+
+		@Override
+		public boolean isValid() {
+			return getModificationCount() == fModificationCount;
+		}
+
+		@Override
+		public boolean hasNext() throws CoreException {
+			if (!isValid())
+				throw new CoreException(CCorePlugin.createStatus("Index was modified while iterating names")); //$NON-NLS-1$
+			if (fNext == null) {
+				fNext = advance();
+			}
+			return fNext != null;
+		}
+
+		@Override
+		public IIndexName[] next(int maxCount) throws CoreException {
+			ArrayList<IIndexName> result = new ArrayList<>(Math.min(maxCount, 64));
+			while (result.size() < maxCount && hasNext()) {
+				result.add(fNext);
+				fNext = null;
+			}
+			return result.toArray(new IIndexName[result.size()]);
+		}
+
+		private IIndexFragmentName advance() throws CoreException {
+			while (fBindingIndex < fBindings.length) {
+				if (fNames != null) {
+					// Since the same file may be represented by multiple variants in one or more index
+					// fragments, we need to filter out duplicate names. See bug 192352.
+					// Read only fragments can be superseded by what the indexer writes into
+					// a writable fragment. Therefore names from a read-only fragment are
+					// ignored if there is a match in a writable fragment.
+					final boolean writable = fFragmentIndex < fWritableCount;
+					while (fNames.hasNext()) {
+						IIndexFragmentName name = fNames.next();
+						if (fEncounteredNames.add(new NameKey(name, writable)))
+							return name;
+					}
+					fNames = null;
+					fFragmentIndex++;
+				}
+				if (fFragmentIndex < fOrderedFragments.length) {
+					fNames = fOrderedFragments[fFragmentIndex].iterateNames(fBindings[fBindingIndex], fFlags);
+				} else {
+					// Duplicates are filtered per binding.
+					fEncounteredNames.clear();
+					fFragmentIndex = 0;
+					fBindingIndex++;
+				}
+			}
+			return null;
+		}
+	}
+
 	private static final class NameKey {
 		private final IIndexFileLocation location;
 		private final int linkageID;
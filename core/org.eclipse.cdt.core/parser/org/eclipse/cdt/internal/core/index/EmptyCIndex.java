@@ -30,6 +30,7 @@ import org.eclipse.cdt.core.index.IIndexFileSet;
 import org.eclipse.cdt.core.index.IIndexInclude;
 import org.eclipse.cdt.core.index.IIndexMacro;
 import org.eclipse.cdt.core.index.IIndexName;
+import org.eclipse.cdt.core.index.IIndexNameCursor;
 import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.core.parser.ISignificantMacros;
 import org.eclipse.core.runtime.CoreException;
@@ -61,6 +62,26 @@ final public class EmptyCIndex implements IIndex {
 		return IIndexFragmentName.EMPTY_NAME_ARRAY;
 	}
 
+	@Override
+	public IIndexNameCursor findNameCursor(IBinding binding, int flags) {
+		return new IIndexNameCursor() {
+			@Override
+			public boolean hasNext() {
+				return false;
+			}
+
+			@Override
+			public IIndexName[] next(int maxCount) {
+				return IIndexName.EMPTY_ARRAY;
+			}
+
+			@Override
+			public boolean isValid() {
+				return true;
+			}
+		};
+	}
+
 	@Override
 	@Deprecated
 	public IIndexFile getFile(int linkageID, IIndexFileLocation location) {
@@ -27,6 +27,7 @@ import org.eclipse.cdt.core.index.IIndexLinkage;
 import org.eclipse.cdt.core.index.IIndexMacro;
 import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.core.parser.ISignificantMacros;
+import org.eclipse.cdt.internal.core.pdom.dom.IPDOMIterator;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -226,6 +227,17 @@ public interface IIndexFragment {
 	 */
 	IIndexFragmentName[] findNames(IBinding binding, int flags) throws CoreException;
 
+	/**
+	 * Returns an iterator over the names that resolve to the given binding, in the order they
+	 * are returned by {@link #findNames(IBinding, int)}. The iterator must only be used while
+	 * the fragment has not been modified since the iterator was created.
+	 * @param binding a binding for which names are searched for
+	 * @param flags the same flags as for {@link #findNames(IBinding, int)}
+	 * @return an iterator over the names
+	 * @throws CoreException
+	 */
+	IPDOMIterator<IIndexFragmentName> iterateNames(IBinding binding, int flags) throws CoreException;
+
 	/**
 	 * Acquires a read lock.
 	 * @throws InterruptedException
@@ -247,6 +259,12 @@ public interface IIndexFragment {
 	 */
 	long getLastWriteAccess();
 
+	/**
+	 * Returns a counter that is incremented whenever a write lock on the fragment is released.
+	 * Unlike {@link #getLastWriteAccess()} it changes with every modification.
+	 */
+	long getModificationCount();
+
 	/**
 	 * Returns all bindings with the given name, accepted by the given filter
 	 * @param monitor to report progress, may be <code>null</code>
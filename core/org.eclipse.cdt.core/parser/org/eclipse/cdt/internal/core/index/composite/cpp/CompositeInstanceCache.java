@@ -13,18 +13,15 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.index.composite.cpp;
 
-import java.util.HashMap;
-
 import org.eclipse.cdt.core.CCorePlugin;
-import org.eclipse.cdt.core.dom.ast.DOMException;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPDeferredClassInstance;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPInstanceCache;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.TemplateInstanceCache;
 import org.eclipse.cdt.internal.core.index.CIndex;
 import org.eclipse.cdt.internal.core.index.IIndexFragment;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentBinding;
-import org.eclipse.cdt.internal.core.index.IndexCPPSignatureUtil;
 import org.eclipse.cdt.internal.core.index.composite.ICompositesFactory;
 import org.eclipse.core.runtime.CoreException;
 
@@ -43,32 +40,19 @@ public class CompositeInstanceCache {
 		return (CompositeInstanceCache) frag.putCachedResult(key, newCache, false);
 	}
 
-	private final HashMap<String, ICPPTemplateInstance> fMap;
+	private final TemplateInstanceCache fInstances;
 	private ICPPDeferredClassInstance fDeferredInstance;
 
 	public CompositeInstanceCache() {
-		fMap = new HashMap<>();
+		fInstances = new TemplateInstanceCache();
 	}
 
-	synchronized public final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
-		try {
-			String key = IndexCPPSignatureUtil.getTemplateArgString(arguments, true);
-			fMap.put(key, instance);
-		} catch (CoreException e) {
-			CCorePlugin.log(e);
-		} catch (DOMException e) {
-		}
+	public final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
+		fInstances.addInstance(arguments, instance);
 	}
 
-	synchronized public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
-		try {
-			String key = IndexCPPSignatureUtil.getTemplateArgString(arguments, true);
-			return fMap.get(key);
-		} catch (CoreException e) {
-			CCorePlugin.log(e);
-		} catch (DOMException e) {
-		}
-		return null;
+	public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
+		return fInstances.getInstance(arguments);
 	}
 
 	private void addInstancesFrom(ICompositesFactory cf, ICPPInstanceCache cache) {
@@ -101,8 +85,8 @@ public class CompositeInstanceCache {
 		}
 	}
 
-	synchronized public ICPPTemplateInstance[] getAllInstances() {
-		return fMap.values().toArray(new ICPPTemplateInstance[fMap.size()]);
+	public ICPPTemplateInstance[] getAllInstances() {
+		return fInstances.getAllInstances();
 	}
 
 	public ICPPDeferredClassInstance getDeferredInstance() {
@@ -152,6 +152,11 @@ public abstract class StandaloneIndexer {
 
 	protected int fUpdateOptions = UPDATE_ALL;
 
+	/**
+	 * The number of threads parsing translation units.
+	 */
+	protected int fIndexerThreads = 1;
+
 	private IndexerProgress fProgress = null;
 	private volatile StandaloneIndexerTask fDelegate;
 
@@ -342,6 +347,22 @@ public abstract class StandaloneIndexer {
 		fTraceStatistics = traceStatistics;
 	}
 
+	/**
+	 * Returns the number of threads parsing translation units.
+	 */
+	public int getIndexerThreads() {
+		return fIndexerThreads;
+	}
+
+	/**
+	 * Sets the number of threads parsing translation units. The sources are distributed among
+	 * the threads, the results are written to the index by the thread running the indexer.
+	 * A value smaller than one selects the number of available processors.
+	 */
+	public void setIndexerThreads(int indexerThreads) {
+		fIndexerThreads = indexerThreads > 0 ? indexerThreads : Runtime.getRuntime().availableProcessors();
+	}
+
 	private IndexerProgress createProgress() {
 		IndexerProgress progress = new IndexerProgress();
 		progress.fTimeEstimate = 1000;
@@ -55,6 +55,7 @@ public abstract class StandaloneIndexerTask extends AbstractIndexerTask {
 		setShowActivity(fIndexer.getShowActivity());
 		setShowProblems(fIndexer.getShowProblems());
 		setSkipReferences(fIndexer.getSkipReferences());
+		setIndexerThreads(fIndexer.getIndexerThreads());
 
 		if (getIndexAllFiles()) {
 			setIndexFilesWithoutBuildConfiguration(true);
@@ -129,6 +130,7 @@ public abstract class StandaloneIndexerTask extends AbstractIndexerTask {
 					+ "parseAllFiles=" + allFiles //$NON-NLS-1$
 					+ ",skipReferences=" + skipRefs //$NON-NLS-1$
 					+ ", skipTypeReferences=" + skipTypeRefs //$NON-NLS-1$
+					+ ", indexerThreads=" + fIndexer.getIndexerThreads() //$NON-NLS-1$
 					+ "."); //$NON-NLS-1$
 
 			trace(name + " Timings: " //$NON-NLS-1$
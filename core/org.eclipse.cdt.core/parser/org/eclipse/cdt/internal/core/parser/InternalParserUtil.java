@@ -242,7 +242,7 @@ public class InternalParserUtil extends ParserFactory {
 			localPath = path;
 		}
 		try {
-			AbstractCharArray chars = FileCharArray.create(localPath, charset, in);
+			AbstractCharArray chars = FileCharArray.create(localPath, charset, in, fileTimestamp);
 			if (chars == null)
 				return null;
 
@@ -265,6 +265,7 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 	private final ExpressionEvaluator fExpressionEvaluator;
 	private final MacroDefinitionParser fMacroDefinitionParser;
 	private final MacroExpander fMacroExpander;
+	private final MacroExpansionCache fMacroExpansionCache = new MacroExpansionCache();
 
 	// configuration
 	final private LexerOptions fLexOptions = new LexerOptions();
@@ -336,7 +337,7 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 
 		fExpressionEvaluator = new ExpressionEvaluator(this);
 		fMacroDefinitionParser = new MacroDefinitionParser();
-		fMacroExpander = new MacroExpander(this, fMacroDictionary, fLocationMap, fLexOptions);
+		fMacroExpander = new MacroExpander(this, fMacroDictionary, fLocationMap, fLexOptions, fMacroExpansionCache);
 		fIncludeFileResolutionHeuristics = fFileContentProvider.getIncludeHeuristics();
 
 		String contextPath = fFileContentProvider.getContextPath();
@@ -358,7 +359,8 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 
 	private char[] detectIncludeGuard(String filePath, AbstractCharArray source, ScannerContext ctx) {
 		if (!fFileContentProvider.shouldIndexAllHeaderVersions(filePath)) {
-			final char[] guard = IncludeGuardDetection.detectIncludeGuard(source, fLexOptions, fPPKeywords);
+			final char[] guard = IncludeGuardCache.getSharedInstance().detectIncludeGuard(source, fLexOptions,
+					fPPKeywords);
 			if (guard != null) {
 				IFileNomination nom = fLocationMap.reportPragmaOnceSemantics(ctx.getLocationCtx());
 				fFileContentProvider.reportPragmaOnceSemantics(filePath, nom);
@@ -618,6 +620,7 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 			PreprocessorMacro result = fMacroDefinitionParser.parseMacroDefinition(lex, ILexerLog.NULL, value);
 			fLocationMap.registerPredefinedMacro(result);
 			fMacroDictionary.put(result.getNameCharArray(), result);
+			fMacroExpansionCache.clear();
 			return result;
 		} catch (Exception e) {
 			fLog.traceLog("Invalid macro definition: '" + String.valueOf(key) + "'"); //$NON-NLS-1$//$NON-NLS-2$
@@ -1435,11 +1438,13 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 			if (expansionImage == null) {
 				// this is an undef
 				fMacroDictionary.remove(macro.getNameCharArray());
+				fMacroExpansionCache.clear();
 			} else {
 				PreprocessorMacro result = MacroDefinitionParser.parseMacroDefinition(macro.getNameCharArray(),
 						macro.getParameterList(), expansionImage);
 				fLocationMap.registerMacroFromIndex(result, macro.getDefinition(), -1);
 				fMacroDictionary.put(result.getNameCharArray(), result);
+				fMacroExpansionCache.clear();
 			}
 		} catch (Exception e) {
 			fLog.traceLog("Invalid macro definition: '" + macro.getName() + "'"); //$NON-NLS-1$//$NON-NLS-2$
@@ -1840,6 +1845,7 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 			if (isActive) {
 				final char[] macroName = macrodef.getNameCharArray();
 				fMacroDictionary.put(macroName, macrodef);
+				fMacroExpansionCache.clear();
 				fCurrentContext.internalModification(macroName);
 			}
 
@@ -1870,6 +1876,7 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 		PreprocessorMacro definition;
 		if (isActive) {
 			definition = fMacroDictionary.remove(namechars, 0, namechars.length);
+			fMacroExpansionCache.clear();
 			fCurrentContext.internalModification(namechars);
 		} else {
 			definition = fMacroDictionary.get(namechars);
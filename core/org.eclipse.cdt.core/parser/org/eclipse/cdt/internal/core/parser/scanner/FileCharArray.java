@@ -34,6 +34,16 @@ public class FileCharArray extends LazyCharArray {
 	private static final String UTF8_CHARSET_NAME = "UTF-8"; //$NON-NLS-1$
 
 	public static AbstractCharArray create(String fileName, String charSet, InputStream in) throws IOException {
+		return create(fileName, charSet, in, 0);
+	}
+
+	/**
+	 * Creates the char array for a file. The content of files that are small enough is decoded at once
+	 * and shared via the {@link FileContentCache}.
+	 * @param timestamp the modification stamp of the file, or 0 if the content shall not be cached.
+	 */
+	public static AbstractCharArray create(String fileName, String charSet, InputStream in, long timestamp)
+			throws IOException {
 		// No support for non-local files.
 		if (!(in instanceof FileInputStream)) {
 			return null;
@@ -44,14 +54,25 @@ public class FileCharArray extends LazyCharArray {
 		}
 		FileChannel channel = fis.getChannel();
 		final long lsize = channel.size();
+		if (timestamp != 0) {
+			final FileContentCache cache = FileContentCache.getSharedInstance();
+			CharArray content = cache.getContent(fileName, charSet, timestamp, lsize);
+			if (content == null && (lsize < CHUNK_SIZE || cache.isCacheable(lsize))) {
+				content = decodeFile(channel, (int) lsize, charSet);
+				cache.putContent(fileName, charSet, timestamp, lsize, content);
+			}
+			if (content != null) {
+				return content;
+			}
+		}
 		if (lsize < CHUNK_SIZE) {
-			return decodeSmallFile(channel, (int) lsize, charSet);
+			return decodeFile(channel, (int) lsize, charSet);
 		}
 
 		return new FileCharArray(fileName, charSet);
 	}
 
-	private static AbstractCharArray decodeSmallFile(FileChannel channel, int lsize, String charSet)
+	private static CharArray decodeFile(FileChannel channel, int lsize, String charSet)
 			throws IOException {
 		ByteBuffer byteBuffer = ByteBuffer.allocate(lsize);
 		channel.read(byteBuffer);
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.parser.scanner;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache for the decoded content of files and for the names of the files in directories that is
+ * shared by all parsers of the process. Entries are keyed by the path and the modification stamp
+ * of the file or directory, a file that has been modified is read again. The memory used by
+ * the entries is limited, the least recently used entries are evicted first.
+ * <p>
+ * The cache may be used by multiple threads. The cached content must not be modified.
+ */
+public final class FileContentCache {
+	private static final FileContentCache sSharedInstance = new FileContentCache(getDefaultMaxSize());
+
+	// Estimated memory used by an entry in addition to its content.
+	private static final int ENTRY_OVERHEAD = 128;
+	// Estimated memory used by a name of a file in addition to its characters.
+	private static final int NAME_OVERHEAD = 48;
+	// A single entry may use this fraction of the cache, at most.
+	private static final int MAX_ENTRY_FRACTION = 16;
+	// A file may be modified again without changing its modification stamp when the file system stores
+	// the stamp with a low resolution. Files modified more recently than this are not cached.
+	private static final long MIN_AGE_MILLIS = 2000;
+
+	private static final class Key {
+		final String fPath;
+		final String fVariant;
+		final long fTimestamp;
+		final long fFileSize;
+
+		Key(String path, String variant, long timestamp, long fileSize) {
+			fPath = path;
+			fVariant = variant;
+			fTimestamp = timestamp;
+			fFileSize = fileSize;
+		}
+
+		@Override
+		public int hashCode() {
+			return fPath.hashCode() * 31 + Long.hashCode(fTimestamp);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return fTimestamp == other.fTimestamp && fFileSize == other.fFileSize && fPath.equals(other.fPath)
+					&& fVariant.equals(other.fVariant);
+		}
+	}
+
+	private static final class Entry {
+		final Object fValue;
+		final long fBytes;
+
+		Entry(Object value, long bytes) {
+			fValue = value;
+			fBytes = bytes;
+		}
+	}
+
+	// Access ordered, protected by the monitor of the cache.
+	private final Map<Key, Entry> fEntries = new LinkedHashMap<>(64, 0.75f, true);
+	private long fMaxSize;
+	private long fSize;
+
+	private final LongAdder fContentHits = new LongAdder();
+	private final LongAdder fContentMisses = new LongAdder();
+	private final LongAdder fDirectoryHits = new LongAdder();
+	private final LongAdder fDirectoryMisses = new LongAdder();
+	private final LongAdder fEvictions = new LongAdder();
+
+	public static FileContentCache getSharedInstance() {
+		return sSharedInstance;
+	}
+
+	private static long getDefaultMaxSize() {
+		return Math.min(Runtime.getRuntime().maxMemory() / 32, 64L * 1024 * 1024);
+	}
+
+	public FileContentCache(long maxSize) {
+		fMaxSize = maxSize;
+	}
+
+	/**
+	 * Returns the decoded content of a file, or {@code null} if it is not cached.
+	 * @param timestamp the modification stamp of the file
+	 * @param fileSize the length of the file in bytes
+	 */
+	public CharArray getContent(String path, String charset, long timestamp, long fileSize) {
+		Object value = get(new Key(path, charset, timestamp, fileSize));
+		if (value instanceof CharArray) {
+			fContentHits.increment();
+			return (CharArray) value;
+		}
+		fContentMisses.increment();
+		return null;
+	}
+
+	/**
+	 * Checks whether the content of a file with the given length is small enough to be cached.
+	 */
+	public boolean isCacheable(long fileSize) {
+		return getContentBytes(fileSize) <= getMaxSize() / MAX_ENTRY_FRACTION;
+	}
+
+	private static long getContentBytes(long chars) {
+		return chars * 2 + ENTRY_OVERHEAD;
+	}
+
+	public void putContent(String path, String charset, long timestamp, long fileSize, CharArray content) {
+		if (!isCacheableTimestamp(timestamp))
+			return;
+		put(new Key(path, charset, timestamp, fileSize), content, getContentBytes(content.getLength()));
+	}
+
+	/**
+	 * Returns the names of the files in a directory, or {@code null} if they are not cached.
+	 * @param variant distinguishes different representations of the names
+	 * @param timestamp the modification stamp of the directory
+	 */
+	public String[] getDirectoryNames(String directory, String variant, long timestamp) {
+		Object value = get(new Key(directory, variant, timestamp, -1));
+		if (value instanceof String[]) {
+			fDirectoryHits.increment();
+			return (String[]) value;
+		}
+		fDirectoryMisses.increment();
+		return null;
+	}
+
+	public void putDirectoryNames(String directory, String variant, long timestamp, String[] names) {
+		if (!isCacheableTimestamp(timestamp))
+			return;
+		long bytes = ENTRY_OVERHEAD;
+		for (String name : names) {
+			bytes += name.length() * 2 + NAME_OVERHEAD;
+		}
+		put(new Key(directory, variant, timestamp, -1), names, bytes);
+	}
+
+	private static boolean isCacheableTimestamp(long timestamp) {
+		return timestamp != 0 && System.currentTimeMillis() - timestamp >= MIN_AGE_MILLIS;
+	}
+
+	private synchronized Object get(Key key) {
+		Entry entry = fEntries.get(key);
+		return entry == null ? null : entry.fValue;
+	}
+
+	private synchronized void put(Key key, Object value, long bytes) {
+		if (bytes > fMaxSize / MAX_ENTRY_FRACTION)
+			return;
+		Entry old = fEntries.put(key, new Entry(value, bytes));
+		if (old != null) {
+			fSize -= old.fBytes;
+		}
+		fSize += bytes;
+		evict();
+	}
+
+	private void evict() {
+		for (Iterator<Entry> it = fEntries.values().iterator(); fSize > fMaxSize && it.hasNext();) {
+			Entry entry = it.next();
+			it.remove();
+			fSize -= entry.fBytes;
+			fEvictions.increment();
+		}
+	}
+
+	public synchronized void setMaxSize(long maxSize) {
+		fMaxSize = maxSize;
+		evict();
+	}
+
+	public synchronized long getMaxSize() {
+		return fMaxSize;
+	}
+
+	/**
+	 * Returns the estimated memory used by the cached entries.
+	 */
+	public synchronized long getSize() {
+		return fSize;
+	}
+
+	public synchronized void clear() {
+		fEntries.clear();
+		fSize = 0;
+	}
+
+	public long getContentHits() {
+		return fContentHits.sum();
+	}
+
+	public long getContentMisses() {
+		return fContentMisses.sum();
+	}
+
+	public long getDirectoryHits() {
+		return fDirectoryHits.sum();
+	}
+
+	public long getDirectoryMisses() {
+		return fDirectoryMisses.sum();
+	}
+
+	/**
+	 * Returns the number of entries removed because the cache exceeded its maximum size.
+	 */
+	public long getEvictions() {
+		return fEvictions.sum();
+	}
+
+	public void resetCounters() {
+		fContentHits.reset();
+		fContentMisses.reset();
+		fDirectoryHits.reset();
+		fDirectoryMisses.reset();
+		fEvictions.reset();
+	}
+
+	private static String formatRatio(long hits, long misses) {
+		long tries = hits + misses;
+		return tries == 0 ? "-" : String.format("%.2f%%", 100.0 * hits / tries); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Override
+	@SuppressWarnings("nls")
+	public String toString() {
+		long contentHits = getContentHits();
+		long contentMisses = getContentMisses();
+		long directoryHits = getDirectoryHits();
+		long directoryMisses = getDirectoryMisses();
+		return contentHits + " content hits, " + contentMisses + " misses (" + formatRatio(contentHits, contentMisses)
+				+ " hit ratio), " + directoryHits + " directory hits, " + directoryMisses + " misses ("
+				+ formatRatio(directoryHits, directoryMisses) + " hit ratio), " + getEvictions() + " evictions";
+	}
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.parser.scanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.cdt.core.parser.util.CharArrayIntMap;
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer.LexerOptions;
+import org.eclipse.cdt.internal.core.parser.util.LRUCache;
+
+/**
+ * Cache for the results of {@link IncludeGuardDetection}. The include guard of a header depends
+ * only on its content and on the options of the lexer, the results are keyed by the hash and the
+ * length of the content. Detecting the guard requires lexing the directives of the entire file,
+ * with the cache this is done once per version of a header rather than once per inclusion in
+ * every translation unit.
+ * <p>
+ * The results can be saved to a file and loaded again, such that they survive a restart.
+ * The cache may be used by multiple threads.
+ */
+public final class IncludeGuardCache {
+	private static final IncludeGuardCache sSharedInstance = new IncludeGuardCache(50000);
+
+	private static final int MAGIC = 0x43494743; // 'CIGC'
+	private static final int VERSION = 1;
+
+	/** Marks a header without an include guard. */
+	private static final char[] NO_GUARD = {};
+
+	private static final class Key {
+		final long fHash;
+		final int fLength;
+		final int fOptions;
+
+		Key(long hash, int length, int options) {
+			fHash = hash;
+			fLength = length;
+			fOptions = options;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(fHash);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return fHash == other.fHash && fLength == other.fLength && fOptions == other.fOptions;
+		}
+	}
+
+	// Protected by the monitor of the cache.
+	private final Map<Key, char[]> fGuards;
+	private boolean fModified;
+
+	private final LongAdder fHits = new LongAdder();
+	private final LongAdder fMisses = new LongAdder();
+
+	public static IncludeGuardCache getSharedInstance() {
+		return sSharedInstance;
+	}
+
+	public IncludeGuardCache(int maxEntries) {
+		fGuards = new LRUCache<>(maxEntries);
+	}
+
+	/**
+	 * Returns the include guard of the given content, detecting it if it is not cached.
+	 * @return the name of the guard or {@code null} if the content has no include guard.
+	 */
+	public char[] detectIncludeGuard(AbstractCharArray content, LexerOptions lexOptions, CharArrayIntMap ppKeywords) {
+		final Key key = new Key(content.getContentsHash(), content.getLength(), getOptionBits(lexOptions));
+		char[] guard;
+		synchronized (this) {
+			guard = fGuards.get(key);
+		}
+		if (guard != null) {
+			fHits.increment();
+			return guard == NO_GUARD ? null : guard;
+		}
+		fMisses.increment();
+		guard = IncludeGuardDetection.detectIncludeGuard(content, lexOptions, ppKeywords);
+		synchronized (this) {
+			fGuards.put(key, guard == null ? NO_GUARD : guard);
+			fModified = true;
+		}
+		return guard;
+	}
+
+	/**
+	 * Combines the options that influence the detection of include guards.
+	 */
+	private static int getOptionBits(LexerOptions options) {
+		int bits = 0;
+		if (options.fSupportDollarInIdentifiers)
+			bits |= 0x01;
+		if (options.fSupportAtSignInIdentifiers)
+			bits |= 0x02;
+		if (options.fSupportMinAndMax)
+			bits |= 0x04;
+		if (options.fSupportSlashPercentComments)
+			bits |= 0x08;
+		if (options.fSupportUTFLiterals)
+			bits |= 0x10;
+		if (options.fSupportRawStringLiterals)
+			bits |= 0x20;
+		if (options.fSupportUserDefinedLiterals)
+			bits |= 0x40;
+		if (options.fSupportDigitSeparators)
+			bits |= 0x80;
+		return bits;
+	}
+
+	/**
+	 * Adds the results stored in the given file to the cache. A missing file or a file with
+	 * an unknown format is ignored.
+	 */
+	public void load(File file) throws IOException {
+		if (!file.isFile())
+			return;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				return;
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				Key key = new Key(in.readLong(), in.readInt(), in.readInt());
+				int guardLength = in.readInt();
+				char[] guard = NO_GUARD;
+				if (guardLength > 0) {
+					guard = new char[guardLength];
+					for (int j = 0; j < guardLength; j++) {
+						guard[j] = in.readChar();
+					}
+				}
+				synchronized (this) {
+					fGuards.putIfAbsent(key, guard);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stores the cached results in the given file, if they have changed since they were last saved.
+	 */
+	public void save(File file) throws IOException {
+		final Key[] keys;
+		final char[][] guards;
+		synchronized (this) {
+			if (!fModified)
+				return;
+			keys = fGuards.keySet().toArray(new Key[fGuards.size()]);
+			guards = fGuards.values().toArray(new char[fGuards.size()][]);
+			fModified = false;
+		}
+		File tmp = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(keys.length);
+			for (int i = 0; i < keys.length; i++) {
+				out.writeLong(keys[i].fHash);
+				out.writeInt(keys[i].fLength);
+				out.writeInt(keys[i].fOptions);
+				out.writeInt(guards[i].length);
+				out.writeChars(new String(guards[i]));
+			}
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	public synchronized int size() {
+		return fGuards.size();
+	}
+
+	public synchronized void clear() {
+		fGuards.clear();
+		fModified = true;
+	}
+
+	public long getHits() {
+		return fHits.sum();
+	}
+
+	public long getMisses() {
+		return fMisses.sum();
+	}
+
+	@Override
+	@SuppressWarnings("nls")
+	public String toString() {
+		return getHits() + " hits, " + getMisses() + " misses, " + size() + " headers";
+	}
+}
@@ -53,6 +53,34 @@ final public class Lexer implements ITokenSequence {
 	private static final int END_OF_INPUT = -1;
 	private static final int ORIGIN_LEXER = OffsetLimitReachedException.ORIGIN_LEXER;
 
+	// Classes of the ascii characters.
+	private static final byte IDENTIFIER_PART = 0x01; // Letters, digits and '_'.
+	private static final byte NUMBER_PART = 0x02; // Identifier parts without exponents and 'x'.
+	private static final byte PHASE3_PLAIN = 0x04; // Characters not affected by phases 1-3.
+	private static final byte[] ASCII_CLASSES = new byte[128];
+	static {
+		for (int c = 0; c < ASCII_CLASSES.length; c++) {
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_') {
+				ASCII_CLASSES[c] |= IDENTIFIER_PART;
+				switch (c) {
+				case 'x':
+				case 'X':
+				case 'e':
+				case 'E':
+				case 'p':
+				case 'P':
+					break;
+				default:
+					ASCII_CLASSES[c] |= NUMBER_PART;
+					break;
+				}
+			}
+			if (c != '\r' && c != '?' && c != '\\') {
+				ASCII_CLASSES[c] |= PHASE3_PLAIN;
+			}
+		}
+	}
+
 	public final static class LexerOptions implements Cloneable {
 		public boolean fSupportDollarInIdentifiers = true;
 		public boolean fSupportAtSignInIdentifiers = true;
@@ -83,6 +111,8 @@ final public class Lexer implements ITokenSequence {
 
 	// the input to the lexer
 	private final AbstractCharArray fInput;
+	// The characters of the input, if it is available as an array, or null.
+	private final char[] fInputChars;
 	private final int fStart;
 	private int fLimit;
 
@@ -121,6 +151,7 @@ final public class Lexer implements ITokenSequence {
 
 	public Lexer(AbstractCharArray input, int start, int end, LexerOptions options, ILexerLog log, Object source) {
 		fInput = input;
+		fInputChars = getInputArray(input, end);
 		fStart = fOffset = fEndOffset = start;
 		fLimit = end;
 		fOptions = options;
@@ -130,6 +161,23 @@ final public class Lexer implements ITokenSequence {
 		nextCharPhase3();
 	}
 
+	/**
+	 * Returns the array holding the characters of the input, if characters can be read from it
+	 * directly up to the given end offset.
+	 */
+	private static char[] getInputArray(AbstractCharArray input, int end) {
+		if (input instanceof CharArray) {
+			final char[] array = ((CharArray) input).getArray();
+			if (end >= 0 && end <= array.length)
+				return array;
+		}
+		return null;
+	}
+
+	private static boolean isInClass(int c, byte charClass) {
+		return (c & ~0x7f) == 0 && (ASCII_CLASSES[c] & charClass) != 0;
+	}
+
 	private boolean isValidOffset(int pos) {
 		if (fLimit < 0)
 			return fInput.isValidOffset(pos);
@@ -966,6 +1014,11 @@ final public class Lexer implements ITokenSequence {
 		boolean isPartOfIdentifier = true;
 		int c = fCharPhase3;
 		while (true) {
+			if (isInClass(c, IDENTIFIER_PART)) {
+				length++;
+				c = nextCharPhase3();
+				continue;
+			}
 			switch (c) {
 			case 'a':
 			case 'b':
@@ -1119,6 +1172,11 @@ final public class Lexer implements ITokenSequence {
 		boolean isHex = false;
 		int c = fCharPhase3;
 		while (true) {
+			if (isInClass(c, NUMBER_PART)) {
+				c = nextCharPhase3();
+				length++;
+				continue;
+			}
 			switch (c) {
 			// non-digit
 			case 'a':
@@ -1292,6 +1350,24 @@ final public class Lexer implements ITokenSequence {
 	 * Changes fOffset, fEndOffset and fCharPhase3, state-less otherwise.
 	 */
 	private int nextCharPhase3() {
+		final char[] chars = fInputChars;
+		if (chars != null) {
+			// Fast path for characters that are not affected by phases 1-3, read directly from the array.
+			final int pos = fEndOffset;
+			if (pos + 1 < fLimit) {
+				final char c = chars[pos];
+				if (c >= ASCII_CLASSES.length || (ASCII_CLASSES[c] & PHASE3_PLAIN) != 0) {
+					fOffset = pos;
+					fEndOffset = pos + 1;
+					fCharPhase3 = c;
+					return c;
+				}
+			}
+		}
+		return nextCharPhase3Slow();
+	}
+
+	private int nextCharPhase3Slow() {
 		int pos = fEndOffset;
 		do {
 			if (!isValidOffset(pos + 1)) {
@@ -88,6 +88,7 @@ public class MacroExpander {
 		public Token fetchFirst() throws OffsetLimitReachedException {
 			Token t = removeFirst();
 			if (t == null && fLexer != null) {
+				fLexerAccessCount++;
 				t = fLexer.currentToken();
 				if (t.getType() != IToken.tEND_OF_INPUT) {
 					fEndOffset = t.getEndOffset();
@@ -115,6 +116,7 @@ public class MacroExpander {
 			}
 
 			if (fLexer != null) {
+				fLexerAccessCount++;
 				t = fLexer.currentToken();
 				while (t.getType() == Lexer.tNEWLINE) {
 					t = fLexer.nextToken();
@@ -143,13 +145,28 @@ public class MacroExpander {
 	private ScannerContext fReportMacros;
 	private boolean fReportUndefined;
 
+	// for memoizing expansions
+	private final MacroExpansionCache fExpansionCache;
+	private MacroExpansionCache.Recorder fRecorder;
+	private int fLexerAccessCount;
+
 	public MacroExpander(ILexerLog log, CharArrayMap<PreprocessorMacro> macroDictionary, LocationMap locationMap,
 			LexerOptions lexOptions) {
+		this(log, macroDictionary, locationMap, lexOptions, null);
+	}
+
+	/**
+	 * Creates an expander that memoizes expansions in the given cache. The cache must be cleared
+	 * whenever the macro dictionary is modified.
+	 */
+	MacroExpander(ILexerLog log, CharArrayMap<PreprocessorMacro> macroDictionary, LocationMap locationMap,
+			LexerOptions lexOptions, MacroExpansionCache expansionCache) {
 		fDictionary = macroDictionary;
 		fLocationMap = locationMap;
 		fDefinitionParser = new MacroDefinitionParser();
 		fLexOptions = lexOptions;
 		fLog = log;
+		fExpansionCache = expansionCache;
 	}
 
 	/**
@@ -181,13 +198,18 @@ public class MacroExpander {
 
 		TokenList result;
 		try {
-			firstExpansion.append(new ExpansionBoundary(macro, true));
-			expandOne(identifier, macro, forbidden, input, firstExpansion, null);
-			firstExpansion.append(new ExpansionBoundary(macro, false));
+			if (fExpansionCache != null && !completionMode && !macro.isDynamic()) {
+				result = expandMemoized(identifier, macro, forbidden, input, protectIntrinsics);
+			} else {
+				firstExpansion.append(new ExpansionBoundary(macro, true));
+				expandOne(identifier, macro, forbidden, input, firstExpansion, null);
+				firstExpansion.append(new ExpansionBoundary(macro, false));
 
-			input.prepend(firstExpansion);
+				input.prepend(firstExpansion);
 
-			result = expandAll(input, forbidden, protectIntrinsics, null);
+				result = expandAll(input, forbidden, protectIntrinsics, null);
+				postProcessTokens(result);
+			}
 		} catch (CompletionInMacroExpansionException e) {
 			// For content assist in macro expansions, we return the list of tokens of the
 			// parameter at the current cursor position and hope that they make sense if
@@ -195,12 +217,111 @@ public class MacroExpander {
 			// For a better solution one would have to perform the expansion with artificial
 			// parameters and then check where the completion token ends up in the expansion.
 			result = e.getParameterTokens().cloneTokens();
+			postProcessTokens(result);
 		}
-		postProcessTokens(result);
 		fReportMacros = null;
 		return result;
 	}
 
+	/**
+	 * Expands a macro using the result of an earlier expansion with the same arguments, if
+	 * possible. Otherwise the expansion is performed and stored in the cache if it does not depend
+	 * on its location. Returns the post-processed tokens of the expansion.
+	 */
+	private TokenList expandMemoized(Token identifier, PreprocessorMacro macro,
+			IdentityHashMap<PreprocessorMacro, PreprocessorMacro> forbidden, TokenSource input,
+			boolean protectIntrinsics) throws OffsetLimitReachedException {
+		reportSignificantMacro(macro);
+
+		TokenSource[] argInputs = null;
+		if (macro.isFunctionStyle()) {
+			argInputs = new TokenSource[macro.getParameterPlaceholderList().length];
+			try {
+				parseArguments(input, (FunctionStyleMacro) macro, forbidden, argInputs, null);
+			} catch (AbortMacroExpansionException e) {
+				// Ignore this macro expansion.
+				for (TokenSource argInput : argInputs) {
+					executeScopeMarkers(argInput, forbidden);
+				}
+				return new TokenList();
+			}
+		}
+
+		final MacroExpansionCache.Key key = new MacroExpansionCache.Key(macro, protectIntrinsics, argInputs);
+		final MacroExpansionCache.Entry entry = fExpansionCache.get(key);
+		if (entry != null) {
+			replay(entry);
+			return entry.fResult.cloneTokens();
+		}
+
+		final MacroExpansionCache.Recorder recorder = new MacroExpansionCache.Recorder();
+		final int lexerAccessCount = fLexerAccessCount;
+		final TokenList result;
+		fRecorder = recorder;
+		try {
+			TokenList firstExpansion = new TokenList();
+			firstExpansion.append(new ExpansionBoundary(macro, true));
+			if (argInputs != null) {
+				expandFunctionStyleMacro(macro, argInputs, getParamUsage(macro), forbidden, firstExpansion, null);
+			} else {
+				objStyleTokenPaste(macro, firstExpansion);
+			}
+			firstExpansion.append(new ExpansionBoundary(macro, false));
+			input.prepend(firstExpansion);
+
+			result = expandAll(input, forbidden, protectIntrinsics, null);
+			postProcessTokens(result);
+		} finally {
+			fRecorder = null;
+		}
+
+		// An expansion that reads beyond the arguments depends on the subsequent tokens.
+		if (recorder.fCacheable && fLexerAccessCount == lexerAccessCount) {
+			ImageLocationInfo[] infos = fImageLocationInfos
+					.toArray(new ImageLocationInfo[fImageLocationInfos.size()]);
+			for (ImageLocationInfo info : infos) {
+				if (info instanceof ParameterImageLocationInfo)
+					return result;
+			}
+			fExpansionCache.put(key, new MacroExpansionCache.Entry(result.cloneTokens(), recorder, infos));
+		}
+		return result;
+	}
+
+	/**
+	 * Repeats the side effects of an expansion taken from the cache.
+	 */
+	private void replay(MacroExpansionCache.Entry entry) {
+		for (Object significant : entry.fSignificantMacros) {
+			if (significant instanceof PreprocessorMacro) {
+				reportSignificantMacro((PreprocessorMacro) significant);
+			} else {
+				reportUndefinedMacro((char[]) significant);
+			}
+		}
+		if (fLocationMap != null) {
+			for (int i = 0; i < entry.fImplicitMacros.length; i++) {
+				fImplicitMacroExpansions
+						.add(fLocationMap.encounterImplicitMacroExpansion(entry.fImplicitMacros[i], entry.fImplicitInfos[i]));
+			}
+		}
+		fImageLocationInfos.addAll(Arrays.asList(entry.fImageLocationInfos));
+	}
+
+	private void reportSignificantMacro(PreprocessorMacro macro) {
+		if (fRecorder != null)
+			fRecorder.fSignificantMacros.add(macro);
+		if (fReportMacros != null)
+			fReportMacros.significantMacro(macro);
+	}
+
+	private void reportUndefinedMacro(char[] name) {
+		if (fRecorder != null)
+			fRecorder.fSignificantMacros.add(name);
+		if (fReportMacros != null && fReportUndefined)
+			fReportMacros.significantMacroUndefined(name);
+	}
+
 	/**
 	 * Method for tracking macro expansions.
 	 * @since 5.0
@@ -259,8 +380,10 @@ public class MacroExpander {
 	private Token expandOne(Token lastConsumed, PreprocessorMacro macro,
 			IdentityHashMap<PreprocessorMacro, PreprocessorMacro> forbidden, TokenSource input, TokenList result,
 			MacroExpansionTracker tracker) throws OffsetLimitReachedException {
-		if (fReportMacros != null)
-			fReportMacros.significantMacro(macro);
+		reportSignificantMacro(macro);
+		if (fRecorder != null && macro.isDynamic()) {
+			fRecorder.fCacheable = false;
+		}
 
 		if (macro.isFunctionStyle()) {
 			final int paramCount = macro.getParameterPlaceholderList().length;
@@ -289,41 +412,7 @@ public class MacroExpander {
 				}
 				return null;
 			}
-
-			TokenList[] clonedArgs = new TokenList[paramCount];
-			TokenList[] expandedArgs = new TokenList[paramCount];
-			for (int i = 0; i < paramCount; i++) {
-				final TokenSource argInput = argInputs[i];
-				final boolean needCopy = paramUsage.get(2 * i);
-				final boolean needExpansion = paramUsage.get(2 * i + 1);
-				clonedArgs[i] = needCopy ? argInput.cloneTokens() : EMPTY_TOKEN_LIST;
-				expandedArgs[i] = needExpansion ? expandAll(argInput, forbidden, false, tracker) : EMPTY_TOKEN_LIST;
-				if (!needExpansion) {
-					executeScopeMarkers(argInput, forbidden);
-				}
-
-				if (tracker != null) {
-					tracker.setExpandedMacroArgument(needExpansion ? expandedArgs[i] : null);
-					// make sure that the trailing arguments do not get expanded.
-					if (tracker.isDone()) {
-						paramUsage.clear();
-					}
-				}
-			}
-			if (tracker == null) {
-				replaceArgs(macro, clonedArgs, expandedArgs, result);
-			} else {
-				if (tracker.isRequestedStep()) {
-					TokenList replacement = new TokenList();
-					replaceArgs(macro, clonedArgs, expandedArgs, replacement);
-					tracker.storeFunctionStyleMacroReplacement(macro, replacement, result);
-				} else if (tracker.isDone()) {
-					tracker.appendFunctionStyleMacro(result);
-				} else {
-					replaceArgs(macro, clonedArgs, expandedArgs, result);
-				}
-				tracker.endFunctionStyleMacro();
-			}
+			expandFunctionStyleMacro(macro, argInputs, paramUsage, forbidden, result, tracker);
 		} else {
 			if (tracker == null) {
 				objStyleTokenPaste(macro, result);
@@ -341,6 +430,49 @@ public class MacroExpander {
 		return lastConsumed;
 	}
 
+	/**
+	 * Expands the arguments of a function-style macro and stores the replacement in the result.
+	 */
+	private void expandFunctionStyleMacro(PreprocessorMacro macro, TokenSource[] argInputs, BitSet paramUsage,
+			IdentityHashMap<PreprocessorMacro, PreprocessorMacro> forbidden, TokenList result,
+			MacroExpansionTracker tracker) throws OffsetLimitReachedException {
+		final int paramCount = argInputs.length;
+		TokenList[] clonedArgs = new TokenList[paramCount];
+		TokenList[] expandedArgs = new TokenList[paramCount];
+		for (int i = 0; i < paramCount; i++) {
+			final TokenSource argInput = argInputs[i];
+			final boolean needCopy = paramUsage.get(2 * i);
+			final boolean needExpansion = paramUsage.get(2 * i + 1);
+			clonedArgs[i] = needCopy ? argInput.cloneTokens() : EMPTY_TOKEN_LIST;
+			expandedArgs[i] = needExpansion ? expandAll(argInput, forbidden, false, tracker) : EMPTY_TOKEN_LIST;
+			if (!needExpansion) {
+				executeScopeMarkers(argInput, forbidden);
+			}
+
+			if (tracker != null) {
+				tracker.setExpandedMacroArgument(needExpansion ? expandedArgs[i] : null);
+				// make sure that the trailing arguments do not get expanded.
+				if (tracker.isDone()) {
+					paramUsage.clear();
+				}
+			}
+		}
+		if (tracker == null) {
+			replaceArgs(macro, clonedArgs, expandedArgs, result);
+		} else {
+			if (tracker.isRequestedStep()) {
+				TokenList replacement = new TokenList();
+				replaceArgs(macro, clonedArgs, expandedArgs, replacement);
+				tracker.storeFunctionStyleMacroReplacement(macro, replacement, result);
+			} else if (tracker.isDone()) {
+				tracker.appendFunctionStyleMacro(result);
+			} else {
+				replaceArgs(macro, clonedArgs, expandedArgs, result);
+			}
+			tracker.endFunctionStyleMacro();
+		}
+	}
+
 	private void executeScopeMarkers(TokenSource input,
 			IdentityHashMap<PreprocessorMacro, PreprocessorMacro> forbidden) {
 		Token t = input.removeFirst();
@@ -384,12 +516,10 @@ public class MacroExpander {
 					result.append(t);
 				} else if (macro == null || (macro.isFunctionStyle() && !input.findLParenthesis())) {
 					// Tricky: Don't mark function-style macros if you don't find the left parenthesis
-					if (fReportMacros != null) {
-						if (macro != null) {
-							fReportMacros.significantMacro(macro);
-						} else if (fReportUndefined) {
-							fReportMacros.significantMacroUndefined(image);
-						}
+					if (macro != null) {
+						reportSignificantMacro(macro);
+					} else {
+						reportUndefinedMacro(image);
 					}
 					result.append(t);
 				} else if (forbidden.containsKey(macro)) {
@@ -402,6 +532,12 @@ public class MacroExpander {
 							info = createImageLocationInfo(t);
 						}
 						fImplicitMacroExpansions.add(fLocationMap.encounterImplicitMacroExpansion(macro, info));
+						if (fRecorder != null) {
+							fRecorder.fImplicitMacros.add(macro);
+							fRecorder.fImplicitInfos.add(info);
+							if (info instanceof ParameterImageLocationInfo)
+								fRecorder.fCacheable = false;
+						}
 					}
 					TokenList replacement = new TokenList();
 
@@ -602,6 +738,10 @@ public class MacroExpander {
 	}
 
 	private void handleProblem(int problemID, char[] arg) {
+		if (fRecorder != null) {
+			// Problems are reported with the location of the expansion.
+			fRecorder.fCacheable = false;
+		}
 		fLog.handleProblem(problemID, arg, fStartOffset, fEndOffset);
 	}
 
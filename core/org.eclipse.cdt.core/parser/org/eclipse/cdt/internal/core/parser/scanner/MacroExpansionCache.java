@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.parser.scanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.cdt.core.parser.util.CharArrayUtils;
+
+/**
+ * Memoizes the results of macro expansions within one run of the preprocessor.
+ * <p>
+ * An expansion is identified by the macro and the tokens of its arguments. Along with the
+ * resulting tokens the cache stores the side effects of the expansion, i.e. the nested
+ * expansions recorded in the location map and the macros reported as significant, such that
+ * they can be replayed. Expansions that depend on their location are not cached, these are
+ * expansions that report problems, involve dynamic macros like <code>__LINE__</code>, consume
+ * tokens after the arguments of the macro or create image locations for arguments.
+ * <p>
+ * The cache must be cleared whenever the macro dictionary changes.
+ */
+final class MacroExpansionCache {
+	/** Maximum number of expansions kept, the least recently used ones are dropped. */
+	static final int MAX_ENTRIES = 1024;
+
+	private static final int ARGUMENT_SEPARATOR = Integer.MIN_VALUE;
+
+	/**
+	 * Identifies an expansion by the macro and the tokens of its arguments.
+	 */
+	static final class Key {
+		final PreprocessorMacro fMacro;
+		final boolean fProtectIntrinsics;
+		// Token types times two, plus one for tokens preceded by whitespace.
+		final int[] fTypes;
+		final char[][] fImages;
+		final int fHash;
+
+		Key(PreprocessorMacro macro, boolean protectIntrinsics, TokenList[] arguments) {
+			fMacro = macro;
+			fProtectIntrinsics = protectIntrinsics;
+			int count = 0;
+			if (arguments != null) {
+				for (TokenList arg : arguments) {
+					count++;
+					for (Token t = arg.first(); t != null; t = (Token) t.getNext()) {
+						count++;
+					}
+				}
+			}
+			fTypes = new int[count];
+			fImages = new char[count][];
+			int hash = System.identityHashCode(macro) + (protectIntrinsics ? 1 : 0);
+			int i = 0;
+			if (arguments != null) {
+				for (TokenList arg : arguments) {
+					fTypes[i] = ARGUMENT_SEPARATOR;
+					fImages[i++] = CharArrayUtils.EMPTY_CHAR_ARRAY;
+					Token l = null;
+					for (Token t = arg.first(); t != null; l = t, t = (Token) t.getNext()) {
+						// Whitespace is relevant for stringification.
+						final int type = t.getType();
+						fTypes[i] = 2 * type + (MacroExpander.hasImplicitSpace(l, t) ? 1 : 0);
+						fImages[i] = t.getCharImage();
+						hash = 31 * (31 * hash + fTypes[i]) + CharArrayUtils.hash(fImages[i]);
+						i++;
+					}
+				}
+			}
+			fHash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return fHash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return fHash == other.fHash && fMacro == other.fMacro && fProtectIntrinsics == other.fProtectIntrinsics
+					&& Arrays.equals(fTypes, other.fTypes) && Arrays.deepEquals(fImages, other.fImages);
+		}
+	}
+
+	/**
+	 * Collects the side effects of an expansion while it is performed.
+	 */
+	static final class Recorder {
+		boolean fCacheable = true;
+		final List<PreprocessorMacro> fImplicitMacros = new ArrayList<>();
+		final List<ImageLocationInfo> fImplicitInfos = new ArrayList<>();
+		// Macros or names of undefined macros, in the order they are reported.
+		final List<Object> fSignificantMacros = new ArrayList<>();
+	}
+
+	/**
+	 * The result of an expansion together with its side effects.
+	 */
+	static final class Entry {
+		final TokenList fResult;
+		final PreprocessorMacro[] fImplicitMacros;
+		final ImageLocationInfo[] fImplicitInfos;
+		final ImageLocationInfo[] fImageLocationInfos;
+		final Object[] fSignificantMacros;
+
+		Entry(TokenList result, Recorder recorder, ImageLocationInfo[] imageLocationInfos) {
+			fResult = result;
+			fImplicitMacros = recorder.fImplicitMacros.toArray(new PreprocessorMacro[recorder.fImplicitMacros.size()]);
+			fImplicitInfos = recorder.fImplicitInfos.toArray(new ImageLocationInfo[recorder.fImplicitInfos.size()]);
+			fImageLocationInfos = imageLocationInfos;
+			fSignificantMacros = recorder.fSignificantMacros.toArray();
+		}
+	}
+
+	private final Map<Key, Entry> fEntries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+	private int fHits;
+	private int fMisses;
+
+	Entry get(Key key) {
+		Entry entry = fEntries.get(key);
+		if (entry != null) {
+			fHits++;
+		} else {
+			fMisses++;
+		}
+		return entry;
+	}
+
+	void put(Key key, Entry entry) {
+		fEntries.put(key, entry);
+	}
+
+	/**
+	 * Called whenever a macro is defined or undefined.
+	 */
+	void clear() {
+		if (!fEntries.isEmpty()) {
+			fEntries.clear();
+		}
+	}
+
+	int size() {
+		return fEntries.size();
+	}
+
+	int getHits() {
+		return fHits;
+	}
+
+	int getMisses() {
+		return fMisses;
+	}
+}
@@ -33,6 +33,15 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -81,6 +90,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
@@ -312,6 +322,42 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		}
 	}
 
+	/**
+	 * Symbols of an AST with resolved names, ready to be stored in the index.
+	 */
+	private static class IndexUpdate {
+		final FileInAST[] fFileKeys;
+		PDOMWriter.Data fDefaultData;
+		int fDefaultLinkageID;
+		IASTComment[] fComments; // Used for updating the task markers, or null.
+		final List<PDOMWriter.Data> fContributedData = new ArrayList<>();
+		final List<Integer> fContributedLinkageIDs = new ArrayList<>();
+
+		IndexUpdate(FileInAST[] fileKeys) {
+			fFileKeys = fileKeys;
+		}
+	}
+
+	/**
+	 * A translation unit parsed by a worker thread, waiting to be stored in the index.
+	 */
+	private static class ParsedFile {
+		final Object fTu;
+		final AbstractLanguage fLanguage;
+		final IIndexFileLocation fLocation;
+		final IScannerInfo fScannerInfo;
+		FileInAST[] fFileKeys;
+		IndexUpdate fUpdate;
+		Throwable fError;
+
+		ParsedFile(Object tu, AbstractLanguage language, IIndexFileLocation location, IScannerInfo scannerInfo) {
+			fTu = tu;
+			fLanguage = language;
+			fLocation = location;
+			fScannerInfo = scannerInfo;
+		}
+	}
+
 	protected enum MessageKind {
 		parsingFileTask, errorWhileParsing, tooManyIndexProblems
 	}
@@ -323,8 +369,10 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	private Set<String> fHeadersToIndexAllVersions = Collections.emptySet();
 	private Pattern fPragmaPrivatePattern;
 	private List<LinkageTask> fRequestsPerLinkage = new ArrayList<>();
-	private Map<IIndexFile, IndexFileContent> fIndexContentCache = new LRUCache<>(500);
-	private Map<IIndexFileLocation, IIndexFragmentFile[]> fIndexFilesCache = new LRUCache<>(5000);
+	// The caches are synchronized, they are accessed by the worker threads when parsing in parallel.
+	private Map<IIndexFile, IndexFileContent> fIndexContentCache = Collections.synchronizedMap(new LRUCache<>(500));
+	private Map<IIndexFileLocation, IIndexFragmentFile[]> fIndexFilesCache = Collections
+			.synchronizedMap(new LRUCache<>(5000));
 	private Map<IIndexFileLocation, LocationTask> fOneLinkageTasks = new HashMap<>();
 
 	private Object[] fFilesToUpdate;
@@ -339,6 +387,15 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	private long fIncludedFileSizeLimit;
 	private InternalFileContentProvider fCodeReaderFactory;
 	private int fSwallowOutOfMemoryError = 5;
+	private int fIndexerThreads = 1;
+	private boolean fResolveNamesConcurrently;
+	/** Worker threads parsing files in parallel, created on first use and shut down with the task. */
+	private ExecutorService fParseExecutor;
+	/**
+	 * Separates the worker threads reading the index while parsing in parallel from the thread
+	 * writing their results to the index.
+	 */
+	private final ReentrantReadWriteLock fWorkerLock = new ReentrantReadWriteLock(true);
 	/**
 	 * A queue of urgent indexing tasks that contribute additional files to this task.
 	 * The files from the urgent tasks are indexed before all not yet processed files.
@@ -398,6 +455,25 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		fPragmaPrivatePattern = pattern;
 	}
 
+	/**
+	 * Sets the number of threads used for parsing translation units. With more than one thread
+	 * the required sources are parsed and their names are resolved in parallel, the results are
+	 * written to the index by the thread running the task. A value smaller than one selects the
+	 * number of available processors.
+	 */
+	public void setIndexerThreads(int threads) {
+		fIndexerThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Sets whether the function bodies of large translation units are parsed and their names
+	 * resolved on a pool of threads owned by this task. The pool has as many threads as are used
+	 * for parsing translation units, the setting has no effect with a single thread.
+	 */
+	public void setResolveNamesConcurrently(boolean value) {
+		fResolveNamesConcurrently = value;
+	}
+
 	/**
 	 * @see IPDOMIndexerTask#acceptUrgentTask(IPDOMIndexerTask)
 	 */
@@ -528,6 +604,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	}
 
 	public final void runTask(IProgressMonitor monitor) throws InterruptedException {
+		ForkJoinPool nameResolutionPool = null;
 		try {
 			if (!fIndexFilesWithoutConfiguration) {
 				fIndexHeadersWithoutContext = UnusedHeaderStrategy.skip;
@@ -544,6 +621,12 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 
 			if (getSkipReferences() == SKIP_ALL_REFERENCES) {
 				fASTOptions |= ILanguage.OPTION_SKIP_FUNCTION_BODIES;
+			} else if (fResolveNamesConcurrently && fIndexerThreads > 1) {
+				// The function bodies are parsed after the rest of the translation unit, for large
+				// translation units they are parsed concurrently.
+				fASTOptions |= ILanguage.OPTION_DEFER_FUNCTION_BODIES;
+				nameResolutionPool = new ForkJoinPool(fIndexerThreads);
+				setNameResolutionExecutor(nameResolutionPool);
 			}
 
 			fIndex.resetCacheCounters();
@@ -628,6 +711,14 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 				fIndex.releaseReadLock();
 			}
 		} finally {
+			if (fParseExecutor != null) {
+				fParseExecutor.shutdownNow();
+				fParseExecutor = null;
+			}
+			if (nameResolutionPool != null) {
+				setNameResolutionExecutor(null);
+				nameResolutionPool.shutdownNow();
+			}
 			synchronized (this) {
 				fTaskCompleted = true;
 			}
@@ -897,19 +988,29 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 				continue;
 
 			// First parse the required sources.
+			List<ParsedFile> requiredSources = fIndexerThreads > 1 ? new ArrayList<>() : null;
 			for (Iterator<IIndexFileLocation> it = filesAtPriority.iterator(); it.hasNext();) {
 				IIndexFileLocation ifl = it.next();
 				LocationTask locTask = map.find(ifl);
 				if (locTask == null || locTask.isCompleted()) {
 					it.remove();
 				} else if (locTask.fKind == UpdateKind.REQUIRED_SOURCE) {
-					if (hasUrgentTasks())
+					if (requiredSources == null && hasUrgentTasks())
 						return;
 					final Object tu = locTask.fTu;
 					final IScannerInfo scannerInfo = getScannerInfo(linkageID, tu);
-					parseFile(tu, getLanguage(tu, linkageID), ifl, scannerInfo, null, progress.split(1));
+					if (requiredSources != null) {
+						requiredSources.add(new ParsedFile(tu, getLanguage(tu, linkageID), ifl, scannerInfo));
+					} else {
+						parseFile(tu, getLanguage(tu, linkageID), ifl, scannerInfo, null, progress.split(1));
+					}
 				}
 			}
+			if (requiredSources != null && !requiredSources.isEmpty()) {
+				parseFilesInParallel(linkageID, requiredSources, progress);
+				if (hasUrgentTasks())
+					return;
+			}
 
 			// Files with context.
 			for (Iterator<IIndexFileLocation> it = filesAtPriority.iterator(); it.hasNext();) {
@@ -979,6 +1080,198 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		}
 	}
 
+	/**
+	 * Parses the given sources on a pool of worker threads. The workers parse the files and resolve
+	 * the names to be stored in the index, while the thread running the task stores the results in
+	 * the index. The workers and the writing thread never access the index at the same time, the
+	 * results of the workers are stored in batches to reduce the number of times the workers have
+	 * to wait for the writing thread. When urgent tasks arrive no more files are submitted to the
+	 * workers, the files already parsed are still stored.
+	 */
+	private void parseFilesInParallel(int linkageID, List<ParsedFile> files, SubMonitor progress)
+			throws CoreException, InterruptedException {
+		final int threads = fIndexerThreads;
+		if (fParseExecutor == null) {
+			fParseExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, "C/C++ Indexer Worker"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		final ExecutorService executor = fParseExecutor;
+		// Every worker uses its own file content provider.
+		final ThreadLocal<InternalFileContentProvider> providers = ThreadLocal
+				.withInitial(() -> createFileContentProvider(linkageID));
+		final CompletionService<ParsedFile> completionService = new ExecutorCompletionService<>(executor);
+		final Iterator<ParsedFile> pending = files.iterator();
+		final List<ParsedFile> parsed = new ArrayList<>();
+		int running = 0;
+		try {
+			while (true) {
+				// Keep the workers busy, but limit the number of ASTs held in memory.
+				while (running + parsed.size() < 2 * threads && pending.hasNext() && !hasUrgentTasks()) {
+					final ParsedFile file = pending.next();
+					completionService.submit(() -> parseForIndex(linkageID, file, providers.get()));
+					running++;
+				}
+				if (running == 0) {
+					if (parsed.isEmpty())
+						break;
+				} else {
+					parsed.add(getParsedFile(completionService.take()));
+					running--;
+					Future<ParsedFile> future;
+					while ((future = completionService.poll()) != null) {
+						parsed.add(getParsedFile(future));
+						running--;
+					}
+				}
+				if (parsed.size() >= threads || running == 0) {
+					storeParsedFiles(linkageID, parsed, progress.split(parsed.size()));
+					parsed.clear();
+				}
+			}
+		} finally {
+			if (running > 0) {
+				// The task is aborted, stop the workers. They must not access the index after
+				// returning from this method.
+				fParseExecutor = null;
+				executor.shutdownNow();
+				fCancelState.setCanceled(true);
+				while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parses a file and resolves the names to be stored in the index. Called by a worker thread.
+	 */
+	private ParsedFile parseForIndex(int linkageID, ParsedFile file, InternalFileContentProvider provider) {
+		fWorkerLock.readLock().lock();
+		try {
+			if (fShowActivity) {
+				trace("Indexer: parsing " + getLabel(file.fLocation).toOSString()); //$NON-NLS-1$
+			}
+			FileContent codeReader = fResolver.getCodeReader(file.fTu);
+			long start = System.currentTimeMillis();
+			if (fIsFastIndexer) {
+				final IndexBasedFileContentProvider ibfcp = (IndexBasedFileContentProvider) provider;
+				ibfcp.setContextToHeaderGap(null);
+				ibfcp.setLinkage(linkageID);
+			}
+			IASTTranslationUnit ast = createAST(file.fLanguage, codeReader, file.fScannerInfo, fASTOptions, null,
+					provider, new NullProgressMonitor());
+			addParsingTime(start, ast);
+			if (ast != null) {
+				file.fFileKeys = selectFilesToStore(linkageID, ast, codeReader, null);
+				file.fUpdate = collectSymbols(ast, file.fFileKeys, null);
+			}
+		} catch (CoreException | RuntimeException | Error e) {
+			file.fError = e;
+		} finally {
+			fWorkerLock.readLock().unlock();
+		}
+		return file;
+	}
+
+	private ParsedFile getParsedFile(Future<ParsedFile> future) throws InterruptedException, CoreException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw new CoreException(createStatus(e.getMessage(), e.getCause()));
+		}
+	}
+
+	/**
+	 * Stores the files parsed by the workers in the index, while the workers are waiting.
+	 */
+	private void storeParsedFiles(int linkageID, List<ParsedFile> parsed, IProgressMonitor monitor)
+			throws CoreException, InterruptedException {
+		SubMonitor progress = SubMonitor.convert(monitor, parsed.size() + 1);
+		boolean resultCacheCleared = false;
+		fWorkerLock.writeLock().lock();
+		try {
+			for (ParsedFile file : parsed) {
+				IPath path = getLabel(file.fLocation);
+				progress.subTask(getMessage(MessageKind.parsingFileTask, path.lastSegment(),
+						path.removeLastSegments(1).toString()));
+				Throwable th = file.fError;
+				if (th == null && file.fUpdate != null) {
+					try {
+						skipFilesStoredMeanwhile(linkageID, file.fFileKeys);
+						storeSymbols(file.fUpdate, null, progress.split(1));
+						// The cache is cleared while writing the last file of the AST to the index.
+						resultCacheCleared |= hasFilesToStore(file.fFileKeys);
+					} catch (CoreException | RuntimeException | Error e) {
+						resultCacheCleared = false;
+						th = e;
+					}
+				} else {
+					progress.split(1);
+				}
+				if (th != null) {
+					if (file.fFileKeys != null) {
+						// Avoid parsing files again, that caused an exception to be thrown.
+						withdrawRequests(linkageID, file.fFileKeys);
+					}
+					handleParseError(path, th);
+				}
+			}
+
+			if (!resultCacheCleared) {
+				// The ASTs are going away, clear the result cache under a write lock to reduce
+				// interference with index readers.
+				fIndex.acquireWriteLock(progress.split(1));
+				try {
+					fIndex.clearResultCache();
+				} finally {
+					fIndex.releaseWriteLock();
+				}
+			}
+		} finally {
+			fWorkerLock.writeLock().unlock();
+		}
+	}
+
+	private static boolean hasFilesToStore(FileInAST[] fileKeys) {
+		for (FileInAST file : fileKeys) {
+			if (file != null)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes headers from the files to be stored, when they were stored in the index by
+	 * another translation unit after the worker thread has selected them.
+	 */
+	private void skipFilesStoredMeanwhile(int linkageID, FileInAST[] fileKeys) throws CoreException {
+		for (int i = 0; i < fileKeys.length; i++) {
+			final FileInAST file = fileKeys[i];
+			if (file != null && file.includeStatement != null) {
+				final FileContentKey key = file.fileContentKey;
+				if (selectIndexFile(linkageID, key.getLocation(), key.getSignificantMacros()) != null) {
+					fileKeys[i] = null;
+				}
+			}
+		}
+	}
+
+	private void handleParseError(IPath path, Throwable th) throws CoreException {
+		if (th instanceof OperationCanceledException)
+			return;
+		if (th instanceof RuntimeException && th.getCause() instanceof DependsOnOutdatedFileException)
+			return;
+		if (th instanceof OutOfMemoryError) {
+			if (--fSwallowOutOfMemoryError < 0)
+				throw (OutOfMemoryError) th;
+		} else if (th instanceof Error && !(th instanceof StackOverflowError || th instanceof AssertionError)) {
+			throw (Error) th;
+		}
+		swallowError(path, th);
+	}
+
 	private void parseVersionInContext(int linkageID, LinkageTask map, IIndexFileLocation ifl,
 			final FileVersionTask versionTask, Object tu, LinkedHashSet<IIndexFile> safeGuard, IProgressMonitor monitor)
 			throws CoreException, InterruptedException {
@@ -1099,11 +1392,10 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			FileContent codeReader = fResolver.getCodeReader(tu);
 
 			long start = System.currentTimeMillis();
-			IASTTranslationUnit ast = createAST(lang, codeReader, scanInfo, fASTOptions, ctx, progress.split(10));
-			fStatistics.fParsingTime += System.currentTimeMillis() - start;
-			if (ast == null) {
-				++fStatistics.fTooManyTokensCount;
-			} else {
+			IASTTranslationUnit ast = createAST(lang, codeReader, scanInfo, fASTOptions, ctx,
+					getFileContentProvider(lang, ctx), progress.split(10));
+			addParsingTime(start, ast);
+			if (ast != null) {
 				writeToIndex(lang.getLinkageID(), ast, codeReader, ctx, progress.split(10));
 				resultCacheCleared = true; // The cache was cleared while writing to the index.
 			}
@@ -1208,8 +1500,18 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		return e;
 	}
 
+	private void addParsingTime(long start, IASTTranslationUnit ast) {
+		synchronized (fStatistics) {
+			fStatistics.fParsingTime += System.currentTimeMillis() - start;
+			if (ast == null) {
+				++fStatistics.fTooManyTokensCount;
+			}
+		}
+	}
+
 	private final IASTTranslationUnit createAST(AbstractLanguage language, FileContent codeReader,
-			IScannerInfo scanInfo, int options, FileContext ctx, IProgressMonitor monitor) throws CoreException {
+			IScannerInfo scanInfo, int options, FileContext ctx, InternalFileContentProvider fileContentProvider,
+			IProgressMonitor monitor) throws CoreException {
 		if (codeReader == null) {
 			return null;
 		}
@@ -1220,33 +1522,43 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			}
 			return null;
 		}
+
+		IASTTranslationUnit ast = language.getASTTranslationUnit(codeReader, scanInfo, fileContentProvider, fIndex,
+				options, getLogService());
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		return ast;
+	}
+
+	/**
+	 * Returns the file content provider shared by the files parsed by the thread running the task.
+	 */
+	private InternalFileContentProvider getFileContentProvider(AbstractLanguage language, FileContext ctx) {
 		final IIndexFile[] ctx2header = ctx == null ? null : new IIndexFile[] { ctx.fContext, ctx.fOldFile };
 		if (fCodeReaderFactory == null) {
-			InternalFileContentProvider fileContentProvider = createInternalFileContentProvider();
-			if (fIsFastIndexer) {
-				IndexBasedFileContentProvider ibfcp = new IndexBasedFileContentProvider(fIndex, fResolver,
-						language.getLinkageID(), fileContentProvider, this);
-				ibfcp.setContextToHeaderGap(ctx2header);
-				ibfcp.setFileSizeLimit(fIncludedFileSizeLimit);
-				ibfcp.setHeadersToIndexAllVersions(fHeadersToIndexAllVersions);
-				ibfcp.setIndexAllHeaderVersions(fIndexAllHeaderVersions);
-				fCodeReaderFactory = ibfcp;
-			} else {
-				fCodeReaderFactory = fileContentProvider;
-			}
-			fCodeReaderFactory.setIncludeResolutionHeuristics(createIncludeHeuristics());
-		} else if (fIsFastIndexer) {
+			fCodeReaderFactory = createFileContentProvider(language.getLinkageID());
+		}
+		if (fIsFastIndexer) {
 			final IndexBasedFileContentProvider ibfcp = (IndexBasedFileContentProvider) fCodeReaderFactory;
 			ibfcp.setContextToHeaderGap(ctx2header);
 			ibfcp.setLinkage(language.getLinkageID());
 		}
+		return fCodeReaderFactory;
+	}
 
-		IASTTranslationUnit ast = language.getASTTranslationUnit(codeReader, scanInfo, fCodeReaderFactory, fIndex,
-				options, getLogService());
-		if (monitor.isCanceled()) {
-			throw new OperationCanceledException();
+	private InternalFileContentProvider createFileContentProvider(int linkageID) {
+		InternalFileContentProvider fileContentProvider = createInternalFileContentProvider();
+		if (fIsFastIndexer) {
+			IndexBasedFileContentProvider ibfcp = new IndexBasedFileContentProvider(fIndex, fResolver, linkageID,
+					fileContentProvider, this);
+			ibfcp.setFileSizeLimit(fIncludedFileSizeLimit);
+			ibfcp.setHeadersToIndexAllVersions(fHeadersToIndexAllVersions);
+			ibfcp.setIndexAllHeaderVersions(fIndexAllHeaderVersions);
+			fileContentProvider = ibfcp;
 		}
-		return ast;
+		fileContentProvider.setIncludeResolutionHeuristics(createIncludeHeuristics());
+		return fileContentProvider;
 	}
 
 	private InternalFileContentProvider createInternalFileContentProvider() {
@@ -1259,7 +1571,23 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 
 	private void writeToIndex(final int linkageID, IASTTranslationUnit ast, FileContent codeReader, FileContext ctx,
 			IProgressMonitor monitor) throws CoreException, InterruptedException {
-		SubMonitor progress = SubMonitor.convert(monitor, 3);
+		SubMonitor progress = SubMonitor.convert(monitor, 2);
+		FileInAST[] fileKeys = selectFilesToStore(linkageID, ast, codeReader, ctx);
+		try {
+			IndexUpdate update = collectSymbols(ast, fileKeys, progress.split(1));
+			storeSymbols(update, ctx, progress.split(1));
+		} catch (CoreException | RuntimeException | Error e) {
+			// Avoid parsing files again, that caused an exception to be thrown.
+			withdrawRequests(linkageID, fileKeys);
+			throw e;
+		}
+	}
+
+	/**
+	 * Determines the files of the AST that need to be stored in the index.
+	 */
+	private FileInAST[] selectFilesToStore(final int linkageID, IASTTranslationUnit ast, FileContent codeReader,
+			FileContext ctx) throws CoreException {
 		HashSet<FileContentKey> enteredFiles = new HashSet<>();
 		ArrayList<FileInAST> orderedFileKeys = new ArrayList<>();
 
@@ -1283,40 +1611,66 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			orderedFileKeys.add(new FileInAST(topKey, codeReader));
 		}
 
-		FileInAST[] fileKeys = orderedFileKeys.toArray(new FileInAST[orderedFileKeys.size()]);
-		try {
-			// The default processing is handled by the indexer task.
-			PDOMWriter.Data data = new PDOMWriter.Data(ast, fileKeys, fIndex);
-			int storageLinkageID = process(ast, data);
-			if (storageLinkageID != ILinkage.NO_LINKAGE_ID) {
-				IASTComment[] comments = ast.getComments();
-				data.fReplacementHeaders = extractReplacementHeaders(comments, progress.split(1));
-
-				addSymbols(data, storageLinkageID, ctx, progress.split(1));
-
-				// Update task markers.
-				if (fTodoTaskUpdater != null) {
-					Set<IIndexFileLocation> locations = new HashSet<>();
-					for (FileInAST file : data.fSelectedFiles) {
-						locations.add(file.fileContentKey.getLocation());
-					}
-					fTodoTaskUpdater.updateTasks(comments, locations.toArray(new IIndexFileLocation[locations.size()]));
-				}
+		return orderedFileKeys.toArray(new FileInAST[orderedFileKeys.size()]);
+	}
+
+	/**
+	 * Collects the symbols of the AST and resolves their names. Does not modify the index and may
+	 * be called by worker threads.
+	 */
+	private IndexUpdate collectSymbols(IASTTranslationUnit ast, FileInAST[] fileKeys, IProgressMonitor monitor)
+			throws CoreException {
+		SubMonitor progress = SubMonitor.convert(monitor, 3);
+		IndexUpdate update = new IndexUpdate(fileKeys);
+
+		// The default processing is handled by the indexer task.
+		PDOMWriter.Data data = new PDOMWriter.Data(ast, fileKeys, fIndex);
+		int storageLinkageID = process(ast, data);
+		if (storageLinkageID != ILinkage.NO_LINKAGE_ID) {
+			update.fComments = ast.getComments();
+			data.fReplacementHeaders = extractReplacementHeaders(update.fComments, progress.split(1));
+			if (resolveSymbols(data, storageLinkageID, progress.split(1))) {
+				update.fDefaultData = data;
+				update.fDefaultLinkageID = storageLinkageID;
 			}
+		}
 
-			// Contributed processors now have an opportunity to examine the AST.
-			List<IPDOMASTProcessor> processors = PDOMASTProcessorManager.getProcessors(ast);
-			progress.setWorkRemaining(processors.size());
-			for (IPDOMASTProcessor processor : processors) {
-				data = new PDOMWriter.Data(ast, fileKeys, fIndex);
-				storageLinkageID = processor.process(ast, data);
-				if (storageLinkageID != ILinkage.NO_LINKAGE_ID)
-					addSymbols(data, storageLinkageID, ctx, progress.split(1));
+		// Contributed processors now have an opportunity to examine the AST.
+		List<IPDOMASTProcessor> processors = PDOMASTProcessorManager.getProcessors(ast);
+		progress.setWorkRemaining(processors.size());
+		for (IPDOMASTProcessor processor : processors) {
+			data = new PDOMWriter.Data(ast, fileKeys, fIndex);
+			storageLinkageID = processor.process(ast, data);
+			if (resolveSymbols(data, storageLinkageID, progress.split(1))) {
+				update.fContributedData.add(data);
+				update.fContributedLinkageIDs.add(storageLinkageID);
 			}
-		} catch (CoreException | RuntimeException | Error e) {
-			// Avoid parsing files again, that caused an exception to be thrown.
-			withdrawRequests(linkageID, fileKeys);
-			throw e;
+		}
+		return update;
+	}
+
+	/**
+	 * Stores symbols collected by {@link #collectSymbols} in the index. Must be called by the thread
+	 * running the task.
+	 */
+	private void storeSymbols(IndexUpdate update, FileContext ctx, IProgressMonitor monitor)
+			throws CoreException, InterruptedException {
+		SubMonitor progress = SubMonitor.convert(monitor, update.fContributedData.size() + 1);
+		if (update.fDefaultData != null) {
+			storeResolvedSymbols(update.fDefaultData, update.fDefaultLinkageID, ctx, progress.split(1));
+		}
+		// Update task markers.
+		if (update.fComments != null && fTodoTaskUpdater != null) {
+			Set<IIndexFileLocation> locations = new HashSet<>();
+			for (FileInAST file : update.fFileKeys) {
+				if (file != null)
+					locations.add(file.fileContentKey.getLocation());
+			}
+			fTodoTaskUpdater.updateTasks(update.fComments, locations.toArray(new IIndexFileLocation[locations.size()]));
+		}
+		for (int i = 0; i < update.fContributedData.size(); i++) {
+			storeResolvedSymbols(update.fContributedData.get(i), update.fContributedLinkageIDs.get(i), ctx,
+					progress.split(1));
 		}
 	}
 
@@ -1341,6 +1695,8 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		LinkageTask map = findRequestMap(linkageID);
 		if (map != null) {
 			for (FileInAST fileKey : fileKeys) {
+				if (fileKey == null)
+					continue;
 				LocationTask locTask = map.find(fileKey.fileContentKey.getLocation());
 				if (locTask != null) {
 					if (locTask.fCountedUnknownVersion) {
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom;
+
+import java.util.ArrayDeque;
+
+import org.eclipse.cdt.core.dom.IPDOMIndexerTask;
+import org.eclipse.cdt.internal.core.pdom.indexer.IndexerPreferences;
+import org.eclipse.core.resources.IProject;
+
+/**
+ * The indexer tasks of one project together with the job running them. Tasks of one project are
+ * run one after the other, tasks of different projects run concurrently in their own jobs.
+ * <p>
+ * All fields are protected by the monitor of the task queues of the {@link PDOMManager}.
+ */
+final class IndexerTaskQueue {
+	final IProject fProject;
+	final PDOMIndexerJob fJob;
+	final ArrayDeque<IPDOMIndexerTask> fTasks = new ArrayDeque<>();
+	IPDOMIndexerTask fCurrentTask;
+
+	/** Whether the job holds one of the slots for concurrently running indexer jobs. */
+	boolean fActive;
+	/** Whether the queue waits for a slot. */
+	boolean fWaiting;
+	int fPriority;
+	/** Total time spent running the tasks of this queue, in milliseconds. */
+	long fServiceTime;
+	long fSliceStart;
+	long fTaskStart;
+
+	// Progress of the completed tasks.
+	int fSourceCount, fHeaderCount, fTickCount;
+
+	IndexerTaskQueue(PDOMManager manager, IProject project) {
+		fProject = project;
+		fJob = new PDOMIndexerJob(manager, this);
+	}
+
+	void updatePriority() {
+		fPriority = fProject != null && fProject.isAccessible() ? IndexerPreferences.getIndexerPriority(fProject)
+				: IndexerPreferences.DEFAULT_INDEXER_PRIORITY;
+	}
+
+	boolean acceptUrgentTask(IPDOMIndexerTask subjob) {
+		if (fCurrentTask != null && fCurrentTask.acceptUrgentTask(subjob)) {
+			return true;
+		}
+		for (IPDOMIndexerTask task : fTasks) {
+			if (task.acceptUrgentTask(subjob)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Makes the next task the current one, or returns {@code null} if there are no more tasks.
+	 */
+	IPDOMIndexerTask nextTask(long now) {
+		finishCurrentTask(now);
+		fCurrentTask = fTasks.pollFirst();
+		if (fCurrentTask == null) {
+			fSourceCount = fHeaderCount = fTickCount = 0;
+		} else {
+			fTaskStart = now;
+		}
+		return fCurrentTask;
+	}
+
+	void finishCurrentTask(long now) {
+		if (fCurrentTask != null) {
+			IndexerProgress info = fCurrentTask.getProgressInformation();
+			fSourceCount += info.fCompletedSources;
+			fHeaderCount += info.fCompletedHeaders;
+			// for the ticks we don't consider additional headers
+			fTickCount += info.fCompletedSources + info.fPrimaryHeaderCount;
+			fServiceTime += now - fTaskStart;
+			fCurrentTask = null;
+		}
+	}
+
+	/**
+	 * Returns whether this queue should be served before the other one when both wait for a slot.
+	 * Queues with a higher priority come first, among queues with the same priority the one that
+	 * has received less time so far.
+	 */
+	boolean precedes(IndexerTaskQueue other) {
+		if (fPriority != other.fPriority)
+			return fPriority > other.fPriority;
+		return fServiceTime < other.fServiceTime;
+	}
+
+	String getProjectName() {
+		return fProject != null ? fProject.getName() : null;
+	}
+}
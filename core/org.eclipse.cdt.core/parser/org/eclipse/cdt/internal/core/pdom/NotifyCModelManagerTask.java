@@ -34,6 +34,10 @@ public class NotifyCModelManagerTask implements IPDOMIndexerTask {
 		fProject = project;
 	}
 
+	public IProject getProject() {
+		return fProject;
+	}
+
 	@Override
 	public IPDOMIndexer getIndexer() {
 		return null;
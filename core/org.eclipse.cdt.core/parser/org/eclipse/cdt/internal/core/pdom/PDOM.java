@@ -31,7 +31,13 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.CCorePlugin;
@@ -39,7 +45,9 @@ import org.eclipse.cdt.core.dom.ILinkage;
 import org.eclipse.cdt.core.dom.IPDOMNode;
 import org.eclipse.cdt.core.dom.IPDOMVisitor;
 import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.cdt.core.dom.ast.ICompositeType;
 import org.eclipse.cdt.core.dom.ast.IEnumeration;
@@ -55,6 +63,7 @@ import org.eclipse.cdt.core.dom.ast.cpp.ICPPEnumeration;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPField;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPFunction;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPNamespace;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPSpecialization;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPVariable;
 import org.eclipse.cdt.core.index.IIndexBinding;
 import org.eclipse.cdt.core.index.IIndexFileLocation;
@@ -67,6 +76,7 @@ import org.eclipse.cdt.core.parser.ISignificantMacros;
 import org.eclipse.cdt.core.parser.util.ArrayUtil;
 import org.eclipse.cdt.core.parser.util.CharArrayUtils;
 import org.eclipse.cdt.internal.core.dom.Linkage;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPSemantics;
 import org.eclipse.cdt.internal.core.index.IIndexCBindingConstants;
 import org.eclipse.cdt.internal.core.index.IIndexFragment;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentBinding;
@@ -75,6 +85,7 @@ import org.eclipse.cdt.internal.core.index.IIndexFragmentFileSet;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentInclude;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentName;
 import org.eclipse.cdt.internal.core.index.IIndexScope;
+import org.eclipse.cdt.internal.core.index.composite.cpp.CompositeInstanceCache;
 import org.eclipse.cdt.internal.core.pdom.db.BTree;
 import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
 import org.eclipse.cdt.internal.core.pdom.db.DBProperties;
@@ -99,6 +110,8 @@ import org.eclipse.cdt.internal.core.pdom.dom.PDOMMacroReferenceName;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMName;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMNamedNode;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMNode;
+import org.eclipse.cdt.internal.core.pdom.dom.TrigramIndex;
+import org.eclipse.cdt.internal.core.pdom.dom.cpp.PDOMInstanceCache;
 import org.eclipse.cdt.internal.core.pdom.tag.PDOMTagIndex;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -115,6 +128,14 @@ public class PDOM extends PlatformObject implements IPDOM {
 	private static final int BLOCKED_WRITE_LOCK_OUTPUT_INTERVAL = 30000;
 	private static final int LONG_WRITE_LOCK_REPORT_THRESHOLD = 1000;
 	private static final int LONG_READ_LOCK_WAIT_REPORT_THRESHOLD = 1000;
+	// Maximum time a waiting writer holds back new readers, in nanoseconds.
+	private static final long WRITER_PREFERENCE_TIMEOUT = 200 * 1000000L;
+	// Maximum number of entries in the result cache.
+	private static final int RESULT_CACHE_SIZE = 20000;
+	// Number of chunks compacted while holding the write lock.
+	private static final int COMPACTION_BATCH_CHUNKS = 1024;
+	// Compaction is not worth it for less freed space.
+	private static final long MIN_COMPACTION_FREED_BYTES = 4 * 1024 * 1024;
 	static boolean sDEBUG_LOCKS; // Initialized in the PDOMManager, because IBM needs PDOM independent of runtime plugin.
 
 	/**
@@ -308,10 +329,13 @@ public class PDOM extends PlatformObject implements IPDOM {
 	 *  217.0 - Added nodiscard class/struct information, bug 534420
 	 *  218.0 - Added nodiscard enums information, bug 534420
 	 *  219.0 - Fix enums nodiscard information in the index from 8 byte to 1 byte, bug 534420
+	 *  219.1 - Number of bytes freed since the last compaction of the database.
+	 *  219.2 - Trigram index of the names of bindings and macro containers.
+	 *  220.0 - Trigram index must be maintained by all writers.
 	 */
-	private static final int MIN_SUPPORTED_VERSION = version(219, 0);
-	private static final int MAX_SUPPORTED_VERSION = version(219, Short.MAX_VALUE);
-	private static final int DEFAULT_VERSION = version(219, 0);
+	private static final int MIN_SUPPORTED_VERSION = version(220, 0);
+	private static final int MAX_SUPPORTED_VERSION = version(220, Short.MAX_VALUE);
+	private static final int DEFAULT_VERSION = version(220, 0);
 
 	private static int version(int major, int minor) {
 		return (major << 16) + minor;
@@ -348,7 +372,9 @@ public class PDOM extends PlatformObject implements IPDOM {
 	public static final int INDEX_OF_FILES_WITH_UNRESOLVED_INCLUDES = Database.DATA_AREA + 12;
 	public static final int PROPERTIES = Database.DATA_AREA + 16;
 	public static final int TAG_INDEX = Database.DATA_AREA + 20;
-	public static final int END = Database.DATA_AREA + 24;
+	public static final int FREED_BYTES = Database.DATA_AREA + 24;
+	public static final int NAME_TRIGRAM_INDEX = Database.DATA_AREA + 32;
+	public static final int END = Database.DATA_AREA + 36;
 	static {
 		assert END <= Database.CHUNK_SIZE;
 	}
@@ -410,14 +436,21 @@ public class PDOM extends PlatformObject implements IPDOM {
 	protected Database db;
 	private BTree fileIndex;
 	private PDOMTagIndex tagIndex;
+	private TrigramIndex trigramIndex;
 	private BTree indexOfDefectiveFiles;
 	private BTree indexOfFiledWithUnresolvedIncludes;
 	private final Map<Integer, PDOMLinkage> fLinkageIDCache = new HashMap<>();
 	private File fPath;
+	private final boolean fMemoryMapped;
+	private boolean fWriteAheadLog;
 	private final IIndexLocationConverter locationConverter;
 	private final Map<String, IPDOMLinkageFactory> fPDOMLinkageFactoryCache;
-	private final HashMap<Object, Object> fResultCache = new HashMap<>();
-	private final Map<Long, WeakReference<IValue>> fVariableResultCache = new HashMap<>();
+	private final ResultCache fResultCache = new ResultCache(RESULT_CACHE_SIZE);
+	// Results that may refer to objects of an AST, by the AST they were computed for.
+	private final Map<IASTTranslationUnit, ASTResultCache> fASTResultCaches = new ConcurrentHashMap<>();
+	// Results that may refer to objects of an unknown AST, they are not shared beyond a single read lock.
+	private final ResultCache fASTResultCache = new ResultCache(RESULT_CACHE_SIZE);
+	private final Map<Long, WeakReference<IValue>> fVariableResultCache = new ConcurrentHashMap<>();
 	private List<IListener> listeners;
 	protected ChangeEvent fEvent = new ChangeEvent();
 
@@ -428,7 +461,16 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	public PDOM(File dbPath, IIndexLocationConverter locationConverter, ChunkCache cache,
 			Map<String, IPDOMLinkageFactory> linkageFactoryMappings) throws CoreException {
+		this(dbPath, locationConverter, cache, false, linkageFactoryMappings);
+	}
+
+	/**
+	 * @param memoryMapped whether the database file is accessed through a memory mapping
+	 */
+	public PDOM(File dbPath, IIndexLocationConverter locationConverter, ChunkCache cache, boolean memoryMapped,
+			Map<String, IPDOMLinkageFactory> linkageFactoryMappings) throws CoreException {
 		fPDOMLinkageFactoryCache = linkageFactoryMappings;
+		fMemoryMapped = memoryMapped;
 		loadDatabase(dbPath, cache);
 		this.locationConverter = locationConverter;
 		if (sDEBUG_LOCKS) {
@@ -437,6 +479,16 @@ public class PDOM extends PlatformObject implements IPDOM {
 		}
 	}
 
+	/**
+	 * Enables or disables the write-ahead log of the database, such that a crash while writing the
+	 * PDOM leaves the database in the state of the last commit rather than invalidating it. Must
+	 * not be called while other threads access the PDOM.
+	 */
+	public void setWriteAheadLog(boolean enable) throws CoreException {
+		fWriteAheadLog = enable;
+		db.setWriteAheadLog(enable);
+	}
+
 	/**
 	 * Returns whether this PDOM can never be written to. Writable subclasses should return false.
 	 */
@@ -449,7 +501,11 @@ public class PDOM extends PlatformObject implements IPDOM {
 		final boolean lockDB = db == null || lockCount != 0;
 
 		clearCaches();
-		db = new Database(fPath, cache, getDefaultVersion(), isPermanentlyReadOnly());
+		db = new Database(fPath, cache, getDefaultVersion(), isPermanentlyReadOnly(), fMemoryMapped);
+		fRecordedFreedBytes = 0;
+		if (fWriteAheadLog) {
+			db.setWriteAheadLog(true);
+		}
 
 		db.setLocked(lockDB);
 		try {
@@ -549,6 +605,16 @@ public class PDOM extends PlatformObject implements IPDOM {
 		return tagIndex;
 	}
 
+	/**
+	 * Returns the trigram index of the names of bindings and macro containers.
+	 */
+	public TrigramIndex getTrigramIndex() throws CoreException {
+		if (trigramIndex == null) {
+			trigramIndex = new TrigramIndex(db, NAME_TRIGRAM_INDEX);
+		}
+		return trigramIndex;
+	}
+
 	/**
 	 * Returns the index of files that were read with I/O errors.
 	 */
@@ -652,7 +718,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 	}
 
 	protected void clearFileIndex() throws CoreException {
-		db.putRecPtr(FILE_INDEX, 0);
+		getFileIndex().clear();
 		fileIndex = null;
 	}
 
@@ -662,6 +728,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 		// Clear out the database, everything is set to zero.
 		int vers = getDefaultVersion();
 		db.clear(vers);
+		fRecordedFreedBytes = 0;
 		clearCaches();
 		fEvent.setCleared();
 	}
@@ -786,6 +853,119 @@ public class PDOM extends PlatformObject implements IPDOM {
 		}
 	}
 
+	/**
+	 * Determines whether a binding is found by the {@link BindingFinder} without visiting the linkage,
+	 * by computing the states of the finder when it visits the children of the ancestors of the binding.
+	 */
+	private static class QualifiedNameMatcher {
+		private static final BitSet[] NO_STATES = {};
+
+		private final PDOMLinkage linkage;
+		private final Pattern[] pattern;
+		private final boolean isFullyQualified;
+		private final Map<Long, BitSet[]> childStates = new HashMap<>();
+
+		public QualifiedNameMatcher(PDOMLinkage linkage, Pattern[] pattern, boolean isFullyQualified) {
+			this.linkage = linkage;
+			this.pattern = pattern;
+			this.isFullyQualified = isFullyQualified;
+		}
+
+		/**
+		 * Checks whether the qualifiers of the binding match the patterns, the name of the binding
+		 * has to be checked by the caller.
+		 */
+		public boolean matches(PDOMBinding binding) throws CoreException {
+			for (BitSet matchesUpToLevel : getChildStates(binding.getParentNodeRec())) {
+				if (matchesUpToLevel.get(pattern.length - 1))
+					return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the states in which the finder visits the children of the given node.
+		 */
+		private BitSet[] getChildStates(long record) throws CoreException {
+			BitSet[] result = childStates.get(record);
+			if (result == null) {
+				result = computeChildStates(record);
+				childStates.put(record, result);
+			}
+			return result;
+		}
+
+		private BitSet[] computeChildStates(long record) throws CoreException {
+			if (record == 0 || record == linkage.getRecord()) {
+				BitSet matchesUpToLevel = new BitSet();
+				matchesUpToLevel.set(0);
+				return new BitSet[] { matchesUpToLevel };
+			}
+			PDOMNode node = PDOMNode.load(linkage.getPDOM(), record);
+			if (!(node instanceof PDOMNamedNode))
+				return NO_STATES;
+
+			PDOMNamedNode nnode = (PDOMNamedNode) node;
+			List<BitSet> result = new ArrayList<>();
+			addDescendStates(nnode, result);
+			// Some nodes add their children to their parent, as well.
+			if (nnode instanceof ICPPNamespace && nnode.getNameCharArray().length == 0) {
+				PDOMNode parent = nnode.getParentNode();
+				long adopter = parent instanceof ICPPNamespace ? parent.getRecord() : linkage.getRecord();
+				addStates(getChildStates(adopter), result);
+			} else if (nnode instanceof ICompositeType && ((ICompositeType) nnode).isAnonymous()
+					|| nnode instanceof IEnumeration && !(nnode instanceof ICPPEnumeration)
+					|| nnode instanceof ICPPEnumeration && !((ICPPEnumeration) nnode).isScoped()
+							&& !(nnode instanceof ICPPSpecialization)) {
+				PDOMNode adopter = nnode.getParentNode();
+				if (adopter instanceof ICPPNamespace && ((PDOMNamedNode) adopter).getNameCharArray().length == 0) {
+					addStates(getChildStates(adopter.getRecord()), result);
+				} else if (adopter instanceof PDOMNamedNode) {
+					addDescendStates((PDOMNamedNode) adopter, result);
+				} else {
+					addStates(getChildStates(linkage.getRecord()), result);
+				}
+			}
+			return result.toArray(new BitSet[result.size()]);
+		}
+
+		/**
+		 * Adds the states in which the finder descends into the node, same as in
+		 * {@link BindingFinder#visit(IPDOMNode)}.
+		 */
+		private void addDescendStates(PDOMNamedNode nnode, List<BitSet> result) throws CoreException {
+			if (!nnode.mayHaveChildren())
+				return;
+			if (pattern.length == 1 && nnode instanceof ICPPEnumeration && !((ICPPEnumeration) nnode).isScoped())
+				return;
+
+			final String name = new String(nnode.getNameCharArray());
+			final int lastIdx = pattern.length - 1;
+			for (BitSet matchesUpToLevel : getChildStates(nnode.getParentNodeRec())) {
+				BitSet updatedMatchesUpToLevel = new BitSet();
+				if (!isFullyQualified) {
+					updatedMatchesUpToLevel.set(0);
+				}
+				for (int i = 0; i < lastIdx; i++) {
+					if (matchesUpToLevel.get(i) && pattern[i].matcher(name).matches()) {
+						updatedMatchesUpToLevel.set(i + 1);
+					}
+				}
+				if (!updatedMatchesUpToLevel.isEmpty()) {
+					addStates(new BitSet[] { updatedMatchesUpToLevel }, result);
+				}
+			}
+		}
+
+		private static void addStates(BitSet[] states, List<BitSet> result) {
+			for (BitSet state : states) {
+				if (!result.contains(state)) {
+					result.add(state);
+				}
+			}
+		}
+	}
+
 	public IIndexBinding[] findBindings(Pattern pattern, boolean isFullyQualified, IndexFilter filter,
 			IProgressMonitor monitor) throws CoreException {
 		return findBindings(new Pattern[] { pattern }, isFullyQualified, filter, monitor);
@@ -815,6 +995,11 @@ public class PDOM extends PlatformObject implements IPDOM {
 			}
 		}
 
+		IIndexFragmentBinding[] result = findBindingsWithTrigramIndex(patterns, isFullyQualified, filter, monitor);
+		if (result != null) {
+			return result;
+		}
+
 		BindingFinder finder = new BindingFinder(patterns, isFullyQualified, filter, monitor);
 		for (PDOMLinkage linkage : getLinkageList()) {
 			if (filter.acceptLinkage(linkage)) {
@@ -830,6 +1015,70 @@ public class PDOM extends PlatformObject implements IPDOM {
 		return finder.getBindings();
 	}
 
+	/**
+	 * Looks up the candidates for the last pattern in the trigram index and checks them
+	 * against the patterns.
+	 * @return the bindings or {@code null} if the index cannot be used for the patterns.
+	 */
+	private IIndexFragmentBinding[] findBindingsWithTrigramIndex(Pattern[] patterns, boolean isFullyQualified,
+			IndexFilter filter, IProgressMonitor monitor) throws CoreException {
+		final TrigramIndex trigramIndex = getTrigramIndex();
+		final Pattern pattern = patterns[patterns.length - 1];
+		final char[][] strings = TrigramIndex.getRequiredStrings(pattern);
+		if (strings == null)
+			return null;
+
+		List<IIndexFragmentBinding> result = new ArrayList<>();
+		for (PDOMLinkage linkage : getLinkageList()) {
+			if (filter.acceptLinkage(linkage)) {
+				long[] candidates = trigramIndex.find(TrigramIndex.BINDINGS, linkage.getLinkageID(), strings);
+				if (candidates == null)
+					return null;
+				QualifiedNameMatcher matcher = new QualifiedNameMatcher(linkage, patterns, isFullyQualified);
+				for (long candidate : candidates) {
+					if (monitor.isCanceled())
+						return IIndexFragmentBinding.EMPTY_INDEX_BINDING_ARRAY;
+					PDOMBinding binding = linkage.getBinding(candidate);
+					if (binding != null && pattern.matcher(new String(binding.getNameCharArray())).matches()
+							&& matcher.matches(binding) && filter.acceptBinding(binding)) {
+						result.add(binding);
+					}
+				}
+			}
+		}
+		return result.toArray(new IIndexFragmentBinding[result.size()]);
+	}
+
+	/**
+	 * Looks up the candidates for the pattern in the trigram index and checks them against the pattern.
+	 * @return the macro containers or {@code null} if the index cannot be used for the pattern.
+	 */
+	private IIndexFragmentBinding[] findMacroContainersWithTrigramIndex(Pattern pattern, IndexFilter filter,
+			IProgressMonitor monitor) throws CoreException {
+		final TrigramIndex trigramIndex = getTrigramIndex();
+		final char[][] strings = TrigramIndex.getRequiredStrings(pattern);
+		if (strings == null)
+			return null;
+
+		List<IIndexFragmentBinding> result = new ArrayList<>();
+		for (PDOMLinkage linkage : getLinkageList()) {
+			if (filter.acceptLinkage(linkage)) {
+				long[] candidates = trigramIndex.find(TrigramIndex.MACRO_CONTAINERS, linkage.getLinkageID(),
+						strings);
+				if (candidates == null)
+					return null;
+				if (monitor.isCanceled())
+					return IIndexFragmentBinding.EMPTY_INDEX_BINDING_ARRAY;
+				MacroContainerPatternCollector finder = new MacroContainerPatternCollector(linkage, pattern, null);
+				for (long candidate : candidates) {
+					finder.visit(candidate);
+				}
+				result.addAll(Arrays.asList(finder.getMacroContainers()));
+			}
+		}
+		return result.toArray(new IIndexFragmentBinding[result.size()]);
+	}
+
 	private Boolean getCaseSensitive(Pattern[] patterns) {
 		Boolean caseSensitive = null;
 		for (Pattern p : patterns) {
@@ -906,6 +1155,11 @@ public class PDOM extends PlatformObject implements IPDOM {
 			}
 		}
 
+		IIndexFragmentBinding[] containers = findMacroContainersWithTrigramIndex(pattern, filter, monitor);
+		if (containers != null) {
+			return containers;
+		}
+
 		List<IIndexFragmentBinding> result = new ArrayList<>();
 		for (PDOMLinkage linkage : getLinkageList()) {
 			if (filter.acceptLinkage(linkage)) {
@@ -999,40 +1253,179 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	// Read-write lock rules. Readers don't conflict with other readers,
 	// Writers conflict with readers, and everyone conflicts with writers.
-	private final Object mutex = new Object();
+	// A waiting writer goes before new readers, unless the reader already holds a read lock of any
+	// PDOM or has been waiting for WRITER_PREFERENCE_TIMEOUT. When the write lock is released the readers
+	// waiting at that time go before the next writer. Read locks are counted rather than owned,
+	// they may be released by a different thread than the one that acquired them. The read locks
+	// counted for a thread are therefore only an estimate, it is reset when no read lock is held.
+	private final ReentrantLock fLock = new ReentrantLock();
+	private final Condition fReadersMayProceed = fLock.newCondition();
+	private final Condition fWriterMayProceed = fLock.newCondition();
+	// The read locks counted for the calling thread, by PDOM.
+	private static final ThreadLocal<Map<PDOM, ReadLocksOfThread>> sReadLocksOfThread = ThreadLocal
+			.withInitial(WeakHashMap::new);
+	// Incremented whenever no read lock is held, invalidates the read locks counted for the threads.
+	// Volatile, because it is read by threads checking their read locks of other PDOMs.
+	private volatile long readLockSession;
 	private int lockCount;
 	private int waitingReaders;
+	private int waitingWriters;
+	private int admittedReaders;
+	private long writeLockReleases;
 	private long lastWriteAccess = 0;
 	private long lastReadAccess = 0;
 	private long timeWriteLockAcquired;
+	private final LockStatistics fLockStatistics = new LockStatistics();
+	private final CompactionStatistics fCompactionStatistics = new CompactionStatistics();
+	// The bytes freed in the database that have been added to the persistent counter.
+	private long fRecordedFreedBytes;
+
+	/**
+	 * Statistics about the wait and hold times of the locks of a PDOM, times are in nanoseconds.
+	 */
+	public static final class LockStatistics {
+		public long fReadLocks;
+		public long fReadLockWaitTime;
+		public long fMaxReadLockWaitTime;
+		public long fWriteLocks;
+		public long fWriteLockWaitTime;
+		public long fMaxWriteLockWaitTime;
+		public long fWriteLockHoldTime;
+		public long fMaxWriteLockHoldTime;
+
+		LockStatistics copy() {
+			LockStatistics result = new LockStatistics();
+			result.fReadLocks = fReadLocks;
+			result.fReadLockWaitTime = fReadLockWaitTime;
+			result.fMaxReadLockWaitTime = fMaxReadLockWaitTime;
+			result.fWriteLocks = fWriteLocks;
+			result.fWriteLockWaitTime = fWriteLockWaitTime;
+			result.fMaxWriteLockWaitTime = fMaxWriteLockWaitTime;
+			result.fWriteLockHoldTime = fWriteLockHoldTime;
+			result.fMaxWriteLockHoldTime = fMaxWriteLockHoldTime;
+			return result;
+		}
+
+		@Override
+		@SuppressWarnings("nls")
+		public String toString() {
+			return fReadLocks + " read locks (" + fReadLockWaitTime / 1000000 + " ms waiting, max "
+					+ fMaxReadLockWaitTime / 1000000 + " ms), " + fWriteLocks + " write locks ("
+					+ fWriteLockWaitTime / 1000000 + " ms waiting, max " + fMaxWriteLockWaitTime / 1000000
+					+ " ms, " + fWriteLockHoldTime / 1000000 + " ms held, max " + fMaxWriteLockHoldTime / 1000000
+					+ " ms)";
+		}
+	}
+
+	/**
+	 * The results computed for an AST, together with the thread that started to compute them.
+	 */
+	private static final class ASTResultCache {
+		final ResultCache fCache = new ResultCache(RESULT_CACHE_SIZE);
+		final Thread fReader = Thread.currentThread();
+
+		Object get(Object key) {
+			return fCache.get(key);
+		}
+
+		Object put(Object key, Object result, boolean replace) {
+			return fCache.put(key, result, replace);
+		}
+
+		void remove(Object key) {
+			fCache.remove(key);
+		}
+	}
+
+	/**
+	 * The number of read locks acquired by a thread and not yet released, guarded by fLock.
+	 */
+	private static final class ReadLocksOfThread {
+		int fCount;
+		long fSession;
+	}
+
+	private ReadLocksOfThread getReadLocksOfThread() {
+		return sReadLocksOfThread.get().computeIfAbsent(this, pdom -> new ReadLocksOfThread());
+	}
+
+	/**
+	 * Returns whether the calling thread holds a read lock of this or of any other PDOM. Such
+	 * a thread is not held back by a waiting writer, because it may be re-entering the index
+	 * through another fragment while a writer waits for it.
+	 */
+	private boolean holdsReadLock(ReadLocksOfThread readLocks) {
+		if (getReadLocks(readLocks) > 0)
+			return true;
+		for (Map.Entry<PDOM, ReadLocksOfThread> entry : sReadLocksOfThread.get().entrySet()) {
+			if (entry.getKey().getReadLocks(entry.getValue()) > 0)
+				return true;
+		}
+		return false;
+	}
+
+	private int getReadLocks(ReadLocksOfThread readLocks) {
+		return readLocks.fSession == readLockSession ? readLocks.fCount : 0;
+	}
+
+	private void setReadLocks(ReadLocksOfThread readLocks, int count) {
+		readLocks.fSession = readLockSession;
+		readLocks.fCount = Math.max(0, count);
+	}
 
 	@Override
 	public void acquireReadLock() throws InterruptedException {
-		long t = sDEBUG_LOCKS ? System.nanoTime() : 0;
-		synchronized (mutex) {
-			++waitingReaders;
-			try {
-				while (lockCount < 0)
-					mutex.wait();
-			} finally {
-				--waitingReaders;
+		final ReadLocksOfThread readLocksOfThread = getReadLocksOfThread();
+		final long start = System.nanoTime();
+		fLock.lock();
+		try {
+			if (lockCount < 0 || (waitingWriters > 0 && !holdsReadLock(readLocksOfThread))) {
+				final long releases = writeLockReleases;
+				++waitingReaders;
+				try {
+					while (lockCount < 0 || (waitingWriters > 0 && releases == writeLockReleases
+							&& !holdsReadLock(readLocksOfThread)
+							&& System.nanoTime() - start < WRITER_PREFERENCE_TIMEOUT)) {
+						if (lockCount < 0) {
+							fReadersMayProceed.await();
+						} else {
+							fReadersMayProceed.awaitNanos(WRITER_PREFERENCE_TIMEOUT - (System.nanoTime() - start));
+						}
+					}
+				} finally {
+					--waitingReaders;
+					if (releases != writeLockReleases && admittedReaders > 0 && --admittedReaders == 0) {
+						fWriterMayProceed.signalAll();
+					}
+				}
 			}
 			++lockCount;
+			setReadLocks(readLocksOfThread, getReadLocks(readLocksOfThread) + 1);
 			db.setLocked(true);
 
+			final long waitTime = System.nanoTime() - start;
+			fLockStatistics.fReadLocks++;
+			fLockStatistics.fReadLockWaitTime += waitTime;
+			fLockStatistics.fMaxReadLockWaitTime = Math.max(fLockStatistics.fMaxReadLockWaitTime, waitTime);
 			if (sDEBUG_LOCKS) {
-				t = (System.nanoTime() - t) / 1000000;
+				long t = waitTime / 1000000;
 				if (t >= LONG_READ_LOCK_WAIT_REPORT_THRESHOLD) {
 					System.out.println("Acquired index read lock after " + t + " ms wait."); //$NON-NLS-1$//$NON-NLS-2$
 				}
 				incReadLock(fLockDebugging);
 			}
+		} finally {
+			fLock.unlock();
 		}
 	}
 
 	@Override
 	public void releaseReadLock() {
-		synchronized (mutex) {
+		final ReadLocksOfThread readLocksOfThread = getReadLocksOfThread();
+		final boolean lastReadLock;
+		final boolean lastReadLockOfThread;
+		fLock.lock();
+		try {
 			assert lockCount > 0 : "No lock to release"; //$NON-NLS-1$
 			if (sDEBUG_LOCKS) {
 				decReadLock(fLockDebugging);
@@ -1041,16 +1434,31 @@ public class PDOM extends PlatformObject implements IPDOM {
 			lastReadAccess = System.currentTimeMillis();
 			if (lockCount > 0)
 				--lockCount;
-			mutex.notifyAll();
+			setReadLocks(readLocksOfThread, getReadLocks(readLocksOfThread) - 1);
+			lastReadLockOfThread = getReadLocks(readLocksOfThread) == 0;
+			if (waitingWriters > 0)
+				fWriterMayProceed.signalAll();
+			lastReadLock = lockCount == 0;
+			if (lastReadLock)
+				readLockSession++;
 			db.setLocked(lockCount != 0);
+		} finally {
+			fLock.unlock();
+		}
+		// A failure to release an AST object would cause a memory leak since the whole AST would
+		// remain pinned to memory, e.g. by a long running reader like the indexer. Results that may
+		// refer to objects of an AST are dropped when the thread that computed them releases its last
+		// read lock, the AST is no longer used by then. Results of an unknown AST are dropped whenever
+		// a read lock is released. The remaining results are computed from the content of the PDOM
+		// only and are shared by the readers of a lock session, which ends when the last read lock is
+		// released.
+		fASTResultCache.clear();
+		if (lastReadLock) {
+			clearResultCache();
+		} else if (lastReadLockOfThread) {
+			final Thread reader = Thread.currentThread();
+			fASTResultCaches.values().removeIf(cache -> cache.fReader == reader);
 		}
-		// A lock release probably means that some AST is going away. The result cache has to be
-		// cleared since it may contain objects belonging to the AST that is going away. A failure
-		// to release an AST object would cause a memory leak since the whole AST would remain
-		// pinned to memory.
-		// TODO(sprigogin): It would be more efficient to replace the global result cache with
-		// separate caches for each AST.
-		clearResultCache();
 	}
 
 	/**
@@ -1070,7 +1478,10 @@ public class PDOM extends PlatformObject implements IPDOM {
 	 */
 	public void acquireWriteLock(int giveupReadLocks, IProgressMonitor monitor) throws InterruptedException {
 		assert !isPermanentlyReadOnly();
-		synchronized (mutex) {
+		final ReadLocksOfThread readLocksOfThread = getReadLocksOfThread();
+		final long waitStart = System.nanoTime();
+		fLock.lock();
+		try {
 			if (sDEBUG_LOCKS) {
 				incWriteLock(giveupReadLocks);
 			}
@@ -1085,26 +1496,42 @@ public class PDOM extends PlatformObject implements IPDOM {
 				giveupReadLocks = 0;
 			}
 
-			// Let the readers go first
+			// Let the readers admitted by the last writer go first
 			long start = sDEBUG_LOCKS ? System.currentTimeMillis() : 0;
 			int count = 0;
-			while (lockCount > giveupReadLocks || waitingReaders > 0) {
-				mutex.wait(CANCELLATION_CHECK_INTERVAL);
-				if (monitor != null && monitor.isCanceled()) {
-					throw new OperationCanceledException();
-				}
-				count++;
-				if (monitor != null && count == LONG_WRITE_LOCK_REPORT_THRESHOLD / CANCELLATION_CHECK_INTERVAL) {
-					monitor.subTask(Messages.PDOM_waitingForWriteLock);
+			++waitingWriters;
+			try {
+				while (lockCount > giveupReadLocks || admittedReaders > 0) {
+					fWriterMayProceed.await(CANCELLATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+					if (monitor != null && monitor.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					count++;
+					if (monitor != null && count == LONG_WRITE_LOCK_REPORT_THRESHOLD / CANCELLATION_CHECK_INTERVAL) {
+						monitor.subTask(Messages.PDOM_waitingForWriteLock);
+					}
+					if (sDEBUG_LOCKS) {
+						start = reportBlockedWriteLock(start, giveupReadLocks);
+					}
 				}
-				if (sDEBUG_LOCKS) {
-					start = reportBlockedWriteLock(start, giveupReadLocks);
+				lockCount = -1;
+			} finally {
+				if (--waitingWriters == 0 && lockCount >= 0) {
+					// Readers held back in favor of this writer may proceed.
+					fReadersMayProceed.signalAll();
 				}
 			}
-			lockCount = -1;
-			if (sDEBUG_LOCKS)
-				timeWriteLockAcquired = System.currentTimeMillis();
+			// No read lock is held while the write lock is.
+			setReadLocks(readLocksOfThread, 0);
+			readLockSession++;
+			timeWriteLockAcquired = System.nanoTime();
+			final long waitTime = timeWriteLockAcquired - waitStart;
+			fLockStatistics.fWriteLocks++;
+			fLockStatistics.fWriteLockWaitTime += waitTime;
+			fLockStatistics.fMaxWriteLockWaitTime = Math.max(fLockStatistics.fMaxWriteLockWaitTime, waitTime);
 			db.setExclusiveLock();
+		} finally {
+			fLock.unlock();
 		}
 		if (monitor != null)
 			monitor.subTask(""); //$NON-NLS-1$
@@ -1120,6 +1547,11 @@ public class PDOM extends PlatformObject implements IPDOM {
 		if (establishReadLocks == 0) {
 			clearResultCache();
 		}
+		try {
+			recordFreedBytes();
+		} catch (CoreException e) {
+			CCorePlugin.log(e);
+		}
 		try {
 			db.giveUpExclusiveLock(flush);
 		} catch (CoreException e) {
@@ -1130,27 +1562,163 @@ public class PDOM extends PlatformObject implements IPDOM {
 			lastWriteAccess = System.currentTimeMillis();
 		final ChangeEvent event = fEvent;
 		fEvent = new ChangeEvent();
-		synchronized (mutex) {
+		fLock.lock();
+		try {
+			final long timeHeld = System.nanoTime() - timeWriteLockAcquired;
+			fLockStatistics.fWriteLockHoldTime += timeHeld;
+			fLockStatistics.fMaxWriteLockHoldTime = Math.max(fLockStatistics.fMaxWriteLockHoldTime, timeHeld);
 			if (sDEBUG_LOCKS) {
-				long timeHeld = lastWriteAccess - timeWriteLockAcquired;
-				if (timeHeld >= LONG_WRITE_LOCK_REPORT_THRESHOLD) {
-					System.out.println("Index write lock held for " + timeHeld + " ms");
+				if (timeHeld / 1000000 >= LONG_WRITE_LOCK_REPORT_THRESHOLD) {
+					System.out.println("Index write lock held for " + timeHeld / 1000000 + " ms");
 				}
 				decWriteLock(establishReadLocks);
 			}
 
 			if (lockCount < 0)
 				lockCount = establishReadLocks;
-			mutex.notifyAll();
+			setReadLocks(getReadLocksOfThread(), establishReadLocks);
+			// The readers waiting now go before the next writer.
+			admittedReaders = waitingReaders;
+			writeLockReleases++;
+			fReadersMayProceed.signalAll();
+			if (waitingWriters > 0)
+				fWriterMayProceed.signalAll();
 			db.setLocked(lockCount != 0);
+		} finally {
+			fLock.unlock();
 		}
 		fireChange(event);
 	}
 
 	@Override
 	public boolean hasWaitingReaders() {
-		synchronized (mutex) {
+		fLock.lock();
+		try {
 			return waitingReaders > 0;
+		} finally {
+			fLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the statistics about the wait and hold times of the locks.
+	 */
+	public LockStatistics getLockStatistics() {
+		fLock.lock();
+		try {
+			return fLockStatistics.copy();
+		} finally {
+			fLock.unlock();
+		}
+	}
+
+	/**
+	 * Statistics about the compactions of the database of a PDOM, times are in nanoseconds.
+	 */
+	public static final class CompactionStatistics {
+		public long fCompactions;
+		public long fTime;
+		public long fMergedBlocks;
+		public long fReclaimedBytes;
+
+		CompactionStatistics copy() {
+			CompactionStatistics result = new CompactionStatistics();
+			result.fCompactions = fCompactions;
+			result.fTime = fTime;
+			result.fMergedBlocks = fMergedBlocks;
+			result.fReclaimedBytes = fReclaimedBytes;
+			return result;
+		}
+
+		@Override
+		@SuppressWarnings("nls")
+		public String toString() {
+			return fCompactions + " compactions (" + fTime / 1000000 + " ms), " + fMergedBlocks + " free blocks merged, "
+					+ fReclaimedBytes / 1024 + " KB reclaimed";
+		}
+	}
+
+	public CompactionStatistics getCompactionStatistics() {
+		fLock.lock();
+		try {
+			return fCompactionStatistics.copy();
+		} finally {
+			fLock.unlock();
+		}
+	}
+
+	/**
+	 * Adds the bytes freed in the database since the last call to the persistent counter.
+	 */
+	private void recordFreedBytes() throws CoreException {
+		final long freed = db.getFreedBytes();
+		if (freed != fRecordedFreedBytes && isSupportedVersion()) {
+			db.putLong(FREED_BYTES, db.getLong(FREED_BYTES) + freed - fRecordedFreedBytes);
+			fRecordedFreedBytes = freed;
+		}
+	}
+
+	/**
+	 * Returns the number of bytes that have been freed in the database since its last compaction.
+	 * Requires a read or write lock.
+	 */
+	public long getFreedBytes() throws CoreException {
+		return db.getLong(FREED_BYTES) + db.getFreedBytes() - fRecordedFreedBytes;
+	}
+
+	/**
+	 * Returns whether the space that {@link #compact(IProgressMonitor)} can remove from the end of
+	 * the database exceeds the given percentage of the size of the database. Space freed in the
+	 * middle of the database is not considered, the compaction cannot shrink the file by it.
+	 */
+	public boolean needsCompaction(int thresholdPercent) throws InterruptedException, CoreException {
+		if (thresholdPercent <= 0)
+			return false;
+		acquireReadLock();
+		try {
+			if (getFreedBytes() < MIN_COMPACTION_FREED_BYTES)
+				return false;
+			final long reclaimable = db.getReclaimableBytes();
+			return reclaimable >= MIN_COMPACTION_FREED_BYTES
+					&& reclaimable * 100 >= db.getSizeBytes() * thresholdPercent;
+		} finally {
+			releaseReadLock();
+		}
+	}
+
+	/**
+	 * Reduces the fragmentation of the database. Adjacent free blocks are merged such that their
+	 * space can be reused for larger records, and free chunks at the end of the file are removed.
+	 * Records are not moved. The write lock is acquired for one batch of chunks at a time, such
+	 * that readers are not blocked for the duration of the compaction. Must be called without
+	 * holding a lock.
+	 */
+	public void compact(IProgressMonitor monitor) throws InterruptedException, CoreException {
+		final long start = System.nanoTime();
+		long mergedBlocks = 0;
+		long reclaimedBytes = 0;
+		for (int chunk = 0; !monitor.isCanceled(); chunk += COMPACTION_BATCH_CHUNKS) {
+			acquireWriteLock(monitor);
+			try {
+				if (chunk >= db.getChunkCount()) {
+					reclaimedBytes = db.removeTrailingFreeChunks();
+					recordFreedBytes();
+					db.putLong(FREED_BYTES, 0);
+					break;
+				}
+				mergedBlocks += db.coalesceFreeBlocks(chunk, COMPACTION_BATCH_CHUNKS);
+			} finally {
+				releaseWriteLock();
+			}
+		}
+		fLock.lock();
+		try {
+			fCompactionStatistics.fCompactions++;
+			fCompactionStatistics.fTime += System.nanoTime() - start;
+			fCompactionStatistics.fMergedBlocks += mergedBlocks;
+			fCompactionStatistics.fReclaimedBytes += reclaimedBytes;
+		} finally {
+			fLock.unlock();
 		}
 	}
 
@@ -1159,6 +1727,16 @@ public class PDOM extends PlatformObject implements IPDOM {
 		return lastWriteAccess;
 	}
 
+	@Override
+	public long getModificationCount() {
+		fLock.lock();
+		try {
+			return writeLockReleases;
+		} finally {
+			fLock.unlock();
+		}
+	}
+
 	public long getLastReadAccess() {
 		return lastReadAccess;
 	}
@@ -1228,78 +1806,171 @@ public class PDOM extends PlatformObject implements IPDOM {
 	@Override
 	public IIndexFragmentName[] findNames(IBinding binding, int options) throws CoreException {
 		ArrayList<IIndexFragmentName> names = new ArrayList<>();
+		for (IPDOMIterator<IIndexFragmentName> iterator = iterateNames(binding, options); iterator.hasNext();) {
+			names.add(iterator.next());
+		}
+		return names.toArray(new IIndexFragmentName[names.size()]);
+	}
+
+	@Override
+	public IPDOMIterator<IIndexFragmentName> iterateNames(IBinding binding, int options) throws CoreException {
+		List<PDOMNamedNode> bindings = new ArrayList<>();
 		IIndexFragmentBinding myBinding = adaptBinding(binding);
 		if (myBinding instanceof PDOMBinding) {
-			PDOMBinding pdomBinding = (PDOMBinding) myBinding;
-			findNamesForMyBinding(pdomBinding, options, names);
+			bindings.add((PDOMBinding) myBinding);
 			if ((options & SEARCH_ACROSS_LANGUAGE_BOUNDARIES) != 0) {
-				PDOMBinding[] xlangBindings = getCrossLanguageBindings(binding);
-				for (PDOMBinding xlangBinding : xlangBindings) {
-					findNamesForMyBinding(xlangBinding, options, names);
-				}
+				bindings.addAll(Arrays.asList(getCrossLanguageBindings(binding)));
 			}
 		} else if (myBinding instanceof PDOMMacroContainer) {
 			final PDOMMacroContainer macroContainer = (PDOMMacroContainer) myBinding;
-			findNamesForMyBinding(macroContainer, options, names);
+			bindings.add(macroContainer);
 			if ((options & SEARCH_ACROSS_LANGUAGE_BOUNDARIES) != 0) {
-				PDOMMacroContainer[] xlangBindings = getCrossLanguageBindings(macroContainer);
-				for (PDOMMacroContainer xlangBinding : xlangBindings) {
-					findNamesForMyBinding(xlangBinding, options, names);
-				}
+				bindings.addAll(Arrays.asList(getCrossLanguageBindings(macroContainer)));
 			}
 		}
-		return names.toArray(new IIndexFragmentName[names.size()]);
+		return new NameIterator(bindings, options);
 	}
 
-	private void findNamesForMyBinding(PDOMBinding pdomBinding, int options, ArrayList<IIndexFragmentName> names)
-			throws CoreException {
-		PDOMName name;
-		if ((options & FIND_DECLARATIONS) != 0) {
-			for (name = pdomBinding.getFirstDeclaration(); name != null; name = name.getNextInBinding()) {
-				if (isCommitted(name) && !name.isPotentialMatch()) {
-					names.add(name);
-				}
-			}
+	/**
+	 * Iterates the names of a binding and its counterparts in other linkages. The iterator keeps
+	 * its position within the lists of names stored in the database, it must not be used after
+	 * the database has been modified.
+	 */
+	private final class NameIterator implements IPDOMIterator<IIndexFragmentName> {
+		private static final int NEXT_BINDING = 0;
+		private static final int DECLARATIONS = 1;
+		private static final int DEFINITIONS = 2;
+		private static final int REFERENCES = 3;
+		private static final int EXTERNAL_REFERENCES = 4;
+		private static final int MACRO_DEFINITIONS = 5;
+		private static final int MACRO_REFERENCES = 6;
+
+		private final List<PDOMNamedNode> fBindings;
+		private final int fOptions;
+		private int fBindingIndex = -1;
+		private int fState = NEXT_BINDING;
+		private PDOMName fName;
+		private IPDOMIterator<PDOMName> fExternalReferences;
+		private PDOMMacro fMacro;
+		private PDOMMacroReferenceName fMacroReference;
+		private IIndexFragmentName fNext;
+
+		NameIterator(List<PDOMNamedNode> bindings, int options) {
+			fBindings = bindings;
+			fOptions = options;
 		}
-		if ((options & FIND_DEFINITIONS) != 0) {
-			for (name = pdomBinding.getFirstDefinition(); name != null; name = name.getNextInBinding()) {
-				boolean findPotentialMatches = (options & FIND_POTENTIAL_MATCHES) != 0;
-				if (isCommitted(name) && (!name.isPotentialMatch() || findPotentialMatches)) {
-					names.add(name);
-				}
+
+		@Override
+		public boolean hasNext() throws CoreException {
+			if (fNext == null) {
+				fNext = advance();
 			}
+			return fNext != null;
 		}
-		if ((options & FIND_REFERENCES) != 0) {
-			for (name = pdomBinding.getFirstReference(); name != null; name = name.getNextInBinding()) {
-				if (isCommitted(name) && !name.isPotentialMatch()) {
-					names.add(name);
-				}
-			}
-			for (IPDOMIterator<PDOMName> iterator = pdomBinding.getExternalReferences(); iterator.hasNext();) {
-				name = iterator.next();
-				if (isCommitted(name) && !name.isPotentialMatch())
-					names.add(name);
-			}
+
+		@Override
+		public IIndexFragmentName next() throws CoreException {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			IIndexFragmentName result = fNext;
+			fNext = null;
+			return result;
 		}
-	}
 
-	private void findNamesForMyBinding(PDOMMacroContainer container, int options, ArrayList<IIndexFragmentName> names)
-			throws CoreException {
-		if ((options & FIND_DEFINITIONS) != 0) {
-			for (PDOMMacro macro = container.getFirstDefinition(); macro != null; macro = macro.getNextInContainer()) {
-				final IIndexFragmentName name = macro.getDefinition();
-				if (name != null && isCommitted(macro)) {
-					names.add(name);
+		private IIndexFragmentName advance() throws CoreException {
+			while (true) {
+				switch (fState) {
+				case NEXT_BINDING:
+					if (++fBindingIndex >= fBindings.size())
+						return null;
+					PDOMNamedNode binding = fBindings.get(fBindingIndex);
+					if (binding instanceof PDOMBinding) {
+						fName = (fOptions & FIND_DECLARATIONS) != 0 ? ((PDOMBinding) binding).getFirstDeclaration()
+								: null;
+						fState = DECLARATIONS;
+					} else {
+						fMacro = (fOptions & FIND_DEFINITIONS) != 0
+								? ((PDOMMacroContainer) binding).getFirstDefinition()
+								: null;
+						fState = MACRO_DEFINITIONS;
+					}
+					break;
+				case DECLARATIONS:
+					if (fName == null) {
+						fName = (fOptions & FIND_DEFINITIONS) != 0 ? getBinding().getFirstDefinition() : null;
+						fState = DEFINITIONS;
+					} else {
+						PDOMName name = fName;
+						fName = name.getNextInBinding();
+						if (isCommitted(name) && !name.isPotentialMatch())
+							return name;
+					}
+					break;
+				case DEFINITIONS:
+					if (fName == null) {
+						fName = (fOptions & FIND_REFERENCES) != 0 ? getBinding().getFirstReference() : null;
+						fState = REFERENCES;
+					} else {
+						PDOMName name = fName;
+						fName = name.getNextInBinding();
+						boolean findPotentialMatches = (fOptions & FIND_POTENTIAL_MATCHES) != 0;
+						if (isCommitted(name) && (!name.isPotentialMatch() || findPotentialMatches))
+							return name;
+					}
+					break;
+				case REFERENCES:
+					if (fName == null) {
+						fExternalReferences = (fOptions & FIND_REFERENCES) != 0
+								? getBinding().getExternalReferences()
+								: null;
+						fState = EXTERNAL_REFERENCES;
+					} else {
+						PDOMName name = fName;
+						fName = name.getNextInBinding();
+						if (isCommitted(name) && !name.isPotentialMatch())
+							return name;
+					}
+					break;
+				case EXTERNAL_REFERENCES:
+					if (fExternalReferences == null || !fExternalReferences.hasNext()) {
+						fExternalReferences = null;
+						fState = NEXT_BINDING;
+					} else {
+						PDOMName name = fExternalReferences.next();
+						if (isCommitted(name) && !name.isPotentialMatch())
+							return name;
+					}
+					break;
+				case MACRO_DEFINITIONS:
+					if (fMacro == null) {
+						fMacroReference = (fOptions & FIND_REFERENCES) != 0
+								? ((PDOMMacroContainer) fBindings.get(fBindingIndex)).getFirstReference()
+								: null;
+						fState = MACRO_REFERENCES;
+					} else {
+						PDOMMacro macro = fMacro;
+						fMacro = macro.getNextInContainer();
+						final IIndexFragmentName name = macro.getDefinition();
+						if (name != null && isCommitted(macro))
+							return name;
+					}
+					break;
+				case MACRO_REFERENCES:
+					if (fMacroReference == null) {
+						fState = NEXT_BINDING;
+					} else {
+						PDOMMacroReferenceName name = fMacroReference;
+						fMacroReference = name.getNextInContainer();
+						if (isCommitted(name))
+							return name;
+					}
+					break;
 				}
 			}
 		}
-		if ((options & FIND_REFERENCES) != 0) {
-			for (PDOMMacroReferenceName name = container.getFirstReference(); name != null; name = name
-					.getNextInContainer()) {
-				if (isCommitted(name)) {
-					names.add(name);
-				}
-			}
+
+		private PDOMBinding getBinding() {
+			return (PDOMBinding) fBindings.get(fBindingIndex);
 		}
 	}
 
@@ -1511,6 +2182,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 	private void clearCaches() {
 		fileIndex = null;
 		tagIndex = null;
+		trigramIndex = null;
 		indexOfDefectiveFiles = null;
 		indexOfFiledWithUnresolvedIncludes = null;
 		fLinkageIDCache.clear();
@@ -1519,12 +2191,17 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	@Override
 	public void clearResultCache() {
-		synchronized (fResultCache) {
-			fResultCache.clear();
-		}
-		synchronized (fVariableResultCache) {
-			fVariableResultCache.clear();
-		}
+		fResultCache.clear();
+		fASTResultCaches.clear();
+		fASTResultCache.clear();
+		fVariableResultCache.clear();
+	}
+
+	/**
+	 * Returns the cache for results computed from the content of this PDOM.
+	 */
+	public ResultCache getResultCache() {
+		return fResultCache;
 	}
 
 	@Override
@@ -1548,9 +2225,16 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	@Override
 	public Object getCachedResult(Object key) {
-		synchronized (fResultCache) {
-			return fResultCache.get(key);
+		Object result = fResultCache.get(key);
+		if (result == null) {
+			final IASTTranslationUnit ast = getCurrentAST();
+			final ASTResultCache cache = ast == null ? null : fASTResultCaches.get(ast);
+			if (cache != null)
+				result = cache.get(key);
 		}
+		if (result == null)
+			result = fASTResultCache.get(key);
+		return result;
 	}
 
 	public void putCachedResult(Object key, Object result) {
@@ -1559,42 +2243,55 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 	@Override
 	public Object putCachedResult(Object key, Object result, boolean replace) {
-		synchronized (fResultCache) {
-			Object old = fResultCache.put(key, result);
-			if (old != null && !replace) {
-				fResultCache.put(key, old);
-				return old;
-			}
-			return result;
+		if (mayReferToAST(key, result)) {
+			final IASTTranslationUnit ast = getCurrentAST();
+			if (ast == null)
+				return fASTResultCache.put(key, result, replace);
+			return fASTResultCaches.computeIfAbsent(ast, a -> new ASTResultCache()).put(key, result, replace);
 		}
+		return fResultCache.put(key, result, replace);
 	}
 
 	public void removeCachedResult(Object key) {
-		synchronized (fResultCache) {
-			fResultCache.remove(key);
+		fResultCache.remove(key);
+		for (ASTResultCache cache : fASTResultCaches.values()) {
+			cache.remove(key);
 		}
+		fASTResultCache.remove(key);
+	}
+
+	/**
+	 * Returns the AST for which the calling thread resolves bindings, or {@code null} if unknown.
+	 */
+	private static IASTTranslationUnit getCurrentAST() {
+		final IASTNode point = CPPSemantics.getCurrentLookupPoint();
+		return point == null ? null : point.getTranslationUnit();
+	}
+
+	/**
+	 * Returns whether a cached result may keep an AST reachable, either because it is keyed by a
+	 * binding of an AST or because it is an instance cache that collects instances created by ASTs.
+	 */
+	private static boolean mayReferToAST(Object key, Object result) {
+		if (key instanceof IBinding && !(key instanceof IIndexBinding))
+			return true;
+		return result instanceof PDOMInstanceCache || result instanceof CompositeInstanceCache;
 	}
 
 	public IValue getCachedVariableResult(Long key) {
-		synchronized (fVariableResultCache) {
-			WeakReference<IValue> variableResult = fVariableResultCache.get(key);
-			if (variableResult != null) {
-				return variableResult.get();
-			}
-			return null;
+		WeakReference<IValue> variableResult = fVariableResultCache.get(key);
+		if (variableResult != null) {
+			return variableResult.get();
 		}
+		return null;
 	}
 
 	public void removeCachedVariableResult(Long key) {
-		synchronized (fVariableResultCache) {
-			fVariableResultCache.remove(key);
-		}
+		fVariableResultCache.remove(key);
 	}
 
 	public void putCachedVariableResult(Long key, IValue result) {
-		synchronized (fVariableResultCache) {
-			fVariableResultCache.put(key, new WeakReference<>(result));
-		}
+		fVariableResultCache.put(key, new WeakReference<>(result));
 	}
 
 	public String createKeyForCache(long record, char[] name) {
@@ -26,7 +26,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 /**
- * Job running multiple indexer tasks.
+ * Job running the indexer tasks of one project.
  */
 public class PDOMIndexerJob extends Job {
 	/**
@@ -74,22 +74,37 @@ public class PDOMIndexerJob extends Job {
 
 	private static final int PROGRESS_UPDATE_INTERVAL = 500;
 	private static final int TOTAL_MONITOR_WORK = 1000;
-	static volatile String sMonitorDetail = null;
+	volatile String fMonitorDetail = null;
 
 	private final PDOMManager pdomManager;
+	private final IndexerTaskQueue fTaskQueue;
 	private IPDOMIndexerTask currentTask;
 	private boolean cancelledByManager = false;
 	private final Object taskMutex = new Object();
 	private IProgressMonitor fMonitor;
 	private final boolean fShowActivity;
 
-	public PDOMIndexerJob(PDOMManager manager) {
-		super(CCorePlugin.getResourceString("pdom.indexer.name")); //$NON-NLS-1$
+	PDOMIndexerJob(PDOMManager manager, IndexerTaskQueue taskQueue) {
+		super(getJobName(taskQueue));
 		this.pdomManager = manager;
+		this.fTaskQueue = taskQueue;
 		fShowActivity = PDOMIndexerTask.checkDebugOption(IPDOMIndexerTask.TRACE_ACTIVITY, "true"); //$NON-NLS-1$
 		setPriority(Job.LONG);
 	}
 
+	private static String getJobName(IndexerTaskQueue taskQueue) {
+		String name = CCorePlugin.getResourceString("pdom.indexer.name"); //$NON-NLS-1$
+		String projectName = taskQueue.getProjectName();
+		if (projectName != null) {
+			name += " (" + projectName + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return name;
+	}
+
+	IndexerTaskQueue getTaskQueue() {
+		return fTaskQueue;
+	}
+
 	public synchronized void subTask(String msg) {
 		if (fMonitor != null) {
 			fMonitor.subTask(msg);
@@ -129,7 +144,7 @@ public class PDOMIndexerJob extends Job {
 
 				@Override
 				public void subTask(String name) {
-					sMonitorDetail = name;
+					fMonitorDetail = name;
 				}
 			};
 
@@ -140,12 +155,12 @@ public class PDOMIndexerJob extends Job {
 
 					// User cancel, tell manager and return.
 					if (monitor.isCanceled()) {
-						pdomManager.indexerJobCanceled(cancelledByManager);
+						pdomManager.indexerJobCanceled(this, cancelledByManager);
 						return Status.CANCEL_STATUS;
 					}
 
 					// Pick up new task.
-					currentTask = pdomManager.getNextTask();
+					currentTask = pdomManager.getNextTask(this);
 				}
 
 				if (currentTask != null) {
@@ -184,7 +199,7 @@ public class PDOMIndexerJob extends Job {
 	}
 
 	private void indexingAborted() {
-		pdomManager.indexerJobCanceled(true);
+		pdomManager.indexerJobCanceled(this, true);
 		synchronized (taskMutex) {
 			currentTask = null;
 			taskMutex.notifyAll();
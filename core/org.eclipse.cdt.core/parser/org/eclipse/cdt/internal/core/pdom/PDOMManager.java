@@ -79,8 +79,10 @@ import org.eclipse.cdt.internal.core.index.IndexFactory;
 import org.eclipse.cdt.internal.core.index.IndexFileSet;
 import org.eclipse.cdt.internal.core.index.IndexerStateEvent;
 import org.eclipse.cdt.internal.core.index.provider.IndexProviderManager;
+import org.eclipse.cdt.internal.core.parser.scanner.IncludeGuardCache;
 import org.eclipse.cdt.internal.core.pdom.PDOM.IListener;
 import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
 import org.eclipse.cdt.internal.core.pdom.dom.IPDOMLinkageFactory;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMProjectIndexLocationConverter;
 import org.eclipse.cdt.internal.core.pdom.indexer.AbstractPDOMIndexer;
@@ -125,6 +127,7 @@ import org.eclipse.core.runtime.preferences.InstanceScope;
  */
 public class PDOMManager implements IWritableIndexManager, IListener {
 	private static final String TRACE_INDEXER_SETUP = CCorePlugin.PLUGIN_ID + "/debug/indexer/setup"; //$NON-NLS-1$
+	private static final String INCLUDE_GUARD_CACHE_FILE = "includeGuards.cache"; //$NON-NLS-1$
 
 	private final class PCL implements IPreferenceChangeListener {
 		private ICProject fProject;
@@ -151,12 +154,18 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 	private final ArrayDeque<ICProject> fProjectQueue = new ArrayDeque<>();
 	private final PDOMSetupJob fSetupJob;
 	/**
-	 * Protects fIndexerJob, fCurrentTask and fTaskQueue.
+	 * Time a project may keep its indexer job running while other projects wait for a job, in
+	 * milliseconds. The job is handed over when the current task of the project completes.
 	 */
-	private final ArrayDeque<IPDOMIndexerTask> fTaskQueue = new ArrayDeque<>();
-	private final PDOMIndexerJob fIndexerJob;
-	private IPDOMIndexerTask fCurrentTask;
-	private int fSourceCount, fHeaderCount, fTickCount;
+	private static final long INDEXER_TIME_SLICE = 2000;
+
+	/**
+	 * The task queues per project, tasks that don't belong to a project use the {@code null} key.
+	 * Protects the task queues, fWaitingQueues and fActiveJobs.
+	 */
+	private final Map<IProject, IndexerTaskQueue> fTaskQueues = new HashMap<>();
+	private final List<IndexerTaskQueue> fWaitingQueues = new ArrayList<>();
+	private int fActiveJobs;
 
 	private final ArrayDeque<Runnable> fChangeEvents = new ArrayDeque<>();
 	private final Job fNotificationJob;
@@ -208,7 +217,6 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 		fJobChangeListener = new JobChangeListener(this);
 		fPreferenceChangeListener = event -> onPreferenceChange(event);
 		fSetupJob = new PDOMSetupJob(this);
-		fIndexerJob = new PDOMIndexerJob(this);
 		fNotificationJob = createNotifyJob();
 	}
 
@@ -243,6 +251,7 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 		Job.getJobManager().addJobChangeListener(fJobChangeListener);
 		adjustCacheSize();
 		updatePathCanonicalizationStrategy();
+		loadIncludeGuardCache();
 		fIndexProviderManager.startup();
 
 		fTraceIndexerSetup = String.valueOf(true).equals(Platform.getDebugOption(TRACE_INDEXER_SETUP));
@@ -275,17 +284,40 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(fCModelListener);
 		LanguageSettingsManager.unregisterLanguageSettingsChangeListener(fLanguageSettingsChangeListener);
 		LanguageManager.getInstance().unregisterLanguageChangeListener(fLanguageChangeListener);
-		PDOMIndexerJob jobToCancel = null;
-		synchronized (fTaskQueue) {
-			fTaskQueue.clear();
-			jobToCancel = fIndexerJob;
+		List<PDOMIndexerJob> jobsToCancel = new ArrayList<>();
+		synchronized (fTaskQueues) {
+			for (IndexerTaskQueue queue : fTaskQueues.values()) {
+				queue.fTasks.clear();
+				jobsToCancel.add(queue.fJob);
+			}
 		}
 
-		if (jobToCancel != null) {
-			assert !Thread.holdsLock(fTaskQueue);
-			jobToCancel.cancelJobs(null, true);
+		assert !Thread.holdsLock(fTaskQueues);
+		for (PDOMIndexerJob job : jobsToCancel) {
+			job.cancelJobs(null, true);
 		}
 		Job.getJobManager().removeJobChangeListener(fJobChangeListener);
+		saveIncludeGuardCache();
+	}
+
+	/**
+	 * The include guards detected by the preprocessor are kept next to the databases, such that
+	 * the headers do not need to be lexed again for that purpose after a restart.
+	 */
+	private void loadIncludeGuardCache() {
+		try {
+			IncludeGuardCache.getSharedInstance().load(fileFromDatabaseName(INCLUDE_GUARD_CACHE_FILE));
+		} catch (IOException e) {
+			CCorePlugin.log(e);
+		}
+	}
+
+	private void saveIncludeGuardCache() {
+		try {
+			IncludeGuardCache.getSharedInstance().save(fileFromDatabaseName(INCLUDE_GUARD_CACHE_FILE));
+		} catch (IOException e) {
+			CCorePlugin.log(e);
+		}
 	}
 
 	protected void onPreferenceChange(PreferenceChangeEvent event) {
@@ -370,7 +402,7 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 						IProject currentOwner = currentCOwner.getProject();
 						if (!currentOwner.exists()) {
 							fFileToProject.remove(dbFile);
-							dbFile.delete();
+							Database.deleteFiles(dbFile);
 						}
 						dbName = null;
 						dbFile = null;
@@ -386,17 +418,24 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 				fromScratch = true;
 			}
 
+			final boolean memoryMapped = Boolean.parseBoolean(
+					IndexerPreferences.get(project, IndexerPreferences.KEY_MEMORY_MAPPED_DATABASE, null));
 			WritablePDOM pdom;
 			try {
-				pdom = new WritablePDOM(dbFile, new PDOMProjectIndexLocationConverter(project), getLinkageFactories());
+				pdom = new WritablePDOM(dbFile, new PDOMProjectIndexLocationConverter(project),
+						ChunkCache.getSharedInstance(), memoryMapped, getLinkageFactories());
 			} catch (CoreException | RuntimeException e) {
 				// Index file is likely corrupted. Recover by rebuilding the index.
 				// See http://bugs.eclipse.org/510054
 				CCorePlugin.log("Failed to open C/C++ index file " + dbFile.getAbsolutePath() //$NON-NLS-1$
 						+ " - rebuilding the index", e); //$NON-NLS-1$
-				dbFile.delete();
+				Database.deleteFiles(dbFile);
 				fromScratch = true;
-				pdom = new WritablePDOM(dbFile, new PDOMProjectIndexLocationConverter(project), getLinkageFactories());
+				pdom = new WritablePDOM(dbFile, new PDOMProjectIndexLocationConverter(project),
+						ChunkCache.getSharedInstance(), memoryMapped, getLinkageFactories());
+			}
+			if (Boolean.parseBoolean(IndexerPreferences.get(project, IndexerPreferences.KEY_WRITE_AHEAD_LOG, null))) {
+				pdom.setWriteAheadLog(true);
 			}
 
 			if (!pdom.isSupportedVersion() || fromScratch) {
@@ -699,56 +738,127 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 	}
 
 	public void enqueue(IPDOMIndexerTask subjob) {
-		synchronized (fTaskQueue) {
-			if (fCurrentTask != null && fCurrentTask.acceptUrgentTask(subjob)) {
+		final IProject project = getProject(subjob);
+		synchronized (fTaskQueues) {
+			IndexerTaskQueue queue = fTaskQueues.get(project);
+			if (queue == null) {
+				queue = new IndexerTaskQueue(this, project);
+				fTaskQueues.put(project, queue);
+			} else if (queue.acceptUrgentTask(subjob)) {
 				return;
 			}
-			for (IPDOMIndexerTask task : fTaskQueue) {
-				if (task.acceptUrgentTask(subjob)) {
-					return;
+			queue.fTasks.addLast(subjob);
+			if (!queue.fActive && !queue.fWaiting) {
+				queue.updatePriority();
+				queue.fWaiting = true;
+				fWaitingQueues.add(queue);
+				scheduleWaitingQueues();
+			}
+		}
+	}
+
+	private static IProject getProject(IPDOMIndexerTask task) {
+		final IPDOMIndexer indexer = task.getIndexer();
+		if (indexer != null) {
+			final ICProject cproject = indexer.getProject();
+			if (cproject != null) {
+				return cproject.getProject();
+			}
+		} else if (task instanceof NotifyCModelManagerTask) {
+			return ((NotifyCModelManagerTask) task).getProject();
+		}
+		return null;
+	}
+
+	/**
+	 * Hands out the free slots for running indexer jobs to the waiting task queues.
+	 */
+	private void scheduleWaitingQueues() {
+		assert Thread.holdsLock(fTaskQueues);
+		final int maxJobs = IndexerPreferences.getMaxIndexerJobs();
+		while (fActiveJobs < maxJobs && !fWaitingQueues.isEmpty()) {
+			IndexerTaskQueue next = fWaitingQueues.get(0);
+			for (IndexerTaskQueue queue : fWaitingQueues) {
+				if (queue.precedes(next)) {
+					next = queue;
 				}
 			}
-			fTaskQueue.addLast(subjob);
-			fIndexerJob.schedule();
+			fWaitingQueues.remove(next);
+			next.fWaiting = false;
+			next.fActive = true;
+			next.fSliceStart = System.currentTimeMillis();
+			fActiveJobs++;
+			next.fJob.schedule();
 		}
 	}
 
-	IPDOMIndexerTask getNextTask() {
-		IPDOMIndexerTask result = null;
-		synchronized (fTaskQueue) {
-			if (fTaskQueue.isEmpty()) {
-				fCurrentTask = null;
-				fSourceCount = fHeaderCount = fTickCount = 0;
-			} else {
-				if (fCurrentTask != null) {
-					IndexerProgress info = fCurrentTask.getProgressInformation();
-					fSourceCount += info.fCompletedSources;
-					fHeaderCount += info.fCompletedHeaders;
-					// for the ticks we don't consider additional headers
-					fTickCount += info.fCompletedSources + info.fPrimaryHeaderCount;
+	/**
+	 * Gives up the slot of the job of the task queue and passes it on to a waiting queue.
+	 */
+	private void releaseSlot(IndexerTaskQueue queue) {
+		assert Thread.holdsLock(fTaskQueues);
+		if (queue.fActive) {
+			queue.fActive = false;
+			fActiveJobs--;
+		}
+		if (queue.fTasks.isEmpty()) {
+			if (fTaskQueues.get(queue.fProject) == queue) {
+				fTaskQueues.remove(queue.fProject);
+			}
+		} else if (!queue.fWaiting) {
+			queue.updatePriority();
+			queue.fWaiting = true;
+			fWaitingQueues.add(queue);
+		}
+		scheduleWaitingQueues();
+	}
+
+	/**
+	 * Returns the next task to be run by the job, or {@code null} if the job has to stop. This is
+	 * the case when the queue of the job is empty, or when the time slice of the job is used up
+	 * and a queue that precedes it is waiting.
+	 */
+	IPDOMIndexerTask getNextTask(PDOMIndexerJob job) {
+		final IndexerTaskQueue queue = job.getTaskQueue();
+		final long now = System.currentTimeMillis();
+		synchronized (fTaskQueues) {
+			queue.finishCurrentTask(now);
+			if (!queue.fTasks.isEmpty() && now - queue.fSliceStart >= INDEXER_TIME_SLICE) {
+				for (IndexerTaskQueue waiting : fWaitingQueues) {
+					if (waiting.precedes(queue)) {
+						releaseSlot(queue);
+						return null;
+					}
 				}
-				result = fCurrentTask = fTaskQueue.removeFirst();
+				queue.fSliceStart = now;
 			}
+			IPDOMIndexerTask result = queue.nextTask(now);
+			if (result == null) {
+				releaseSlot(queue);
+			}
+			return result;
 		}
-		return result;
 	}
 
-	void indexerJobCanceled(boolean byManager) {
-		synchronized (fTaskQueue) {
-			fCurrentTask = null;
+	void indexerJobCanceled(PDOMIndexerJob job, boolean byManager) {
+		final IndexerTaskQueue queue = job.getTaskQueue();
+		synchronized (fTaskQueues) {
+			queue.finishCurrentTask(System.currentTimeMillis());
 			if (!byManager) {
-				fTaskQueue.clear();
-			}
-			if (!fTaskQueue.isEmpty()) {
-				fIndexerJob.schedule();
+				queue.fTasks.clear();
 			}
+			releaseSlot(queue);
 		}
 	}
 
 	@Override
 	public boolean isIndexerIdle() {
-		synchronized (fTaskQueue) {
-			return fTaskQueue.isEmpty() && Job.getJobManager().find(this).length == 0;
+		synchronized (fTaskQueues) {
+			for (IndexerTaskQueue queue : fTaskQueues.values()) {
+				if (!queue.fTasks.isEmpty())
+					return false;
+			}
+			return Job.getJobManager().find(this).length == 0;
 		}
 	}
 
@@ -960,20 +1070,22 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 	}
 
 	private void cancelIndexerJobs(IPDOMIndexer indexer) {
-		PDOMIndexerJob jobToCancel = null;
-		synchronized (fTaskQueue) {
-			for (Iterator<IPDOMIndexerTask> iter = fTaskQueue.iterator(); iter.hasNext();) {
-				IPDOMIndexerTask task = iter.next();
-				if (task.getIndexer() == indexer) {
-					iter.remove();
+		List<PDOMIndexerJob> jobsToCancel = new ArrayList<>();
+		synchronized (fTaskQueues) {
+			for (IndexerTaskQueue queue : fTaskQueues.values()) {
+				for (Iterator<IPDOMIndexerTask> iter = queue.fTasks.iterator(); iter.hasNext();) {
+					IPDOMIndexerTask task = iter.next();
+					if (task.getIndexer() == indexer) {
+						iter.remove();
+					}
 				}
+				jobsToCancel.add(queue.fJob);
 			}
-			jobToCancel = fIndexerJob;
 		}
 
-		if (jobToCancel != null) {
-			assert !Thread.holdsLock(fTaskQueue);
-			jobToCancel.cancelJobs(indexer, true);
+		assert !Thread.holdsLock(fTaskQueues);
+		for (PDOMIndexerJob job : jobsToCancel) {
+			job.cancelJobs(indexer, true);
 		}
 	}
 
@@ -1182,25 +1294,27 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 	}
 
 	int getMonitorMessage(PDOMIndexerJob job, int currentTicks, int base) {
-		assert !Thread.holdsLock(fTaskQueue);
+		assert !Thread.holdsLock(fTaskQueues);
 
+		final IndexerTaskQueue queue = job.getTaskQueue();
 		int sourceCount, sourceEstimate, headerCount, tickCount, tickEstimate;
 		String detail = null;
-		synchronized (fTaskQueue) {
+		synchronized (fTaskQueues) {
 			// Add historic data.
-			sourceCount = sourceEstimate = fSourceCount;
-			headerCount = fHeaderCount;
-			tickCount = tickEstimate = fTickCount;
+			sourceCount = sourceEstimate = queue.fSourceCount;
+			headerCount = queue.fHeaderCount;
+			tickCount = tickEstimate = queue.fTickCount;
 
 			// Add future data.
-			for (IPDOMIndexerTask task : fTaskQueue) {
+			for (IPDOMIndexerTask task : queue.fTasks) {
 				final IndexerProgress info = task.getProgressInformation();
 				sourceEstimate += info.fRequestedFilesCount;
 				tickEstimate += info.getEstimatedTicks();
 			}
 			// Add current data.
-			if (fCurrentTask != null) {
-				final IndexerProgress info = fCurrentTask.getProgressInformation();
+			final IPDOMIndexerTask currentTask = queue.fCurrentTask;
+			if (currentTask != null) {
+				final IndexerProgress info = currentTask.getProgressInformation();
 				sourceCount += info.fCompletedSources;
 				sourceEstimate += info.fRequestedFilesCount - info.fPrimaryHeaderCount;
 				headerCount += info.fCompletedHeaders;
@@ -1223,7 +1337,7 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 					tickCount += completedPrimary;
 					tickEstimate += info.fTimeEstimate;
 				}
-				detail = PDOMIndexerJob.sMonitorDetail;
+				detail = job.fMonitorDetail;
 			}
 		}
 
@@ -1310,6 +1424,7 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 			newPDOM.acquireWriteLock(null);
 			try {
 				newPDOM.rewriteLocations(newConverter);
+				newPDOM.packIndexes();
 
 				// Ensure that fragment id has a sensible value, in case callee's do not
 				// overwrite with their own values.
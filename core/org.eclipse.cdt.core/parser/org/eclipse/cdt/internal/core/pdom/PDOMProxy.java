@@ -37,6 +37,7 @@ import org.eclipse.cdt.internal.core.index.IIndexScope;
 import org.eclipse.cdt.internal.core.pdom.PDOM.ChangeEvent;
 import org.eclipse.cdt.internal.core.pdom.PDOM.DebugLockInfo;
 import org.eclipse.cdt.internal.core.pdom.PDOM.IListener;
+import org.eclipse.cdt.internal.core.pdom.dom.IPDOMIterator;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMLinkage;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -153,6 +154,15 @@ public class PDOMProxy implements IPDOM {
 		return IIndexFragmentName.EMPTY_NAME_ARRAY;
 	}
 
+	@Override
+	public synchronized IPDOMIterator<IIndexFragmentName> iterateNames(IBinding binding, int flags)
+			throws CoreException {
+		if (fDelegate != null)
+			return fDelegate.iterateNames(binding, flags);
+
+		return IPDOMIterator.empty();
+	}
+
 	@Override
 	public synchronized long getCacheHits() {
 		if (fDelegate != null)
@@ -211,6 +221,14 @@ public class PDOMProxy implements IPDOM {
 		return 0;
 	}
 
+	@Override
+	public synchronized long getModificationCount() {
+		if (fDelegate != null)
+			return fDelegate.getModificationCount();
+
+		return 0;
+	}
+
 	@Override
 	public synchronized IIndexLinkage[] getLinkages() {
 		if (fDelegate != null)
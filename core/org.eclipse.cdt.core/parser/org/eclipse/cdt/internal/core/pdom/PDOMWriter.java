@@ -18,12 +18,16 @@ package org.eclipse.cdt.internal.core.pdom;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ILinkage;
@@ -36,6 +40,7 @@ import org.eclipse.cdt.core.dom.ast.IASTPreprocessorMacroDefinition;
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorStatement;
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorUndefStatement;
 import org.eclipse.cdt.core.dom.ast.IASTProblem;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.dom.ast.IBinding;
 import org.eclipse.cdt.core.dom.ast.ICompositeType;
@@ -68,6 +73,7 @@ import org.eclipse.cdt.internal.core.dom.parser.ASTInternal;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPInternalDeclaredVariable;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPUnknownBinding;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPSemantics;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.ParallelNameResolution;
 import org.eclipse.cdt.internal.core.index.FileContentKey;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentFile;
 import org.eclipse.cdt.internal.core.index.IWritableIndex;
@@ -153,6 +159,37 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		final ArrayList<IASTPreprocessorIncludeStatement> fIncludes = new ArrayList<>();
 	}
 
+	/**
+	 * Counts and variables collected while resolving names.
+	 */
+	private static class ResolutionResult {
+		final Set<ICPPInternalDeclaredVariable> fVariables = new HashSet<>();
+		int fProblemBindingCount;
+		int fReferenceCount;
+		int fDeclarationCount;
+
+		void add(ResolutionResult other) {
+			fVariables.addAll(other.fVariables);
+			fProblemBindingCount += other.fProblemBindingCount;
+			fReferenceCount += other.fReferenceCount;
+			fDeclarationCount += other.fDeclarationCount;
+		}
+	}
+
+	/**
+	 * A name to be resolved on a worker thread, together with the file it belongs to.
+	 */
+	private static class NameInFile {
+		final IASTName[] fName;
+		final FileInAST fFile;
+		Throwable fError;
+
+		NameInFile(IASTName[] name, FileInAST file) {
+			fName = name;
+			fFile = file;
+		}
+	}
+
 	protected static class Data implements IIndexSymbols {
 		final IASTTranslationUnit fAST;
 		final FileInAST[] fSelectedFiles;
@@ -161,6 +198,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		final Set<IASTPreprocessorIncludeStatement> fContextIncludes = new HashSet<>();
 		final List<IStatus> fStatuses = new ArrayList<>();
 		Map<String, String> fReplacementHeaders; // Replacement headers keyed by file paths.
+		boolean fResolveConcurrently; // Whether independent function bodies are resolved on multiple threads.
 
 		public Data(IASTTranslationUnit ast, FileInAST[] selectedFiles, IWritableIndex index) {
 			fAST = ast;
@@ -218,6 +256,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 	protected final ICanceler fCancelState = new Canceler();
 
 	private int fSkipReferences = SKIP_NO_REFERENCES;
+	private ExecutorService fNameResolutionExecutor;
 
 	public PDOMWriter(IndexerInputAdapter resolver) {
 		fStatistics = new IndexerStatistics();
@@ -228,6 +267,15 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		return fResolver;
 	}
 
+	/**
+	 * Sets the executor used for resolving the names of independent function bodies of large
+	 * translation units concurrently, or {@code null} to resolve all names on the calling thread.
+	 * The executor is owned by the caller.
+	 */
+	protected void setNameResolutionExecutor(ExecutorService executor) {
+		fNameResolutionExecutor = executor;
+	}
+
 	public void setShowActivity(boolean val) {
 		fShowActivity = val;
 	}
@@ -270,8 +318,22 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 	 */
 	final protected void addSymbols(Data data, int storageLinkageID, FileContext ctx, IProgressMonitor monitor)
 			throws InterruptedException, CoreException {
+		SubMonitor progress = SubMonitor.convert(monitor, 2);
+		if (resolveSymbols(data, storageLinkageID, progress.split(1))) {
+			storeResolvedSymbols(data, storageLinkageID, ctx, progress.split(1));
+		}
+	}
+
+	/**
+	 * First half of {@link #addSymbols(Data, int, FileContext, IProgressMonitor)}: resolves the names
+	 * collected from the AST without modifying the index. The method requires read access to the
+	 * index only and may be called concurrently for different ASTs.
+	 *
+	 * @return whether there are symbols to be stored in the index.
+	 */
+	final protected boolean resolveSymbols(Data data, int storageLinkageID, IProgressMonitor monitor) {
 		if (data.isEmpty() || storageLinkageID == ILinkage.NO_LINKAGE_ID)
-			return;
+			return false;
 
 		if (fShowProblems) {
 			fShowInclusionProblems = true;
@@ -279,12 +341,20 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			fShowSyntaxProblems = true;
 		}
 
-		SubMonitor progress = SubMonitor.convert(monitor, 2);
 		// Name resolution.
-		resolveNames(data, progress.split(1));
+		resolveNames(data, monitor);
+		return true;
+	}
 
+	/**
+	 * Second half of {@link #addSymbols(Data, int, FileContext, IProgressMonitor)}: stores the symbols
+	 * resolved by {@link #resolveSymbols(Data, int, IProgressMonitor)} in the index. Must not be called
+	 * concurrently with any other method accessing the index on behalf of this writer.
+	 */
+	final protected void storeResolvedSymbols(Data data, int storageLinkageID, FileContext ctx,
+			IProgressMonitor monitor) throws InterruptedException, CoreException {
 		// Index update.
-		storeSymbolsInIndex(data, storageLinkageID, ctx, progress.split(1));
+		storeSymbolsInIndex(data, storageLinkageID, ctx, monitor);
 
 		if (!data.fStatuses.isEmpty()) {
 			List<IStatus> statuses = data.fStatuses;
@@ -313,6 +383,10 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			throws InterruptedException, CoreException {
 		final IIndexFragmentFile newFile = ctx == null ? null : ctx.fNewFile;
 		SubMonitor progress = SubMonitor.convert(monitor, data.fSelectedFiles.length * 10);
+		int lastFile = data.fSelectedFiles.length - 1;
+		while (lastFile >= 0 && data.fSelectedFiles[lastFile] == null) {
+			lastFile--;
+		}
 		for (int i = 0; i < data.fSelectedFiles.length; i++) {
 			final FileInAST fileInAST = data.fSelectedFiles[i];
 			if (fileInAST != null) {
@@ -349,7 +423,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 				} finally {
 					// Because the caller holds a read-lock, the result cache of the index is never cleared.
 					// Before releasing the lock for the last time in this AST, we clear the result cache.
-					if (i == data.fSelectedFiles.length - 1) {
+					if (i == lastFile) {
 						data.fIndex.clearResultCache();
 					}
 					lock.release();
@@ -358,14 +432,18 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 					data.fStatuses.add(createStatus(NLS.bind(Messages.PDOMWriter_errorWhileParsing,
 							fileInAST.fileContentKey.getLocation().getURI().getPath()), th));
 				}
-				fStatistics.fAddToIndexTime += lock.getCumulativeLockTime();
+				synchronized (fStatistics) {
+					fStatistics.fAddToIndexTime += lock.getCumulativeLockTime();
+				}
 			}
 		}
 	}
 
 	private void resolveNames(Data data, IProgressMonitor monitor) {
 		long start = System.currentTimeMillis();
-		Set<ICPPInternalDeclaredVariable> variables = new HashSet<>();
+		ResolutionResult result = new ResolutionResult();
+		// Names within independent function bodies, grouped by body.
+		Map<IASTStatement, List<NameInFile>> functionBodies = data.fResolveConcurrently ? new HashMap<>() : null;
 		SubMonitor progress = SubMonitor.convert(monitor, data.fSelectedFiles.length);
 		for (FileInAST file : data.fSelectedFiles) {
 			Symbols symbols = data.fSymbolMap.get(file.includeStatement);
@@ -378,46 +456,18 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 				final IASTName name = na[0];
 				progress2.split(1);
 				if (name != null) { // Should not be null, just be defensive.
-					try {
-						final IBinding binding = name.resolveBinding();
-						if (binding instanceof ICPPInternalDeclaredVariable) {
-							ICPPInternalDeclaredVariable variable = (ICPPInternalDeclaredVariable) binding;
-							if (variables.add(variable))
-								variable.allDeclarationsDefinitionsAdded();
-						}
-
-						if (name.getPropertyInParent() == ICPPASTTemplateId.TEMPLATE_NAME
-								&& (((IASTName) name.getParent()).getBinding() == binding
-										|| binding instanceof ICPPFunctionTemplate)) {
-							na[0] = null;
-						} else if (binding instanceof IProblemBinding) {
-							IProblemBinding problemBinding = (IProblemBinding) binding;
-							if (REPORT_UNKNOWN_BUILTINS || problemBinding.getID() != IProblemBinding.BINDING_NOT_FOUND
-									|| !CharArrayUtils.startsWith(problemBinding.getNameCharArray(), "__builtin_")) { //$NON-NLS-1$
-								fStatistics.fProblemBindingCount++;
-								if (fShowProblems) {
-									reportProblem(problemBinding);
-								}
-							}
-						} else if (name.isReference()) {
-							if (binding instanceof ICPPTemplateParameter || binding instanceof ICPPUnknownBinding
-									|| ((fSkipReferences & SKIP_TYPE_REFERENCES) != 0
-											&& isTypeReferenceBinding(binding))) {
-								if (!isRequiredReference(name)) {
-									na[0] = null;
-								} else {
-									fStatistics.fReferenceCount++;
-								}
-							} else {
-								fStatistics.fReferenceCount++;
-							}
-						} else {
-							fStatistics.fDeclarationCount++;
+					if (functionBodies != null) {
+						IASTStatement body = ParallelNameResolution.getIndependentFunctionBody(name);
+						if (body != null) {
+							functionBodies.computeIfAbsent(body, b -> new ArrayList<>()).add(new NameInFile(na, file));
+							continue;
 						}
+					}
+					try {
+						resolveName(na, result);
 					} catch (RuntimeException | StackOverflowError e) {
 						if (!reported) {
-							data.fStatuses.add(CCorePlugin.createStatus(NLS.bind(Messages.PDOMWriter_errorResolvingName,
-									name.toString(), file.fileContentKey.getLocation().getURI().getPath()), e));
+							data.fStatuses.add(createResolutionStatus(name, file, e));
 						}
 						reported = true;
 						j.remove();
@@ -426,9 +476,13 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			}
 		}
 
+		if (functionBodies != null && !functionBodies.isEmpty()) {
+			resolveNamesConcurrently(data, functionBodies.values(), result);
+		}
+
 		// Precalculate types and initial values of all indexed variables to avoid doing it later when writing
 		// to the index.
-		for (ICPPInternalDeclaredVariable variable : variables) {
+		for (ICPPInternalDeclaredVariable variable : result.fVariables) {
 			if (isVariableIndexed(variable)) {
 				IASTNode lookupPoint = variable.getDefinition() != null ? variable.getDefinition()
 						: (variable.getDeclarations() != null && variable.getDeclarations().length > 0)
@@ -445,7 +499,114 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			}
 		}
 
-		fStatistics.fResolutionTime += System.currentTimeMillis() - start;
+		synchronized (fStatistics) {
+			fStatistics.fProblemBindingCount += result.fProblemBindingCount;
+			fStatistics.fReferenceCount += result.fReferenceCount;
+			fStatistics.fDeclarationCount += result.fDeclarationCount;
+			fStatistics.fResolutionTime += System.currentTimeMillis() - start;
+		}
+	}
+
+	/**
+	 * Resolves the names of independent function bodies on multiple threads. The names outside of
+	 * the function bodies must have been resolved.
+	 */
+	private void resolveNamesConcurrently(Data data, Collection<List<NameInFile>> functionBodies,
+			ResolutionResult result) {
+		final List<ResolutionResult> results = Collections.synchronizedList(new ArrayList<>());
+		ParallelNameResolution.forEach(fNameResolutionExecutor, data.fAST, functionBodies, names -> {
+			if (fCancelState.isCanceled())
+				throw new OperationCanceledException();
+			ResolutionResult bodyResult = new ResolutionResult();
+			for (NameInFile name : names) {
+				try {
+					resolveName(name.fName, bodyResult);
+				} catch (RuntimeException | StackOverflowError e) {
+					name.fError = e;
+				}
+			}
+			results.add(bodyResult);
+		});
+		for (ResolutionResult bodyResult : results) {
+			result.add(bodyResult);
+		}
+
+		// Names that could not be resolved concurrently, e.g. because two threads would have to
+		// wait for each other to populate a scope, are resolved again on the calling thread.
+		// Report one failure per file and drop the names that could not be resolved either way.
+		Map<FileInAST, Set<IASTName[]>> failed = new HashMap<>();
+		for (List<NameInFile> names : functionBodies) {
+			for (NameInFile name : names) {
+				if (name.fError != null) {
+					try {
+						resolveName(name.fName, result);
+						name.fError = null;
+					} catch (RuntimeException | StackOverflowError e) {
+						name.fError = e;
+					}
+				}
+				if (name.fError != null) {
+					Set<IASTName[]> failedInFile = failed.get(name.fFile);
+					if (failedInFile == null) {
+						failedInFile = Collections.newSetFromMap(new IdentityHashMap<>());
+						failed.put(name.fFile, failedInFile);
+						data.fStatuses.add(createResolutionStatus(name.fName[0], name.fFile, name.fError));
+					}
+					failedInFile.add(name.fName);
+				}
+			}
+		}
+		for (Map.Entry<FileInAST, Set<IASTName[]>> entry : failed.entrySet()) {
+			Set<IASTName[]> failedInFile = entry.getValue();
+			data.fSymbolMap.get(entry.getKey().includeStatement).fNames.removeIf(failedInFile::contains);
+		}
+	}
+
+	/**
+	 * Resolves the name at the first position of the given array and updates the result. The name
+	 * is replaced with <code>null</code> if it is not to be stored in the index.
+	 */
+	private void resolveName(IASTName[] na, ResolutionResult result) {
+		final IASTName name = na[0];
+		final IBinding binding = name.resolveBinding();
+		if (binding instanceof ICPPInternalDeclaredVariable) {
+			ICPPInternalDeclaredVariable variable = (ICPPInternalDeclaredVariable) binding;
+			if (result.fVariables.add(variable))
+				variable.allDeclarationsDefinitionsAdded();
+		}
+
+		if (name.getPropertyInParent() == ICPPASTTemplateId.TEMPLATE_NAME
+				&& (((IASTName) name.getParent()).getBinding() == binding
+						|| binding instanceof ICPPFunctionTemplate)) {
+			na[0] = null;
+		} else if (binding instanceof IProblemBinding) {
+			IProblemBinding problemBinding = (IProblemBinding) binding;
+			if (REPORT_UNKNOWN_BUILTINS || problemBinding.getID() != IProblemBinding.BINDING_NOT_FOUND
+					|| !CharArrayUtils.startsWith(problemBinding.getNameCharArray(), "__builtin_")) { //$NON-NLS-1$
+				result.fProblemBindingCount++;
+				if (fShowProblems) {
+					reportProblem(problemBinding);
+				}
+			}
+		} else if (name.isReference()) {
+			if (binding instanceof ICPPTemplateParameter || binding instanceof ICPPUnknownBinding
+					|| ((fSkipReferences & SKIP_TYPE_REFERENCES) != 0 && isTypeReferenceBinding(binding))) {
+				if (!isRequiredReference(name)) {
+					na[0] = null;
+				} else {
+					result.fReferenceCount++;
+				}
+			} else {
+				result.fReferenceCount++;
+			}
+		} else {
+			result.fDeclarationCount++;
+		}
+	}
+
+	private static IStatus createResolutionStatus(IASTName name, FileInAST file, Throwable e) {
+		return CCorePlugin.createStatus(NLS.bind(Messages.PDOMWriter_errorResolvingName, name.toString(),
+				file.fileContentKey.getLocation().getURI().getPath()), e);
 	}
 
 	private boolean isVariableIndexed(ICPPVariable variable) {
@@ -502,6 +663,15 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			}
 		}
 
+		// Parse and resolve independent function bodies of large translation units concurrently.
+		if (fNameResolutionExecutor != null) {
+			List<IASTStatement> bodies = ParallelNameResolution.getIndependentFunctionBodies(ast);
+			if (bodies.size() >= ParallelNameResolution.MIN_FUNCTION_BODIES) {
+				data.fResolveConcurrently = ParallelNameResolution.parseFunctionBodies(fNameResolutionExecutor, ast,
+						bodies);
+			}
+		}
+
 		// Names.
 		final IndexerASTVisitor visitor = new IndexerASTVisitor((fSkipReferences & SKIP_IMPLICIT_REFERENCES) == 0) {
 			private int cancelationCheckThrottler;
@@ -567,8 +737,12 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			}
 		}
 
-		fStatistics.fUnresolvedIncludesCount += unresolvedIncludes;
-		fStatistics.fPreprocessorProblemCount += ast.getPreprocessorProblemsCount() - unresolvedIncludes;
+		final List<IASTProblem> problems = visitor.getProblems();
+		synchronized (fStatistics) {
+			fStatistics.fUnresolvedIncludesCount += unresolvedIncludes;
+			fStatistics.fPreprocessorProblemCount += ast.getPreprocessorProblemsCount() - unresolvedIncludes;
+			fStatistics.fSyntaxProblemsCount += problems.size();
+		}
 		if (fShowScannerProblems || fShowInclusionProblems) {
 			final boolean reportAll = fShowScannerProblems && fShowInclusionProblems;
 			IASTProblem[] scannerProblems = ast.getPreprocessorProblems();
@@ -580,8 +754,6 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			}
 		}
 
-		final List<IASTProblem> problems = visitor.getProblems();
-		fStatistics.fSyntaxProblemsCount += problems.size();
 		if (fShowSyntaxProblems) {
 			for (IASTProblem problem : problems) {
 				reportProblem(problem);
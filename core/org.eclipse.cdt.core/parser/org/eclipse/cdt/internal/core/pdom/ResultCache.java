@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache for results computed from the content of a PDOM that can be used by
+ * multiple threads. When the cache exceeds its maximum size, a quarter of the entries are
+ * evicted in no particular order.
+ */
+public final class ResultCache {
+	private final int fMaxSize;
+	private final ConcurrentHashMap<Object, Object> fMap = new ConcurrentHashMap<>();
+	private final AtomicBoolean fEvicting = new AtomicBoolean();
+
+	private final LongAdder fHits = new LongAdder();
+	private final LongAdder fMisses = new LongAdder();
+	private final LongAdder fEvictions = new LongAdder();
+	private final LongAdder fClears = new LongAdder();
+
+	public ResultCache(int maxSize) {
+		fMaxSize = Math.max(1, maxSize);
+	}
+
+	public Object get(Object key) {
+		Object result = fMap.get(key);
+		if (result == null) {
+			fMisses.increment();
+		} else {
+			fHits.increment();
+		}
+		return result;
+	}
+
+	/**
+	 * Stores a result in the cache, a {@code null} result removes the key from the cache.
+	 * @param replace whether an existing result for the key is replaced.
+	 * @return the result that is stored in the cache for the key.
+	 */
+	public Object put(Object key, Object result, boolean replace) {
+		if (result == null) {
+			fMap.remove(key);
+			return null;
+		}
+		if (replace) {
+			fMap.put(key, result);
+		} else {
+			Object old = fMap.putIfAbsent(key, result);
+			if (old != null)
+				return old;
+		}
+		if (fMap.size() > fMaxSize) {
+			evict();
+		}
+		return result;
+	}
+
+	public void remove(Object key) {
+		fMap.remove(key);
+	}
+
+	public void clear() {
+		if (!fMap.isEmpty()) {
+			fMap.clear();
+			fClears.increment();
+		}
+	}
+
+	private void evict() {
+		if (!fEvicting.compareAndSet(false, true))
+			return;
+		try {
+			int toRemove = fMap.size() - fMaxSize * 3 / 4;
+			for (Iterator<Object> it = fMap.keySet().iterator(); toRemove > 0 && it.hasNext(); toRemove--) {
+				it.next();
+				it.remove();
+				fEvictions.increment();
+			}
+		} finally {
+			fEvicting.set(false);
+		}
+	}
+
+	public int size() {
+		return fMap.size();
+	}
+
+	public int getMaxSize() {
+		return fMaxSize;
+	}
+
+	public long getHits() {
+		return fHits.sum();
+	}
+
+	public long getMisses() {
+		return fMisses.sum();
+	}
+
+	/**
+	 * Returns the number of entries removed because the cache exceeded its maximum size.
+	 */
+	public long getEvictions() {
+		return fEvictions.sum();
+	}
+
+	/**
+	 * Returns the number of times a non-empty cache was cleared.
+	 */
+	public long getClears() {
+		return fClears.sum();
+	}
+
+	public void resetCounters() {
+		fHits.reset();
+		fMisses.reset();
+		fEvictions.reset();
+		fClears.reset();
+	}
+
+	@Override
+	@SuppressWarnings("nls")
+	public String toString() {
+		return getHits() + " hits, " + getMisses() + " misses, " + getEvictions() + " evictions, " + getClears()
+				+ " clears";
+	}
+}
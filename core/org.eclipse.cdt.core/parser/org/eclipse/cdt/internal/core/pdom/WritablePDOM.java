@@ -17,6 +17,7 @@ package org.eclipse.cdt.internal.core.pdom;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -37,6 +38,7 @@ import org.eclipse.cdt.internal.core.index.IIndexFragmentFile;
 import org.eclipse.cdt.internal.core.index.IWritableIndex.IncludeInformation;
 import org.eclipse.cdt.internal.core.index.IWritableIndexFragment;
 import org.eclipse.cdt.internal.core.model.TranslationUnit;
+import org.eclipse.cdt.internal.core.pdom.db.BTree;
 import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
 import org.eclipse.cdt.internal.core.pdom.db.DBProperties;
 import org.eclipse.cdt.internal.core.pdom.db.IBTreeVisitor;
@@ -48,6 +50,7 @@ import org.eclipse.cdt.internal.core.pdom.dom.PDOMMacro;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMMacroReferenceName;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMName;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 
 public class WritablePDOM extends PDOM implements IWritableIndexFragment {
 	private boolean fClearedBecauseOfVersionMismatch = false;
@@ -67,6 +70,11 @@ public class WritablePDOM extends PDOM implements IWritableIndexFragment {
 		super(dbPath, locationConverter, cache, linkageFactoryMappings);
 	}
 
+	public WritablePDOM(File dbPath, IIndexLocationConverter locationConverter, ChunkCache cache,
+			boolean memoryMapped, Map<String, IPDOMLinkageFactory> linkageFactoryMappings) throws CoreException {
+		super(dbPath, locationConverter, cache, memoryMapped, linkageFactoryMappings);
+	}
+
 	public void setASTFilePathResolver(ASTFilePathResolver resolver) {
 		fPathResolver = resolver;
 	}
@@ -232,15 +240,18 @@ public class WritablePDOM extends PDOM implements IWritableIndexFragment {
 
 		clearFileIndex();
 		final List<PDOMFile> notConverted = new ArrayList<>();
+		final long[] converted = new long[pdomfiles.size()];
+		int convertedCount = 0;
 		for (PDOMFile file : pdomfiles) {
 			String internalFormat = newConverter.toInternalFormat(file.getLocation());
 			if (internalFormat != null) {
 				file.setInternalLocation(internalFormat);
-				getFileIndex().insert(file.getRecord());
+				converted[convertedCount++] = file.getRecord();
 			} else {
 				notConverted.add(file);
 			}
 		}
+		getFileIndex().bulkInsert(Arrays.copyOf(converted, convertedCount));
 
 		// remove content where converter returns null
 		for (PDOMFile file : notConverted) {
@@ -249,6 +260,47 @@ public class WritablePDOM extends PDOM implements IWritableIndexFragment {
 		}
 	}
 
+	/**
+	 * Rebuilds the file index and the indexes of the linkages bottom-up, with nodes that are
+	 * filled close to capacity. The b-trees of an index that was built from scratch are populated
+	 * in random order, packing them makes the index smaller and faster to search.
+	 *
+	 * <b>A write-lock must be obtained before calling this method</b>
+	 */
+	public void packIndexes() throws CoreException {
+		for (BTree index : getPackableIndexes()) {
+			index.pack();
+		}
+	}
+
+	/**
+	 * Packs the indexes like {@link #packIndexes()}, the write lock is acquired for one index at a
+	 * time, such that readers are not blocked for the duration of the packing. Must be called
+	 * without holding a lock.
+	 */
+	public void packIndexes(IProgressMonitor monitor) throws InterruptedException, CoreException {
+		for (int i = 0; !monitor.isCanceled(); i++) {
+			acquireWriteLock(monitor);
+			try {
+				final List<BTree> indexes = getPackableIndexes();
+				if (i >= indexes.size())
+					break;
+				indexes.get(i).pack();
+			} finally {
+				releaseWriteLock();
+			}
+		}
+	}
+
+	private List<BTree> getPackableIndexes() throws CoreException {
+		final List<BTree> indexes = new ArrayList<>();
+		indexes.add(getFileIndex());
+		for (PDOMLinkage linkage : getLinkageImpls()) {
+			indexes.addAll(Arrays.asList(linkage.getPackableIndexes()));
+		}
+		return indexes;
+	}
+
 	boolean isClearedBecauseOfVersionMismatch() {
 		return fClearedBecauseOfVersionMismatch;
 	}
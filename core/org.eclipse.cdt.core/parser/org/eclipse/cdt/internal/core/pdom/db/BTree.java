@@ -17,6 +17,7 @@
 package org.eclipse.cdt.internal.core.pdom.db;
 
 import java.text.MessageFormat;
+import java.util.Arrays;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -215,6 +216,344 @@ public class BTree {
 		return db.malloc((2 * MAX_RECORDS + 1) * Database.INT_SIZE);
 	}
 
+	/**
+	 * Inserts the given records into the b-tree and rebuilds the b-tree bottom-up from the sorted
+	 * records, with nodes that are filled close to capacity. For a large number of records this
+	 * is considerably faster than inserting them one by one and results in fewer nodes. As with
+	 * {@link #insert(long)}, a record is not inserted if the b-tree already contains a record
+	 * that compares equal to it.
+	 *
+	 * @param records the records to insert in arbitrary order, the array is sorted in place.
+	 */
+	public void bulkInsert(long[] records) throws CoreException {
+		sort(records);
+		final RecordList existing = removeAll();
+		long[] sorted = records;
+		int length;
+		if (existing.fSize == 0) {
+			length = removeDuplicates(records);
+		} else {
+			sorted = merge(existing.fRecords, existing.fSize, records);
+			length = sorted.length;
+		}
+		if (length > 0) {
+			db.putRecPtr(rootPointer, buildLevel(sorted, length, null));
+		}
+	}
+
+	/**
+	 * Rebuilds the b-tree bottom-up with nodes that are filled close to capacity. The records are
+	 * streamed from the old nodes into the new ones, the memory needed does not depend on the
+	 * size of the b-tree. The old nodes are freed once the new ones have been built.
+	 */
+	public void pack() throws CoreException {
+		final long root = getRoot();
+		if (root == 0)
+			return;
+		final TreeBuilder builder = new TreeBuilder(countRecords(root));
+		addRecords(root, builder);
+		final long newRoot = builder.finish();
+		freeNodes(root);
+		db.putRecPtr(rootPointer, newRoot);
+	}
+
+	/**
+	 * Removes all records from the b-tree and frees its nodes.
+	 * <p>
+	 * N.B. The records are not deleted themselves - their storage is not deallocated.
+	 */
+	public void clear() throws CoreException {
+		final long root = getRoot();
+		if (root != 0) {
+			freeNodes(root);
+			db.putRecPtr(rootPointer, 0);
+		}
+	}
+
+	private int countRecords(long node) throws CoreException {
+		final Chunk chunk = db.getChunk(node);
+		int count = 0;
+		for (int i = 0; i < MAX_CHILDREN; i++) {
+			final long child = getChild(chunk, node, i);
+			if (child != 0) {
+				count += countRecords(child);
+			}
+			if (i == MAX_RECORDS || getRecord(chunk, node, i) == 0)
+				break;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Passes the records of the subtree to the builder in order.
+	 */
+	private void addRecords(long node, TreeBuilder builder) throws CoreException {
+		final Chunk chunk = db.getChunk(node);
+		for (int i = 0; i < MAX_CHILDREN; i++) {
+			final long child = getChild(chunk, node, i);
+			if (child != 0) {
+				addRecords(child, builder);
+			}
+			if (i == MAX_RECORDS)
+				break;
+			final long record = getRecord(chunk, node, i);
+			if (record == 0)
+				break;
+			builder.addRecord(0, record);
+		}
+	}
+
+	private void freeNodes(long node) throws CoreException {
+		final Chunk chunk = db.getChunk(node);
+		for (int i = 0; i < MAX_CHILDREN; i++) {
+			final long child = getChild(chunk, node, i);
+			if (child != 0) {
+				freeNodes(child);
+			}
+		}
+		db.free(node);
+	}
+
+	/**
+	 * Builds a b-tree from records passed in order, with the same shape as
+	 * {@link BTree#buildLevel(long[], int, long[])} creates. As the number of records is known
+	 * in advance, the size of every node is known and only the node being filled on each level
+	 * has to be kept.
+	 */
+	private class TreeBuilder {
+		private final int[] fNodeCount;
+		private final int[] fRecordsInNodes;
+		private final int[] fNodeIndex;
+		private final int[] fRecordsInNode;
+		private final int[] fNodeSize;
+		private final long[] fNode;
+
+		TreeBuilder(int length) {
+			int levels = 1;
+			for (int l = length; l > MAX_RECORDS; l = nodeCount(l) - 1) {
+				levels++;
+			}
+			fNodeCount = new int[levels];
+			fRecordsInNodes = new int[levels];
+			fNodeIndex = new int[levels];
+			fRecordsInNode = new int[levels];
+			fNodeSize = new int[levels];
+			fNode = new long[levels];
+			for (int level = 0, l = length; level < levels; level++, l = fNodeCount[level - 1] - 1) {
+				fNodeCount[level] = l > MAX_RECORDS ? nodeCount(l) : 1;
+				fRecordsInNodes[level] = l - (fNodeCount[level] - 1);
+				fNodeIndex[level] = -1;
+			}
+		}
+
+		private int nodeCount(int length) {
+			return (length + MAX_RECORDS + 1) / (MAX_RECORDS + 1);
+		}
+
+		void addRecord(int level, long record) throws CoreException {
+			if (fNode[level] == 0) {
+				startNode(level);
+			}
+			if (fRecordsInNode[level] == fNodeSize[level]) {
+				// The node is full, the record separates it from the next node of the level.
+				final long node = fNode[level];
+				fNode[level] = 0;
+				addChild(level + 1, node);
+				addRecord(level + 1, record);
+				return;
+			}
+			putRecord(db.getChunk(fNode[level]), fNode[level], fRecordsInNode[level]++, record);
+		}
+
+		private void addChild(int level, long child) throws CoreException {
+			if (fNode[level] == 0) {
+				startNode(level);
+			}
+			putChild(db.getChunk(fNode[level]), fNode[level], fRecordsInNode[level], child);
+		}
+
+		private void startNode(int level) throws CoreException {
+			final int index = ++fNodeIndex[level];
+			fNode[level] = allocateNode();
+			fRecordsInNode[level] = 0;
+			fNodeSize[level] = fRecordsInNodes[level] / fNodeCount[level]
+					+ (index < fRecordsInNodes[level] % fNodeCount[level] ? 1 : 0);
+		}
+
+		/**
+		 * Links the last node of every level to the level above.
+		 * @return the root node.
+		 */
+		long finish() throws CoreException {
+			final int top = fNode.length - 1;
+			for (int level = 0; level < top; level++) {
+				addChild(level + 1, fNode[level]);
+			}
+			return fNode[top];
+		}
+	}
+
+	/**
+	 * Empties the b-tree and frees its nodes, such that new nodes may reuse their space.
+	 * @return the records of the b-tree in order.
+	 */
+	private RecordList removeAll() throws CoreException {
+		final RecordList records = new RecordList();
+		final long root = getRoot();
+		if (root != 0) {
+			final RecordList nodes = new RecordList();
+			collect(root, records, nodes);
+			for (int i = 0; i < nodes.fSize; i++) {
+				db.free(nodes.fRecords[i]);
+			}
+			db.putRecPtr(rootPointer, 0);
+		}
+		return records;
+	}
+
+	private static class RecordList {
+		long[] fRecords = new long[64];
+		int fSize;
+
+		void add(long record) {
+			if (fSize == fRecords.length) {
+				fRecords = Arrays.copyOf(fRecords, fSize * 2);
+			}
+			fRecords[fSize++] = record;
+		}
+	}
+
+	/**
+	 * Collects the records of the subtree in order, and its nodes.
+	 */
+	private void collect(long node, RecordList records, RecordList nodes) throws CoreException {
+		nodes.add(node);
+		final Chunk chunk = db.getChunk(node);
+		for (int i = 0; i < MAX_RECORDS; i++) {
+			final long child = getChild(chunk, node, i);
+			if (child != 0) {
+				collect(child, records, nodes);
+			}
+			final long record = getRecord(chunk, node, i);
+			if (record == 0)
+				return;
+			records.add(record);
+		}
+		final long child = getChild(chunk, node, MAX_RECORDS);
+		if (child != 0) {
+			collect(child, records, nodes);
+		}
+	}
+
+	private void sort(long[] records) throws CoreException {
+		if (records.length > 1) {
+			mergeSort(records.clone(), records, 0, records.length);
+		}
+	}
+
+	/**
+	 * Sorts the range of src into the same range of dst, the ranges must have the same content.
+	 */
+	private void mergeSort(long[] src, long[] dst, int from, int to) throws CoreException {
+		if (to - from < 2)
+			return;
+		final int middle = (from + to) >>> 1;
+		mergeSort(dst, src, from, middle);
+		mergeSort(dst, src, middle, to);
+		for (int i = from, j = middle, k = from; k < to; k++) {
+			if (j >= to || (i < middle && cmp.compare(src[i], src[j]) <= 0)) {
+				dst[k] = src[i++];
+			} else {
+				dst[k] = src[j++];
+			}
+		}
+	}
+
+	/**
+	 * Removes records comparing equal to their predecessor from the sorted array.
+	 * @return the number of remaining records.
+	 */
+	private int removeDuplicates(long[] records) throws CoreException {
+		int length = 0;
+		for (long record : records) {
+			if (length == 0 || cmp.compare(records[length - 1], record) != 0) {
+				records[length++] = record;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Merges the sorted records of the b-tree with the sorted new records. New records that
+	 * compare equal to another record are dropped.
+	 */
+	private long[] merge(long[] existing, int existingLength, long[] records) throws CoreException {
+		final RecordList result = new RecordList();
+		int i = 0;
+		int j = 0;
+		while (i < existingLength || j < records.length) {
+			long record;
+			if (j >= records.length || (i < existingLength && cmp.compare(existing[i], records[j]) <= 0)) {
+				record = existing[i++];
+			} else {
+				record = records[j++];
+			}
+			if (result.fSize == 0 || cmp.compare(result.fRecords[result.fSize - 1], record) != 0) {
+				result.add(record);
+			}
+		}
+		return Arrays.copyOf(result.fRecords, result.fSize);
+	}
+
+	/**
+	 * Creates the nodes of one level of the b-tree and, recursively, the levels above it.
+	 * The records are distributed evenly over the minimal number of nodes, every record
+	 * between two nodes becomes a record of the level above.
+	 *
+	 * @param records the sorted records of the level.
+	 * @param children the nodes of the level below, one more than there are records, or
+	 *     {@code null} for the leaves.
+	 * @return the root node.
+	 */
+	private long buildLevel(long[] records, int length, long[] children) throws CoreException {
+		if (length <= MAX_RECORDS) {
+			return createNode(records, 0, length, children);
+		}
+		final int nodeCount = (length + MAX_RECORDS + 1) / (MAX_RECORDS + 1);
+		final int recordsInNodes = length - (nodeCount - 1);
+		final long[] nodes = new long[nodeCount];
+		final long[] parentRecords = new long[nodeCount - 1];
+		int pos = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			final int size = recordsInNodes / nodeCount + (i < recordsInNodes % nodeCount ? 1 : 0);
+			nodes[i] = createNode(records, pos, size, children);
+			pos += size;
+			if (i < nodeCount - 1) {
+				parentRecords[i] = records[pos++];
+			}
+		}
+		return buildLevel(parentRecords, parentRecords.length, nodes);
+	}
+
+	/**
+	 * Creates a node for the given range of records, the children of the node start at the
+	 * same index as the records.
+	 */
+	private long createNode(long[] records, int start, int length, long[] children) throws CoreException {
+		final long node = allocateNode();
+		final Chunk chunk = db.getChunk(node);
+		for (int i = 0; i < length; i++) {
+			putRecord(chunk, node, i, records[start + i]);
+		}
+		if (children != null) {
+			for (int i = 0; i <= length; i++) {
+				putChild(chunk, node, i, children[start + i]);
+			}
+		}
+		return node;
+	}
+
 	/**
 	 * Deletes the specified record from the B-tree.
 	 * <p>
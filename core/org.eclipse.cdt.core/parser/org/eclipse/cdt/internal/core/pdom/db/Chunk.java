@@ -22,10 +22,18 @@ import java.nio.ByteBuffer;
 import org.eclipse.core.runtime.CoreException;
 
 /**
- * Caches the content of a piece of the database.
+ * Caches the content of a piece of the database. The content is either held in a heap buffer
+ * that is read from and written back to the file, or it is a view of a memory-mapped region
+ * of the file that is read and written in place.
  */
 final class Chunk {
-	final private byte[] fBuffer = new byte[Database.CHUNK_SIZE];
+	// Values of fCacheQueue.
+	static final int NOT_CACHED = -1;
+	static final int PROBATION = 0;
+	static final int PROTECTED = 1;
+
+	final private ByteBuffer fBuffer;
+	final private boolean fMapped;
 
 	final Database fDatabase;
 	final int fSequenceNumber;
@@ -33,16 +41,37 @@ final class Chunk {
 	boolean fCacheHitFlag;
 	boolean fDirty;
 	boolean fLocked; // locked chunks must not be released from cache.
-	int fCacheIndex = -1;
+	boolean fLogged; // written to the write-ahead log but not yet to the database file.
+	// The queue of the cache partition holding the chunk and the links within that queue.
+	int fCacheQueue = NOT_CACHED;
+	Chunk fCachePrev;
+	Chunk fCacheNext;
 
 	Chunk(Database db, int sequenceNumber) {
 		fDatabase = db;
 		fSequenceNumber = sequenceNumber;
+		fBuffer = ByteBuffer.allocate(Database.CHUNK_SIZE);
+		fMapped = false;
+	}
+
+	/**
+	 * Creates a chunk operating directly on a region of a memory-mapped file.
+	 * @param mappedBuffer a buffer of {@link Database#CHUNK_SIZE} bytes starting at index 0.
+	 */
+	Chunk(Database db, int sequenceNumber, ByteBuffer mappedBuffer) {
+		assert mappedBuffer.capacity() == Database.CHUNK_SIZE;
+		fDatabase = db;
+		fSequenceNumber = sequenceNumber;
+		fBuffer = mappedBuffer;
+		fMapped = true;
 	}
 
 	void read() throws CoreException {
+		if (fMapped)
+			return; // The content is read by the operating system on demand.
 		try {
-			final ByteBuffer buf = ByteBuffer.wrap(fBuffer);
+			final ByteBuffer buf = fBuffer.duplicate();
+			buf.clear();
 			fDatabase.read(buf, (long) fSequenceNumber * Database.CHUNK_SIZE);
 		} catch (IOException e) {
 			throw new CoreException(new DBStatus(e));
@@ -50,46 +79,67 @@ final class Chunk {
 	}
 
 	void flush() throws CoreException {
-		try {
-			final ByteBuffer buf = ByteBuffer.wrap(fBuffer);
-			fDatabase.write(buf, (long) fSequenceNumber * Database.CHUNK_SIZE);
-		} catch (IOException e) {
-			throw new CoreException(new DBStatus(e));
+		if (!fMapped) {
+			try {
+				final ByteBuffer buf = fBuffer.duplicate();
+				buf.clear();
+				fDatabase.write(buf, (long) fSequenceNumber * Database.CHUNK_SIZE);
+			} catch (IOException e) {
+				throw new CoreException(new DBStatus(e));
+			}
 		}
+		// Changes to a mapped chunk are written back by the operating system.
 		fDirty = false;
 	}
 
+	/**
+	 * Copies the content of the chunk to the given buffer.
+	 */
+	void copyTo(ByteBuffer target) {
+		final ByteBuffer buf = fBuffer.duplicate();
+		buf.clear();
+		target.put(buf);
+	}
+
 	private static int recPtrToIndex(final long offset) {
 		return (int) (offset & Database.OFFSET_IN_CHUNK_MASK);
 	}
 
+	/**
+	 * Returns a view of the buffer positioned at the given index.
+	 */
+	private ByteBuffer bufferAt(final int idx) {
+		final ByteBuffer buf = fBuffer.duplicate();
+		buf.position(idx);
+		return buf;
+	}
+
 	public void putByte(final long offset, final byte value) {
 		assert fLocked;
 		fDirty = true;
-		fBuffer[recPtrToIndex(offset)] = value;
+		fBuffer.put(recPtrToIndex(offset), value);
 	}
 
 	public byte getByte(final long offset) {
-		return fBuffer[recPtrToIndex(offset)];
+		return fBuffer.get(recPtrToIndex(offset));
 	}
 
 	public byte[] getBytes(final long offset, final int length) {
 		final byte[] bytes = new byte[length];
-		System.arraycopy(fBuffer, recPtrToIndex(offset), bytes, 0, length);
+		bufferAt(recPtrToIndex(offset)).get(bytes);
 		return bytes;
 	}
 
 	public void putBytes(final long offset, final byte[] bytes) {
 		assert fLocked;
 		fDirty = true;
-		System.arraycopy(bytes, 0, fBuffer, recPtrToIndex(offset), bytes.length);
+		bufferAt(recPtrToIndex(offset)).put(bytes);
 	}
 
 	public void putInt(final long offset, final int value) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset);
-		putInt(value, fBuffer, idx);
+		fBuffer.putInt(recPtrToIndex(offset), value);
 	}
 
 	static final void putInt(final int value, final byte[] buffer, int idx) {
@@ -100,7 +150,7 @@ final class Chunk {
 	}
 
 	public int getInt(final long offset) {
-		return getInt(fBuffer, recPtrToIndex(offset));
+		return fBuffer.getInt(recPtrToIndex(offset));
 	}
 
 	static final int getInt(final byte[] buffer, int idx) {
@@ -142,8 +192,7 @@ final class Chunk {
 	public void putRecPtr(final long offset, final long value) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset);
-		Database.putRecPtr(value, fBuffer, idx);
+		fBuffer.putInt(recPtrToIndex(offset), Database.compressRecPtr(value));
 	}
 
 	/**
@@ -153,117 +202,84 @@ final class Chunk {
 	public void putFreeRecPtr(final long offset, final long value) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset);
-		putInt(compressFreeRecPtr(value), fBuffer, idx);
+		fBuffer.putInt(recPtrToIndex(offset), compressFreeRecPtr(value));
 	}
 
 	public long getRecPtr(final long offset) {
-		final int idx = recPtrToIndex(offset);
-		return Database.getRecPtr(fBuffer, idx);
+		return Database.expandRecPtr(fBuffer.getInt(recPtrToIndex(offset)));
 	}
 
 	public long getFreeRecPtr(final long offset) {
-		final int idx = recPtrToIndex(offset);
-		int value = getInt(fBuffer, idx);
-		return expandToFreeRecPtr(value);
+		return expandToFreeRecPtr(fBuffer.getInt(recPtrToIndex(offset)));
 	}
 
 	public void put3ByteUnsignedInt(final long offset, final int value) {
 		assert fLocked;
 		fDirty = true;
 		int idx = recPtrToIndex(offset);
-		fBuffer[idx] = (byte) (value >> 16);
-		fBuffer[++idx] = (byte) (value >> 8);
-		fBuffer[++idx] = (byte) (value);
+		fBuffer.put(idx, (byte) (value >> 16));
+		fBuffer.putShort(idx + 1, (short) value);
 	}
 
 	public int get3ByteUnsignedInt(final long offset) {
 		int idx = recPtrToIndex(offset);
-		return ((fBuffer[idx] & 0xff) << 16) | ((fBuffer[++idx] & 0xff) << 8) | ((fBuffer[++idx] & 0xff) << 0);
+		return ((fBuffer.get(idx) & 0xff) << 16) | (fBuffer.getShort(idx + 1) & 0xffff);
 	}
 
 	public void putShort(final long offset, final short value) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset);
-		fBuffer[idx] = (byte) (value >> 8);
-		fBuffer[++idx] = (byte) (value);
+		fBuffer.putShort(recPtrToIndex(offset), value);
 	}
 
 	public short getShort(final long offset) {
-		int idx = recPtrToIndex(offset);
-		return (short) (((fBuffer[idx] << 8) | (fBuffer[++idx] & 0xff)));
+		return fBuffer.getShort(recPtrToIndex(offset));
 	}
 
 	public long getLong(final long offset) {
-		int idx = recPtrToIndex(offset);
-		return ((((long) fBuffer[idx] & 0xff) << 56) | (((long) fBuffer[++idx] & 0xff) << 48)
-				| (((long) fBuffer[++idx] & 0xff) << 40) | (((long) fBuffer[++idx] & 0xff) << 32)
-				| (((long) fBuffer[++idx] & 0xff) << 24) | (((long) fBuffer[++idx] & 0xff) << 16)
-				| (((long) fBuffer[++idx] & 0xff) << 8) | (((long) fBuffer[++idx] & 0xff) << 0));
+		return fBuffer.getLong(recPtrToIndex(offset));
 	}
 
 	public void putLong(final long offset, final long value) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset);
-
-		fBuffer[idx] = (byte) (value >> 56);
-		fBuffer[++idx] = (byte) (value >> 48);
-		fBuffer[++idx] = (byte) (value >> 40);
-		fBuffer[++idx] = (byte) (value >> 32);
-		fBuffer[++idx] = (byte) (value >> 24);
-		fBuffer[++idx] = (byte) (value >> 16);
-		fBuffer[++idx] = (byte) (value >> 8);
-		fBuffer[++idx] = (byte) (value);
+		fBuffer.putLong(recPtrToIndex(offset), value);
 	}
 
 	public void putChar(final long offset, final char value) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset);
-		fBuffer[idx] = (byte) (value >> 8);
-		fBuffer[++idx] = (byte) (value);
+		fBuffer.putChar(recPtrToIndex(offset), value);
 	}
 
 	public void putChars(final long offset, char[] chars, int start, int len) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset) - 1;
-		final int end = start + len;
-		for (int i = start; i < end; i++) {
-			char value = chars[i];
-			fBuffer[++idx] = (byte) (value >> 8);
-			fBuffer[++idx] = (byte) (value);
-		}
+		bufferAt(recPtrToIndex(offset)).asCharBuffer().put(chars, start, len);
 	}
 
 	public void putCharsAsBytes(final long offset, char[] chars, int start, int len) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset) - 1;
+		int idx = recPtrToIndex(offset);
 		final int end = start + len;
 		for (int i = start; i < end; i++) {
-			char value = chars[i];
-			fBuffer[++idx] = (byte) (value);
+			fBuffer.put(idx++, (byte) chars[i]);
 		}
 	}
 
 	public char getChar(final long offset) {
-		int idx = recPtrToIndex(offset);
-		return (char) (((fBuffer[idx] << 8) | (fBuffer[++idx] & 0xff)));
+		return fBuffer.getChar(recPtrToIndex(offset));
 	}
 
 	public void getChars(final long offset, final char[] result, int start, int len) {
-		final ByteBuffer buf = ByteBuffer.wrap(fBuffer);
-		buf.position(recPtrToIndex(offset));
-		buf.asCharBuffer().get(result, start, len);
+		bufferAt(recPtrToIndex(offset)).asCharBuffer().get(result, start, len);
 	}
 
 	public void getCharsFromBytes(final long offset, final char[] result, int start, int len) {
 		final int pos = recPtrToIndex(offset);
 		for (int i = 0; i < len; i++) {
-			result[start + i] = (char) (fBuffer[pos + i] & 0xff);
+			result[start + i] = (char) (fBuffer.get(pos + i) & 0xff);
 		}
 	}
 
@@ -273,7 +289,7 @@ final class Chunk {
 		int idx = recPtrToIndex(offset);
 		final int end = idx + length;
 		for (; idx < end; idx++) {
-			fBuffer[idx] = 0;
+			fBuffer.put(idx, (byte) 0);
 		}
 	}
 
@@ -284,8 +300,7 @@ final class Chunk {
 	void put(final long offset, final byte[] data, int dataPos, final int len) {
 		assert fLocked;
 		fDirty = true;
-		int idx = recPtrToIndex(offset);
-		System.arraycopy(data, dataPos, fBuffer, idx, len);
+		bufferAt(recPtrToIndex(offset)).put(data, dataPos, len);
 	}
 
 	public void get(final long offset, byte[] data) {
@@ -293,7 +308,6 @@ final class Chunk {
 	}
 
 	public void get(final long offset, byte[] data, int dataPos, int len) {
-		int idx = recPtrToIndex(offset);
-		System.arraycopy(fBuffer, idx, data, dataPos, len);
+		bufferAt(recPtrToIndex(offset)).get(data, dataPos, len);
 	}
 }
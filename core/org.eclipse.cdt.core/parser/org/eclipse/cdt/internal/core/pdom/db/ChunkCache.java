@@ -13,126 +13,304 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.pdom.db;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the memory used by the chunks of a set of databases.
+ * <p>
+ * Every database caches its chunks in its own {@link Partition}, which is protected by the
+ * monitor of the partition. Databases therefore don't contend with each other for the cache.
+ * The total size of the cache is shared among the partitions that hold chunks: a partition may
+ * grow beyond its fair share only while the cache is not full, and when the cache is full
+ * chunks are evicted from the partitions exceeding their fair share. This prevents a database
+ * that is being rebuilt from evicting the chunks used by other databases.
+ * <p>
+ * Within a partition chunks are replaced by a segmented policy that is resistant to scans:
+ * new chunks enter a probationary queue and are promoted to a protected queue only when they
+ * are accessed again before they reach the head of the probationary queue.
+ */
 public final class ChunkCache {
 	private static ChunkCache sSharedInstance = new ChunkCache();
 
-	private Chunk[] fPageTable;
-	private boolean fTableIsFull;
-	private int fPointer;
+	// Fraction of a partition that may be occupied by protected chunks.
+	private static final double PROTECTED_RATIO = 0.8;
 
-	public static ChunkCache getSharedInstance() {
-		return sSharedInstance;
-	}
+	private volatile int fMaxChunks;
+	private final AtomicInteger fCachedChunks = new AtomicInteger();
+	private final Set<Partition> fPartitions = ConcurrentHashMap.newKeySet();
 
-	public ChunkCache() {
-		this(5 * 1024 * 1024);
-	}
+	private final LongAdder fHits = new LongAdder();
+	private final LongAdder fMisses = new LongAdder();
+	private final LongAdder fEvictions = new LongAdder();
 
-	public ChunkCache(long maxSize) {
-		fPageTable = new Chunk[computeLength(maxSize)];
-	}
+	/**
+	 * Doubly linked list of chunks, the links are stored in the chunks.
+	 */
+	private static final class ChunkQueue {
+		final int fId;
+		Chunk fHead;
+		Chunk fTail;
+		int fSize;
 
-	public synchronized void add(Chunk chunk, boolean locked) {
-		if (locked) {
-			chunk.fLocked = true;
+		ChunkQueue(int id) {
+			fId = id;
 		}
-		if (chunk.fCacheIndex >= 0) {
-			chunk.fCacheHitFlag = true;
-			return;
+
+		void append(Chunk chunk) {
+			chunk.fCacheQueue = fId;
+			chunk.fCachePrev = fTail;
+			chunk.fCacheNext = null;
+			if (fTail == null) {
+				fHead = chunk;
+			} else {
+				fTail.fCacheNext = chunk;
+			}
+			fTail = chunk;
+			fSize++;
 		}
-		if (fTableIsFull) {
-			evictChunk();
-			chunk.fCacheIndex = fPointer;
-			fPageTable[fPointer] = chunk;
-		} else {
-			chunk.fCacheIndex = fPointer;
-			fPageTable[fPointer] = chunk;
-
-			fPointer++;
-			if (fPointer == fPageTable.length) {
-				fPointer = 0;
-				fTableIsFull = true;
+
+		void remove(Chunk chunk) {
+			assert chunk.fCacheQueue == fId;
+			final Chunk prev = chunk.fCachePrev;
+			final Chunk next = chunk.fCacheNext;
+			if (prev == null) {
+				fHead = next;
+			} else {
+				prev.fCacheNext = next;
 			}
+			if (next == null) {
+				fTail = prev;
+			} else {
+				next.fCachePrev = prev;
+			}
+			chunk.fCachePrev = chunk.fCacheNext = null;
+			chunk.fCacheQueue = Chunk.NOT_CACHED;
+			fSize--;
 		}
 	}
 
 	/**
-	 * Evicts a chunk from the page table and the chunk table.
-	 * After this method returns, {@link #fPointer}  will contain
-	 * the index of the evicted chunk within the page table.
+	 * The chunks of one database that are held by the cache. All methods must be called while
+	 * holding the monitor of the partition, which also protects the table of chunks of the
+	 * database.
 	 */
-	private void evictChunk() {
-		/*
-		 * Use the CLOCK algorithm to determine which chunk to evict.
-		 * i.e., if the chunk in the current slot of the page table has been
-		 * recently referenced (i.e. the reference flag is set), unset the
-		 * reference flag and move to the next slot.  Otherwise, evict the
-		 * chunk in the current slot.
+	final class Partition {
+		private final ChunkQueue fProbation = new ChunkQueue(Chunk.PROBATION);
+		private final ChunkQueue fProtected = new ChunkQueue(Chunk.PROTECTED);
+		final LongAdder fHits = new LongAdder();
+		long fMisses;
+		long fEvictions;
+
+		int size() {
+			return fProbation.fSize + fProtected.fSize;
+		}
+
+		/**
+		 * Adds a chunk that is not yet held by the cache.
 		 */
-		while (true) {
-			Chunk chunk = fPageTable[fPointer];
-			if (chunk.fCacheHitFlag) {
-				chunk.fCacheHitFlag = false;
-				fPointer = (fPointer + 1) % fPageTable.length;
-			} else {
-				chunk.fDatabase.releaseChunk(chunk);
-				chunk.fCacheIndex = -1;
-				fPageTable[fPointer] = null;
+		void add(Chunk chunk, boolean locked) {
+			assert Thread.holdsLock(this);
+			if (locked) {
+				chunk.fLocked = true;
+			}
+			if (chunk.fCacheQueue != Chunk.NOT_CACHED) {
+				chunk.fCacheHitFlag = true;
 				return;
 			}
+			// Make room by evicting own chunks as long as this partition exceeds its fair share.
+			final int fairShare = getFairShare();
+			while (fCachedChunks.get() >= fMaxChunks && size() >= fairShare) {
+				if (!evictChunk())
+					break;
+			}
+
+			chunk.fCacheHitFlag = false;
+			fProbation.append(chunk);
+			if (size() == 1) {
+				fPartitions.add(this);
+			}
+			fCachedChunks.incrementAndGet();
+		}
+
+		void remove(Chunk chunk) {
+			assert Thread.holdsLock(this);
+			switch (chunk.fCacheQueue) {
+			case Chunk.PROBATION:
+				fProbation.remove(chunk);
+				break;
+			case Chunk.PROTECTED:
+				fProtected.remove(chunk);
+				break;
+			default:
+				return;
+			}
+			chunkRemoved();
+		}
+
+		void recordMiss() {
+			fMisses++;
+			ChunkCache.this.fMisses.increment();
+		}
+
+		void recordHit() {
+			fHits.increment();
+			ChunkCache.this.fHits.increment();
+		}
+
+		void resetCounters() {
+			fHits.reset();
+			fMisses = fEvictions = 0;
+		}
+
+		/**
+		 * Evicts one chunk from the partition. Chunks that have been accessed while being on
+		 * probation are promoted instead of being evicted, protected chunks that have not been
+		 * accessed since their promotion are demoted when the protected queue is too large.
+		 * @return whether a chunk was evicted.
+		 */
+		boolean evictChunk() {
+			assert Thread.holdsLock(this);
+			// Concurrent readers may keep setting hit flags, limit the number of steps.
+			for (int steps = 2 * size(); steps >= 0; steps--) {
+				if (fProbation.fHead == null || fProtected.fSize > size() * PROTECTED_RATIO) {
+					final Chunk chunk = fProtected.fHead;
+					if (chunk == null)
+						return false;
+					fProtected.remove(chunk);
+					if (chunk.fCacheHitFlag && steps > 0) {
+						chunk.fCacheHitFlag = false;
+						fProtected.append(chunk);
+					} else {
+						chunk.fCacheHitFlag = false;
+						fProbation.append(chunk);
+					}
+				} else {
+					final Chunk chunk = fProbation.fHead;
+					fProbation.remove(chunk);
+					if (chunk.fCacheHitFlag && steps > 0) {
+						chunk.fCacheHitFlag = false;
+						fProtected.append(chunk);
+					} else {
+						chunk.fDatabase.releaseChunk(chunk);
+						fEvictions++;
+						ChunkCache.this.fEvictions.increment();
+						chunkRemoved();
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		private void chunkRemoved() {
+			fCachedChunks.decrementAndGet();
+			if (size() == 0) {
+				fPartitions.remove(this);
+			}
 		}
 	}
 
-	public synchronized void remove(Chunk chunk) {
-		final int idx = chunk.fCacheIndex;
-		if (idx >= 0) {
-			if (fTableIsFull) {
-				fPointer = fPageTable.length - 1;
-				fTableIsFull = false;
-			} else {
-				fPointer--;
+	public static ChunkCache getSharedInstance() {
+		return sSharedInstance;
+	}
+
+	public ChunkCache() {
+		this(5 * 1024 * 1024);
+	}
+
+	public ChunkCache(long maxSize) {
+		fMaxChunks = computeLength(maxSize);
+	}
+
+	/**
+	 * Creates the partition for the chunks of a database.
+	 */
+	Partition newPartition() {
+		return new Partition();
+	}
+
+	/**
+	 * Returns the number of chunks a partition may hold when the cache is full.
+	 */
+	private int getFairShare() {
+		return Math.max(1, fMaxChunks / Math.max(1, fPartitions.size()));
+	}
+
+	/**
+	 * Evicts chunks from the partitions exceeding their fair share until the cache is no longer
+	 * over its limit. Must not be called while holding the monitor of a partition.
+	 */
+	void shrinkToLimit() {
+		while (fCachedChunks.get() > fMaxChunks) {
+			Partition largest = null;
+			int largestSize = 0;
+			for (Partition partition : fPartitions) {
+				final int size = partition.size();
+				if (size > largestSize) {
+					largest = partition;
+					largestSize = size;
+				}
+			}
+			if (largest == null)
+				return;
+			synchronized (largest) {
+				if (!largest.evictChunk())
+					return;
 			}
-			chunk.fCacheIndex = -1;
-			final Chunk move = fPageTable[fPointer];
-			fPageTable[idx] = move;
-			move.fCacheIndex = idx;
-			fPageTable[fPointer] = null;
 		}
 	}
 
 	/**
 	 * Returns the maximum size of the chunk cache in bytes.
 	 */
-	public synchronized long getMaxSize() {
-		return (long) fPageTable.length * Database.CHUNK_SIZE;
+	public long getMaxSize() {
+		return (long) fMaxChunks * Database.CHUNK_SIZE;
 	}
 
 	/**
-	 * Clears the page table and changes it to hold chunks with
-	 * maximum total memory of <code>maxSize</code>.
+	 * Changes the cache to hold chunks with maximum total memory of <code>maxSize</code>.
 	 * @param maxSize the total size of the chunks in bytes.
 	 */
-	public synchronized void setMaxSize(long maxSize) {
-		final int newLength = computeLength(maxSize);
-		final int oldLength = fTableIsFull ? fPageTable.length : fPointer;
-		if (newLength > oldLength) {
-			Chunk[] newTable = new Chunk[newLength];
-			System.arraycopy(fPageTable, 0, newTable, 0, oldLength);
-			fTableIsFull = false;
-			fPointer = oldLength;
-			fPageTable = newTable;
-		} else {
-			for (int i = newLength; i < oldLength; i++) {
-				final Chunk chunk = fPageTable[i];
-				chunk.fDatabase.releaseChunk(chunk);
-				chunk.fCacheIndex = -1;
-			}
-			Chunk[] newTable = new Chunk[newLength];
-			System.arraycopy(fPageTable, 0, newTable, 0, newLength);
-			fTableIsFull = true;
-			fPointer = 0;
-			fPageTable = newTable;
-		}
+	public void setMaxSize(long maxSize) {
+		fMaxChunks = computeLength(maxSize);
+		shrinkToLimit();
+	}
+
+	/**
+	 * Returns the number of chunks currently held by the cache.
+	 */
+	public int getCachedChunkCount() {
+		return fCachedChunks.get();
+	}
+
+	/**
+	 * Returns the number of requests for chunks found in the cache.
+	 */
+	public long getHits() {
+		return fHits.sum();
+	}
+
+	/**
+	 * Returns the number of requests for chunks that had to be read from disk.
+	 */
+	public long getMisses() {
+		return fMisses.sum();
+	}
+
+	/**
+	 * Returns the number of chunks evicted from the cache.
+	 */
+	public long getEvictions() {
+		return fEvictions.sum();
+	}
+
+	public void resetCounters() {
+		fHits.reset();
+		fMisses.reset();
+		fEvictions.reset();
 	}
 
 	private int computeLength(long maxSize) {
@@ -22,15 +22,20 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -60,6 +65,7 @@ import org.eclipse.osgi.util.NLS;
  * ..               | ...
  * INT_SIZE * m (1) | pointer to head of linked list of blocks of size (m + MIN_BLOCK_DELTAS) * BLOCK_SIZE_DELTA
  * DATA_AREA        | undefined (PDOM stores its own house-keeping data in this area)
+ * CHUNK_SIZE - INT_SIZE | number of chunks in use (zero in files written by older versions)
  *
  * (1) where 2 <= m <= CHUNK_SIZE / BLOCK_SIZE_DELTA - MIN_BLOCK_DELTAS + 1
  *
@@ -71,6 +77,23 @@ import org.eclipse.osgi.util.NLS;
  * PREV_OFFSET      | pointer to previous block (of same size) (only in free blocks)
  * NEXT_OFFSET      | pointer to next block (of same size) (only in free blocks)
  *
+ * ===== memory-mapped databases
+ *
+ * A memory-mapped database maps the file in segments of CHUNKS_PER_SEGMENT chunks. Chunks
+ * other than the header chunk are views of these segments and are read and written in place.
+ * Mapping a segment for writing extends the file to the end of the segment, the file is
+ * truncated to the chunks in use when the database is closed. When the file could not be
+ * truncated, the number of chunks in use stored in the header chunk is used instead of the
+ * length of the file.
+ *
+ * ===== write-ahead log
+ *
+ * With the write-ahead log enabled, the database file is changed only at checkpoints. Releasing
+ * the exclusive lock with flush commits the dirty chunks by appending them to the log, the log
+ * is forced to the storage device at most once per SYNC_INTERVAL. Logged chunks stay locked in
+ * memory until the next checkpoint writes them to the file and truncates the log. Complete
+ * transactions found in a log when the database is opened are redone, such that the file always
+ * reflects a committed state.
  */
 public class Database {
 	// Public for tests only, you shouldn't need these.
@@ -98,9 +121,22 @@ public class Database {
 
 	private static final int BLOCK_PREV_OFFSET = BLOCK_HEADER_SIZE;
 	private static final int BLOCK_NEXT_OFFSET = BLOCK_HEADER_SIZE + INT_SIZE;
+	private static final int CHUNK_COUNT_OFFSET = CHUNK_SIZE - INT_SIZE;
+
+	// Number of chunks in a memory-mapped segment of the file (64MB).
+	private static final int CHUNKS_PER_SEGMENT = 16 * 1024;
+	private static final long SEGMENT_SIZE = (long) CHUNKS_PER_SEGMENT * CHUNK_SIZE;
+
+	// Forcing the write-ahead log is shared by the commits within this interval, in milliseconds.
+	private static final long SYNC_INTERVAL = 100;
+	// Thresholds for the number of logged chunks and the size of the log triggering a checkpoint.
+	private static final int CHECKPOINT_CHUNKS = 4096;
+	private static final long CHECKPOINT_LOG_SIZE = 64L * 1024 * 1024;
 
 	private final File fLocation;
 	private final boolean fReadOnly;
+	private final boolean fMemoryMapped;
+	private MappedByteBuffer[] fSegments;
 	private RandomAccessFile fFile;
 	private boolean fExclusiveLock; // Necessary for any write operation.
 	private boolean fLocked; // Necessary for any operation.
@@ -109,14 +145,28 @@ public class Database {
 	private int fVersion;
 	private final Chunk fHeaderChunk;
 	private Chunk[] fChunks;
+	/**
+	 * Readers access elements of fChunks without holding the monitor of the partition, chunks are
+	 * published to them with release semantics so that they observe the chunks fully read.
+	 */
+	private static final VarHandle CHUNKS = MethodHandles.arrayElementVarHandle(Chunk[].class);
 	private int fChunksUsed;
 	private int fChunksAllocated;
 	private ChunkCache fCache;
+	// Holds the chunks of this database in the cache, its monitor protects fChunks.
+	private final ChunkCache.Partition fCachePartition;
+
+	private WriteAheadLog fLog; // Non-null if the write-ahead log is enabled.
+	private final ArrayList<Chunk> fLoggedChunks = new ArrayList<>(); // Protected by fHeaderChunk.
+	private long fLastLogSync;
+	private long fLogCommits;
+	private long fLogSyncs;
+	private long fLogCheckpoints;
+	private long fLogBytes;
+	private int fRecoveredTransactions;
 
 	private long malloced;
 	private long freed;
-	private long cacheHits;
-	private long cacheMisses;
 
 	/** Soft reference wrapper to keep track of the record for disposed strings. */
 	private static class SoftStringRef extends SoftReference<IString> {
@@ -145,21 +195,47 @@ public class Database {
 	 * @throws CoreException
 	 */
 	public Database(File location, ChunkCache cache, int version, boolean openReadOnly) throws CoreException {
+		this(location, cache, version, openReadOnly, false);
+	}
+
+	/**
+	 * Construct a new Database object, creating a backing file if necessary.
+	 * @param location the local file path for the database
+	 * @param cache the cache to be used optimization
+	 * @param version the version number to store in the database (only applicable for new databases)
+	 * @param openReadOnly whether this Database object will ever need writing to
+	 * @param memoryMapped whether the chunks are accessed through a memory mapping of the file
+	 *     rather than being copied into heap buffers
+	 * @throws CoreException
+	 */
+	public Database(File location, ChunkCache cache, int version, boolean openReadOnly, boolean memoryMapped)
+			throws CoreException {
 		try {
 			fLocation = location;
 			fReadOnly = openReadOnly;
+			fMemoryMapped = memoryMapped;
+			fSegments = new MappedByteBuffer[0];
 			fCache = cache;
+			fCachePartition = cache.newPartition();
 			openFile();
+			if (!fReadOnly) {
+				recoverFromLog();
+			}
 
 			int nChunksOnDisk = (int) (fFile.length() / CHUNK_SIZE);
 			fHeaderChunk = new Chunk(this, 0);
 			fHeaderChunk.fLocked = true; // Never makes it into the cache, needed to satisfy assertions.
+			if (nChunksOnDisk > 0) {
+				fHeaderChunk.read();
+			}
+			if (fMemoryMapped && !fReadOnly && nChunksOnDisk > 0 && nChunksOnDisk % CHUNKS_PER_SEGMENT == 0) {
+				nChunksOnDisk = countChunksInUse(nChunksOnDisk);
+			}
 			if (nChunksOnDisk <= 0) {
 				fVersion = version;
 				fChunks = new Chunk[1];
 				fChunksUsed = fChunksAllocated = fChunks.length;
 			} else {
-				fHeaderChunk.read();
 				fVersion = fHeaderChunk.getInt(VERSION_OFFSET);
 				fChunks = new Chunk[nChunksOnDisk]; // chunk[0] is unused.
 				fChunksUsed = fChunksAllocated = nChunksOnDisk;
@@ -173,6 +249,131 @@ public class Database {
 		fFile = new RandomAccessFile(fLocation, fReadOnly ? "r" : "rw"); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
+	/**
+	 * Redoes the complete transactions of a write-ahead log left behind by a database that was
+	 * not closed properly.
+	 */
+	private void recoverFromLog() throws IOException {
+		final File logFile = WriteAheadLog.getLocation(fLocation);
+		if (logFile.exists()) {
+			fRecoveredTransactions = WriteAheadLog.recover(logFile, fFile);
+			logFile.delete();
+		}
+	}
+
+	/**
+	 * Enables or disables the write-ahead log. Disabling the log performs a checkpoint. The log is
+	 * not supported for read-only and memory-mapped databases, for them the call has no effect.
+	 * Must not be called while another thread accesses the database.
+	 */
+	public void setWriteAheadLog(boolean enable) throws CoreException {
+		if (fReadOnly || fMemoryMapped || enable == (fLog != null))
+			return;
+		try {
+			if (enable) {
+				fLog = new WriteAheadLog(WriteAheadLog.getLocation(fLocation));
+			} else {
+				checkpoint();
+				fLog.delete();
+				fLog = null;
+			}
+		} catch (IOException e) {
+			throw new CoreException(new DBStatus(e));
+		}
+	}
+
+	public boolean isWriteAheadLog() {
+		return fLog != null;
+	}
+
+	/**
+	 * Deletes the file of a database that is not open, together with its write-ahead log.
+	 * @return whether the database file was deleted.
+	 */
+	public static boolean deleteFiles(File location) {
+		WriteAheadLog.getLocation(location).delete();
+		return location.delete();
+	}
+
+	/**
+	 * A file that was not closed properly may still have the size of the last mapped segment.
+	 * Chunks at the end of the file that are not in use are ignored, such that they do not
+	 * accumulate over multiple sessions. The number of chunks in use is stored in the header
+	 * chunk. Files written by older versions do not store it, for them the chunks that have
+	 * never been allocated are skipped. Every allocated chunk starts with the non-zero size of
+	 * its first block.
+	 */
+	private int countChunksInUse(int nChunksOnDisk) throws CoreException {
+		final int stored = fHeaderChunk.getInt(CHUNK_COUNT_OFFSET);
+		if (stored > 0 && stored <= nChunksOnDisk)
+			return stored;
+		int n = nChunksOnDisk;
+		while (n > 1 && getMappedBuffer(n - 1).getShort(0) == 0) {
+			n--;
+		}
+		return n;
+	}
+
+	/**
+	 * Stores the number of chunks in use in the header chunk, it is written with the header.
+	 */
+	private void storeChunkCount() throws CoreException {
+		fHeaderChunk.putInt(CHUNK_COUNT_OFFSET, fChunksUsed);
+	}
+
+	/**
+	 * Returns a buffer for the chunk with the given index that is backed by a mapping of the file.
+	 */
+	private ByteBuffer getMappedBuffer(int chunkIndex) throws CoreException {
+		final int segmentIndex = chunkIndex / CHUNKS_PER_SEGMENT;
+		if (segmentIndex >= fSegments.length) {
+			fSegments = Arrays.copyOf(fSegments, segmentIndex + 1);
+		}
+		MappedByteBuffer segment = fSegments[segmentIndex];
+		if (segment == null) {
+			try {
+				segment = mapSegment(segmentIndex);
+			} catch (IOException e) {
+				throw new CoreException(new DBStatus(e));
+			}
+			fSegments[segmentIndex] = segment;
+		}
+		final ByteBuffer buf = segment.duplicate();
+		final int position = (chunkIndex % CHUNKS_PER_SEGMENT) * CHUNK_SIZE;
+		buf.position(position);
+		buf.limit(position + CHUNK_SIZE);
+		return buf.slice();
+	}
+
+	private MappedByteBuffer mapSegment(int segmentIndex) throws IOException {
+		final long position = segmentIndex * SEGMENT_SIZE;
+		int retries = 0;
+		while (true) {
+			try {
+				final FileChannel channel = fFile.getChannel();
+				if (fReadOnly) {
+					// A read-only mapping cannot extend the file.
+					final long size = Math.min(SEGMENT_SIZE, channel.size() - position);
+					return channel.map(MapMode.READ_ONLY, position, size);
+				}
+				return channel.map(MapMode.READ_WRITE, position, SEGMENT_SIZE);
+			} catch (ClosedChannelException e) {
+				// Bug 219834 file may have be closed by interrupting a thread during an I/O operation.
+				reopen(e, ++retries);
+			}
+		}
+	}
+
+	/**
+	 * Creates an object for the chunk with the given index. The content of the chunk is not read.
+	 */
+	private Chunk newChunk(int index) throws CoreException {
+		if (fMemoryMapped) {
+			return new Chunk(this, index, getMappedBuffer(index));
+		}
+		return new Chunk(this, index);
+	}
+
 	void read(ByteBuffer buf, long position) throws IOException {
 		int retries = 0;
 		do {
@@ -213,6 +414,10 @@ public class Database {
 		long nRead = 0;
 		long position = 0;
 		long size = from.size();
+		if (fMemoryMapped) {
+			// Don't copy the unused part of the last mapped segment.
+			size = Math.min(size, (long) fChunksUsed * CHUNK_SIZE);
+		}
 		while (position < size) {
 			nRead = from.transferTo(position, 4096 * 16, target);
 			if (nRead == 0) {
@@ -240,6 +445,18 @@ public class Database {
 	public void clear(int version) throws CoreException {
 		assert fExclusiveLock;
 		removeChunksFromCache();
+		if (fLog != null) {
+			// The logged chunks have been removed from the cache, they are not needed anymore.
+			synchronized (fHeaderChunk) {
+				fLoggedChunks.clear();
+				fHeaderChunk.fLogged = false;
+				try {
+					fLog.reset();
+				} catch (IOException e) {
+					throw new CoreException(new DBStatus(e));
+				}
+			}
+		}
 
 		fVersion = version;
 		// Clear the first chunk.
@@ -247,6 +464,9 @@ public class Database {
 		// Chunks have been removed from the cache, so we may just reset the array of chunks.
 		fChunks = new Chunk[] { null };
 		fChunksUsed = fChunksAllocated = fChunks.length;
+		storeChunkCount();
+		// Chunks that are allocated again are mapped anew.
+		fSegments = new MappedByteBuffer[0];
 		try {
 			fHeaderChunk.flush(); // Zero out header chunk.
 			fFile.getChannel().truncate(CHUNK_SIZE); // Truncate database.
@@ -274,11 +494,11 @@ public class Database {
 	}
 
 	private void removeChunksFromCache() {
-		synchronized (fCache) {
+		synchronized (fCachePartition) {
 			for (int i = 1; i < fChunks.length; i++) {
 				Chunk chunk = fChunks[i];
 				if (chunk != null) {
-					fCache.remove(chunk);
+					fCachePartition.remove(chunk);
 					fChunks[i] = null;
 				}
 			}
@@ -296,25 +516,48 @@ public class Database {
 		long long_index = offset / CHUNK_SIZE;
 		assert long_index < Integer.MAX_VALUE;
 
-		synchronized (fCache) {
+		final int index = (int) long_index;
+		if (fExclusiveLock) {
+			if (fMemoryMapped) {
+				// Changes to mapped chunks reach the file immediately.
+				markFileIncomplete();
+			}
+		} else {
+			// Readers don't modify chunks, so they may use a chunk that is concurrently evicted
+			// from the cache. Only the hit is recorded for the replacement policy.
+			assert fLocked;
+			final Chunk[] chunks = fChunks;
+			if (index > 0 && index < chunks.length) {
+				final Chunk chunk = (Chunk) CHUNKS.getAcquire(chunks, index);
+				if (chunk != null) {
+					chunk.fCacheHitFlag = true;
+					fCachePartition.recordHit();
+					return chunk;
+				}
+			}
+		}
+
+		Chunk chunk;
+		synchronized (fCachePartition) {
 			assert fLocked;
-			final int index = (int) long_index;
 			if (index < 0 || index >= fChunks.length) {
 				databaseCorruptionDetected();
 			}
-			Chunk chunk = fChunks[index];
+			chunk = fChunks[index];
 			if (chunk == null) {
-				cacheMisses++;
-				chunk = new Chunk(this, index);
+				fCachePartition.recordMiss();
+				chunk = newChunk(index);
 				chunk.read();
 				// Put the chunk in fChunks after it was read successfully.
-				fChunks[index] = chunk;
+				CHUNKS.setRelease(fChunks, index, chunk);
 			} else {
-				cacheHits++;
+				fCachePartition.recordHit();
 			}
-			fCache.add(chunk, fExclusiveLock);
-			return chunk;
+			fCachePartition.add(chunk, fExclusiveLock);
 		}
+		// The chunk may have been added while the partition could not evict its own chunks.
+		fCache.shrinkToLimit();
+		return chunk;
 	}
 
 	private void databaseCorruptionDetected() throws CoreException {
@@ -376,10 +619,10 @@ public class Database {
 
 	private long createNewChunk() throws CoreException {
 		assert fExclusiveLock;
-		synchronized (fCache) {
+		synchronized (fCachePartition) {
 			final int newChunkIndex = fChunksUsed; // fChunks.length;
 
-			final Chunk chunk = new Chunk(this, newChunkIndex);
+			final Chunk chunk = newChunk(newChunkIndex);
 			chunk.fDirty = true;
 
 			if (newChunkIndex >= fChunksAllocated) {
@@ -392,9 +635,14 @@ public class Database {
 			}
 			fChunksUsed += 1;
 			fChunks[newChunkIndex] = chunk;
+			storeChunkCount();
 
-			fCache.add(chunk, true);
+			fCachePartition.add(chunk, true);
 			long address = (long) newChunkIndex * CHUNK_SIZE;
+			if (fMemoryMapped) {
+				// The mapped region may contain data from before the database was cleared.
+				chunk.clear(address, CHUNK_SIZE);
+			}
 
 			/*
 			 * Non-dense pointers are at most 31 bits dense pointers are at most 35 bits Check the sizes here
@@ -417,20 +665,21 @@ public class Database {
 	 */
 	private long createNewChunks(int numChunks) throws CoreException {
 		assert fExclusiveLock;
-		synchronized (fCache) {
+		synchronized (fCachePartition) {
 			final int oldLen = fChunks.length;
 			Chunk[] newchunks = new Chunk[oldLen + numChunks];
 			System.arraycopy(fChunks, 0, newchunks, 0, oldLen);
 			for (int i = oldLen; i < oldLen + numChunks; i++) {
 				newchunks[i] = null;
 			}
-			final Chunk chunk = new Chunk(this, oldLen + numChunks - 1);
+			final Chunk chunk = newChunk(oldLen + numChunks - 1);
 			chunk.fDirty = true;
 			newchunks[oldLen + numChunks - 1] = chunk;
 			fChunks = newchunks;
-			fCache.add(chunk, true);
+			fCachePartition.add(chunk, true);
 			fChunksAllocated = oldLen + numChunks;
 			fChunksUsed = oldLen + numChunks;
+			storeChunkCount();
 			return (long) (oldLen + numChunks - 1) * CHUNK_SIZE;
 		}
 	}
@@ -494,6 +743,139 @@ public class Database {
 		stringCache.remove(offset); // also remove record from string cache (if it exists)
 	}
 
+	/**
+	 * Merges adjacent free blocks within the given range of chunks, such that their space can be
+	 * reused for larger records. Records are not moved.
+	 * @return the number of free blocks that were eliminated by merging them with their neighbors.
+	 */
+	public int coalesceFreeBlocks(int firstChunk, int chunkCount) throws CoreException {
+		assert fExclusiveLock;
+		int mergedBlocks = 0;
+		final int end = Math.min(fChunksUsed, firstChunk + chunkCount);
+		for (int i = Math.max(1, firstChunk); i < end; i++) {
+			final long chunkAddress = (long) i * CHUNK_SIZE;
+			final Chunk chunk = getChunk(chunkAddress);
+			// The blocks of a chunk follow each other without gaps.
+			long run = 0;
+			int runSize = 0;
+			int runBlocks = 0;
+			for (int offset = 0; offset < CHUNK_SIZE;) {
+				final long block = chunkAddress + offset;
+				final int blocksize = chunk.getShort(block);
+				if (blocksize == 0 || offset + Math.abs(blocksize) > CHUNK_SIZE) {
+					// Chunk that has not been divided into blocks.
+					runBlocks = 0;
+					break;
+				}
+				if (blocksize > 0) {
+					if (runBlocks == 0) {
+						run = block;
+						runSize = 0;
+					}
+					runSize += blocksize;
+					runBlocks++;
+				} else {
+					mergedBlocks += mergeFreeBlocks(chunk, run, runSize, runBlocks);
+					runBlocks = 0;
+				}
+				offset += Math.abs(blocksize);
+			}
+			mergedBlocks += mergeFreeBlocks(chunk, run, runSize, runBlocks);
+		}
+		return mergedBlocks;
+	}
+
+	private int mergeFreeBlocks(Chunk chunk, long run, int runSize, int runBlocks) throws CoreException {
+		if (runBlocks < 2)
+			return 0;
+		for (long block = run; block < run + runSize;) {
+			final int blocksize = chunk.getShort(block);
+			removeBlock(chunk, blocksize, block);
+			block += blocksize;
+		}
+		addBlock(chunk, runSize, run);
+		return runBlocks - 1;
+	}
+
+	/**
+	 * Returns the number of bytes at the end of the file that {@link #removeTrailingFreeChunks()}
+	 * can remove, once the free blocks of the trailing chunks have been merged. Space freed in
+	 * front of the last chunk holding a record is not included, because records are not moved.
+	 */
+	public long getReclaimableBytes() throws CoreException {
+		int chunksUsed = fChunksUsed;
+		while (chunksUsed > 1 && isFreeChunk(chunksUsed - 1)) {
+			chunksUsed--;
+		}
+		return (long) (fChunksUsed - chunksUsed) * CHUNK_SIZE;
+	}
+
+	/**
+	 * Checks whether the chunk is divided into blocks that are all free.
+	 */
+	private boolean isFreeChunk(int index) throws CoreException {
+		final long chunkAddress = (long) index * CHUNK_SIZE;
+		final Chunk chunk = getChunk(chunkAddress);
+		for (int offset = 0; offset < CHUNK_SIZE;) {
+			final int blocksize = chunk.getShort(chunkAddress + offset);
+			if (blocksize <= 0 || offset + blocksize > CHUNK_SIZE)
+				return false;
+			offset += blocksize;
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the chunks at the end of the file that consist of a single free block, and flushes
+	 * the database.
+	 * @return the number of bytes removed from the database file.
+	 */
+	public long removeTrailingFreeChunks() throws CoreException {
+		assert fExclusiveLock;
+		int chunksUsed = fChunksUsed;
+		while (chunksUsed > 1) {
+			final long address = (long) (chunksUsed - 1) * CHUNK_SIZE;
+			final Chunk chunk = getChunk(address);
+			if (chunk.getShort(address) != CHUNK_SIZE)
+				break;
+			removeBlock(chunk, CHUNK_SIZE, address);
+			if (fMemoryMapped) {
+				// Ignored when the file is opened again without having been truncated.
+				chunk.putShort(address, (short) 0);
+			}
+			chunksUsed--;
+		}
+		if (chunksUsed == fChunksUsed)
+			return 0;
+
+		final long removedBytes = (long) (fChunksUsed - chunksUsed) * CHUNK_SIZE;
+		synchronized (fCachePartition) {
+			for (int i = chunksUsed; i < fChunksUsed; i++) {
+				final Chunk chunk = fChunks[i];
+				if (chunk != null) {
+					// The content of the chunk is discarded.
+					chunk.fDirty = false;
+					fCachePartition.remove(chunk);
+					if (!chunk.fLogged) {
+						fChunks[i] = null;
+					}
+				}
+			}
+			fChunksUsed = chunksUsed;
+			storeChunkCount();
+		}
+		flush();
+		if (!fMemoryMapped) {
+			// A mapped file is truncated when the database is closed.
+			try {
+				fFile.getChannel().truncate((long) fChunksUsed * CHUNK_SIZE);
+			} catch (IOException e) {
+				throw new CoreException(new DBStatus(e));
+			}
+		}
+		return removedBytes;
+	}
+
 	public void putByte(long offset, byte value) throws CoreException {
 		getChunk(offset).putByte(offset, value);
 	}
@@ -668,13 +1050,32 @@ public class Database {
 		assert fExclusiveLock;
 		flush();
 		removeChunksFromCache();
+		if (fLog != null) {
+			try {
+				fLog.delete();
+			} catch (IOException e) {
+				CCorePlugin.log(e);
+			}
+			fLog = null;
+		}
 
 		// Chunks have been removed from the cache, so we are fine.
 		fHeaderChunk.clear(0, CHUNK_SIZE);
 		fHeaderChunk.fDirty = false;
+		final long usedSize = (long) fChunksUsed * CHUNK_SIZE;
 		fChunks = new Chunk[] { null };
 		fChunksUsed = fChunksAllocated = fChunks.length;
 		try {
+			if (fMemoryMapped && !fReadOnly) {
+				fSegments = new MappedByteBuffer[0];
+				try {
+					// Remove the unused part of the last mapped segment.
+					fFile.getChannel().truncate(usedSize);
+				} catch (IOException e) {
+					// Some platforms do not allow to truncate a file while it is mapped, the unused
+					// chunks are ignored when the database is opened again.
+				}
+			}
 			fFile.close();
 		} catch (IOException e) {
 			throw new CoreException(new DBStatus(e));
@@ -690,7 +1091,7 @@ public class Database {
 	}
 
 	/**
-	 * Called from any thread via the cache, protected by {@link #fCache}.
+	 * Called from any thread via the cache, protected by {@link #fCachePartition}.
 	 */
 	void releaseChunk(final Chunk chunk) {
 		if (!chunk.fLocked) {
@@ -698,6 +1099,13 @@ public class Database {
 		}
 	}
 
+	/**
+	 * Returns whether the chunks of this database are accessed through a memory mapping of the file.
+	 */
+	public boolean isMemoryMapped() {
+		return fMemoryMapped;
+	}
+
 	/**
 	 * Returns the cache used for this database.
 	 * @since 4.0
@@ -723,14 +1131,21 @@ public class Database {
 		if (fExclusiveLock) {
 			try {
 				ArrayList<Chunk> dirtyChunks = new ArrayList<>();
-				synchronized (fCache) {
+				synchronized (fCachePartition) {
 					for (int i = 1; i < fChunksUsed; i++) {
 						Chunk chunk = fChunks[i];
 						if (chunk != null) {
-							if (chunk.fCacheIndex < 0) {
+							if (chunk.fLogged) {
+								// Stays locked until it is written to the file at a checkpoint.
+								if (chunk.fDirty && flush) {
+									dirtyChunks.add(chunk);
+								}
+							} else if (chunk.fCacheQueue == Chunk.NOT_CACHED) {
 								// Locked chunk that has been removed from cache.
 								if (chunk.fDirty) {
-									dirtyChunks.add(chunk); // Keep in fChunks until it is flushed.
+									if (flush || fLog == null) {
+										dirtyChunks.add(chunk); // Keep in fChunks until it is flushed.
+									}
 								} else {
 									chunk.fLocked = false;
 									fChunks[i] = null;
@@ -750,8 +1165,12 @@ public class Database {
 						}
 					}
 				}
-				// Also handles header chunk.
-				flushAndUnlockChunks(dirtyChunks, flush);
+				if (fLog == null) {
+					// Also handles header chunk.
+					flushAndUnlockChunks(dirtyChunks, flush);
+				} else if (flush) {
+					commit(dirtyChunks);
+				}
 			} finally {
 				fExclusiveLock = false;
 			}
@@ -763,6 +1182,9 @@ public class Database {
 		if (fExclusiveLock) {
 			try {
 				giveUpExclusiveLock(true);
+				if (fLog != null) {
+					checkpoint();
+				}
 			} finally {
 				setExclusiveLock();
 			}
@@ -771,7 +1193,7 @@ public class Database {
 
 		// Be careful as other readers may access chunks concurrently.
 		ArrayList<Chunk> dirtyChunks = new ArrayList<>();
-		synchronized (fCache) {
+		synchronized (fCachePartition) {
 			for (int i = 1; i < fChunksUsed; i++) {
 				Chunk chunk = fChunks[i];
 				if (chunk != null && chunk.fDirty) {
@@ -780,8 +1202,13 @@ public class Database {
 			}
 		}
 
-		// Also handles header chunk.
-		flushAndUnlockChunks(dirtyChunks, true);
+		if (fLog == null) {
+			// Also handles header chunk.
+			flushAndUnlockChunks(dirtyChunks, true);
+		} else {
+			commit(dirtyChunks);
+			checkpoint();
+		}
 
 		// And clear string cache
 		clearStringCache();
@@ -794,7 +1221,7 @@ public class Database {
 	}
 
 	private void flushAndUnlockChunks(final ArrayList<Chunk> dirtyChunks, boolean isComplete) throws CoreException {
-		assert !Thread.holdsLock(fCache);
+		assert !Thread.holdsLock(fCachePartition);
 		synchronized (fHeaderChunk) {
 			final boolean haveDirtyChunks = !dirtyChunks.isEmpty();
 			if (haveDirtyChunks || fHeaderChunk.fDirty) {
@@ -808,10 +1235,10 @@ public class Database {
 				}
 
 				// Only after the chunks are flushed we may unlock and release them.
-				synchronized (fCache) {
+				synchronized (fCachePartition) {
 					for (Chunk chunk : dirtyChunks) {
 						chunk.fLocked = false;
-						if (chunk.fCacheIndex < 0) {
+						if (chunk.fCacheQueue == Chunk.NOT_CACHED) {
 							fChunks[chunk.fSequenceNumber] = null;
 						}
 					}
@@ -828,6 +1255,86 @@ public class Database {
 		}
 	}
 
+	/**
+	 * Appends the dirty chunks and the header chunk to the write-ahead log, and performs a
+	 * checkpoint when the log has grown too large.
+	 */
+	private void commit(final ArrayList<Chunk> dirtyChunks) throws CoreException {
+		assert !Thread.holdsLock(fCachePartition);
+		synchronized (fHeaderChunk) {
+			if (fHeaderChunk.fDirty) {
+				fHeaderChunk.putInt(VERSION_OFFSET, fVersion);
+				dirtyChunks.add(fHeaderChunk);
+			}
+			if (!dirtyChunks.isEmpty()) {
+				try {
+					fLogBytes += fLog.append(dirtyChunks);
+					fLogCommits++;
+					final long now = System.currentTimeMillis();
+					if (now - fLastLogSync >= SYNC_INTERVAL) {
+						fLog.sync();
+						fLogSyncs++;
+						fLastLogSync = now;
+					}
+				} catch (IOException e) {
+					throw new CoreException(new DBStatus(e));
+				}
+				synchronized (fCachePartition) {
+					for (Chunk chunk : dirtyChunks) {
+						chunk.fDirty = false;
+						if (!chunk.fLogged) {
+							chunk.fLogged = true;
+							fLoggedChunks.add(chunk);
+						}
+					}
+				}
+			}
+			if (fLoggedChunks.size() >= CHECKPOINT_CHUNKS || fLog.size() >= CHECKPOINT_LOG_SIZE) {
+				checkpoint();
+			}
+		}
+	}
+
+	/**
+	 * Writes the logged chunks to the database file and truncates the write-ahead log. Must be
+	 * called when all dirty chunks have been committed.
+	 */
+	private void checkpoint() throws CoreException {
+		assert !Thread.holdsLock(fCachePartition);
+		synchronized (fHeaderChunk) {
+			if (fLoggedChunks.isEmpty())
+				return;
+			try {
+				// The log must be complete before the file is changed.
+				fLog.sync();
+				for (Chunk chunk : fLoggedChunks) {
+					assert !chunk.fDirty;
+					chunk.flush();
+				}
+				fFile.getFD().sync();
+				fLog.reset();
+			} catch (IOException e) {
+				throw new CoreException(new DBStatus(e));
+			}
+			fLastLogSync = System.currentTimeMillis();
+			fLogCheckpoints++;
+
+			// Only after the chunks are written we may unlock and release them.
+			synchronized (fCachePartition) {
+				for (Chunk chunk : fLoggedChunks) {
+					chunk.fLogged = false;
+					if (chunk != fHeaderChunk) {
+						chunk.fLocked = false;
+						if (chunk.fCacheQueue == Chunk.NOT_CACHED) {
+							fChunks[chunk.fSequenceNumber] = null;
+						}
+					}
+				}
+			}
+			fLoggedChunks.clear();
+		}
+	}
+
 	private void markFileIncomplete() throws CoreException {
 		if (!fIsMarkedIncomplete) {
 			fIsMarkedIncomplete = true;
@@ -841,18 +1348,74 @@ public class Database {
 	}
 
 	public void resetCacheCounters() {
-		cacheHits = cacheMisses = 0;
+		synchronized (fCachePartition) {
+			fCachePartition.resetCounters();
+		}
 	}
 
 	public long getCacheHits() {
-		return cacheHits;
+		return fCachePartition.fHits.sum();
 	}
 
 	public long getCacheMisses() {
-		return cacheMisses;
+		return fCachePartition.fMisses;
+	}
+
+	/**
+	 * Returns the number of chunks of this database that were evicted from the cache.
+	 */
+	public long getCacheEvictions() {
+		return fCachePartition.fEvictions;
+	}
+
+	/**
+	 * Returns the number of transactions appended to the write-ahead log.
+	 */
+	public long getLogCommits() {
+		return fLogCommits;
+	}
+
+	/**
+	 * Returns the number of times the write-ahead log was forced to the storage device on commit.
+	 */
+	public long getLogSyncs() {
+		return fLogSyncs;
+	}
+
+	public long getLogCheckpoints() {
+		return fLogCheckpoints;
+	}
+
+	public long getLogBytes() {
+		return fLogBytes;
+	}
+
+	/**
+	 * Returns the number of transactions that were redone from a write-ahead log when the database
+	 * was opened.
+	 */
+	public int getRecoveredTransactions() {
+		return fRecoveredTransactions;
+	}
+
+	/**
+	 * Returns the number of bytes freed since the database was opened or cleared.
+	 */
+	public long getFreedBytes() {
+		return freed;
+	}
+
+	/**
+	 * Returns the number of chunks of the database, including the header chunk.
+	 */
+	public int getChunkCount() {
+		return fChunksUsed;
 	}
 
 	public long getSizeBytes() {
+		if (fMemoryMapped || fLog != null) {
+			return (long) fChunksUsed * CHUNK_SIZE;
+		}
 		try {
 			return fFile.length();
 		} catch (IOException e) {
@@ -865,8 +1428,7 @@ public class Database {
 	 * This is a pointer to a block + BLOCK_HEADER_SIZE.
 	 */
 	public static void putRecPtr(final long value, byte[] buffer, int idx) {
-		final int denseValue = value == 0 ? 0 : Chunk.compressFreeRecPtr(value - BLOCK_HEADER_SIZE);
-		Chunk.putInt(denseValue, buffer, idx);
+		Chunk.putInt(compressRecPtr(value), buffer, idx);
 	}
 
 	/**
@@ -874,7 +1436,20 @@ public class Database {
 	 * This is a pointer to a block + BLOCK_HEADER_SIZE.
 	 */
 	public static long getRecPtr(byte[] buffer, final int idx) {
-		int value = Chunk.getInt(buffer, idx);
+		return expandRecPtr(Chunk.getInt(buffer, idx));
+	}
+
+	/**
+	 * Converts a record pointer to the dense representation stored in the database.
+	 */
+	static int compressRecPtr(final long value) {
+		return value == 0 ? 0 : Chunk.compressFreeRecPtr(value - BLOCK_HEADER_SIZE);
+	}
+
+	/**
+	 * Converts the dense representation stored in the database back to a record pointer.
+	 */
+	static long expandRecPtr(final int value) {
 		long address = Chunk.expandToFreeRecPtr(value);
 		return address != 0 ? (address + BLOCK_HEADER_SIZE) : address;
 	}
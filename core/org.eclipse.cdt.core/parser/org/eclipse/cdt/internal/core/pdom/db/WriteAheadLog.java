@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom.db;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Log of the chunks written by committed transactions of a {@link Database}. The log is written
+ * sequentially, the chunks are written to their place in the database file at a checkpoint, after
+ * which the log is truncated.
+ */
+/*
+ * A transaction is stored as a sequence of pages followed by a commit record:
+ *
+ * page:           [int chunk index] [CHUNK_SIZE bytes content of the chunk]
+ * commit record:  [int -1] [int number of pages] [long CRC32 of the pages]
+ *
+ * A transaction without a valid commit record has not been completely written, it and all
+ * transactions following it are ignored on recovery.
+ */
+final class WriteAheadLog {
+	private static final int COMMIT_RECORD = -1;
+	private static final int PAGE_SIZE = Database.INT_SIZE + Database.CHUNK_SIZE;
+	private static final int COMMIT_RECORD_SIZE = 2 * Database.INT_SIZE + 8;
+
+	private final File fLocation;
+	private final RandomAccessFile fFile;
+	private long fSize;
+
+	/**
+	 * Creates an empty log, an existing log file is truncated.
+	 */
+	WriteAheadLog(File location) throws IOException {
+		fLocation = location;
+		fFile = new RandomAccessFile(location, "rw"); //$NON-NLS-1$
+		reset();
+	}
+
+	static File getLocation(File databaseLocation) {
+		return new File(databaseLocation.getPath() + ".wal"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Appends a transaction consisting of the current content of the given chunks. The log is not
+	 * forced to the storage device.
+	 * @return the number of bytes written to the log.
+	 */
+	long append(List<Chunk> chunks) throws IOException {
+		final ByteBuffer buf = ByteBuffer.allocate(chunks.size() * PAGE_SIZE + COMMIT_RECORD_SIZE);
+		for (Chunk chunk : chunks) {
+			buf.putInt(chunk.fSequenceNumber);
+			chunk.copyTo(buf);
+		}
+		final CRC32 checksum = new CRC32();
+		checksum.update(buf.array(), 0, buf.position());
+		buf.putInt(COMMIT_RECORD);
+		buf.putInt(chunks.size());
+		buf.putLong(checksum.getValue());
+
+		// RandomAccessFile, other than its channel, is not closed when the thread is interrupted.
+		fFile.seek(fSize);
+		fFile.write(buf.array());
+		fSize += buf.capacity();
+		return buf.capacity();
+	}
+
+	/**
+	 * Forces the appended transactions to the storage device.
+	 */
+	void sync() throws IOException {
+		fFile.getFD().sync();
+	}
+
+	/**
+	 * Truncates the log, to be called after the logged chunks have been forced to the database file.
+	 */
+	void reset() throws IOException {
+		fFile.setLength(0);
+		fFile.getFD().sync();
+		fSize = 0;
+	}
+
+	long size() {
+		return fSize;
+	}
+
+	/**
+	 * Closes and deletes the log.
+	 */
+	void delete() throws IOException {
+		fFile.close();
+		fLocation.delete();
+	}
+
+	/**
+	 * Writes the chunks of all complete transactions in the log to the database file and forces
+	 * the file to the storage device.
+	 * @return the number of transactions recovered from the log.
+	 */
+	static int recover(File location, RandomAccessFile databaseFile) throws IOException {
+		// Find the end of the last complete transaction.
+		final byte[] record = new byte[PAGE_SIZE];
+		final ByteBuffer view = ByteBuffer.wrap(record);
+		final CRC32 checksum = new CRC32();
+		long end = 0;
+		long position = 0;
+		int pages = 0;
+		int transactions = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(location)))) {
+			while (true) {
+				in.readFully(record, 0, Database.INT_SIZE);
+				final int index = view.getInt(0);
+				if (index == COMMIT_RECORD) {
+					in.readFully(record, Database.INT_SIZE, COMMIT_RECORD_SIZE - Database.INT_SIZE);
+					if (view.getInt(Database.INT_SIZE) != pages
+							|| view.getLong(2 * Database.INT_SIZE) != checksum.getValue())
+						break;
+					position += COMMIT_RECORD_SIZE;
+					end = position;
+					transactions++;
+					pages = 0;
+					checksum.reset();
+				} else {
+					if (index < 0)
+						break;
+					in.readFully(record, Database.INT_SIZE, Database.CHUNK_SIZE);
+					checksum.update(record, 0, PAGE_SIZE);
+					position += PAGE_SIZE;
+					pages++;
+				}
+			}
+		} catch (EOFException e) {
+			// The last transaction is incomplete.
+		}
+		if (transactions == 0)
+			return 0;
+
+		// Redo the complete transactions.
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(location)))) {
+			for (position = 0; position < end;) {
+				final int index = in.readInt();
+				if (index == COMMIT_RECORD) {
+					in.readFully(record, 0, COMMIT_RECORD_SIZE - Database.INT_SIZE);
+					position += COMMIT_RECORD_SIZE;
+				} else {
+					in.readFully(record, 0, Database.CHUNK_SIZE);
+					databaseFile.seek((long) index * Database.CHUNK_SIZE);
+					databaseFile.write(record, 0, Database.CHUNK_SIZE);
+					position += PAGE_SIZE;
+				}
+			}
+		}
+		databaseFile.getFD().sync();
+		return transactions;
+	}
+}
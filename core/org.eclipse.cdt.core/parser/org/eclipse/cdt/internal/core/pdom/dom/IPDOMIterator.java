@@ -35,4 +35,21 @@ public interface IPDOMIterator<T> {
 	 * @see java.util.Iterator#next
 	 */
 	public T next() throws CoreException;
+
+	/**
+	 * Returns an iterator that yields no elements.
+	 */
+	public static <T> IPDOMIterator<T> empty() {
+		return new IPDOMIterator<T>() {
+			@Override
+			public boolean hasNext() {
+				return false;
+			}
+
+			@Override
+			public T next() {
+				throw new NoSuchElementException();
+			}
+		};
+	}
 }
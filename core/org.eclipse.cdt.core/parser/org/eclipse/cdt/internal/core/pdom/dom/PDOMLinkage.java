@@ -153,6 +153,13 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 		return new BTree(getDB(), record + INDEX_OFFSET, getIndexComparator());
 	}
 
+	/**
+	 * Returns the b-trees of this linkage that can be rebuilt with nodes filled close to capacity.
+	 */
+	public BTree[] getPackableIndexes() throws CoreException {
+		return new BTree[] { getIndex(), getNestedBindingsIndex(), getMacroIndex() };
+	}
+
 	/**
 	 * Returns the BTree for the nested bindings.
 	 * @throws CoreException
@@ -342,6 +349,15 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 		}
 	}
 
+	/**
+	 * Callback informing the linkage that a binding has been added. Used to index the names of
+	 * the bindings for pattern searches.
+	 */
+	protected final void insertIntoTrigramIndex(PDOMBinding pdomBinding) throws CoreException {
+		fPDOM.getTrigramIndex().add(TrigramIndex.BINDINGS, getLinkageID(), pdomBinding.getNameCharArray(),
+				pdomBinding.getRecord());
+	}
+
 	/**
 	 * Call-back informing the linkage that a binding is about to be removed. Used to index nested bindings.
 	 * @param pdomBinding
@@ -391,6 +407,7 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 		if (result == null) {
 			result = new PDOMMacroContainer(this, name);
 			getMacroIndex().insert(result.getRecord());
+			fPDOM.getTrigramIndex().add(TrigramIndex.MACRO_CONTAINERS, getLinkageID(), name, result.getRecord());
 			fPDOM.putCachedResult(key, result);
 		}
 		return result;
@@ -400,6 +417,8 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 		String key = fPDOM.createKeyForCache(record, container.getNameCharArray());
 		fPDOM.putCachedResult(key, null);
 		getMacroIndex().delete(container.getRecord());
+		fPDOM.getTrigramIndex().remove(TrigramIndex.MACRO_CONTAINERS, getLinkageID(), container.getNameCharArray(),
+				container.getRecord());
 	}
 
 	/**
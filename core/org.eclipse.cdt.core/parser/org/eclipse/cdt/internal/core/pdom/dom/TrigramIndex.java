@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom.dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.eclipse.cdt.internal.core.pdom.db.BTree;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+import org.eclipse.cdt.internal.core.pdom.db.IBTreeComparator;
+import org.eclipse.cdt.internal.core.pdom.db.IBTreeVisitor;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Index of the trigrams (sequences of three characters) of the names of bindings and macro
+ * containers. For a pattern that requires a name to contain certain strings, the index yields
+ * the records whose names contain all trigrams of these strings. The candidates need to be
+ * checked against the pattern, the index ignores the case of the characters.
+ */
+/*
+ * The trigrams are stored in a b-tree, each entry of it has the layout:
+ *
+ * [long key]  kind, linkage id and the three case-folded characters of the trigram
+ * [ptr]       root of the b-tree of the records whose names contain the trigram
+ * [int]       number of records in that b-tree
+ */
+public class TrigramIndex {
+	/** Kind of records for bindings. */
+	public static final int BINDINGS = 0;
+	/** Kind of records for macro containers. */
+	public static final int MACRO_CONTAINERS = 1;
+
+	public static final int TRIGRAM_LENGTH = 3;
+
+	private static final int KEY = 0;
+	private static final int POSTINGS = 8;
+	private static final int COUNT = 12;
+	private static final int ENTRY_SIZE = 16;
+
+	/**
+	 * If a candidate list is that much smaller than a posting list, the candidates are looked up
+	 * in the posting list rather than merged with it.
+	 */
+	private static final int PROBE_RATIO = 16;
+
+	private static final IBTreeComparator RECORD_COMPARATOR = (record1, record2) -> Long.compare(record1, record2);
+
+	private final Database fDatabase;
+	private final BTree fEntries;
+
+	public TrigramIndex(Database db, long rootPointer) {
+		fDatabase = db;
+		fEntries = new BTree(db, rootPointer, (entry1, entry2) -> Long.compare(getKey(entry1), getKey(entry2)));
+	}
+
+	private long getKey(long entry) throws CoreException {
+		return fDatabase.getLong(entry + KEY);
+	}
+
+	private BTree getPostings(long entry) {
+		return new BTree(fDatabase, entry + POSTINGS, RECORD_COMPARATOR);
+	}
+
+	private int getCount(long entry) throws CoreException {
+		return fDatabase.getInt(entry + COUNT);
+	}
+
+	/**
+	 * Adds a record with the given name to the index.
+	 */
+	public void add(int kind, int linkageID, char[] name, long record) throws CoreException {
+		for (long key : getKeys(kind, linkageID, name)) {
+			long entry = findEntry(key);
+			if (entry == 0) {
+				entry = fDatabase.malloc(ENTRY_SIZE);
+				fDatabase.putLong(entry + KEY, key);
+				fEntries.insert(entry);
+			}
+			getPostings(entry).insert(record);
+			fDatabase.putInt(entry + COUNT, getCount(entry) + 1);
+		}
+	}
+
+	/**
+	 * Removes a record that has been added with the given name from the index.
+	 */
+	public void remove(int kind, int linkageID, char[] name, long record) throws CoreException {
+		for (long key : getKeys(kind, linkageID, name)) {
+			long entry = findEntry(key);
+			if (entry == 0)
+				continue;
+			getPostings(entry).delete(record);
+			int count = getCount(entry) - 1;
+			if (count > 0) {
+				fDatabase.putInt(entry + COUNT, count);
+			} else {
+				fEntries.delete(entry);
+				fDatabase.free(entry);
+			}
+		}
+	}
+
+	/**
+	 * Returns the records of the given kind and linkage whose names contain the trigrams of all
+	 * the given strings, ignoring case. The records are sorted by their offsets.
+	 * @return the records or {@code null} if none of the strings is long enough to be looked up.
+	 */
+	public long[] find(int kind, int linkageID, char[][] strings) throws CoreException {
+		long[] keys = new long[0];
+		for (char[] string : strings) {
+			keys = union(keys, getKeys(kind, linkageID, string));
+		}
+		if (keys.length == 0)
+			return null;
+
+		long[] entries = new long[keys.length];
+		long[] order = new long[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			entries[i] = findEntry(keys[i]);
+			if (entries[i] == 0)
+				return new long[0];
+			// Order the posting lists by their length.
+			order[i] = ((long) getCount(entries[i]) << 32) | i;
+		}
+		Arrays.sort(order);
+
+		long[] result = getRecords(entries[(int) order[0]]);
+		for (int i = 1; i < order.length && result.length > 0; i++) {
+			final long entry = entries[(int) order[i]];
+			if ((long) result.length * PROBE_RATIO < getCount(entry)) {
+				result = probe(result, getPostings(entry));
+			} else {
+				result = intersect(result, getRecords(entry));
+			}
+		}
+		return result;
+	}
+
+	private long findEntry(final long key) throws CoreException {
+		final long[] result = { 0 };
+		fEntries.accept(new IBTreeVisitor() {
+			@Override
+			public int compare(long entry) throws CoreException {
+				return Long.compare(getKey(entry), key);
+			}
+
+			@Override
+			public boolean visit(long entry) throws CoreException {
+				result[0] = entry;
+				return false;
+			}
+		});
+		return result[0];
+	}
+
+	private long[] getRecords(long entry) throws CoreException {
+		final List<Long> records = new ArrayList<>(getCount(entry));
+		getPostings(entry).accept(new IBTreeVisitor() {
+			@Override
+			public int compare(long record) throws CoreException {
+				return 0;
+			}
+
+			@Override
+			public boolean visit(long record) throws CoreException {
+				records.add(record);
+				return true;
+			}
+		});
+		long[] result = new long[records.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = records.get(i);
+		}
+		return result;
+	}
+
+	private static long[] probe(long[] candidates, BTree postings) throws CoreException {
+		long[] result = new long[candidates.length];
+		int j = 0;
+		for (final long candidate : candidates) {
+			final boolean[] found = { false };
+			postings.accept(new IBTreeVisitor() {
+				@Override
+				public int compare(long record) throws CoreException {
+					return Long.compare(record, candidate);
+				}
+
+				@Override
+				public boolean visit(long record) throws CoreException {
+					found[0] = true;
+					return false;
+				}
+			});
+			if (found[0]) {
+				result[j++] = candidate;
+			}
+		}
+		return Arrays.copyOf(result, j);
+	}
+
+	private static long[] intersect(long[] sorted1, long[] sorted2) {
+		long[] result = new long[Math.min(sorted1.length, sorted2.length)];
+		int i = 0, j = 0, k = 0;
+		while (i < sorted1.length && j < sorted2.length) {
+			if (sorted1[i] < sorted2[j]) {
+				i++;
+			} else if (sorted1[i] > sorted2[j]) {
+				j++;
+			} else {
+				result[k++] = sorted1[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, k);
+	}
+
+	private static long[] union(long[] sorted1, long[] sorted2) {
+		long[] result = new long[sorted1.length + sorted2.length];
+		int i = 0, j = 0, k = 0;
+		while (i < sorted1.length || j < sorted2.length) {
+			if (j == sorted2.length || (i < sorted1.length && sorted1[i] < sorted2[j])) {
+				result[k++] = sorted1[i++];
+			} else if (i == sorted1.length || sorted1[i] > sorted2[j]) {
+				result[k++] = sorted2[j++];
+			} else {
+				result[k++] = sorted1[i++];
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, k);
+	}
+
+	/**
+	 * Returns the sorted, distinct keys of the trigrams of the given name.
+	 */
+	static long[] getKeys(int kind, int linkageID, char[] name) {
+		if (name.length < TRIGRAM_LENGTH)
+			return new long[0];
+
+		final long prefix = ((long) kind << 56) | ((long) (linkageID & 0xff) << 48);
+		long[] keys = new long[name.length - TRIGRAM_LENGTH + 1];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = prefix | ((long) fold(name[i]) << 32) | ((long) fold(name[i + 1]) << 16) | fold(name[i + 2]);
+		}
+		Arrays.sort(keys);
+		int j = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (j == 0 || keys[j - 1] != keys[i]) {
+				keys[j++] = keys[i];
+			}
+		}
+		return Arrays.copyOf(keys, j);
+	}
+
+	/**
+	 * Folds the case of a character such that characters considered equal by a case-insensitive
+	 * pattern are mapped to the same character.
+	 */
+	private static char fold(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	/**
+	 * Returns strings that every name matching the given pattern must contain, or {@code null}
+	 * if the pattern is not understood. Only strings that are long enough to be looked up in the
+	 * index are returned.
+	 */
+	public static char[][] getRequiredStrings(Pattern pattern) {
+		if ((pattern.flags() & ~(Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)) != 0)
+			return null;
+
+		final String p = pattern.pattern();
+		final List<char[]> result = new ArrayList<>();
+		final StringBuilder run = new StringBuilder();
+		for (int i = 0; i < p.length(); i++) {
+			final char c = p.charAt(i);
+			if (Character.isLetterOrDigit(c) || c == '_') {
+				run.append(c);
+				continue;
+			}
+			switch (c) {
+			case '{':
+				i = p.indexOf('}', i);
+				if (i < 0)
+					return null;
+				//$FALL-THROUGH$
+			case '*':
+			case '?':
+				// The preceding character may be omitted.
+				if (run.length() > 0) {
+					run.setLength(run.length() - 1);
+				}
+				break;
+			case '+':
+				break;
+			case '|':
+			case '(':
+			case ')':
+				// Alternatives and groups are not analyzed.
+				return null;
+			case '[':
+				i = skipCharacterClass(p, i);
+				if (i < 0)
+					return null;
+				break;
+			case '\\':
+				if (i + 1 == p.length())
+					return null;
+				final char escaped = p.charAt(++i);
+				if (escaped == 'Q') {
+					int end = p.indexOf("\\E", i + 1); //$NON-NLS-1$
+					if (end < 0) {
+						end = p.length();
+					}
+					for (int k = i + 1; k < end; k++) {
+						final char q = p.charAt(k);
+						if (Character.isLetterOrDigit(q) || q == '_') {
+							run.append(q);
+						} else {
+							addRun(run, result);
+						}
+					}
+					i = end + 1;
+					// The last quoted character may be made optional by a quantifier.
+					continue;
+				}
+				if (Character.isLetterOrDigit(escaped))
+					return null;
+				break;
+			default:
+				break;
+			}
+			addRun(run, result);
+		}
+		addRun(run, result);
+		return result.toArray(new char[result.size()][]);
+	}
+
+	private static void addRun(StringBuilder run, List<char[]> result) {
+		if (run.length() >= TRIGRAM_LENGTH) {
+			char[] string = new char[run.length()];
+			run.getChars(0, string.length, string, 0);
+			result.add(string);
+		}
+		run.setLength(0);
+	}
+
+	/**
+	 * Returns the index of the closing bracket of the character class starting at the given index,
+	 * or -1 if the class is not closed.
+	 */
+	private static int skipCharacterClass(String p, int start) {
+		int depth = 0;
+		for (int i = start; i < p.length(); i++) {
+			final char c = p.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				depth++;
+				// A closing bracket at the start of a class is a literal.
+				if (i + 1 < p.length() && p.charAt(i + 1) == '^')
+					i++;
+				if (i + 1 < p.length() && p.charAt(i + 1) == ']')
+					i++;
+			} else if (c == ']') {
+				if (--depth == 0)
+					return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -889,6 +889,7 @@ class PDOMCPPLinkage extends PDOMLinkage implements IIndexCPPBindingConstants {
 			if (parent != this && parent2 != this) {
 				insertIntoNestedBindingsIndex(pdomBinding);
 			}
+			insertIntoTrigramIndex(pdomBinding);
 		}
 
 		return pdomBinding;
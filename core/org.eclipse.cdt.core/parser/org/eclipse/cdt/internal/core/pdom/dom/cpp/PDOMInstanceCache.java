@@ -13,14 +13,11 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.pdom.dom.cpp;
 
-import java.util.HashMap;
-
 import org.eclipse.cdt.core.CCorePlugin;
-import org.eclipse.cdt.core.dom.ast.DOMException;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPDeferredClassInstance;
-import org.eclipse.cdt.internal.core.index.IndexCPPSignatureUtil;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.TemplateInstanceCache;
 import org.eclipse.cdt.internal.core.pdom.PDOM;
 import org.eclipse.cdt.internal.core.pdom.dom.NamedNodeCollector;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMBinding;
@@ -50,32 +47,19 @@ public class PDOMInstanceCache {
 		return newCache;
 	}
 
-	private final HashMap<String, ICPPTemplateInstance> fMap;
+	private final TemplateInstanceCache fInstances;
 	private ICPPDeferredClassInstance fDeferredInstance;
 
 	public PDOMInstanceCache() {
-		fMap = new HashMap<>();
+		fInstances = new TemplateInstanceCache();
 	}
 
-	synchronized public final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
-		try {
-			String key = IndexCPPSignatureUtil.getTemplateArgString(arguments, true);
-			fMap.put(key, instance);
-		} catch (CoreException e) {
-			CCorePlugin.log(e);
-		} catch (DOMException e) {
-		}
+	public final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
+		fInstances.addInstance(arguments, instance);
 	}
 
-	synchronized public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
-		try {
-			String key = IndexCPPSignatureUtil.getTemplateArgString(arguments, true);
-			return fMap.get(key);
-		} catch (CoreException e) {
-			CCorePlugin.log(e);
-		} catch (DOMException e) {
-		}
-		return null;
+	public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
+		return fInstances.getInstance(arguments);
 	}
 
 	private void populate(PDOMBinding binding) throws CoreException {
@@ -97,8 +81,8 @@ public class PDOMInstanceCache {
 		}
 	}
 
-	synchronized public ICPPTemplateInstance[] getAllInstances() {
-		return fMap.values().toArray(new ICPPTemplateInstance[fMap.size()]);
+	public ICPPTemplateInstance[] getAllInstances() {
+		return fInstances.getAllInstances();
 	}
 
 	public ICPPDeferredClassInstance getDeferredInstance() {
@@ -50,6 +50,7 @@ public class GeneratePDOM {
 	protected String indexerID;
 	protected boolean deleteOnExit;
 	protected boolean checkIndexStatus;
+	protected Integer indexerThreads;
 
 	/**
 	 * Runnable to export a PDOM.
@@ -80,6 +81,16 @@ public class GeneratePDOM {
 		this.deleteOnExit = deleteOnExit;
 	}
 
+	/**
+	 * Sets the number of threads parsing the translation units of the project, a value smaller
+	 * than one selects the number of processors. By default the indexer preferences of the project
+	 * are used.
+	 * @param indexerThreads
+	 */
+	public void setIndexerThreads(int indexerThreads) {
+		this.indexerThreads = indexerThreads;
+	}
+
 	/**
 	 * Executes the PDOM generation
 	 * @return {@link IStatus#OK} if the generated content is complete, {@link IStatus#ERROR} otherwise.
@@ -102,6 +113,10 @@ public class GeneratePDOM {
 		}
 
 		// Index the project
+		if (indexerThreads != null) {
+			IndexerPreferences.set(cproject.getProject(), IndexerPreferences.KEY_INDEXER_THREADS,
+					indexerThreads.toString());
+		}
 		IndexerPreferences.set(cproject.getProject(), IndexerPreferences.KEY_INDEXER_ID, indexerID);
 
 		try {
@@ -52,6 +52,11 @@ public class GeneratePDOMApplication implements IApplication {
 	public static final String OPT_TARGET = "-target"; //$NON-NLS-1$
 	public static final String OPT_QUIET = "-quiet"; //$NON-NLS-1$
 	public static final String OPT_INDEXER_ID = "-indexer"; //$NON-NLS-1$
+	/**
+	 * Number of threads parsing the translation units, a value smaller than one selects the number
+	 * of processors.
+	 */
+	public static final String OPT_INDEXER_THREADS = "-threads"; //$NON-NLS-1$
 
 	/**
 	 * Applications needing to fail in an expected way (without stack dump), should throw
@@ -110,6 +115,21 @@ public class GeneratePDOMApplication implements IApplication {
 			}
 		}
 
+		Integer indexerThreads = null;
+		List<String> threads = arguments.get(OPT_INDEXER_THREADS);
+		if (threads != null) {
+			if (threads.size() != 1) {
+				fail(MessageFormat.format(Messages.GeneratePDOMApplication_InvalidIndexerThreads,
+						new Object[] { OPT_INDEXER_THREADS }));
+			}
+			try {
+				indexerThreads = Integer.parseInt(threads.get(0));
+			} catch (NumberFormatException e) {
+				fail(MessageFormat.format(Messages.GeneratePDOMApplication_InvalidIndexerThreads,
+						new Object[] { OPT_INDEXER_THREADS }));
+			}
+		}
+
 		String[] oldvals = null;
 		if (!quiet) {
 			oldvals = new String[] { System.getProperty(IPDOMIndexerTask.TRACE_ACTIVITY),
@@ -128,6 +148,9 @@ public class GeneratePDOMApplication implements IApplication {
 			File targetLocation = new File(target);
 
 			GeneratePDOM generate = new GeneratePDOM(pprovider, appArgs, targetLocation, indexerID);
+			if (indexerThreads != null) {
+				generate.setIndexerThreads(indexerThreads);
+			}
 			output(Messages.GeneratePDOMApplication_GenerationStarts);
 			IStatus status = generate.run(); // CoreException handled in start method
 			if (!status.isOK()) {
@@ -26,6 +26,7 @@ public class Messages extends NLS {
 	public static String GeneratePDOMApplication_GenerationStarts;
 	public static String GeneratePDOMApplication_Initializing;
 	public static String GeneratePDOMApplication_InvalidIndexerID;
+	public static String GeneratePDOMApplication_InvalidIndexerThreads;
 	public static String GeneratePDOMApplication_UsingDefaultProjectProvider;
 
 	static {
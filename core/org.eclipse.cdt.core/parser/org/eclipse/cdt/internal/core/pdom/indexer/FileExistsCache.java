@@ -20,9 +20,10 @@ import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.cdt.internal.core.parser.scanner.FileContentCache;
 import org.eclipse.cdt.utils.UNCPathConverter;
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileStore;
@@ -31,11 +32,15 @@ import org.eclipse.core.runtime.CoreException;
 /**
  * A cache for checking whether a file exists. The cache shall be used for a limited amount of time,
  * only (e.g. one indexer task). It uses as much memory as it needs. To protect against OutOfMemory
- * situations, a soft reference is used.
+ * situations, a soft reference is used. The cache may be used by multiple threads. The names of
+ * the files in local directories are taken from the {@link FileContentCache} as long as the
+ * directories are not modified.
  * @since 5.0
  */
 public final class FileExistsCache {
 	private static final Content EMPTY_STRING_ARRAY = new Content(new String[0]);
+	private static final String NAMES = "names"; //$NON-NLS-1$
+	private static final String UPPER_CASE_NAMES = "upperCaseNames"; //$NON-NLS-1$
 	private static boolean BYPASS_CACHE = Boolean.getBoolean("CDT_INDEXER_BYPASS_FILE_EXISTS_CACHE"); //$NON-NLS-1$
 
 	private static class Content {
@@ -48,14 +53,14 @@ public final class FileExistsCache {
 		public BitSet fIsFile;
 	}
 
-	private Reference<Map<String, Content>> fCache;
+	private volatile Reference<Map<String, Content>> fCache;
 	// Cache for recent results of isFile calls (bug 471103).
-	private final Map<String, Boolean> fCacheIsFile = new HashMap<>();
+	private final Map<String, Boolean> fCacheIsFile = new ConcurrentHashMap<>();
 	private final boolean fCaseInSensitive;
 
 	public FileExistsCache(boolean caseInsensitive) {
 		fCaseInSensitive = caseInsensitive;
-		Map<String, Content> cache = new HashMap<>();
+		Map<String, Content> cache = new ConcurrentHashMap<>();
 		// Before running out of memory the entire map will be thrown away.
 		fCache = new SoftReference<>(cache);
 	}
@@ -113,23 +118,7 @@ public final class FileExistsCache {
 
 		Content avail = getExistsCache().get(parent);
 		if (avail == null) {
-			String[] files = null;
-			try {
-				files = parentStore == null ? new File(parent).list() : parentStore.childNames(EFS.NONE, null);
-			} catch (CoreException e) {
-				// Ignore
-			}
-			if (files == null || files.length == 0) {
-				avail = EMPTY_STRING_ARRAY;
-			} else {
-				if (fCaseInSensitive) {
-					for (int i = 0; i < files.length; i++) {
-						files[i] = files[i].toUpperCase();
-					}
-				}
-				Arrays.sort(files);
-				avail = new Content(files);
-			}
+			avail = getContent(parent, parentStore);
 			getExistsCache().put(parent, avail);
 		}
 		int idx = Arrays.binarySearch(avail.fNames, name);
@@ -138,23 +127,56 @@ public final class FileExistsCache {
 		idx *= 2;
 
 		final BitSet isFileBitset = avail.fIsFile;
-		if (isFileBitset.get(idx))
-			return true;
-		if (isFileBitset.get(idx + 1))
-			return false;
+		synchronized (isFileBitset) {
+			if (isFileBitset.get(idx))
+				return true;
+			if (isFileBitset.get(idx + 1))
+				return false;
+		}
 
-		if ((file != null && file.isFile()) || (fileStore != null && !fileStore.fetchInfo().isDirectory())) {
-			isFileBitset.set(idx);
-			return true;
+		boolean isFile = (file != null && file.isFile())
+				|| (fileStore != null && !fileStore.fetchInfo().isDirectory());
+		synchronized (isFileBitset) {
+			isFileBitset.set(isFile ? idx : idx + 1);
+		}
+		return isFile;
+	}
+
+	private Content getContent(String parent, IFileStore parentStore) {
+		// The names of the files in local directories are shared with other caches.
+		final FileContentCache sharedCache = FileContentCache.getSharedInstance();
+		final String variant = fCaseInSensitive ? UPPER_CASE_NAMES : NAMES;
+		final long timestamp = parentStore == null ? new File(parent).lastModified() : 0;
+		String[] files = null;
+		if (timestamp != 0) {
+			files = sharedCache.getDirectoryNames(parent, variant, timestamp);
+			if (files != null) {
+				return files.length == 0 ? EMPTY_STRING_ARRAY : new Content(files);
+			}
+		}
+		try {
+			files = parentStore == null ? new File(parent).list() : parentStore.childNames(EFS.NONE, null);
+		} catch (CoreException e) {
+			// Ignore
+		}
+		if (files == null || files.length == 0) {
+			sharedCache.putDirectoryNames(parent, variant, timestamp, EMPTY_STRING_ARRAY.fNames);
+			return EMPTY_STRING_ARRAY;
+		}
+		if (fCaseInSensitive) {
+			for (int i = 0; i < files.length; i++) {
+				files[i] = files[i].toUpperCase();
+			}
 		}
-		isFileBitset.set(idx + 1);
-		return false;
+		Arrays.sort(files);
+		sharedCache.putDirectoryNames(parent, variant, timestamp, files);
+		return new Content(files);
 	}
 
 	private Map<String, Content> getExistsCache() {
 		Map<String, Content> cache = fCache.get();
 		if (cache == null) {
-			cache = new HashMap<>();
+			cache = new ConcurrentHashMap<>();
 			// Before running out of memory the entire map will be thrown away.
 			fCache = new SoftReference<>(cache);
 		}
@@ -63,6 +63,13 @@ public class IndexerPreferences {
 	public static final String KEY_UPDATE_POLICY = "updatePolicy"; //$NON-NLS-1$
 	public static final String KEY_SKIP_FILES_LARGER_THAN_MB = "skipFilesLargerThanMB"; //$NON-NLS-1$
 	public static final String KEY_SKIP_INCLUDED_FILES_LARGER_THAN_MB = "skipIncludedFilesLargerThanMB"; //$NON-NLS-1$
+	public static final String KEY_MEMORY_MAPPED_DATABASE = "memoryMappedDatabase"; //$NON-NLS-1$
+	public static final String KEY_WRITE_AHEAD_LOG = "writeAheadLog"; //$NON-NLS-1$
+	public static final String KEY_INDEXER_THREADS = "indexerThreads"; //$NON-NLS-1$
+	public static final String KEY_INDEXER_PRIORITY = "indexerPriority"; //$NON-NLS-1$
+	public static final String KEY_INDEXER_JOBS = "indexerJobs"; //$NON-NLS-1$
+	public static final String KEY_COMPACTION_THRESHOLD = "compactionThreshold"; //$NON-NLS-1$
+	public static final String KEY_RESOLVE_NAMES_CONCURRENTLY = "resolveNamesConcurrently"; //$NON-NLS-1$
 
 	private static final String KEY_INDEXER_PREFS_SCOPE = "preferenceScope"; //$NON-NLS-1$
 	private static final String KEY_INDEX_IMPORT_LOCATION = "indexImportLocation"; //$NON-NLS-1$
@@ -76,6 +83,14 @@ public class IndexerPreferences {
 	private static final int DEFAULT_UPDATE_POLICY = 0;
 	public static final int DEFAULT_FILE_SIZE_LIMIT_MB = 8;
 	public static final int DEFAULT_INCLUDED_FILE_SIZE_LIMIT_MB = 16;
+	/** Number of threads parsing files, a value smaller than one selects the number of processors. */
+	public static final int DEFAULT_INDEXER_THREADS = 1;
+	/** Projects with a higher priority are indexed first when all indexer jobs are busy. */
+	public static final int DEFAULT_INDEXER_PRIORITY = 0;
+	/** Number of projects that are indexed concurrently. */
+	public static final int DEFAULT_INDEXER_JOBS = 2;
+	/** Percentage of free space at the end of the index database at which it is compacted, zero disables it. */
+	public static final int DEFAULT_COMPACTION_THRESHOLD = 30;
 
 	private static final String QUALIFIER = CCorePlugin.PLUGIN_ID;
 	private static final String INDEXER_NODE = "indexer"; //$NON-NLS-1$
@@ -335,6 +350,13 @@ public class IndexerPreferences {
 		prefs.putBoolean(KEY_SKIP_MACRO_REFERENCES, false);
 		prefs.put(KEY_INDEX_IMPORT_LOCATION, DEFAULT_INDEX_IMPORT_LOCATION);
 		prefs.putBoolean(KEY_INDEX_ALL_HEADER_VERSIONS, false);
+		prefs.putBoolean(KEY_MEMORY_MAPPED_DATABASE, false);
+		prefs.putBoolean(KEY_WRITE_AHEAD_LOG, false);
+		prefs.putInt(KEY_INDEXER_THREADS, DEFAULT_INDEXER_THREADS);
+		prefs.putInt(KEY_INDEXER_PRIORITY, DEFAULT_INDEXER_PRIORITY);
+		prefs.putInt(KEY_INDEXER_JOBS, DEFAULT_INDEXER_JOBS);
+		prefs.putInt(KEY_COMPACTION_THRESHOLD, DEFAULT_COMPACTION_THRESHOLD);
+		prefs.putBoolean(KEY_RESOLVE_NAMES_CONCURRENTLY, false);
 	}
 
 	public static void setDefaultIndexerId(String defaultId) {
@@ -416,6 +438,41 @@ public class IndexerPreferences {
 		return DEFAULT_UPDATE_POLICY;
 	}
 
+	/**
+	 * Returns the priority of the project for the scheduling of indexer jobs.
+	 */
+	public static int getIndexerPriority(IProject project) {
+		return getInt(getPreferences(project), KEY_INDEXER_PRIORITY, DEFAULT_INDEXER_PRIORITY);
+	}
+
+	/**
+	 * Returns the percentage of free space at the end of the index database of the project at
+	 * which the database is compacted.
+	 */
+	public static int getCompactionThreshold(IProject project) {
+		return getInt(getPreferences(project), KEY_COMPACTION_THRESHOLD, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	/**
+	 * Returns the maximum number of projects that are indexed concurrently.
+	 */
+	public static int getMaxIndexerJobs() {
+		// no support for project specific limits
+		return Math.max(1, getInt(getInstancePreferencesArray(), KEY_INDEXER_JOBS, DEFAULT_INDEXER_JOBS));
+	}
+
+	private static int getInt(Preferences[] prefs, String key, int defval) {
+		String val = Platform.getPreferencesService().get(key, null, prefs);
+		if (val != null) {
+			try {
+				return Integer.parseInt(val);
+			} catch (NumberFormatException e) {
+				CCorePlugin.log(e);
+			}
+		}
+		return defval;
+	}
+
 	public static boolean preferDefaultLanguage(IProject project) {
 		IPreferencesService prefService = Platform.getPreferencesService();
 		Preferences[] prefs = IndexerPreferences.getPreferences(project);
@@ -34,13 +34,20 @@ import org.eclipse.cdt.core.index.IIndexManager;
 import org.eclipse.cdt.core.model.ICProject;
 import org.eclipse.cdt.core.model.ITranslationUnit;
 import org.eclipse.cdt.core.parser.IncludeExportPatterns;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.TemplateInstanceCache;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.ConstexprEvaluationCache;
 import org.eclipse.cdt.internal.core.index.IWritableIndex;
+import org.eclipse.cdt.internal.core.index.IWritableIndexFragment;
 import org.eclipse.cdt.internal.core.index.IWritableIndexManager;
 import org.eclipse.cdt.internal.core.model.CProject;
+import org.eclipse.cdt.internal.core.parser.scanner.FileContentCache;
+import org.eclipse.cdt.internal.core.parser.scanner.IncludeGuardCache;
 import org.eclipse.cdt.internal.core.pdom.AbstractIndexerTask;
 import org.eclipse.cdt.internal.core.pdom.ITodoTaskUpdater;
 import org.eclipse.cdt.internal.core.pdom.IndexerProgress;
+import org.eclipse.cdt.internal.core.pdom.PDOM;
 import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -108,6 +115,9 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 		}
 		setUpdateFlags(IIndexManager.UPDATE_CHECK_TIMESTAMPS | IIndexManager.UPDATE_CHECK_CONTENTS_HASH);
 		setForceFirstFiles(forceFiles.length);
+		setIndexerThreads(getIndexerThreads());
+		setResolveNamesConcurrently(Boolean.parseBoolean(IndexerPreferences.get(getCProject().getProject(),
+				IndexerPreferences.KEY_RESOLVE_NAMES_CONCURRENTLY, null)));
 
 		ICProject project = getCProject();
 		String privatePattern = CCorePreferenceConstants.getPreference(CCorePreferenceConstants.INCLUDE_PRIVATE_PATTERN,
@@ -162,9 +172,31 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 	public final void run(IProgressMonitor monitor) throws InterruptedException {
 		long start = System.currentTimeMillis();
 		runTask(monitor);
+		compactIfFragmented(monitor);
 		traceEnd(start, fIndex, monitor.isCanceled());
 	}
 
+	/**
+	 * Compacts the database of the index when the space freed by the updates exceeds the
+	 * threshold configured for the project.
+	 */
+	private void compactIfFragmented(IProgressMonitor monitor) throws InterruptedException {
+		if (monitor.isCanceled() || fIndex == null)
+			return;
+		IWritableIndexFragment fragment = fIndex.getWritableFragment();
+		if (!(fragment instanceof PDOM))
+			return;
+		PDOM pdom = (PDOM) fragment;
+		try {
+			int threshold = IndexerPreferences.getCompactionThreshold(getCProject().getProject());
+			if (pdom.needsCompaction(threshold)) {
+				pdom.compact(monitor);
+			}
+		} catch (CoreException e) {
+			CCorePlugin.log(e);
+		}
+	}
+
 	/**
 	 * Checks whether a given debug option is enabled. See {@link IPDOMIndexerTask}
 	 * for valid values.
@@ -189,6 +221,22 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 		return Collections.emptySet();
 	}
 
+	/**
+	 * The number of threads does not affect the content of the index, therefore it is read from
+	 * the preferences rather than from the properties of the indexer.
+	 */
+	private int getIndexerThreads() {
+		String value = IndexerPreferences.get(getCProject().getProject(), IndexerPreferences.KEY_INDEXER_THREADS,
+				null);
+		if (value != null) {
+			try {
+				return Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+			}
+		}
+		return IndexerPreferences.DEFAULT_INDEXER_THREADS;
+	}
+
 	private int getIntProperty(String key, int defaultValue) {
 		final String value = getIndexer().getProperty(key);
 		if (value != null) {
@@ -317,6 +365,27 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 					+ ChunkCache.getSharedInstance().getMaxSize() / 1024 / 1024 + "MB]: " + //$NON-NLS-1$
 					+hits + " hits, " //$NON-NLS-1$
 					+ misses + "(" + nfPercent.format(missPct) + ") misses."); //$NON-NLS-1$ //$NON-NLS-2$
+			FileContentCache fileCache = FileContentCache.getSharedInstance();
+			System.out.println(indent + " Files[" //$NON-NLS-1$
+					+ fileCache.getMaxSize() / 1024 / 1024 + "MB]: " + fileCache + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			System.out.println(indent + " Include guards: " + IncludeGuardCache.getSharedInstance() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			System.out.println(indent + " Template instances: " + TemplateInstanceCache.getStatistics() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			System.out.println(indent + " Constexpr evaluations: " + ConstexprEvaluationCache.getStatistics() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			IWritableIndexFragment fragment = index.getWritableFragment();
+			if (fragment instanceof PDOM) {
+				System.out.println(indent + " Locks: " + ((PDOM) fragment).getLockStatistics() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				System.out.println(indent + " Results: " + ((PDOM) fragment).getResultCache() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Database db = ((PDOM) fragment).getDB();
+				if (db.isWriteAheadLog()) {
+					System.out.println(indent + " WAL: " + db.getLogCommits() + " commits, " //$NON-NLS-1$ //$NON-NLS-2$
+							+ db.getLogSyncs() + " syncs, " + db.getLogCheckpoints() + " checkpoints, " //$NON-NLS-1$ //$NON-NLS-2$
+							+ db.getLogBytes() / 1024 + "KB logged."); //$NON-NLS-1$
+				}
+				PDOM.CompactionStatistics compactions = ((PDOM) fragment).getCompactionStatistics();
+				if (compactions.fCompactions > 0) {
+					System.out.println(indent + " Compaction: " + compactions + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
 
 			if (Boolean.parseBoolean(System.getProperty("SHOW_COMPRESSED_INDEXER_INFO"))) { //$NON-NLS-1$
 				Calendar cal = Calendar.getInstance();
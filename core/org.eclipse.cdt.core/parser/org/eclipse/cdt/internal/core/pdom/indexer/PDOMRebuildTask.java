@@ -72,10 +72,10 @@ public class PDOMRebuildTask implements IPDOMIndexerTask {
 
 			ICProject cproject = fIndexer.getProject();
 			IProject project = cproject.getProject();
+			IWritableIndex index = null;
 			if (project.isOpen() && project.exists()) {
 				try {
-					IWritableIndex index = ((IWritableIndexManager) CCorePlugin.getIndexManager())
-							.getWritableIndex(cproject);
+					index = ((IWritableIndexManager) CCorePlugin.getIndexManager()).getWritableIndex(cproject);
 					if (index != null) {
 						clearIndex(cproject, index);
 						if (!IPDOMManager.ID_NO_INDEXER.equals(fIndexer.getID())) {
@@ -92,6 +92,9 @@ public class PDOMRebuildTask implements IPDOMIndexerTask {
 
 			if (fDelegate != null) {
 				fDelegate.run(monitor);
+				if (index != null && !monitor.isCanceled()) {
+					packIndex(cproject, index, monitor);
+				}
 			}
 		} finally {
 			fProgressMonitor = null;
@@ -112,6 +115,23 @@ public class PDOMRebuildTask implements IPDOMIndexerTask {
 		}
 	}
 
+	/**
+	 * The b-trees of the new index have been populated in random order, rebuild them with
+	 * nodes filled close to capacity. The indexes are packed one at a time, readers are not blocked
+	 * for the whole duration.
+	 */
+	private void packIndex(ICProject project, IWritableIndex index, IProgressMonitor monitor)
+			throws InterruptedException {
+		IWritableIndexFragment wf = index.getWritableFragment();
+		if (wf instanceof WritablePDOM) {
+			try {
+				((WritablePDOM) wf).packIndexes(monitor);
+			} catch (CoreException e) {
+				CCorePlugin.log(NLS.bind(Messages.PDOMRebuildTask_0, project.getElementName()), e);
+			}
+		}
+	}
+
 	private void createDelegate(ICProject project, IProgressMonitor monitor) throws CoreException {
 		boolean allFiles = TRUE
 				.equals(fIndexer.getProperty(IndexerPreferences.KEY_INDEX_UNUSED_HEADERS_WITH_DEFAULT_LANG))
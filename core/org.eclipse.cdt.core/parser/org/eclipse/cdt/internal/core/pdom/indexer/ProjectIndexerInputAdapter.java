@@ -15,7 +15,9 @@
 package org.eclipse.cdt.internal.core.pdom.indexer;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.index.IIndexFileLocation;
@@ -55,7 +57,7 @@ public class ProjectIndexerInputAdapter extends IndexerInputAdapter {
 	private static final AbstractLanguage[] NO_LANGUAGE = new AbstractLanguage[0];
 
 	private final ICProject fCProject;
-	private final HashMap<String, IIndexFileLocation> fIflCache;
+	private final Map<String, IIndexFileLocation> fIflCache;
 	private final FileExistsCache fExistsCache;
 	private AbstractLanguage fLangC;
 	private AbstractLanguage fLangCpp;
@@ -69,7 +71,8 @@ public class ProjectIndexerInputAdapter extends IndexerInputAdapter {
 		fCProject = cproject;
 		fProjectPrefix = cproject.getProject().getFullPath().toString() + IPath.SEPARATOR;
 		if (useCache) {
-			fIflCache = new HashMap<>();
+			// The adapter is shared by the worker threads of an indexer task.
+			fIflCache = Collections.synchronizedMap(new HashMap<>());
 			fExistsCache = new FileExistsCache(isCaseInsensitiveFileSystem());
 		} else {
 			fIflCache = null;
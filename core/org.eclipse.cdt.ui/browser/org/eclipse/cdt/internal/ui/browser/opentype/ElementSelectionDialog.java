@@ -14,8 +14,10 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.ui.browser.opentype;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.browser.ITypeInfo;
@@ -29,7 +31,9 @@ import org.eclipse.cdt.core.index.IIndexManager;
 import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.ICElement;
+import org.eclipse.cdt.core.model.ICProject;
 import org.eclipse.cdt.internal.core.browser.IndexModelUtil;
+import org.eclipse.cdt.internal.core.browser.TypeNameCache;
 import org.eclipse.cdt.internal.ui.ICHelpContextIds;
 import org.eclipse.cdt.internal.ui.search.CSearchUtil;
 import org.eclipse.cdt.ui.CUIPlugin;
@@ -268,19 +272,30 @@ public class ElementSelectionDialog extends TypeSelectionDialog {
 		if (monitor.isCanceled()) {
 			return null;
 		}
-		HashSet<IndexTypeInfo> types = new HashSet<>();
+		HashSet<ITypeInfo> types = new HashSet<>();
 		if (prefix != null) {
+			// Types are taken from the cache, the index is queried for the other elements.
+			final int[] cachedKinds = getVisibleCachedKinds();
 			final IndexFilter filter = new IndexFilter() {
 				@Override
 				public boolean acceptBinding(IBinding binding) throws CoreException {
-					if (isVisibleType(IndexModelUtil.getElementType(binding))) {
+					int elementType = IndexModelUtil.getElementType(binding);
+					if (isVisibleType(elementType) && !isCachedKind(elementType)) {
 						return IndexFilter.ALL_DECLARED.acceptBinding(binding);
 					}
 					return false;
 				}
 			};
 			try {
-				IIndex index = CCorePlugin.getIndexManager().getIndex(CoreModel.getDefault().getCModel().getCProjects(),
+				ICProject[] projects = CoreModel.getDefault().getCModel().getCProjects();
+				if (cachedKinds.length > 0) {
+					types.addAll(
+							Arrays.asList(TypeNameCache.getDefault().getTypes(projects, cachedKinds, prefix, false, monitor)));
+					if (monitor.isCanceled()) {
+						return null;
+					}
+				}
+				IIndex index = CCorePlugin.getIndexManager().getIndex(projects,
 						IIndexManager.ADD_EXTENSION_FRAGMENTS_NAVIGATION);
 				index.acquireReadLock();
 				try {
@@ -313,6 +328,28 @@ public class ElementSelectionDialog extends TypeSelectionDialog {
 		return types.toArray(new ITypeInfo[types.size()]);
 	}
 
+	private int[] getVisibleCachedKinds() {
+		List<Integer> kinds = new ArrayList<>();
+		for (int kind : TypeNameCache.CACHED_KINDS) {
+			if (isVisibleType(kind)) {
+				kinds.add(kind);
+			}
+		}
+		int[] result = new int[kinds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = kinds.get(i);
+		}
+		return result;
+	}
+
+	private static boolean isCachedKind(int elementType) {
+		for (int kind : TypeNameCache.CACHED_KINDS) {
+			if (kind == elementType)
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * @deprecated Unsupported
 	 */
@@ -29,6 +29,7 @@ import org.eclipse.cdt.core.browser.ITypeReference;
 import org.eclipse.cdt.core.browser.IndexTypeInfo;
 import org.eclipse.cdt.core.browser.QualifiedTypeName;
 import org.eclipse.cdt.core.model.ICElement;
+import org.eclipse.cdt.core.parser.util.SegmentMatcher;
 import org.eclipse.cdt.internal.ui.util.StringMatcher;
 import org.eclipse.cdt.ui.CUIPlugin;
 import org.eclipse.jface.dialogs.IDialogSettings;
@@ -59,9 +60,11 @@ public class TypeSelectionDialog extends TwoPaneElementSelector {
 	private static class TypeFilterMatcher implements FilteredList.FilterMatcher {
 		private static final char END_SYMBOL = '<';
 		private static final char ANY_STRING = '*';
+		private static final char ANY_CHAR = '?';
 
 		private StringMatcher fNameMatcher;
 		private StringMatcher[] fSegmentMatchers;
+		private SegmentMatcher fCamelCaseMatcher;
 		private boolean fMatchGlobalNamespace;
 		private Collection<Integer> fVisibleTypes = new HashSet<>();
 		private boolean fShowLowLevelTypes;
@@ -73,6 +76,14 @@ public class TypeSelectionDialog extends TwoPaneElementSelector {
 			String[] segments = qualifiedName.segments();
 			int length = segments.length;
 
+			// allow for camel case abbreviations of the simple name, unless wildcards are used
+			String name = segments[length - 1];
+			fCamelCaseMatcher = null;
+			if (!name.isEmpty() && name.indexOf(ANY_STRING) < 0 && name.indexOf(ANY_CHAR) < 0
+					&& name.charAt(name.length() - 1) != END_SYMBOL) {
+				fCamelCaseMatcher = new SegmentMatcher(name.toCharArray());
+			}
+
 			// append wildcard to innermost segment
 			segments[length - 1] = adjustPattern(segments[length - 1]);
 
@@ -133,7 +144,7 @@ public class TypeSelectionDialog extends TwoPaneElementSelector {
 				return false;
 
 			if (fSegmentMatchers.length == 1 && !fMatchGlobalNamespace)
-				return fNameMatcher.match(qualifiedName.getName());
+				return fNameMatcher.match(qualifiedName.getName()) || matchCamelCase(qualifiedName.getName());
 
 			return matchQualifiedName(info);
 		}
@@ -154,7 +165,8 @@ public class TypeSelectionDialog extends TwoPaneElementSelector {
 			for (int i = 0; i < max; ++i) {
 				StringMatcher matcher = fSegmentMatchers[i];
 				String name = qualifiedName.segment(i);
-				if (name == null || !matcher.match(name)) {
+				if (name == null
+						|| !matcher.match(name) && !(i == fSegmentMatchers.length - 1 && matchCamelCase(name))) {
 					matchFound = false;
 					break;
 				}
@@ -162,6 +174,10 @@ public class TypeSelectionDialog extends TwoPaneElementSelector {
 			return matchFound;
 		}
 
+		private boolean matchCamelCase(String name) {
+			return fCamelCaseMatcher != null && fCamelCaseMatcher.matchSegments(name.toCharArray());
+		}
+
 		private static String adjustPattern(String pattern) {
 			int length = pattern.length();
 			if (length > 0) {
@@ -16,8 +16,10 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.ui.editor;
 
+import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.index.IIndex;
+import org.eclipse.cdt.core.index.IIndexManager;
 import org.eclipse.cdt.core.model.ICElement;
 import org.eclipse.cdt.core.model.ILanguage;
 import org.eclipse.cdt.core.model.ITranslationUnit;
@@ -25,10 +27,15 @@ import org.eclipse.cdt.core.model.ITranslationUnitHolder;
 import org.eclipse.cdt.internal.core.model.ASTCache;
 import org.eclipse.cdt.internal.core.model.ASTCache.ASTRunnable;
 import org.eclipse.cdt.ui.CUIPlugin;
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.LocationKind;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.ui.IEditorInput;
@@ -44,6 +51,10 @@ import org.eclipse.ui.texteditor.ITextEditor;
 /**
  * Provides a shared AST for clients. The shared AST is
  * the AST of the active CEditor's input element.
+ * <p>
+ * The ASTs of recently active editors are retained by the AST cache and the partner
+ * header or source file of the active editor is parsed in advance, such that switching
+ * between editors does not require parsing.
  *
  * @since 4.0
  */
@@ -197,11 +208,82 @@ public final class ASTProvider {
 		}
 	}
 
+	/**
+	 * Parses the partner file of the active translation unit at low priority and retains
+	 * its AST in the cache.
+	 */
+	private class PartnerParseJob extends Job {
+		private ITranslationUnit fTU;
+
+		PartnerParseJob() {
+			super(CEditorMessages.ASTProvider_partner_job_name);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		void parsePartnerOf(ITranslationUnit tu) {
+			cancel();
+			synchronized (this) {
+				fTU = tu;
+			}
+			if (tu != null)
+				schedule(PARTNER_PARSE_DELAY);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			ITranslationUnit tu;
+			synchronized (this) {
+				tu = fTU;
+			}
+			if (tu == null || monitor.isCanceled())
+				return Status.CANCEL_STATUS;
+
+			ITranslationUnit partner = SourceHeaderPartnerFinder.getPartnerFileFromFilename(tu);
+			if (partner == null || fCache.isActiveElement(partner))
+				return Status.OK_STATUS;
+			// The ASTs of open files are retained when their editor is deactivated.
+			IResource resource = partner.getResource();
+			if (resource == null || FileBuffers.getTextFileBufferManager()
+					.getTextFileBuffer(resource.getFullPath(), LocationKind.IFILE) != null) {
+				return Status.OK_STATUS;
+			}
+			// The initial modification stamp of a document is the one of its file.
+			long modificationStamp = resource.getModificationStamp();
+			if (fCache.isRetained(partner, modificationStamp))
+				return Status.OK_STATUS;
+
+			IIndex index;
+			try {
+				index = CCorePlugin.getIndexManager().getIndex(partner.getCProject(),
+						IIndexManager.ADD_EXTENSION_FRAGMENTS_EDITOR);
+				index.acquireReadLock();
+			} catch (CoreException e) {
+				return e.getStatus();
+			} catch (InterruptedException e) {
+				return Status.CANCEL_STATUS;
+			}
+			try {
+				IASTTranslationUnit ast = fCache.createAST(partner, index, monitor);
+				if (ast == null || monitor.isCanceled())
+					return Status.CANCEL_STATUS;
+				fCache.retainAST(partner, ast, modificationStamp);
+			} finally {
+				index.releaseReadLock();
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	/** Delay before the partner file of a newly activated editor is parsed, in milliseconds. */
+	private static final long PARTNER_PARSE_DELAY = 1000;
+
 	private final ASTCache fCache = new ASTCache();
 	private ActivationListener fActivationListener;
 	private IWorkbenchPart fActiveEditor;
 	private long fTimeStamp;
 	private final IndexUpdateRequestor fIndexUpdateRequestor = new IndexUpdateRequestor();
+	private final PartnerParseJob fPartnerParseJob = new PartnerParseJob();
 
 	/**
 	 * Returns the C plug-in's AST provider.
@@ -244,14 +326,31 @@ public final class ASTProvider {
 				tu = provider.getTranslationUnit();
 		}
 
+		long timeStamp = getModificationStamp(editor);
 		synchronized (this) {
 			fActiveEditor = editor;
-			fTimeStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
-			fCache.setActiveElement(tu);
+			// With a retained AST the time stamp has to be known, otherwise the AST would be
+			// disposed as soon as it is used.
+			boolean restored = fCache.setActiveElement(tu, timeStamp);
+			fTimeStamp = restored ? timeStamp : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 		}
 
 		// Increase indexing priority of the translation unit of the active editor.
 		fIndexUpdateRequestor.updateIndexInclusion(tu);
+		fPartnerParseJob.parsePartnerOf(tu);
+	}
+
+	private static long getModificationStamp(IWorkbenchPart editor) {
+		if (editor instanceof ITextEditor) {
+			ITextEditor textEditor = (ITextEditor) editor;
+			if (textEditor.getDocumentProvider() != null) {
+				IDocument document = textEditor.getDocumentProvider().getDocument(textEditor.getEditorInput());
+				if (document instanceof IDocumentExtension4) {
+					return ((IDocumentExtension4) document).getModificationStamp();
+				}
+			}
+		}
+		return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 	}
 
 	/**
@@ -287,6 +386,7 @@ public final class ASTProvider {
 					synchronized (this) {
 						if (fActiveEditor == textEditor && fTimeStamp == timeStamp) {
 							fTimeStamp = newTimeStamp;
+							fCache.setActiveModificationStamp(newTimeStamp);
 							return true;
 						}
 					}
@@ -305,7 +405,9 @@ public final class ASTProvider {
 			PlatformUI.getWorkbench().removeWindowListener(fActivationListener);
 			fActivationListener = null;
 		}
+		fPartnerParseJob.parsePartnerOf(null);
 		fCache.setActiveElement(null);
+		fCache.disposeRetainedASTs();
 	}
 
 	/**
@@ -115,6 +115,7 @@ public final class CEditorMessages extends NLS {
 	public static String CEditor_markOccurrences_job_name;
 	public static String CEditorActionContributor_ExpandSelectionMenu_label;
 	public static String IndexUpdateRequestor_job_name;
+	public static String ASTProvider_partner_job_name;
 	public static String StepIntoSelection_unable_to_resolve_name;
 
 	static {
@@ -16,7 +16,10 @@ package org.eclipse.cdt.internal.ui.editor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.cdt.internal.ui.editor.SemanticHighlightingManager.HighlightedPosition;
 import org.eclipse.cdt.internal.ui.editor.SemanticHighlightingManager.HighlightingStyle;
@@ -32,6 +35,7 @@ import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ISynchronizable;
 import org.eclipse.jface.text.ITextInputListener;
 import org.eclipse.jface.text.ITextPresentationListener;
+import org.eclipse.jface.text.IViewportListener;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextPresentation;
@@ -43,7 +47,13 @@ import org.eclipse.swt.custom.StyleRange;
  *
  * @since 4.0
  */
-public class SemanticHighlightingPresenter implements ITextPresentationListener, ITextInputListener, IDocumentListener {
+public class SemanticHighlightingPresenter
+		implements ITextPresentationListener, ITextInputListener, IDocumentListener, IViewportListener {
+	/** Changes separated by more characters than this are presented separately. */
+	private static final int PRESENTATION_GAP = 4096;
+	/** Maximum number of separate presentations created for one update. */
+	private static final int MAX_PRESENTATIONS = 16;
+
 	/**
 	 * Semantic highlighting position updater.
 	 */
@@ -240,6 +250,9 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 	/** <code>true</code> iff the current reconcile is canceled. */
 	private boolean fIsCanceled = false;
 
+	/** The visible part of the document, updated by the UI thread. */
+	private volatile IRegion fViewport;
+
 	/**
 	 * Creates and returns a new highlighted position with the given offset, length and highlighting.
 	 * <p>
@@ -320,6 +333,75 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 		return null;
 	}
 
+	/**
+	 * Create text presentations in the background, one for each cluster of changed positions,
+	 * such that unchanged parts of the document between the clusters are not repaired.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 *
+	 * @param addedPositions the added positions
+	 * @param removedPositions the removed positions
+	 * @return the text presentations or <code>null</code>, if reconciliation should be canceled
+	 */
+	public TextPresentation[] createPresentations(List<? extends Position> addedPositions,
+			List<? extends Position> removedPositions) {
+		CSourceViewer sourceViewer = fSourceViewer;
+		CPresentationReconciler presentationReconciler = fPresentationReconciler;
+		if (sourceViewer == null || presentationReconciler == null)
+			return null;
+
+		if (isCanceled())
+			return null;
+
+		IDocument document = sourceViewer.getDocument();
+		if (document == null)
+			return null;
+
+		List<Position> changed = new ArrayList<>(addedPositions.size() + removedPositions.size());
+		changed.addAll(addedPositions);
+		changed.addAll(removedPositions);
+		if (changed.isEmpty())
+			return null;
+		Collections.sort(changed, (p1, p2) -> p1.getOffset() - p2.getOffset());
+
+		List<IRegion> regions = new ArrayList<>();
+		int start = changed.get(0).getOffset();
+		int end = start;
+		for (Position position : changed) {
+			int offset = position.getOffset();
+			if (offset - end > PRESENTATION_GAP) {
+				regions.add(new Region(start, end - start));
+				start = offset;
+			}
+			end = Math.max(end, offset + position.getLength());
+		}
+		regions.add(new Region(start, end - start));
+		if (regions.size() > MAX_PRESENTATIONS) {
+			int first = regions.get(0).getOffset();
+			IRegion last = regions.get(regions.size() - 1);
+			regions.clear();
+			regions.add(new Region(first, last.getOffset() + last.getLength() - first));
+		}
+
+		List<TextPresentation> presentations = new ArrayList<>(regions.size());
+		for (IRegion region : regions) {
+			if (region.getLength() <= 0)
+				continue;
+			if (isCanceled())
+				return null;
+			try {
+				presentations.add(presentationReconciler.createRepairDescription(region, document));
+			} catch (RuntimeException e) {
+				// Assume concurrent modification from UI thread
+				return null;
+			}
+		}
+		if (presentations.isEmpty())
+			return null;
+		return presentations.toArray(new TextPresentation[presentations.size()]);
+	}
+
 	/**
 	 * Create a runnable for updating the presentation.
 	 * <p>
@@ -347,6 +429,32 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 		return runnable;
 	}
 
+	/**
+	 * Create a runnable for updating the presentation with multiple text presentations.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 * @param textPresentations the text presentations
+	 * @param addedPositions the added positions
+	 * @param removedPositions the removed positions
+	 * @return the runnable or <code>null</code>, if reconciliation should be canceled
+	 */
+	public Runnable createUpdateRunnable(final TextPresentation[] textPresentations,
+			List<HighlightedPosition> addedPositions, List<HighlightedPosition> removedPositions) {
+		if (fSourceViewer == null || textPresentations == null)
+			return null;
+
+		final HighlightedPosition[] added = addedPositions.toArray(new HighlightedPosition[addedPositions.size()]);
+		final HighlightedPosition[] removed = removedPositions
+				.toArray(new HighlightedPosition[removedPositions.size()]);
+
+		if (isCanceled())
+			return null;
+
+		Runnable runnable = () -> updatePresentation(textPresentations, added, removed);
+		return runnable;
+	}
+
 	/**
 	 * Invalidates the presentation of the positions based on the given added positions and
 	 * the existing deleted positions. Also unregisters the deleted positions from the document
@@ -361,6 +469,24 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 	 */
 	public void updatePresentation(TextPresentation textPresentation, HighlightedPosition[] addedPositions,
 			HighlightedPosition[] removedPositions) {
+		updatePresentation(textPresentation != null ? new TextPresentation[] { textPresentation } : null,
+				addedPositions, removedPositions);
+	}
+
+	/**
+	 * Invalidates the presentation of the positions based on the given added positions and
+	 * the existing deleted positions. Also unregisters the deleted positions from the document
+	 * and patches the positions of this presenter.
+	 * <p>
+	 * NOTE: Indirectly called from background thread by UI runnable.
+	 * </p>
+	 * @param textPresentations the text presentations or <code>null</code>, if the presentation
+	 *     should computed in the UI thread
+	 * @param addedPositions the added positions, ordered by offset
+	 * @param removedPositions the removed positions
+	 */
+	public void updatePresentation(TextPresentation[] textPresentations, HighlightedPosition[] addedPositions,
+			HighlightedPosition[] removedPositions) {
 		if (fSourceViewer == null)
 			return;
 
@@ -379,7 +505,8 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 
 		String positionCategory = getPositionCategory();
 
-		List<HighlightedPosition> removedPositionsList = Arrays.asList(removedPositions);
+		Set<HighlightedPosition> removedPositionsSet = Collections.newSetFromMap(new IdentityHashMap<>());
+		removedPositionsSet.addAll(Arrays.asList(removedPositions));
 
 		try {
 			synchronized (fPositionLock) {
@@ -403,7 +530,7 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 					// a) find the next non-deleted Position from the old list
 					while (position == null && i < n) {
 						position = oldPositions.get(i++);
-						if (position.isDeleted() || contain(removedPositionsList, position)) {
+						if (position.isDeleted() || removedPositionsSet.contains(position)) {
 							document.removePosition(positionCategory, position);
 							position = null;
 						}
@@ -445,10 +572,13 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 		}
 		//		checkOrdering("new positions: ", fPositions); //$NON-NLS-1$
 
-		if (textPresentation != null)
-			fSourceViewer.changeTextPresentation(textPresentation, false);
-		else
+		if (textPresentations != null) {
+			for (TextPresentation textPresentation : textPresentations) {
+				fSourceViewer.changeTextPresentation(textPresentation, false);
+			}
+		} else {
 			fSourceViewer.invalidateTextPresentation();
+		}
 	}
 
 	//	private void checkOrdering(String s, List positions) {
@@ -460,33 +590,6 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 	//		}
 	//	}
 
-	/**
-	 * Returns <code>true</code> iff the positions contain the position.
-	 * @param positions the positions, must be ordered by offset but may overlap
-	 * @param position the position
-	 * @return <code>true</code> iff the positions contain the position
-	 */
-	private boolean contain(List<? extends Position> positions, Position position) {
-		return indexOf(positions, position) != -1;
-	}
-
-	/**
-	 * Returns index of the position in the positions, <code>-1</code> if not found.
-	 * @param positions the positions, must be ordered by offset but may overlap
-	 * @param position the position
-	 * @return the index
-	 */
-	private int indexOf(List<? extends Position> positions, Position position) {
-		int index = computeIndexAtOffset(positions, position.getOffset());
-		int size = positions.size();
-		while (index < size) {
-			if (positions.get(index) == position)
-				return index;
-			index++;
-		}
-		return -1;
-	}
-
 	/**
 	 * Inserts the given position in <code>fPositions</code>, s.t. the offsets remain in linear order.
 	 *
@@ -573,6 +676,39 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 	@Override
 	public void inputDocumentChanged(IDocument oldInput, IDocument newInput) {
 		manageDocument(newInput);
+		updateViewport();
+	}
+
+	@Override
+	public void viewportChanged(int verticalOffset) {
+		updateViewport();
+	}
+
+	/**
+	 * Records the part of the document visible in the source viewer, only from UI thread.
+	 */
+	private void updateViewport() {
+		CSourceViewer sourceViewer = fSourceViewer;
+		if (sourceViewer == null || sourceViewer.getDocument() == null) {
+			fViewport = null;
+			return;
+		}
+		int start = sourceViewer.getTopIndexStartOffset();
+		int end = sourceViewer.getBottomIndexEndOffset();
+		fViewport = start >= 0 && end >= start ? new Region(start, end - start + 1) : null;
+	}
+
+	/**
+	 * Returns the part of the document that was visible in the source viewer when it was last
+	 * scrolled or resized.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 *
+	 * @return the visible region or <code>null</code>, if unknown
+	 */
+	public IRegion getViewport() {
+		return fViewport;
 	}
 
 	@Override
@@ -645,7 +781,9 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 
 		fSourceViewer.prependTextPresentationListener(this);
 		fSourceViewer.addTextInputListener(this);
+		fSourceViewer.addViewportListener(this);
 		manageDocument(fSourceViewer.getDocument());
+		updateViewport();
 	}
 
 	/**
@@ -661,8 +799,10 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 			resetState();
 
 			fSourceViewer.removeTextInputListener(this);
+			fSourceViewer.removeViewportListener(this);
 			fSourceViewer = null;
 		}
+		fViewport = null;
 	}
 
 	/**
@@ -18,12 +18,18 @@ package org.eclipse.cdt.internal.ui.editor;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.cdt.core.dom.ast.ASTVisitor;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTDeclarator;
 import org.eclipse.cdt.core.dom.ast.IASTExpression;
+import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
 import org.eclipse.cdt.core.dom.ast.IASTImageLocation;
 import org.eclipse.cdt.core.dom.ast.IASTMacroExpansionLocation;
 import org.eclipse.cdt.core.dom.ast.IASTName;
@@ -50,6 +56,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.TextPresentation;
 import org.eclipse.jface.text.source.ISourceViewer;
@@ -121,7 +128,7 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 			// Visit macro definitions.
 			IASTPreprocessorMacroDefinition[] macroDefs = tu.getMacroDefinitions();
 			for (IASTPreprocessorMacroDefinition macroDef : macroDefs) {
-				if (macroDef.isPartOfTranslationUnitFile()) {
+				if (macroDef.isPartOfTranslationUnitFile() && shouldVisit(macroDef)) {
 					visitNode(macroDef.getName());
 				}
 			}
@@ -129,7 +136,7 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 			// Visit macro expansions.
 			IASTPreprocessorMacroExpansion[] macroExps = tu.getMacroExpansions();
 			for (IASTPreprocessorMacroExpansion macroExp : macroExps) {
-				if (macroExp.isPartOfTranslationUnitFile()) {
+				if (macroExp.isPartOfTranslationUnitFile() && shouldVisit(macroExp)) {
 					IASTName macroRef = macroExp.getMacroReference();
 					visitNode(macroRef);
 					IASTName[] nestedMacroRefs = macroExp.getNestedMacroReferences();
@@ -145,7 +152,7 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 
 		@Override
 		public int visit(IASTDeclaration declaration) {
-			if (!declaration.isPartOfTranslationUnitFile()) {
+			if (!declaration.isPartOfTranslationUnitFile() || !shouldVisit(declaration)) {
 				return PROCESS_SKIP;
 			}
 			return PROCESS_CONTINUE;
@@ -167,7 +174,7 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 
 		@Override
 		public int visit(ICPPASTNamespaceDefinition namespace) {
-			if (!namespace.isPartOfTranslationUnitFile()) {
+			if (!namespace.isPartOfTranslationUnitFile() || !shouldVisit(namespace)) {
 				return PROCESS_SKIP;
 			}
 			return PROCESS_CONTINUE;
@@ -296,6 +303,17 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 			}
 		}
 
+		/**
+		 * Returns whether positions are collected for the given declaration or preprocessor node,
+		 * allows for restricting the collection to a part of the file.
+		 *
+		 * @param node a declaration, macro definition or macro expansion
+		 * @return <code>true</code> iff the node should be visited
+		 */
+		protected boolean shouldVisit(IASTNode node) {
+			return true;
+		}
+
 		/**
 		 * Adds a position with the given range and highlighting iff it does not exist already.
 		 *
@@ -306,32 +324,88 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 		protected abstract void addPosition(int offset, int length, HighlightingStyle highlightingStyle);
 	}
 
+	/**
+	 * Identifies a highlighted position by its range and highlighting.
+	 */
+	private static final class PositionKey {
+		private final int fOffset;
+		private final int fLength;
+		private final HighlightingStyle fStyle;
+
+		PositionKey(int offset, int length, HighlightingStyle style) {
+			fOffset = offset;
+			fLength = length;
+			fStyle = style;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * fOffset + fLength) + System.identityHashCode(fStyle);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PositionKey))
+				return false;
+			PositionKey other = (PositionKey) obj;
+			return fOffset == other.fOffset && fLength == other.fLength && fStyle == other.fStyle;
+		}
+	}
+
 	private class PositionCollector extends AbstractPositionCollector {
+		/** The range to collect positions for, <code>null</code> for the entire file */
+		private IRegion fRange;
+		/** Whether to collect the positions inside or outside of the range */
+		private boolean fInsideRange;
+
 		public PositionCollector() {
 			super(fJobSemanticHighlightings, fJobHighlightings);
 		}
 
+		/**
+		 * Restricts the collection to the declarations intersecting the given range or,
+		 * the declarations not contained in the range.
+		 *
+		 * @param range the range or <code>null</code> to collect the positions of the entire file
+		 * @param inside <code>true</code> for the declarations intersecting the range
+		 */
+		public void setRange(IRegion range, boolean inside) {
+			fRange = range;
+			fInsideRange = inside;
+		}
+
+		@Override
+		protected boolean shouldVisit(IASTNode node) {
+			if (fRange == null)
+				return true;
+			IASTFileLocation location = node.getFileLocation();
+			if (location == null)
+				return true;
+			int start = location.getNodeOffset();
+			int end = start + location.getNodeLength();
+			int rangeStart = fRange.getOffset();
+			int rangeEnd = rangeStart + fRange.getLength();
+			if (fInsideRange)
+				return start <= rangeEnd && end >= rangeStart;
+			return start < rangeStart || end > rangeEnd;
+		}
+
 		@Override
 		protected void addPosition(int offset, int length, HighlightingStyle highlightingStyle) {
-			boolean isExisting = false;
-			// TODO: use binary search
-			for (int i = 0, n = fRemovedPositions.size(); i < n; i++) {
-				HighlightedPosition position = fRemovedPositions.get(i);
-				if (position == null)
-					continue;
-				if (position.isEqual(offset, length, highlightingStyle)) {
-					isExisting = true;
-					fRemovedPositions.set(i, null);
-					fNOfRemovedPositions--;
-					break;
-				}
-			}
+			PositionKey key = new PositionKey(offset, length, highlightingStyle);
+			// Declarations overlapping the viewport are visited twice.
+			if (!fFoundPositions.add(key))
+				return;
 
-			if (!isExisting) {
-				HighlightedPosition position = fJobPresenter.createHighlightedPosition(offset, length,
-						highlightingStyle);
-				fAddedPositions.add(position);
+			HighlightedPosition position = fOldPositions.remove(key);
+			if (position != null) {
+				if (position.isEqual(offset, length, highlightingStyle))
+					return;
+				// The position has been moved by a document change.
+				fOldPositions.put(key, position);
 			}
+			position = fJobPresenter.createHighlightedPosition(offset, length, highlightingStyle);
+			fAddedPositions.add(position);
 		}
 	}
 
@@ -348,8 +422,10 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 	protected List<HighlightedPosition> fAddedPositions = new ArrayList<>();
 	/** Background job's removed highlighted positions */
 	protected List<HighlightedPosition> fRemovedPositions = new ArrayList<>();
-	/** Number of removed positions */
-	protected int fNOfRemovedPositions;
+	/** Background job's previous positions that have not been found yet */
+	private Map<PositionKey, HighlightedPosition> fOldPositions = new HashMap<>();
+	/** Background job's positions found in the AST */
+	private Set<PositionKey> fFoundPositions = new HashSet<>();
 
 	/** Background job */
 	private Job fJob;
@@ -409,18 +485,18 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 
 			startReconcilingPositions();
 
-			if (!fJobPresenter.isCanceled())
-				reconcilePositions(ast, collector);
-
-			TextPresentation textPresentation = null;
-			if (!fJobPresenter.isCanceled())
-				textPresentation = fJobPresenter.createPresentation(fAddedPositions, fRemovedPositions);
-
-			if (!fJobPresenter.isCanceled())
-				updatePresentation(textPresentation, fAddedPositions, fRemovedPositions);
-
-			stopReconcilingPositions();
+			// Highlight the visible part of the file first.
+			IRegion viewport = fJobPresenter.getViewport();
+			if (viewport != null && !fJobPresenter.isCanceled()) {
+				collector.setRange(viewport, true);
+				reconcilePositions(ast, collector, viewport);
+			}
+			if (!fJobPresenter.isCanceled()) {
+				collector.setRange(viewport, false);
+				reconcilePositions(ast, collector, null);
+			}
 		} finally {
+			stopReconcilingPositions();
 			fJobPresenter = null;
 			fJobSemanticHighlightings = null;
 			fJobHighlightings = null;
@@ -434,31 +510,42 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 	 * Starts reconciling positions.
 	 */
 	protected void startReconcilingPositions() {
-		fJobPresenter.addAllPositions(fRemovedPositions);
-		fNOfRemovedPositions = fRemovedPositions.size();
+		List<HighlightedPosition> positions = new ArrayList<>();
+		fJobPresenter.addAllPositions(positions);
+		for (HighlightedPosition position : positions) {
+			HighlightedPosition duplicate = fOldPositions.put(
+					new PositionKey(position.getOffset(), position.getLength(), position.getHighlighting()),
+					position);
+			if (duplicate != null) {
+				fRemovedPositions.add(duplicate);
+			}
+		}
 	}
 
 	/**
-	 * Reconciles positions based on the AST.
+	 * Reconciles positions based on the AST and publishes the changes. The diff is computed
+	 * in the background, only the changed positions are passed to the presenter.
 	 *
 	 * @param ast the AST
 	 * @param visitor the AST visitor
+	 * @param range the range covered by the visitor or <code>null</code>, if the visitor
+	 *     completes the entire file
 	 */
-	private void reconcilePositions(IASTTranslationUnit ast, PositionCollector visitor) {
+	private void reconcilePositions(IASTTranslationUnit ast, PositionCollector visitor, IRegion range) {
 		try {
 			CPPSemantics.pushLookupPoint(ast);
 			ast.accept(visitor);
 		} finally {
 			CPPSemantics.popLookupPoint();
 		}
-		List<HighlightedPosition> oldPositions = fRemovedPositions;
-		List<HighlightedPosition> newPositions = new ArrayList<>(fNOfRemovedPositions);
-		for (int i = 0, n = oldPositions.size(); i < n; i++) {
-			HighlightedPosition current = oldPositions.get(i);
-			if (current != null)
-				newPositions.add(current);
+		// Previous positions within the covered range that were not found have been removed.
+		for (Iterator<HighlightedPosition> it = fOldPositions.values().iterator(); it.hasNext();) {
+			HighlightedPosition position = it.next();
+			if (range == null || position.isContained(range.getOffset(), range.getLength())) {
+				fRemovedPositions.add(position);
+				it.remove();
+			}
 		}
-		fRemovedPositions = newPositions;
 		// Positions need to be sorted by ascending offset
 		Collections.sort(fAddedPositions, new Comparator<Position>() {
 			@Override
@@ -466,18 +553,28 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 				return p1.getOffset() - p2.getOffset();
 			}
 		});
+
+		TextPresentation[] textPresentations = null;
+		if (!fJobPresenter.isCanceled())
+			textPresentations = fJobPresenter.createPresentations(fAddedPositions, fRemovedPositions);
+
+		if (!fJobPresenter.isCanceled())
+			updatePresentation(textPresentations, fAddedPositions, fRemovedPositions);
+
+		fAddedPositions.clear();
+		fRemovedPositions.clear();
 	}
 
 	/**
 	 * Updates the presentation.
 	 *
-	 * @param textPresentation the text presentation
+	 * @param textPresentations the text presentations
 	 * @param addedPositions the added positions
 	 * @param removedPositions the removed positions
 	 */
-	protected void updatePresentation(TextPresentation textPresentation, List<HighlightedPosition> addedPositions,
+	protected void updatePresentation(TextPresentation[] textPresentations, List<HighlightedPosition> addedPositions,
 			List<HighlightedPosition> removedPositions) {
-		Runnable runnable = fJobPresenter.createUpdateRunnable(textPresentation, addedPositions, removedPositions);
+		Runnable runnable = fJobPresenter.createUpdateRunnable(textPresentations, addedPositions, removedPositions);
 		if (runnable == null)
 			return;
 
@@ -505,8 +602,9 @@ public class SemanticHighlightingReconciler implements ICReconcilingListener {
 	 */
 	protected void stopReconcilingPositions() {
 		fRemovedPositions.clear();
-		fNOfRemovedPositions = 0;
 		fAddedPositions.clear();
+		fOldPositions.clear();
+		fFoundPositions.clear();
 	}
 
 	/**
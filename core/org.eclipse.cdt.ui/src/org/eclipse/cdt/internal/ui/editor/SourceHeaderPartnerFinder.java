@@ -269,7 +269,7 @@ public final class SourceHeaderPartnerFinder {
 	 *
 	 * @param a partner translation unit or <code>null</code>
 	 */
-	private static ITranslationUnit getPartnerFileFromFilename(ITranslationUnit tu) {
+	static ITranslationUnit getPartnerFileFromFilename(ITranslationUnit tu) {
 		IPath sourceFileLocation = tu.getLocation();
 		if (sourceFileLocation == null) {
 			return null;
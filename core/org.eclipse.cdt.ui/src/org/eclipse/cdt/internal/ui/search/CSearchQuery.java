@@ -43,6 +43,7 @@ import org.eclipse.cdt.core.index.IIndexFile;
 import org.eclipse.cdt.core.index.IIndexFileLocation;
 import org.eclipse.cdt.core.index.IIndexManager;
 import org.eclipse.cdt.core.index.IIndexName;
+import org.eclipse.cdt.core.index.IIndexNameCursor;
 import org.eclipse.cdt.core.index.IndexLocationFactory;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.ICElement;
@@ -83,6 +84,11 @@ public abstract class CSearchQuery implements ISearchQuery {
 	public static final int FIND_DECLARATIONS_DEFINITIONS = FIND_DECLARATIONS | FIND_DEFINITIONS;
 	public static final int FIND_ALL_OCCURRENCES = FIND_DECLARATIONS | FIND_DEFINITIONS | FIND_REFERENCES;
 
+	/** Number of names retrieved from the index at once. */
+	private static final int NAME_BATCH_SIZE = 1000;
+	/** Number of times the search is restarted, when the index is modified while it runs. */
+	private static final int MAX_RESTARTS = 3;
+
 	protected static final long LABEL_FLAGS = CElementLabels.M_PARAMETER_TYPES | CElementLabels.ALL_FULLY_QUALIFIED
 			| CElementLabels.TEMPLATE_ARGUMENTS;
 
@@ -92,6 +98,8 @@ public abstract class CSearchQuery implements ISearchQuery {
 	protected ICElement[] scope;
 	protected ICProject[] projects;
 	private Set<String> fullPathFilter;
+	/** Set when the index was modified while the read lock was released by the search. */
+	private boolean fIndexModified;
 
 	protected CSearchQuery(ICElement[] scope, int flags) {
 		result = new CSearchResult(this);
@@ -283,12 +291,11 @@ public abstract class CSearchQuery implements ISearchQuery {
 		return matches;
 	}
 
-	private void collectNames(IIndex index, Collection<IIndexName> names, Collection<IIndexName> polymorphicNames)
-			throws CoreException {
-		// group all matched names by files
-		Map<IIndexFile, Set<Match>> fileMatches = new HashMap<>();
-		createMatchesFromNames(index, fileMatches, names, false);
-		createMatchesFromNames(index, fileMatches, polymorphicNames, true);
+	/**
+	 * Adds the matches to the search result, skipping the ones that have already been added.
+	 */
+	private void collectNames(Map<IIndexFile, Set<Match>> fileMatches,
+			Map<IIndexFileLocation, Set<Match>> postedMatches) throws CoreException {
 		// compute mapping from paths to dirty text editors
 		IEditorPart[] dirtyEditors = CUIPlugin.getDirtyEditors();
 		Map<IPath, ITextEditor> pathsDirtyEditors = new HashMap<>();
@@ -306,6 +313,10 @@ public abstract class CSearchQuery implements ISearchQuery {
 		for (Entry<IIndexFile, Set<Match>> entry : fileMatches.entrySet()) {
 			IIndexFile file = entry.getKey();
 			Set<Match> matches = entry.getValue();
+			Set<Match> posted = postedMatches.computeIfAbsent(file.getLocation(), l -> new HashSet<>());
+			matches.removeIf(match -> !posted.add(match));
+			if (matches.isEmpty())
+				continue;
 			LineSearchElement[] lineElements = {};
 			// check if there is dirty text editor corresponding to file and convert matches
 			IPath absolutePath = IndexLocationFactory.getAbsolutePath(file.getLocation());
@@ -346,13 +357,15 @@ public abstract class CSearchQuery implements ISearchQuery {
 	protected void createMatches(IIndex index, IBinding[] bindings) throws CoreException {
 		if (bindings == null)
 			return;
-		List<IIndexName> names = new ArrayList<>();
-		List<IIndexName> polymorphicNames = null;
+		if (fIndexModified)
+			return;
+		List<IBinding> searchedBindings = new ArrayList<>();
+		List<IBinding> polymorphicBindings = new ArrayList<>();
 		HashSet<IBinding> handled = new HashSet<>();
 
 		for (IBinding binding : bindings) {
 			if (binding != null && handled.add(binding)) {
-				createMatches1(index, binding, names);
+				searchedBindings.add(binding);
 			}
 		}
 
@@ -362,21 +375,16 @@ public abstract class CSearchQuery implements ISearchQuery {
 					List<? extends IBinding> specializations = IndexUI.findSpecializations(index, binding);
 					for (IBinding spec : specializations) {
 						if (spec != null && handled.add(spec)) {
-							createMatches1(index, spec, names);
+							searchedBindings.add(spec);
 						}
 					}
 
 					if (binding instanceof ICPPMethod) {
 						ICPPMethod m = (ICPPMethod) binding;
 						ICPPMethod[] msInBases = ClassTypeHelper.findOverridden(m);
-						if (msInBases.length > 0) {
-							if (polymorphicNames == null) {
-								polymorphicNames = new ArrayList<>();
-							}
-							for (ICPPMethod mInBase : msInBases) {
-								if (mInBase != null && handled.add(mInBase)) {
-									createMatches1(index, mInBase, polymorphicNames);
-								}
+						for (ICPPMethod mInBase : msInBases) {
+							if (mInBase != null && handled.add(mInBase)) {
+								polymorphicBindings.add(mInBase);
 							}
 						}
 					}
@@ -384,24 +392,100 @@ public abstract class CSearchQuery implements ISearchQuery {
 			}
 		}
 
-		// Get names from the external search providers.
-		for (IExternalSearchProvider provider : CSearchProviderManager.INSTANCE.getExternalSearchProviders()) {
-			for (IBinding binding : bindings) {
-				provider.findNames(binding, flags, projects, index, names);
+		// Matches are added to the search result as they are found, the ones already added are
+		// remembered per file.
+		Map<IIndexFileLocation, Set<Match>> postedMatches = new HashMap<>();
+		List<IExternalSearchProvider> providers = CSearchProviderManager.INSTANCE.getExternalSearchProviders();
+		if (providers.isEmpty()) {
+			for (IBinding binding : searchedBindings) {
+				createMatches1(index, binding, postedMatches, false);
+				if (fIndexModified)
+					return;
+			}
+		} else {
+			// The external search providers are passed the names found in the core index.
+			List<IIndexName> names = new ArrayList<>();
+			for (IBinding binding : searchedBindings) {
+				addNames(index, binding, names);
 			}
+			for (IExternalSearchProvider provider : providers) {
+				for (IBinding binding : bindings) {
+					provider.findNames(binding, flags, projects, index, names);
+				}
+			}
+			Map<IIndexFile, Set<Match>> fileMatches = new HashMap<>();
+			createMatchesFromNames(index, fileMatches, names, false);
+			collectNames(fileMatches, postedMatches);
 		}
 
-		if (!(names.isEmpty() && (polymorphicNames == null || polymorphicNames.isEmpty()))) {
-			collectNames(index, names, polymorphicNames);
+		for (IBinding binding : polymorphicBindings) {
+			createMatches1(index, binding, postedMatches, true);
+			if (fIndexModified)
+				return;
 		}
 	}
 
-	private void createMatches1(IIndex index, IBinding binding, List<IIndexName> names) throws CoreException {
-		IIndexName[] bindingNames = index.findNames(binding, flags);
-		if (fullPathFilter == null) {
-			names.addAll(Arrays.asList(bindingNames));
-		} else {
-			for (IIndexName name : bindingNames) {
+	/**
+	 * Adds the matches for the names of the binding to the search result batch by batch. The read
+	 * lock on the index is released between two batches, such that the indexer is not blocked by
+	 * the search for a frequently referenced binding. If the index is modified meanwhile, the
+	 * search is aborted and {@link #fIndexModified} is set.
+	 */
+	private void createMatches1(IIndex index, IBinding binding, Map<IIndexFileLocation, Set<Match>> postedMatches,
+			boolean isPolymorphicOnly) throws CoreException {
+		IIndexNameCursor cursor = index.findNameCursor(binding, flags);
+		List<IIndexName> names = new ArrayList<>();
+		Map<IIndexFile, Set<Match>> fileMatches = new HashMap<>();
+		while (cursor.hasNext()) {
+			names.clear();
+			fileMatches.clear();
+			addAccepted(cursor.next(NAME_BATCH_SIZE), names);
+			createMatchesFromNames(index, fileMatches, names, isPolymorphicOnly);
+			collectNames(fileMatches, postedMatches);
+			if (!cursor.hasNext())
+				break;
+			yieldReadLock(index);
+			if (!cursor.isValid()) {
+				fIndexModified = true;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Releases the read lock on the index and acquires it again, giving a waiting writer the
+	 * chance to modify the index.
+	 */
+	private static void yieldReadLock(IIndex index) {
+		index.releaseReadLock();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				// The caller releases the lock again, it has to be held when returning.
+				index.acquireReadLock();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+	}
+
+	private void addNames(IIndex index, IBinding binding, List<IIndexName> names) throws CoreException {
+		IIndexNameCursor cursor = index.findNameCursor(binding, flags);
+		while (cursor.hasNext()) {
+			addAccepted(cursor.next(NAME_BATCH_SIZE), names);
+		}
+	}
+
+	private void addAccepted(IIndexName[] batch, List<IIndexName> names) throws CoreException {
+		for (IIndexName name : batch) {
+			if (fullPathFilter == null) {
+				names.add(name);
+			} else {
 				String fullPath = name.getFile().getLocation().getFullPath();
 				if (fullPath != null && accept(fullPath))
 					names.add(name);
@@ -522,7 +606,19 @@ public abstract class CSearchQuery implements ISearchQuery {
 				return Status.CANCEL_STATUS;
 			}
 			try {
-				return runWithIndex(index, monitor);
+				for (int restarts = 0;; restarts++) {
+					fIndexModified = false;
+					IStatus status = runWithIndex(index, monitor);
+					if (!fIndexModified)
+						return status;
+					if (restarts == MAX_RESTARTS) {
+						// The index keeps changing, the matches found so far may be incomplete.
+						result.setIndexerBusy(true);
+						return status;
+					}
+					// The bindings found before the modification may no longer be valid.
+					result.removeAll();
+				}
 			} finally {
 				index.releaseReadLock();
 			}